@@ -52,6 +52,7 @@
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -59,6 +60,7 @@
 
 import org.junit.Test;
 import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.container.DataContainerSettings;
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
@@ -373,4 +375,100 @@ public void testDefaultNumberOfPossibleValues() {
         assertThat("Unexpected possible values", colDomain.getValues(), is(nullValue()));
 
     }
+
+    /**
+     * Checks whether the parallel domain creator computes the same domain (including the order of possible values) as
+     * the sequential one.
+     */
+    @Test
+    public void testParallelDomainCreation() {
+        DataTableSpec tableSpec = new DataTableSpec(
+            new DataColumnSpecCreator("String col", StringCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Int col", IntCell.TYPE).createSpec(),
+            new DataColumnSpecCreator("Many strings col", StringCell.TYPE).createSpec());
+
+        DataTableDomainCreator sequential = new DataTableDomainCreator(tableSpec, false);
+        sequential.setMaxPossibleValues(100);
+        DataTableDomainCreator delegate = new DataTableDomainCreator(tableSpec, false);
+        delegate.setMaxPossibleValues(100);
+        ParallelDataTableDomainCreator parallel = new ParallelDataTableDomainCreator(delegate, 17);
+
+        DataRow[] batch = new DataRow[250];
+        for (int i = 0; i < 1000; i++) {
+            DataCell stringCell = (i % 13 == 0) ? DataType.getMissingCell() : new StringCell("S" + ((i * 7) % 31));
+            DataRow row = new DefaultRow(RowKey.createRowKey((long)i), stringCell, new IntCell(((i * 37) % 1001) - 500),
+                new StringCell("M" + i));
+            sequential.updateDomain(row);
+            if (i < 500) {
+                parallel.updateDomain(row);
+            } else {
+                batch[i % batch.length] = row;
+                if (i % batch.length == batch.length - 1) {
+                    parallel.updateDomain(batch);
+                }
+            }
+        }
+
+        DataTableSpec expectedSpec = sequential.createSpec();
+        DataTableSpec actualSpec = parallel.createSpec();
+        for (int c = 0; c < tableSpec.getNumColumns(); c++) {
+            DataColumnDomain expected = expectedSpec.getColumnSpec(c).getDomain();
+            DataColumnDomain actual = actualSpec.getColumnSpec(c).getDomain();
+            assertThat("Unexpected possible values in column " + c,
+                actual.getValues() == null ? null : new ArrayList<>(actual.getValues()),
+                is(expected.getValues() == null ? null : new ArrayList<>(expected.getValues())));
+            assertThat("Unexpected lower bound in column " + c, actual.getLowerBound(), is(expected.getLowerBound()));
+            assertThat("Unexpected upper bound in column " + c, actual.getUpperBound(), is(expected.getUpperBound()));
+        }
+        assertThat("Too many possible values not detected", actualSpec.getColumnSpec(2).getDomain().getValues(),
+            is(nullValue()));
+    }
+
+    /**
+     * Checks that bounds of columns with an existing domain are not computed if requested.
+     */
+    @Test
+    public void testSkipBoundedColumns() {
+        DataColumnSpecCreator colSpecCrea = new DataColumnSpecCreator("Int col", IntCell.TYPE);
+        colSpecCrea.setDomain(new DataColumnDomainCreator(new IntCell(0), new IntCell(10)).createDomain());
+        DataTableSpec tableSpec = new DataTableSpec(colSpecCrea.createSpec());
+
+        DataTableDomainCreator domainCreator = new DataTableDomainCreator(tableSpec, true);
+        domainCreator.setSkipBoundedColumns(true);
+        domainCreator.updateDomain(new DefaultRow(new RowKey("Row0"), new IntCell(20)));
+
+        DataColumnDomain colDomain = domainCreator.createSpec().getColumnSpec(0).getDomain();
+        assertThat("Unexpected lower bound", colDomain.getLowerBound(), is((DataCell)new IntCell(0)));
+        assertThat("Unexpected upper bound", colDomain.getUpperBound(), is((DataCell)new IntCell(10)));
+    }
+
+    /**
+     * Checks that skipping the bounds computation can be enabled for data containers via their settings.
+     */
+    @Test
+    public void testSkipBoundedColumnsInContainer() {
+        DataColumnSpecCreator colSpecCrea = new DataColumnSpecCreator("Int col", IntCell.TYPE);
+        colSpecCrea.setDomain(new DataColumnDomainCreator(new IntCell(0), new IntCell(10)).createDomain());
+        DataTableSpec tableSpec = new DataTableSpec(colSpecCrea.createSpec());
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            DataContainerSettings settings =
+                DataContainerSettings.getDefault().withInitializedDomain(true).withSkipBoundedColumns(true);
+            if (parallel) {
+                settings = settings.withDomainCreator((spec, initDomain) -> new ParallelDataTableDomainCreator(
+                    new DataTableDomainCreator(spec, initDomain), 2));
+            }
+            DataContainer container = new DataContainer(tableSpec, settings);
+            for (int i = 0; i < 5; i++) {
+                container.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(20 + i)));
+            }
+            container.close();
+
+            DataColumnDomain colDomain = container.getTableSpec().getColumnSpec(0).getDomain();
+            assertThat("Unexpected lower bound (parallel: " + parallel + ")", colDomain.getLowerBound(),
+                is((DataCell)new IntCell(0)));
+            assertThat("Unexpected upper bound (parallel: " + parallel + ")", colDomain.getUpperBound(),
+                is((DataCell)new IntCell(10)));
+        }
+    }
 }
@@ -0,0 +1,268 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.zip.ZipFile;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.data.filestore.internal.NotInWorkflowWriteFileStoreHandler;
+import org.knime.core.data.image.png.PNGImageContent;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Tests {@link BlobPackStore}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class BlobPackStoreTest {
+
+    private File m_dir;
+
+    /**
+     * Creates the blob directory.
+     *
+     * @throws IOException if that fails
+     */
+    @Before
+    public void createDir() throws IOException {
+        m_dir = FileUtil.createTempDir("blob-pack-test");
+    }
+
+    /** Deletes the blob directory. */
+    @After
+    public void deleteDir() {
+        FileUtil.deleteRecursively(m_dir);
+    }
+
+    private static void write(final BlobPackStore store, final int column, final int index, final String content)
+        throws IOException {
+        try (OutputStream out = store.newEntry(column, index)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(final BlobPackStore store, final int column, final int index) throws IOException {
+        try (InputStream in = store.openEntry(column, index)) {
+            return new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Blobs can be read while the store is written and after it is opened from the index.
+     *
+     * @throws IOException if that fails
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        assertThat("Empty directory is a pack", BlobPackStore.exists(m_dir), is(false));
+        final BlobPackStore store = BlobPackStore.create(m_dir);
+        for (int i = 0; i < 100; i++) {
+            write(store, 0, i, "a" + i);
+            write(store, 2, i, "c" + i);
+        }
+        assertThat("Unflushed blob", read(store, 2, 42), is("c42"));
+        store.flush();
+        write(store, 0, 100, "a100");
+        store.flush();
+        store.close();
+        assertThat("No index after flush", BlobPackStore.exists(m_dir), is(true));
+
+        final BlobPackStore loaded = BlobPackStore.open(m_dir);
+        try {
+            for (int i = 0; i < 100; i++) {
+                assertThat("Blob in column 0", read(loaded, 0, i), is("a" + i));
+                assertThat("Blob in column 2", read(loaded, 2, i), is("c" + i));
+            }
+            assertThat("Blob appended after flush", read(loaded, 0, 100), is("a100"));
+        } finally {
+            loaded.close();
+        }
+    }
+
+    /**
+     * Reading blobs that were never written fails.
+     *
+     * @throws IOException if writing fails
+     */
+    @Test
+    public void testMissingBlob() throws IOException {
+        final BlobPackStore store = BlobPackStore.create(m_dir);
+        try {
+            write(store, 0, 1, "b");
+            for (int[] coordinates : new int[][]{{0, 0}, {0, 2}, {1, 0}}) {
+                try {
+                    read(store, coordinates[0], coordinates[1]);
+                    fail("Expected exception when reading blob " + coordinates[1] + " in column " + coordinates[0]);
+                } catch (IOException expected) {
+                    // expected
+                }
+            }
+            assertThat("Blob after gap", read(store, 0, 1), is("b"));
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * A failed entry is not committed and doesn't prevent further entries.
+     *
+     * @throws IOException if that fails
+     */
+    @Test
+    public void testFailedEntry() throws IOException {
+        final BlobPackStore store = BlobPackStore.create(m_dir);
+        try {
+            write(store, 0, 0, "a");
+            final OutputStream out = store.newEntry(0, 1);
+            out.write('b');
+            store.close();
+            try {
+                out.write('c');
+                fail("Expected exception when writing to closed store");
+            } catch (IOException expected) {
+                // expected
+            } finally {
+                out.close();
+            }
+            write(store, 0, 2, "d");
+            store.flush();
+            assertThat("Blob before failed one", read(store, 0, 0), is("a"));
+            assertThat("Blob after failed one", read(store, 0, 2), is("d"));
+            try {
+                read(store, 0, 1);
+                fail("Expected exception when reading failed blob");
+            } catch (IOException expected) {
+                // expected
+            }
+        } finally {
+            store.close();
+        }
+    }
+
+    /** @return a PNG that is large enough to be stored as blob */
+    private static byte[] createPNG(final int seed) throws IOException {
+        final Random random = new Random(seed);
+        final BufferedImage image = new BufferedImage(160, 160, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * A buffer writing its blobs to pack files is saved with the pack files and reads its blobs from them after load.
+     *
+     * @throws Exception if that fails
+     */
+    @Test
+    public void testBufferSaveAndLoad() throws Exception {
+        final DataTableSpec spec =
+            new DataTableSpec(new DataColumnSpecCreator("image", PNGImageContent.TYPE).createSpec());
+        final BufferSettings settings =
+            DataContainerSettings.getDefault().getBufferSettings().withBlobPackFiles(true);
+        final Buffer buffer = new Buffer(spec, 0, -1, NotInWorkflowDataRepository.newInstance(),
+            new HashMap<Integer, ContainerTable>(), NotInWorkflowWriteFileStoreHandler.create(), true, settings);
+        final DataCell[] cells = new DataCell[5];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new PNGImageContent(createPNG(i)).toImageCell();
+            assertThat("Blob cell " + i, cells[i] instanceof BlobDataCell, is(true));
+            buffer.addRow(new DefaultRow(RowKey.createRowKey((long)i), cells[i]), false, false);
+        }
+        buffer.close(spec);
+        final ContainerTable table = new ContainerTable(buffer);
+        final File zip = new File(m_dir, "table.zip");
+        ContainerTable loaded = null;
+        try {
+            DataContainer.writeToZip(table, zip, new ExecutionMonitor());
+            try (ZipFile zipFile = new ZipFile(zip)) {
+                assertThat("Pack index saved",
+                    zipFile.getEntry(Buffer.ZIP_ENTRY_BLOBS + "/" + BlobPackStore.INDEX_FILE_NAME) != null, is(true));
+            }
+            loaded = DataContainer.readFromZip(zip);
+            int i = 0;
+            for (DataRow row : loaded) {
+                assertThat("Blob in row " + i, row.getCell(0), is(cells[i]));
+                i++;
+            }
+            assertThat("Number of rows", i, is(cells.length));
+        } finally {
+            table.clear();
+            if (loaded != null) {
+                loaded.clear();
+            }
+        }
+    }
+}
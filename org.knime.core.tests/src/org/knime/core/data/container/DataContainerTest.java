@@ -54,6 +54,7 @@
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -75,12 +76,15 @@
 import org.knime.core.data.DataTable;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataType;
+import org.knime.core.data.MissingCell;
 import org.knime.core.data.MissingValue;
 import org.knime.core.data.RowIterator;
 import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.def.DoubleCell;
 import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
 import org.knime.core.data.def.StringCell;
 import org.knime.core.data.util.ObjectToDataCellConverter;
 import org.knime.core.data.util.memory.MemoryAlertSystem;
@@ -844,6 +848,193 @@ public void testMediumSizedTables() throws InterruptedException {
         Assert.assertTrue("Previously flushed medium-sized table not flushed any more.", buffer.isFlushedToDisk());
     }
 
+    /**
+     * Tests row range and predicate filters of the {@link org.knime.core.data.RowIteratorBuilder}, both on a table
+     * read from disk (where rows are skipped in the stream) and on a table held in memory.
+     */
+    public void testRowSelection() {
+        final DataContainer container = new DataContainer(SPEC_STR_INT_DBL, true, /* no rows in mem */ 0, false);
+        final int count = 1000;
+        for (RowIterator it = generateRows(count); it.hasNext();) {
+            container.addRowToTable(it.next());
+        }
+        container.close();
+        final ContainerTable table = container.getBufferedTable();
+        assertFalse(table.getBuffer().isHeldInMemory());
+
+        for (int run = 0; run < 2; run++) {
+            List<Integer> values = new ArrayList<>();
+            try (final CloseableRowIterator it = table.iteratorBuilder().fromIndex(100).toIndex(199).build()) {
+                while (it.hasNext()) {
+                    values.add(((IntCell)it.next().getCell(1)).getIntValue());
+                }
+            }
+            assertEquals(100, values.size());
+            assertEquals(Integer.valueOf(100), values.get(0));
+            assertEquals(Integer.valueOf(199), values.get(99));
+
+            values.clear();
+            try (final CloseableRowIterator it = table.iteratorBuilder().fromIndex(10)
+                .filterRows("Int", c -> ((IntCell)c).getIntValue() % 100 == 0)
+                .filterRows(2, c -> ((DoubleCell)c).getDoubleValue() < 900).build()) {
+                while (it.hasNext()) {
+                    DataRow row = it.next();
+                    assertEquals(new StringCell("String " + ((IntCell)row.getCell(1)).getIntValue()),
+                        row.getCell(0));
+                    values.add(((IntCell)row.getCell(1)).getIntValue());
+                }
+            }
+            assertEquals(Arrays.asList(100, 200, 300, 400, 500, 600, 700, 800), values);
+
+            try (final CloseableRowIterator it = table.iteratorBuilder().fromIndex(count + 5).build()) {
+                assertFalse(it.hasNext());
+            }
+
+            // second run on the table restored into memory
+            table.getBuffer().setRestoreIntoMemoryOnCacheMiss();
+            try (final CloseableRowIterator it = table.iterator()) {
+                while (it.hasNext()) {
+                    it.next();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests adding rows via {@link RowAppender#addRowsToTable(RowBatch)} and reading them back via
+     * {@link CloseableRowIterator#nextBatch(int)}, in synchronous and asynchronous write mode and for tables written
+     * to disc and held in memory (which have their own batch implementations).
+     */
+    public void testRowBatches() {
+        final int count = 1234;
+        for (boolean syncIO : new boolean[]{true, false}) {
+            for (int maxRowsInMemory : new int[]{0, 100, 10000}) {
+                checkRowBatches(count, syncIO, maxRowsInMemory);
+            }
+        }
+
+        final DataContainer container = new DataContainer(SPEC_STR_INT_DBL);
+        final RowBatch batch = new RowBatch(SPEC_STR_INT_DBL.getNumColumns(), 2);
+        batch.addRow(RowKey.createRowKey(0L), new StringCell("a"), new IntCell(0), new DoubleCell(0));
+        batch.addRow(RowKey.createRowKey(1L), new StringCell("b"), new StringCell("1"), new DoubleCell(1));
+        try {
+            container.addRowsToTable(batch);
+            container.close();
+            fail("Expected " + IllegalArgumentException.class + " not thrown");
+        } catch (IllegalArgumentException | DataContainerException e) {
+            NodeLogger.getLogger(getClass()).debug("Got expected exception: " + e.getClass(), e);
+        }
+    }
+
+    private static void checkRowBatches(final int count, final boolean syncIO, final int maxRowsInMemory) {
+        final DataContainer container = new DataContainer(SPEC_STR_INT_DBL, false, maxRowsInMemory, syncIO);
+        final RowBatch batch = new RowBatch(SPEC_STR_INT_DBL.getNumColumns(), 100);
+        for (RowIterator it = generateRows(count); it.hasNext();) {
+            batch.addRow(it.next());
+            if (batch.size() == 100 || !it.hasNext()) {
+                container.addRowsToTable(batch);
+                batch.clear();
+            }
+        }
+        container.close();
+        assertEquals(count, container.size());
+
+        final RowIterator referenceIterator = generateRows(count);
+        int nrRows = 0;
+        try (final CloseableRowIterator it = container.getBufferedTable().iterator()) {
+            // mix single rows and batches
+            assertEquals(referenceIterator.next(), it.next());
+            nrRows++;
+            for (RowBatch b = it.nextBatch(500); !b.isEmpty(); b = it.nextBatch(500)) {
+                final RowBatch.Column intColumn = b.getColumn(1);
+                for (int r = 0; r < b.size(); r++) {
+                    final DataRow referenceRow = referenceIterator.next();
+                    assertEquals(referenceRow.getKey(), b.getKey(r));
+                    assertEquals(referenceRow.getCell(1), intColumn.getCell(r));
+                    assertEquals(referenceRow, b.getRow(r));
+                    nrRows++;
+                }
+            }
+        }
+        assertEquals(count, nrRows);
+    }
+
+    /**
+     * Tests that the built-in primitive cells, which are written and read without their serializer, are restored
+     * correctly from disc, including extreme and missing values.
+     */
+    @Test
+    public void testPrimitiveCellsWriteRead() {
+        final DataTableSpec spec = new DataTableSpec(new String[]{"Int", "Long", "Double", "Boolean", "String"},
+            new DataType[]{IntCell.TYPE, LongCell.TYPE, DoubleCell.TYPE, BooleanCell.TYPE, StringCell.TYPE});
+        final int[] ints = {0, -1, 1, -128, 1023, 1024, -129, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        final List<DataRow> rows = new ArrayList<>();
+        for (int i = 0; i < ints.length; i++) {
+            rows.add(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(ints[i]),
+                new LongCell(i % 2 == 0 ? Long.MIN_VALUE + i : Long.MAX_VALUE - i),
+                new DoubleCell(i % 3 == 0 ? Double.NaN : ints[i] / 3.0), BooleanCell.get(i % 2 == 0),
+                new StringCell(i % 2 == 0 ? "" : "\u00e4\u20ac " + ints[i])));
+        }
+        rows.add(new DefaultRow(RowKey.createRowKey((long)ints.length), DataType.getMissingCell(),
+            new MissingCell("some error"), DataType.getMissingCell(), DataType.getMissingCell(),
+            new MissingCell(null)));
+
+        final DataContainer container = new DataContainer(spec, true, /* no rows in mem */ 0, false);
+        rows.forEach(container::addRowToTable);
+        container.close();
+        final ContainerTable table = container.getBufferedTable();
+        assertFalse(table.getBuffer().isHeldInMemory());
+
+        final List<DataRow> readRows = new ArrayList<>();
+        try (final CloseableRowIterator it = table.iterator()) {
+            while (it.hasNext()) {
+                readRows.add(it.next());
+            }
+        }
+        assertEquals(rows, readRows);
+        assertEquals("some error", ((MissingValue)readRows.get(ints.length).getCell(1)).getError());
+        // small int cells are shared instances
+        assertSame(PrimitiveCellType.getIntCell(0), readRows.get(0).getCell(0));
+    }
+
+    /**
+     * Tests that equal strings are read back as shared {@link StringCell} instances if the table uses a string cell
+     * cache.
+     */
+    @Test
+    public void testStringCellCache() {
+        final DataTableSpec spec = new DataTableSpec(new String[]{"String"}, new DataType[]{StringCell.TYPE});
+        final DataContainerSettings settings = DataContainerSettings.getDefault().withInitializedDomain(true)
+            .withMaxCellsInMemory(0).withBufferSettings(
+                DataContainerSettings.getDefault().getBufferSettings().withStringCellCacheSize(64));
+        final DataContainer container = new DataContainer(spec, settings);
+        final String longString = RandomStringUtils.randomAlphabetic(StringCellCache.MAX_STRING_LENGTH + 1);
+        for (int i = 0; i < 100; i++) {
+            container.addRowToTable(
+                new DefaultRow(RowKey.createRowKey((long)i), new StringCell(i % 10 == 9 ? longString : "V" + (i % 3))));
+        }
+        container.close();
+        final ContainerTable table = container.getBufferedTable();
+        assertFalse(table.getBuffer().isHeldInMemory());
+
+        final List<DataCell> cells = new ArrayList<>();
+        try (final CloseableRowIterator it = table.iterator()) {
+            while (it.hasNext()) {
+                cells.add(it.next().getCell(0));
+            }
+        }
+        assertEquals(100, cells.size());
+        for (int i = 0; i < cells.size(); i++) {
+            if (i % 10 == 9) {
+                assertEquals(new StringCell(longString), cells.get(i));
+                assertNotSame("Long strings must not be cached", cells.get(9), cells.get(i == 9 ? 19 : i));
+            } else {
+                assertEquals(new StringCell("V" + (i % 3)), cells.get(i));
+                assertSame("Equal strings not shared", cells.get(i % 3), cells.get(i));
+            }
+        }
+    }
+
     /**
      * Generate a medium-sized table. Medium-sized means larger than a container's maximum number of cells, but smaller
      * than Java heap space.
@@ -0,0 +1,290 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.filestore.internal;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.IDataRepository;
+import org.knime.core.data.filestore.FileStore;
+import org.knime.core.data.filestore.FileStoreCell;
+import org.knime.core.data.filestore.FileStoreKey;
+import org.knime.core.data.filestore.FileStoreUtil;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Tests that file store copies share pooled content via {@link ContentAddressedFileStorePool}, that writing file stores
+ * after their handler is closed doesn't modify pooled content, that references are given back when files are
+ * deleted, and that saved copies are linked to the pooled content.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ContentAddressedFileStorePoolTest {
+
+    private static final byte[] CONTENT = content(1);
+
+    private static final byte[] OTHER_CONTENT = content(2);
+
+    private final List<WriteFileStoreHandler> m_handlers = new ArrayList<>();
+
+    private ContentAddressedFileStorePool m_pool;
+
+    /** Repository of the handlers that copy file stores. */
+    private IDataRepository m_repository;
+
+    /** Repository of the handlers whose file stores are copied, unknown to {@link #m_repository}. */
+    private IDataRepository m_sourceRepository;
+
+    /** A cell that writes its content only when flushed, like cells that keep their content in memory. */
+    private static final class LazyCell extends FileStoreCell {
+
+        private final byte[] m_content;
+
+        LazyCell(final FileStore fileStore, final byte[] content) {
+            super(fileStore);
+            m_content = content;
+        }
+
+        FileStore getStore() {
+            return getFileStores()[0];
+        }
+
+        @Override
+        protected void flushToFileStore() throws IOException {
+            Files.write(getStore().getFile().toPath(), m_content);
+        }
+    }
+
+    private static byte[] content(final long seed) {
+        final byte[] content = new byte[2 * ContentAddressedFileStorePool.MIN_FILE_SIZE];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    /** Creates the pool and the repositories. */
+    @Before
+    public void setUp() {
+        m_pool = new ContentAddressedFileStorePool();
+        m_repository = createRepository();
+        m_sourceRepository = createRepository();
+    }
+
+    /** @return a repository that knows the handlers added to it */
+    private static IDataRepository createRepository() {
+        final Map<UUID, IFileStoreHandler> handlers = new HashMap<>();
+        return (IDataRepository)Proxy.newProxyInstance(ContentAddressedFileStorePoolTest.class.getClassLoader(),
+            new Class<?>[]{IDataRepository.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "addFileStoreHandler":
+                        handlers.put(((IWriteFileStoreHandler)args[0]).getStoreUUID(), (IFileStoreHandler)args[0]);
+                        return null;
+                    case "removeFileStoreHandler":
+                        handlers.remove(((IWriteFileStoreHandler)args[0]).getStoreUUID());
+                        return null;
+                    case "getHandler":
+                        return handlers.get(args[0]);
+                    case "printValidFileStoreHandlersToLogDebug":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /** Disposes all handlers. */
+    @After
+    public void tearDown() {
+        m_handlers.forEach(WriteFileStoreHandler::clearAndDispose);
+    }
+
+    private WriteFileStoreHandler createHandler(final String name, final IDataRepository repository) {
+        final WriteFileStoreHandler handler = new WriteFileStoreHandler(name, UUID.randomUUID(), m_pool);
+        handler.addToRepository(repository);
+        handler.open();
+        m_handlers.add(handler);
+        return handler;
+    }
+
+    /** Creates a file store in the source handler that is written when the returned cell is flushed. */
+    private static LazyCell createLazyCell(final WriteFileStoreHandler source, final String name,
+        final byte[] content) throws IOException {
+        return new LazyCell(source.createFileStore(name), content);
+    }
+
+    private static FileStore copy(final WriteFileStoreHandler target, final LazyCell cell) {
+        final FileStoreKey key = target.translateToLocal(cell.getStore(), cell);
+        return target.getFileStore(key);
+    }
+
+    private static void assertContent(final File file, final byte[] content) throws IOException {
+        assertThat("Content of " + file, Arrays.equals(Files.readAllBytes(file.toPath()), content), is(true));
+    }
+
+    /** Tests that copies of identical content share one file, which is released when the handlers are disposed. */
+    @Test
+    public void testCopiesShareContent() throws Exception {
+        final WriteFileStoreHandler source = createHandler("source", m_sourceRepository);
+        final LazyCell cell1 = createLazyCell(source, "fs1", CONTENT);
+        final LazyCell cell2 = createLazyCell(source, "fs2", CONTENT);
+        source.close();
+        final WriteFileStoreHandler target1 = createHandler("target1", m_repository);
+        final WriteFileStoreHandler target2 = createHandler("target2", m_repository);
+        final File copy1 = copy(target1, cell1).getFile();
+        final File copy2 = copy(target2, cell2).getFile();
+        assertContent(copy1, CONTENT);
+        assertContent(copy2, CONTENT);
+        assertThat("Copies share file", Files.isSameFile(copy1.toPath(), copy2.toPath()), is(true));
+        assertThat("Source shares file", Files.isSameFile(copy1.toPath(), cell1.getStore().getFile().toPath()),
+            is(false));
+        final String hash = ContentAddressedFileStorePool.hash(copy1);
+        assertThat(m_pool.getReferenceCount(hash), is(2));
+
+        target1.clearAndDispose();
+        assertThat(m_pool.getReferenceCount(hash), is(1));
+        assertContent(copy2, CONTENT);
+        target2.clearAndDispose();
+        assertThat(m_pool.getReferenceCount(hash), is(0));
+    }
+
+    /**
+     * Tests that file stores written after their handler is closed (e.g. by a late flush) don't modify pooled content
+     * and aren't modified by pooling themselves.
+     */
+    @Test
+    public void testWriteAfterClose() throws Exception {
+        final WriteFileStoreHandler source = createHandler("source", m_sourceRepository);
+        final LazyCell copiedCell = createLazyCell(source, "copied", CONTENT);
+        final LazyCell lateCell = createLazyCell(source, "late", OTHER_CONTENT);
+        final FileStore written = source.createFileStore("written");
+        Files.write(written.getFile().toPath(), CONTENT);
+        source.close();
+
+        final WriteFileStoreHandler target = createHandler("target", m_repository);
+        final File copy = copy(target, copiedCell).getFile();
+        assertThat("Closed handler's file is pooled", Files.isSameFile(copy.toPath(), written.getFile().toPath()),
+            is(false));
+        // written after the handler is closed: flushed late and overwritten
+        FileStoreUtil.invokeFlush(lateCell);
+        Files.write(written.getFile().toPath(), OTHER_CONTENT);
+        Files.write(copiedCell.getStore().getFile().toPath(), OTHER_CONTENT);
+        assertContent(copy, CONTENT);
+        assertContent(lateCell.getStore().getFile(), OTHER_CONTENT);
+    }
+
+    /** Tests that deleting a copy (as done for discarded loop iterations) gives back its reference. */
+    @Test
+    public void testDeleteReleasesReference() throws Exception {
+        final WriteFileStoreHandler source = createHandler("source", m_sourceRepository);
+        final LazyCell cell1 = createLazyCell(source, "fs1", CONTENT);
+        final LazyCell cell2 = createLazyCell(source, "fs2", CONTENT);
+        source.close();
+        final WriteFileStoreHandler target = createHandler("target", m_repository);
+        final FileStore copy1 = copy(target, cell1);
+        final FileStore copy2 = copy(target, cell2);
+        final String hash = ContentAddressedFileStorePool.hash(copy1.getFile());
+        assertThat(m_pool.getReferenceCount(hash), is(2));
+
+        assertThat(target.deleteFileStoreFile(copy1), is(true));
+        assertThat("Deleted", copy1.getFile().exists(), is(false));
+        assertThat(m_pool.getReferenceCount(hash), is(1));
+        assertContent(copy2.getFile(), CONTENT);
+        // deleting again doesn't release twice
+        assertThat(target.deleteFileStoreFile(copy1), is(true));
+        assertThat(m_pool.getReferenceCount(hash), is(1));
+
+        target.clearAndDispose();
+        assertThat(m_pool.getReferenceCount(hash), is(0));
+    }
+
+    /** Tests that saving a handler links the saved files of pooled copies and copies the handler's own files. */
+    @Test
+    public void testSaveLinksPooledCopies() throws Exception {
+        final WriteFileStoreHandler source = createHandler("source", m_sourceRepository);
+        final LazyCell cell = createLazyCell(source, "fs", CONTENT);
+        source.close();
+        final WriteFileStoreHandler target = createHandler("target", m_repository);
+        final File pooledCopy = copy(target, cell).getFile();
+        final File ownFile = target.createFileStore("own").getFile();
+        Files.write(ownFile.toPath(), CONTENT);
+        target.close();
+
+        final File saveDir = FileUtil.createTempDir("fs-save-");
+        try {
+            target.saveFiles(saveDir, null);
+            final Path baseDir = target.getBaseDir().toPath();
+            final Path savedCopy = saveDir.toPath().resolve(baseDir.relativize(pooledCopy.toPath()).toString());
+            final Path savedOwnFile = saveDir.toPath().resolve(baseDir.relativize(ownFile.toPath()).toString());
+            assertContent(savedCopy.toFile(), CONTENT);
+            assertContent(savedOwnFile.toFile(), CONTENT);
+            assertThat("Saved copy not linked", Files.isSameFile(savedCopy, pooledCopy.toPath()), is(true));
+            assertThat("Own file linked", Files.isSameFile(savedOwnFile, ownFile.toPath()), is(false));
+
+            // saving again keeps the link, a write to the own file doesn't change the saved one
+            target.saveFiles(saveDir, null);
+            Files.write(ownFile.toPath(), OTHER_CONTENT);
+            assertThat("Saved copy not linked", Files.isSameFile(savedCopy, pooledCopy.toPath()), is(true));
+            assertContent(savedOwnFile.toFile(), CONTENT);
+        } finally {
+            FileUtil.deleteRecursively(saveDir);
+        }
+    }
+}
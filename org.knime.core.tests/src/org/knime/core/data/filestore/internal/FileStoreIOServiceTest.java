@@ -0,0 +1,145 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.filestore.internal;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link FileStoreIOService}, in particular that saved copies are independent of the source files.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class FileStoreIOServiceTest {
+
+    /** Temp folder for source and target directories. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    /** Creates a directory with nested sub directories and the given number of files. */
+    private File createSource(final int nrFiles) throws IOException {
+        final File source = m_tempFolder.newFolder("source");
+        for (int i = 0; i < nrFiles; i++) {
+            final File file = getFile(source, i);
+            file.getParentFile().mkdirs();
+            write(file, "content " + i);
+        }
+        return source;
+    }
+
+    private static File getFile(final File dir, final int index) {
+        return new File(dir, String.format("%03d/%03d/file-%d", index / 100, index % 10, index));
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /** Copies the source, then overwrites the source files and checks that the copies are unchanged. */
+    private void checkWriteAfterCopy(final int nrFiles, final boolean isReadOnly) throws Exception {
+        final File source = createSource(nrFiles);
+        final File target = new File(m_tempFolder.getRoot(), "target");
+        FileStoreIOService.copy(source, target, null, isReadOnly);
+        for (int i = 0; i < nrFiles; i++) {
+            write(getFile(source, i), "modified " + i);
+        }
+        for (int i = 0; i < nrFiles; i++) {
+            assertThat("Content of copy " + i, read(getFile(target, i)), is("content " + i));
+        }
+    }
+
+    /** Writing the source after a (sequential) copy must not change the copy. */
+    @Test
+    public void testWriteAfterCopy() throws Exception {
+        checkWriteAfterCopy(10, false);
+    }
+
+    /** Same as {@link #testWriteAfterCopy()} but with enough files to be copied in parallel. */
+    @Test
+    public void testWriteAfterParallelCopy() throws Exception {
+        checkWriteAfterCopy(500, false);
+    }
+
+    /** Read only sources are still copied unless hard links are enabled via system property. */
+    @Test
+    public void testReadOnlyCopiedByDefault() throws Exception {
+        checkWriteAfterCopy(500, true);
+    }
+
+    /** Copying again over a linked target breaks the link so that the copy is independent of the source. */
+    @Test
+    public void testCopyReplacesLink() throws Exception {
+        final File source = m_tempFolder.newFile("source");
+        write(source, "content");
+        final File target = new File(m_tempFolder.getRoot(), "target");
+        FileStoreIOService.copyOrLink(source, target, null, true);
+        assertThat("Linked", Files.isSameFile(source.toPath(), target.toPath()), is(true));
+
+        FileStoreIOService.copy(source, target, null);
+        assertThat("Linked after copy", Files.isSameFile(source.toPath(), target.toPath()), is(false));
+        write(source, "modified");
+        assertThat("Content of copy", read(target), is("content"));
+    }
+
+    /** Copying a missing source fails. */
+    @Test(expected = IOException.class)
+    public void testMissingSource() throws Exception {
+        FileStoreIOService.copy(new File(m_tempFolder.getRoot(), "missing"), m_tempFolder.newFolder("target"), null);
+    }
+}
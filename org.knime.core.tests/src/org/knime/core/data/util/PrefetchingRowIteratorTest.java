@@ -0,0 +1,212 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.util;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Tests the {@link PrefetchingRowIterator}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PrefetchingRowIteratorTest {
+
+    /** Source iterator returning a fixed number of rows, optionally failing at a given row. */
+    private static final class TestSource extends CloseableRowIterator {
+
+        private final int m_rowCount;
+
+        private final int m_failAt;
+
+        private final AtomicInteger m_index = new AtomicInteger();
+
+        private final AtomicBoolean m_isClosed = new AtomicBoolean();
+
+        private final AtomicBoolean m_isAccessedAfterClose = new AtomicBoolean();
+
+        private final AtomicInteger m_concurrentAccesses = new AtomicInteger();
+
+        private final AtomicBoolean m_isAccessedConcurrently = new AtomicBoolean();
+
+        TestSource(final int rowCount, final int failAt) {
+            m_rowCount = rowCount;
+            m_failAt = failAt;
+        }
+
+        private void enter() {
+            if (m_isClosed.get()) {
+                m_isAccessedAfterClose.set(true);
+            }
+            if (m_concurrentAccesses.incrementAndGet() > 1) {
+                m_isAccessedConcurrently.set(true);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            enter();
+            try {
+                return m_index.get() < m_rowCount;
+            } finally {
+                m_concurrentAccesses.decrementAndGet();
+            }
+        }
+
+        @Override
+        public DataRow next() {
+            enter();
+            try {
+                final int index = m_index.getAndIncrement();
+                if (index == m_failAt) {
+                    throw new IllegalArgumentException("Failing at row " + index);
+                }
+                return new DefaultRow(RowKey.createRowKey((long)index), new IntCell(index));
+            } finally {
+                m_concurrentAccesses.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void close() {
+            m_isClosed.set(true);
+        }
+    }
+
+    /** Checks that all rows are returned in the order of the wrapped iterator. */
+    @Test
+    public void testOrder() {
+        for (int capacity : new int[]{1, 7, 1000}) {
+            final TestSource source = new TestSource(10000, -1);
+            try (PrefetchingRowIterator it = new PrefetchingRowIterator(source, capacity)) {
+                for (int i = 0; i < 10000; i++) {
+                    assertTrue("Row " + i + " missing (capacity " + capacity + ")", it.hasNext());
+                    assertThat("Unexpected row (capacity " + capacity + ")", it.next().getKey(),
+                        is(RowKey.createRowKey((long)i)));
+                }
+                assertThat("Too many rows (capacity " + capacity + ")", it.hasNext(), is(false));
+            }
+            assertThat("Source accessed concurrently", source.m_isAccessedConcurrently.get(), is(false));
+        }
+    }
+
+    /** Checks that an error of the wrapped iterator is rethrown after all rows read before have been returned. */
+    @Test
+    public void testExceptionPropagation() {
+        final TestSource source = new TestSource(1000, 100);
+        try (PrefetchingRowIterator it = new PrefetchingRowIterator(source, 16)) {
+            for (int i = 0; i < 100; i++) {
+                assertThat("Unexpected row", it.next().getKey(), is(RowKey.createRowKey((long)i)));
+            }
+            try {
+                it.hasNext();
+                fail("Error of wrapped iterator not rethrown");
+            } catch (IllegalArgumentException ex) {
+                assertThat("Unexpected error", ex.getMessage(), is("Failing at row 100"));
+            }
+            assertThat("Rows returned after error", it.hasNext(), is(false));
+        }
+    }
+
+    /** Checks that cancellation of the execution monitor is rethrown. */
+    @Test
+    public void testCancel() {
+        final TestSource source = new TestSource(Integer.MAX_VALUE, -1);
+        final ExecutionMonitor exec = new ExecutionMonitor(new DefaultNodeProgressMonitor());
+        try (PrefetchingRowIterator it = new PrefetchingRowIterator(source, 16, exec)) {
+            for (int i = 0; i < 10; i++) {
+                it.next();
+            }
+            exec.getProgressMonitor().setExecuteCanceled();
+            try {
+                while (it.hasNext()) {
+                    it.next();
+                }
+                fail("Cancellation not rethrown");
+            } catch (IllegalStateException ex) {
+                assertTrue("Unexpected cause: " + ex.getCause(), ex.getCause() instanceof CanceledExecutionException);
+            }
+        }
+    }
+
+    /**
+     * Checks that closing stops reading ahead, closes the wrapped iterator and that the wrapped iterator isn't accessed
+     * afterwards.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    @Test
+    public void testClose() throws InterruptedException {
+        final TestSource source = new TestSource(Integer.MAX_VALUE, -1);
+        final PrefetchingRowIterator it = new PrefetchingRowIterator(source, 100);
+        for (int i = 0; i < 10; i++) {
+            it.next();
+        }
+        it.close();
+        assertThat("Wrapped iterator not closed", source.m_isClosed.get(), is(true));
+        assertThat("Rows returned after close", it.hasNext(), is(false));
+        final int index = source.m_index.get();
+        Thread.sleep(100);
+        assertThat("Rows read after close", source.m_index.get(), is(index));
+        assertThat("Wrapped iterator accessed after close", source.m_isAccessedAfterClose.get(), is(false));
+        it.close();
+    }
+}
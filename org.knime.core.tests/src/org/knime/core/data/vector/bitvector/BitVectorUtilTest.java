@@ -45,6 +45,7 @@
 package org.knime.core.data.vector.bitvector;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Random;
 
 import junit.framework.Assert;
@@ -194,6 +195,56 @@ public void testBitVectorUtilAndThrowsNullpointer2() {
         BitVectorUtil.and(EMPTY_VECTOR, null);
     }
 
+    @Test
+    public void testBulkCardinalitiesOfIntersectionAndUnion() {
+        final BitVectorValue[] vectors = new BitVectorValue[200];
+        for (int i = 0; i < vectors.length; i++) {
+            final String hex = new BigInteger(RANDOM.nextInt(1024), RANDOM).toString(16);
+            vectors[i] = i % 2 == 0 ? new DenseBitVectorCellFactory(hex).createDataCell()
+                : new SparseBitVectorCellFactory(hex).createDataCell();
+        }
+        final int words = 16;
+        final long[] matrix = BitVectorUtil.packBits(vectors, words);
+        final int[] intersections = new int[vectors.length];
+        final int[] unions = new int[vectors.length];
+        final double[] similarities = new double[vectors.length];
+        for (int q = 0; q < 10; q++) {
+            final long[] query = Arrays.copyOfRange(matrix, q * words, (q + 1) * words);
+            BitVectorUtil.cardinalitiesOfIntersectionAndUnion(query, matrix, 0, vectors.length, intersections,
+                unions);
+            BitVectorUtil.tanimotoSimilarities(query, matrix, 0, vectors.length, similarities);
+            for (int i = 0; i < vectors.length; i++) {
+                final long intersection = BitVectorUtil.cardinalityOfIntersection(vectors[q], vectors[i]);
+                final long union = vectors[q].cardinality() + vectors[i].cardinality() - intersection;
+                Assert.assertEquals(intersection, intersections[i]);
+                Assert.assertEquals(union, unions[i]);
+                Assert.assertEquals(union == 0 ? 1.0 : (double)intersection / union, similarities[i], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testBulkOperationsOnSubRange() {
+        final BitVectorValue[] vectors = new BitVectorValue[]{new DenseBitVectorCellFactory("F0").createDataCell(),
+            new SparseBitVectorCellFactory("FF").createDataCell(), new DenseBitVectorCellFactory("0").createDataCell()};
+        final long[] matrix = BitVectorUtil.packBits(vectors, 1);
+        final int[] intersections = new int[]{-1, -1, -1};
+        BitVectorUtil.cardinalitiesOfIntersectionAndUnion(new long[]{0x0F}, matrix, 1, 3, intersections, null);
+        Assert.assertEquals(-1, intersections[0]);
+        Assert.assertEquals(4, intersections[1]);
+        Assert.assertEquals(0, intersections[2]);
+
+        final double[] similarities = new double[3];
+        BitVectorUtil.tanimotoSimilarities(new long[1], matrix, 0, 3, similarities);
+        Assert.assertEquals(0.0, similarities[0], 0.0);
+        Assert.assertEquals(1.0, similarities[2], 0.0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testBulkOperationsThrowOnInvalidRange() {
+        BitVectorUtil.tanimotoSimilarities(new long[2], new long[4], 0, 3, new double[3]);
+    }
+
     private static void assertCardinalityOfAnd(final TestVectorFactory vectorFactory) {
         for (int i = 1; i < 1000; i++) {
             String first = new BigInteger(RANDOM.nextInt(800), RANDOM).toString(16);
@@ -0,0 +1,240 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.vector.bitvector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link CompressedBitVector} by comparing it with {@link DenseBitVector}s.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class CompressedBitVectorTest {
+
+    /* creates sparse, mid-density, clustered or dense vectors (covering all container types) */
+    private static DenseBitVector createVector(final Random rand, final long length) {
+        final DenseBitVector result = new DenseBitVector(length);
+        switch (rand.nextInt(4)) {
+            case 0:
+                setRandomBits(rand, result, length / 200);
+                break;
+            case 1:
+                setRandomBits(rand, result, length / 10);
+                break;
+            case 2:
+                for (int i = 0; i < 20; i++) {
+                    final long start = (long)(rand.nextDouble() * length);
+                    result.set(start, Math.min(length, start + rand.nextInt(100000)));
+                }
+                break;
+            default:
+                setRandomBits(rand, result, length / 2);
+        }
+        return result;
+    }
+
+    private static void setRandomBits(final Random rand, final DenseBitVector vector, final long count) {
+        for (long i = 0; i < count; i++) {
+            vector.set((long)(rand.nextDouble() * vector.length()));
+        }
+    }
+
+    private static long[] oneIndices(final DenseBitVector vector) {
+        final long[] result = new long[(int)vector.cardinality()];
+        int i = 0;
+        for (long idx = vector.nextSetBit(0); idx >= 0; idx = vector.nextSetBit(idx + 1)) {
+            result[i++] = idx;
+        }
+        return result;
+    }
+
+    private static CompressedBitVector writeAndRead(final CompressedBitVector vector) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        vector.write(new DataOutputStream(bytes));
+        return CompressedBitVector.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    /**
+     * Tests the conversions from and to the other vector types and the string representations.
+     */
+    @Test
+    public void testConversions() {
+        final Random rand = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            final long length = 1 + rand.nextInt(700000);
+            final DenseBitVector dense = createVector(rand, length);
+            final SparseBitVector sparse = new SparseBitVector(length, oneIndices(dense));
+            final CompressedBitVector fromDense = new CompressedBitVector(dense);
+            final CompressedBitVector fromSparse = new CompressedBitVector(sparse);
+            assertEquals(fromDense, fromSparse);
+            assertEquals(dense, fromDense.toDenseBitVector());
+            assertEquals(sparse, fromSparse.toSparseBitVector());
+            assertEquals(dense.cardinality(), fromDense.cardinality());
+            assertEquals(dense.hashCode(), fromDense.hashCode());
+            assertEquals(dense.toHexString(), fromDense.toHexString());
+            assertEquals(dense.toBinaryString(), fromDense.toBinaryString());
+        }
+        assertEquals(new DenseBitVector("F0A"), new CompressedBitVector("F0A").toDenseBitVector());
+        assertTrue(new CompressedBitVector(0).isEmpty());
+    }
+
+    /**
+     * Tests get, nextSetBit, nextClearBit and setting and clearing bits.
+     */
+    @Test
+    public void testAccessAndModification() {
+        final Random rand = new Random(2);
+        for (int i = 0; i < 20; i++) {
+            final long length = 1 + rand.nextInt(700000);
+            final DenseBitVector dense = createVector(rand, length);
+            final CompressedBitVector compressed = new CompressedBitVector(dense);
+            for (int k = 0; k < 2000; k++) {
+                final long idx = (long)(rand.nextDouble() * (length + 10));
+                assertEquals(dense.nextSetBit(idx), compressed.nextSetBit(idx));
+                assertEquals(dense.nextClearBit(idx), compressed.nextClearBit(idx));
+                if (idx < length) {
+                    assertEquals(dense.get(idx), compressed.get(idx));
+                }
+            }
+            for (int k = 0; k < 3000; k++) {
+                final long idx = (long)(rand.nextDouble() * length);
+                final boolean value = rand.nextBoolean();
+                dense.set(idx, value);
+                compressed.set(idx, value);
+            }
+            assertEquals(dense, compressed.toDenseBitVector());
+            compressed.optimize();
+            assertEquals(dense, compressed.toDenseBitVector());
+        }
+
+        final DenseBitVector full = new DenseBitVector(3 * 65536);
+        full.set(0, 2 * 65536);
+        assertEquals(2 * 65536, new CompressedBitVector(full).nextClearBit(7));
+        full.set(2 * 65536, 3 * 65536);
+        assertEquals(-1, new CompressedBitVector(full).nextClearBit(7));
+    }
+
+    /**
+     * Tests the set operations and cardinalities on the compressed form.
+     */
+    @Test
+    public void testSetOperations() {
+        final Random rand = new Random(3);
+        for (int i = 0; i < 40; i++) {
+            final long length1 = 1 + rand.nextInt(700000);
+            final long length2 = rand.nextBoolean() ? length1 : 1 + rand.nextInt(700000);
+            final DenseBitVector d1 = createVector(rand, length1);
+            final DenseBitVector d2 = createVector(rand, length2);
+            final CompressedBitVector c1 = new CompressedBitVector(d1);
+            final CompressedBitVector c2 = new CompressedBitVector(d2);
+            final DenseBitVector and = d1.and(d2);
+            assertEquals(and, c1.and(c2).toDenseBitVector());
+            assertEquals(d1.or(d2), c1.or(c2).toDenseBitVector());
+            assertEquals(d1.xor(d2), c1.xor(c2).toDenseBitVector());
+            assertEquals(d1.xor(and), c1.andNot(c2).toDenseBitVector());
+            assertEquals(and.cardinality(), c1.cardinalityOfIntersection(c2));
+            assertEquals(d1.cardinality() - and.cardinality(), c1.cardinalityOfRelativeComplement(c2));
+        }
+    }
+
+    /**
+     * Tests that {@link BitVectorUtil} only returns compressed cells if both operands are compressed and keeps the
+     * result type of the other implementations otherwise.
+     */
+    @Test
+    public void testUtilResultTypes() {
+        final DenseBitVector d1 = new DenseBitVector("F0A");
+        final DenseBitVector d2 = new DenseBitVector("3C5");
+        final BitVectorValue compressed1 =
+            new CompressedBitVectorCellFactory(new CompressedBitVector(d1)).createDataCell();
+        final BitVectorValue compressed2 =
+            new CompressedBitVectorCellFactory(new CompressedBitVector(d2)).createDataCell();
+        final BitVectorValue dense2 = new DenseBitVectorCellFactory(d2).createDataCell();
+        final BitVectorValue sparse2 =
+            new SparseBitVectorCellFactory(new SparseBitVector(d2.length(), oneIndices(d2))).createDataCell();
+
+        assertSame(CompressedBitVectorCell.class, BitVectorUtil.and(compressed1, compressed2).getClass());
+        assertSame(CompressedBitVectorCell.class, BitVectorUtil.or(compressed1, compressed2).getClass());
+        assertSame(CompressedBitVectorCell.class, BitVectorUtil.xor(compressed1, compressed2).getClass());
+
+        assertSame(DenseBitVectorCell.class, BitVectorUtil.and(compressed1, dense2).getClass());
+        assertSame(DenseBitVectorCell.class, BitVectorUtil.or(dense2, compressed1).getClass());
+        assertSame(DenseBitVectorCell.class, BitVectorUtil.xor(compressed1, dense2).getClass());
+
+        assertSame(SparseBitVectorCell.class, BitVectorUtil.and(compressed1, sparse2).getClass());
+        assertSame(DenseBitVectorCell.class, BitVectorUtil.or(sparse2, compressed1).getClass());
+        assertSame(DenseBitVectorCell.class, BitVectorUtil.xor(compressed1, sparse2).getClass());
+
+        assertEquals(d1.and(d2).toHexString(), BitVectorUtil.and(compressed1, sparse2).toHexString());
+        assertEquals(d1.or(d2).toHexString(), BitVectorUtil.or(dense2, compressed1).toHexString());
+        assertEquals(d1.xor(d2).toHexString(), BitVectorUtil.xor(compressed1, compressed2).toHexString());
+    }
+
+    /**
+     * Tests writing and reading vectors.
+     *
+     * @throws IOException if writing or reading fails
+     */
+    @Test
+    public void testSerialization() throws IOException {
+        final Random rand = new Random(4);
+        for (int i = 0; i < 20; i++) {
+            final CompressedBitVector vector = new CompressedBitVector(createVector(rand, 1 + rand.nextInt(700000)));
+            assertEquals(vector, writeAndRead(vector));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.knime.core.data.xml.util.XmlDomComparer;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Testcases for {@link XMLBinaryEncoding} and the binary serialization of {@link XMLCellContent}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class XMLBinaryEncodingTest {
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+        + "<?style type=\"text/css\"?>"
+        + "<a:root xmlns:a=\"http://a\" xmlns=\"http://default\" a:id=\"1\" plain=\"x &amp; y\">"
+        + "<child>text \u00e4\u20ac\ud83d\ude00</child><!-- comment --><![CDATA[<cdata>]]>"
+        + "<other xmlns=\"\" xml:space=\"preserve\">  <a:nested a:attr=\"v\"/>  </other>"
+        + "</a:root>";
+
+    private static Document parse(final String xml) throws Exception {
+        DocumentBuilderFactory fac = DocumentBuilderFactory.newInstance();
+        fac.setNamespaceAware(true);
+        return fac.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+    }
+
+    /**
+     * Checks that a document is restored with all names, namespaces, and nodes.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testRoundtrip() throws Exception {
+        Document doc = parse(XML);
+        byte[] encoded = XMLBinaryEncoding.encode(doc);
+        Document decoded = XMLBinaryEncoding.decode(encoded);
+
+        assertThat("Documents differ", XmlDomComparer.equals(doc, decoded), is(true));
+
+        Element root = decoded.getDocumentElement();
+        assertThat(root.getNamespaceURI(), is("http://a"));
+        assertThat(root.getLocalName(), is("root"));
+        assertThat(root.getPrefix(), is("a"));
+        assertThat(root.getAttributeNS("http://a", "id"), is("1"));
+        assertThat(root.getAttribute("plain"), is("x & y"));
+        assertThat(decoded.getFirstChild().getNodeType(), is(Node.PROCESSING_INSTRUCTION_NODE));
+
+        Element child = (Element)root.getFirstChild();
+        assertThat(child.getNamespaceURI(), is("http://default"));
+        assertThat(child.getTextContent(), is("text \u00e4\u20ac\ud83d\ude00"));
+        assertThat(child.getNextSibling().getNodeType(), is(Node.COMMENT_NODE));
+        assertThat(child.getNextSibling().getNextSibling().getNodeType(), is(Node.CDATA_SECTION_NODE));
+
+        Element other = (Element)root.getLastChild();
+        assertThat(other.getNamespaceURI() == null, is(true));
+        assertThat(other.getAttributeNS("http://www.w3.org/XML/1998/namespace", "space"), is("preserve"));
+        assertThat(other.getChildNodes().getLength(), is(3));
+        assertThat(((Element)other.getChildNodes().item(1)).getAttributeNS("http://a", "attr"), is("v"));
+    }
+
+    /**
+     * Checks that the XML version and standalone flag of the document are restored.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testDocumentProperties() throws Exception {
+        DocumentBuilderFactory fac = DocumentBuilderFactory.newInstance();
+        fac.setNamespaceAware(true);
+        Document doc = fac.newDocumentBuilder().parse(new ByteArrayInputStream(
+            "<?xml version=\"1.1\" encoding=\"ISO-8859-1\" standalone=\"yes\"?><root>\u00e4</root>"
+                .getBytes("ISO-8859-1")));
+        Document decoded = XMLBinaryEncoding.decode(XMLBinaryEncoding.encode(doc));
+
+        assertThat(decoded.getXmlVersion(), is("1.1"));
+        assertThat(decoded.getXmlStandalone(), is(true));
+        assertThat(decoded.getDocumentElement().getTextContent(), is("\u00e4"));
+    }
+
+    /**
+     * Checks that nodes created without namespace support are restored.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testNodesWithoutNamespaceSupport() throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = doc.createElement("ns:root");
+        doc.appendChild(root);
+        root.setAttribute("ns:bad", "value");
+
+        Document decoded = XMLBinaryEncoding.decode(XMLBinaryEncoding.encode(doc));
+        assertThat(decoded.getDocumentElement().getNodeName(), is("ns:root"));
+        assertThat(decoded.getDocumentElement().getAttribute("ns:bad"), is("value"));
+    }
+
+    /**
+     * Checks that documents with a document type are not encoded.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testUnsupportedNodes() throws Exception {
+        Document doc = parse("<!DOCTYPE root [<!ELEMENT root ANY>]><root/>");
+        assertThat(XMLBinaryEncoding.encode(doc) == null, is(true));
+    }
+
+    /**
+     * Checks that corrupt data is reported as {@link IOException}.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(expected = IOException.class)
+    public void testCorruptData() throws Exception {
+        byte[] encoded = XMLBinaryEncoding.encode(parse(XML));
+        byte[] truncated = new byte[encoded.length / 2];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        XMLBinaryEncoding.decode(truncated);
+    }
+
+    /**
+     * Checks that cell contents are written as text unless the binary form is enabled and that both forms can be
+     * read.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWriteAndReadContent() throws Exception {
+        XMLCellContent content = new XMLCellContent(XML, true);
+
+        ByteArrayOutputStream textBytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(textBytes)) {
+            content.writeTo(out, false);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(textBytes.toByteArray()))) {
+            assertThat("Not written as text", in.readUTF(), is(content.getStringValue()));
+            assertThat(in.available(), is(0));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            content.writeTo(out, true);
+            content.writeTo(out, false);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            XMLCellContent binary = XMLCellContent.readFrom(in);
+            assertThat(binary.getStringValue(), is(content.getStringValue()));
+            assertThat(binary.equals(content), is(true));
+            assertThat(binary.hashCode(), is(content.hashCode()));
+
+            XMLCellContent text = XMLCellContent.readFrom(in);
+            assertThat(text.getStringValue(), is(content.getStringValue()));
+            assertThat(in.available(), is(0));
+        }
+    }
+
+    /**
+     * Checks that contents not supported by the binary form are written as text even if the binary form is enabled.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWriteUnsupportedContent() throws Exception {
+        XMLCellContent content = new XMLCellContent("<!DOCTYPE root [<!ELEMENT root ANY>]><root/>", true);
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                content.writeTo(out, true);
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertThat("Not written as text", in.readUTF(), is(content.getStringValue()));
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+/**
+ * Testcases for {@link XMLDocumentCache} and its use in {@link XMLCellContent}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class XMLDocumentCacheTest {
+
+    private static Document newDocument() throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+    }
+
+    /**
+     * Checks that least recently used documents are evicted and documents larger than the budget are not cached.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testBudget() throws Exception {
+        final XMLDocumentCache cache = new XMLDocumentCache(100 * XMLDocumentCache.BYTES_PER_SERIALIZED_BYTE);
+        final Document first = newDocument();
+        final Document second = newDocument();
+        assertThat("First document cached", cache.put(1, first, 60), is(true));
+        assertThat("Second document cached", cache.put(2, second, 40), is(true));
+        assertThat(cache.get(1) == first, is(true));
+
+        assertThat("Third document cached", cache.put(3, newDocument(), 30), is(true));
+        assertThat("Least recently used document evicted", cache.get(2) == null, is(true));
+        assertThat(cache.get(1) == first, is(true));
+
+        assertThat("Too large document cached", cache.put(4, newDocument(), 101), is(false));
+        assertThat(cache.get(4) == null, is(true));
+        assertThat(cache.size(), is(90L * XMLDocumentCache.BYTES_PER_SERIALIZED_BYTE));
+    }
+
+    /**
+     * Checks that a disabled cache doesn't cache anything.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testDisabled() throws Exception {
+        final XMLDocumentCache cache = new XMLDocumentCache(0);
+        assertThat("Document cached", cache.put(1, newDocument(), 1), is(false));
+        assertThat(cache.get(1) == null, is(true));
+    }
+
+    /**
+     * Checks that the document of a content too large for the shared cache is kept by the content and not parsed
+     * again on each access.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testDocumentLargerThanCache() throws Exception {
+        final long length = XMLDocumentCache.getInstance().getMaxSize() / XMLDocumentCache.BYTES_PER_SERIALIZED_BYTE;
+        final StringBuilder xml = new StringBuilder("<root>");
+        for (long i = 0; i <= length; i++) {
+            xml.append('x');
+        }
+        xml.append("</root>");
+        final XMLCellContent content = new XMLCellContent(xml.toString(), true);
+        @SuppressWarnings("deprecation")
+        final Document document = content.getDocument();
+        assertThat("Document parsed", document != null, is(true));
+        @SuppressWarnings("deprecation")
+        final Document again = content.getDocument();
+        assertThat("Document parsed again", again == document, is(true));
+    }
+}
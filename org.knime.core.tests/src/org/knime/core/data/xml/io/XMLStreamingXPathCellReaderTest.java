@@ -0,0 +1,149 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml.io;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.core.data.xml.XMLValue;
+import org.knime.core.data.xml.util.DefaultNamespaceContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Tests {@link XMLStreamingXPathCellReader} and {@link StreamingXPathMatcher}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class XMLStreamingXPathCellReaderTest {
+
+    private static final String XML = "<?xml version=\"1.0\"?>"
+        + "<feed xmlns:a=\"http://a\" xml:lang=\"en\">"
+        + "<entry id=\"1\" type=\"book\"><t>One</t><a:x>ax</a:x></entry>"
+        + "<entry id=\"2\"><t>Two</t><entry id=\"3\" type=\"book\"/></entry>"
+        + "<other><entry id=\"4\" type=\"book\"/></other>"
+        + "</feed>";
+
+    private static List<Element> read(final String xpath) throws Exception {
+        final StreamingXPathMatcher matcher = new StreamingXPathMatcher(xpath,
+            new DefaultNamespaceContext(new String[]{"a"}, new String[]{"http://a"}));
+        final XMLCellReader reader = XMLCellReaderFactory.createStreamingXPathXMLCellReader(
+            new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)), matcher);
+        final List<Element> result = new ArrayList<>();
+        try {
+            XMLValue<Document> value;
+            while ((value = reader.readXML()) != null) {
+                result.add(value.getDocument().getDocumentElement());
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
+    private static List<String> readIDs(final String xpath) throws Exception {
+        final List<String> ids = new ArrayList<>();
+        for (Element e : read(xpath)) {
+            ids.add(e.getAttribute("id"));
+        }
+        return ids;
+    }
+
+    /**
+     * Tests child and descendant steps, name tests and predicates.
+     *
+     * @throws Exception if reading fails
+     */
+    @Test
+    public void testPaths() throws Exception {
+        assertThat("Child steps", readIDs("/feed/entry"), contains("1", "2"));
+        assertThat("Descendant with attribute", readIDs("//entry[@type='book']"), contains("1", "3", "4"));
+        assertThat("Position", readIDs("/feed/entry[2]"), contains("2"));
+        assertThat("Position below descendant step", readIDs("//entry[1]"), contains("1", "3", "4"));
+        assertThat("Union and wildcard", readIDs("/feed/*[1] | //other/entry"), contains("1", "4"));
+        assertThat("Nested matches, inner first", readIDs("//entry[@id!='1']"), contains("3", "2", "4"));
+    }
+
+    /**
+     * Tests that namespaces and xml attributes declared on ancestors are retained.
+     *
+     * @throws Exception if reading fails
+     */
+    @Test
+    public void testInheritedDeclarations() throws Exception {
+        final List<Element> elements = read("//a:x");
+        assertThat("Number of matches", elements.size(), is(1));
+        final Element x = elements.get(0);
+        assertThat("Namespace", x.getNamespaceURI(), is("http://a"));
+        assertThat("Content", x.getTextContent(), is("ax"));
+        assertThat("Inherited xml:lang", x.getAttributeNS("http://www.w3.org/XML/1998/namespace", "lang"), is("en"));
+    }
+
+    /**
+     * Tests that expressions outside the supported subset are rejected.
+     *
+     * @throws Exception if reading fails
+     */
+    @Test
+    public void testUnsupported() throws Exception {
+        for (String xpath : new String[]{"feed/entry", "/feed/entry/@id", "/feed/entry[t='One']", "/feed/b:x"}) {
+            try {
+                read(xpath);
+                throw new AssertionError("Expected exception for \"" + xpath + "\"");
+            } catch (InvalidSettingsException expected) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.internal;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.Version;
+
+/**
+ * Tests the fingerprint and the file format of the {@link ExtensionIndex}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ExtensionIndexTest {
+
+    /** Directory for the index files. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private static Bundle bundle(final String name, final String version, final long lastModified) {
+        return (Bundle)Proxy.newProxyInstance(ExtensionIndexTest.class.getClassLoader(), new Class<?>[]{Bundle.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getSymbolicName":
+                        return name;
+                    case "getVersion":
+                        return Version.parseVersion(version);
+                    case "getLastModified":
+                        return lastModified;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    /**
+     * Tests that the fingerprint doesn't depend on the order of the bundles but changes if a bundle is updated, also
+     * if only its modification time changes.
+     */
+    @Test
+    public void testFingerprint() {
+        final Bundle core = bundle("org.knime.core", "3.8.0", 1000);
+        final Bundle base = bundle("org.knime.base", "3.8.0", 2000);
+        final String fingerprint = ExtensionIndex.computeFingerprint(new Bundle[]{core, base});
+
+        assertThat(ExtensionIndex.computeFingerprint(new Bundle[]{base, core}), is(fingerprint));
+        assertThat(ExtensionIndex.computeFingerprint(new Bundle[]{core, bundle("org.knime.base", "3.8.1", 2000)}),
+            is(not(fingerprint)));
+        assertThat(ExtensionIndex.computeFingerprint(new Bundle[]{core, bundle("org.knime.base", "3.8.0", 2001)}),
+            is(not(fingerprint)));
+        assertThat(ExtensionIndex.computeFingerprint(new Bundle[]{core}), is(not(fingerprint)));
+    }
+
+    /**
+     * Tests writing and reading an index and that an index with another fingerprint is ignored.
+     *
+     * @throws IOException if the temporary folder cannot be created
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final Path file = m_tempFolder.newFolder().toPath().resolve("index").resolve("test.idx");
+        assertThat(ExtensionIndex.read("test", file, "abc"), is(Optional.empty()));
+
+        final Map<String, List<String>> entries = new HashMap<>();
+        entries.put("org.knime.core.data.def.StringCell", Arrays.asList("org.knime.core.data.StringValue",
+            "org.knime.core.data.NominalValue"));
+        entries.put("empty", Collections.emptyList());
+        ExtensionIndex.write("test", file, "abc", entries);
+
+        assertThat(ExtensionIndex.read("test", file, "abc"), is(Optional.of(entries)));
+        assertThat(ExtensionIndex.read("test", file, "abd"), is(Optional.empty()));
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.NodeLogger.AsyncOverflowPolicy;
+
+/**
+ * Tests the {@link AsyncLogDispatcher} used by the asynchronous logging mode of the {@link NodeLogger}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class AsyncLogDispatcherTest {
+
+    private static final class CollectingAppender extends AppenderSkeleton {
+
+        private final List<LoggingEvent> m_events = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile CountDownLatch m_block;
+
+        private final CountDownLatch m_entered = new CountDownLatch(1);
+
+        @Override
+        protected void append(final LoggingEvent event) {
+            m_entered.countDown();
+            final CountDownLatch block = m_block;
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            m_events.add(event);
+        }
+
+        @Override
+        public boolean requiresLayout() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private Logger m_logger;
+
+    private CollectingAppender m_appender;
+
+    /** Creates a logger with an appender that collects all events. */
+    @Before
+    public void setUp() {
+        m_logger = Logger.getLogger(AsyncLogDispatcherTest.class.getName() + "." + System.nanoTime());
+        m_logger.setAdditivity(false);
+        m_logger.setLevel(Level.ALL);
+        m_appender = new CollectingAppender();
+        m_logger.addAppender(m_appender);
+    }
+
+    /** Removes the appender. */
+    @After
+    public void tearDown() {
+        m_logger.removeAllAppenders();
+    }
+
+    private LoggingEvent event(final Level level, final Object msg) {
+        return new LoggingEvent(Logger.class.getName(), m_logger, level, msg, null);
+    }
+
+    /**
+     * Tests that messages logged by many threads all arrive, in order per thread, and with the name of the logging
+     * thread.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testConcurrentLogging() throws Exception {
+        final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(64, AsyncOverflowPolicy.BLOCK);
+        assertEquals(64, dispatcher.getCapacity());
+        final int threadCount = 8;
+        final int messageCount = 5000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < messageCount; i++) {
+                    dispatcher.dispatch(event(Level.DEBUG, Integer.valueOf(i)));
+                }
+            }, "Logging-Thread-" + t);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        dispatcher.flush();
+        assertEquals(threadCount * messageCount, m_appender.m_events.size());
+        final Map<String, Integer> lastMessages = new HashMap<>();
+        for (LoggingEvent e : m_appender.m_events) {
+            final int msg = ((Integer)e.getMessage()).intValue();
+            final Integer last = lastMessages.put(e.getThreadName(), msg);
+            assertEquals("Order of messages for thread " + e.getThreadName(), last == null ? 0 : last + 1, msg);
+        }
+        assertEquals(threadCount, lastMessages.size());
+        assertEquals(0, dispatcher.getDiscardedCount());
+        dispatcher.stop();
+    }
+
+    /**
+     * Tests the discarding overflow policies.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testDiscardPolicies() throws Exception {
+        for (AsyncOverflowPolicy policy : new AsyncOverflowPolicy[]{AsyncOverflowPolicy.DISCARD,
+            AsyncOverflowPolicy.DISCARD_BELOW_WARN}) {
+            tearDown();
+            setUp();
+            final CountDownLatch block = new CountDownLatch(1);
+            m_appender.m_block = block;
+            final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(3, policy);
+            assertEquals(4, dispatcher.getCapacity());
+            // the first message blocks the dispatcher thread in the appender, the next 4 fill the buffer
+            dispatcher.dispatch(event(Level.INFO, "first"));
+            m_appender.m_entered.await();
+            for (int i = 0; i < 14; i++) {
+                dispatcher.dispatch(event(Level.DEBUG, "debug" + i));
+            }
+            assertEquals(10, dispatcher.getDiscardedCount());
+            if (policy == AsyncOverflowPolicy.DISCARD) {
+                dispatcher.dispatch(event(Level.ERROR, "error"));
+                assertEquals(11, dispatcher.getDiscardedCount());
+                m_appender.m_block = null;
+                block.countDown();
+            } else {
+                // errors wait for space
+                final Thread errorThread = new Thread(() -> dispatcher.dispatch(event(Level.ERROR, "error")));
+                errorThread.start();
+                Thread.sleep(50);
+                assertTrue("Error message must wait for space", errorThread.isAlive());
+                m_appender.m_block = null;
+                block.countDown();
+                errorThread.join();
+                assertEquals(10, dispatcher.getDiscardedCount());
+            }
+            dispatcher.stop();
+            final int expected = policy == AsyncOverflowPolicy.DISCARD ? 5 : 6;
+            assertEquals(expected, m_appender.m_events.size());
+            assertEquals("first", m_appender.m_events.get(0).getMessage());
+        }
+    }
+
+    /**
+     * Tests that no message is lost and the order per thread is kept if the dispatcher is stopped while threads are
+     * logging.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testConcurrentStop() throws Exception {
+        for (int run = 0; run < 20; run++) {
+            tearDown();
+            setUp();
+            final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(16, AsyncOverflowPolicy.BLOCK);
+            final int threadCount = 4;
+            final int messageCount = 2000;
+            final CountDownLatch started = new CountDownLatch(threadCount);
+            final List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                final Thread thread = new Thread(() -> {
+                    started.countDown();
+                    for (int i = 0; i < messageCount; i++) {
+                        dispatcher.dispatch(event(Level.DEBUG, Integer.valueOf(i)));
+                    }
+                }, "Logging-Thread-" + t);
+                threads.add(thread);
+                thread.start();
+            }
+            started.await();
+            dispatcher.stop();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(threadCount * messageCount, m_appender.m_events.size());
+            final Map<String, Integer> lastMessages = new HashMap<>();
+            for (LoggingEvent e : m_appender.m_events) {
+                final int msg = ((Integer)e.getMessage()).intValue();
+                final Integer last = lastMessages.put(e.getThreadName(), msg);
+                assertEquals("Order of messages for thread " + e.getThreadName(), last == null ? 0 : last + 1, msg);
+            }
+        }
+    }
+
+    /**
+     * Tests that stopping writes all pending messages and that later messages are written synchronously.
+     */
+    @Test
+    public void testStop() {
+        final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1024, AsyncOverflowPolicy.BLOCK);
+        for (int i = 0; i < 500; i++) {
+            dispatcher.dispatch(event(Level.INFO, "msg" + i));
+        }
+        dispatcher.stop();
+        assertEquals(500, m_appender.m_events.size());
+        dispatcher.dispatch(event(Level.INFO, "after stop"));
+        assertEquals(501, m_appender.m_events.size());
+    }
+}
@@ -56,6 +56,7 @@
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertThat;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.mutable.MutableLong;
@@ -165,6 +166,50 @@ private void internalTestManyMessageEvents(final NodeProgressMonitor toMonitor,
         }
     }
 
+    /** Many threads report progress concurrently via (nested) sub progress monitors of the same parent. */
+    @Test(timeout=10000L)
+    public void testConcurrentSubProgress() throws Exception {
+        final DefaultNodeProgressMonitor m = new DefaultNodeProgressMonitor();
+        final int threadCount = 8;
+        final int parts = 1000000;
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final NodeProgressMonitor sub = new SubNodeProgressMonitor(m, 1.0 / threadCount);
+            final NodeProgressMonitor toControl = t % 2 == 0 ? sub : new SubNodeProgressMonitor(sub, 1.0);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < parts; i++) {
+                    toControl.setProgress((i + 1) / (double)parts);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertThat(m.getProgress(), is(closeTo(1.0, PROG_EPSILON)));
+    }
+
+    /** Listeners are only notified if progress or message have changed. */
+    @Test(timeout=5000L)
+    public void testNoEventsWithoutChange() throws Exception {
+        final DefaultNodeProgressMonitor m = new DefaultNodeProgressMonitor();
+        final AtomicInteger eventCount = new AtomicInteger();
+        final Pointer<NodeProgress> progressPointer = new Pointer<>();
+        final Function<NodeProgress, Boolean> countFunction = p -> eventCount.incrementAndGet() > 0;
+        m.addProgressListener(createListener(progressPointer, countFunction));
+        synchronized (countFunction) {
+            m.setProgress(0.5, "message");
+            countFunction.wait(2000);
+        }
+        assertThat(eventCount.get(), is(equalTo(1)));
+        assertThat(progressPointer.get().getMessage(), is(equalTo("message")));
+        m.setProgress(0.5);
+        m.setProgress(2.0); // invalid, ignored
+        Thread.sleep(4 * KNIMEConstants.MIN_GUI_REFRESH_INTERVAL);
+        assertThat(eventCount.get(), is(equalTo(1)));
+        assertThat(m.getProgress(), is(closeTo(0.5, 0.0)));
+    }
+
     private static NodeProgressListener createListener(final Pointer<NodeProgress> progressPointer,
         final Function<NodeProgress, Boolean> notificationFunction) {
         return new NodeProgressListener() {
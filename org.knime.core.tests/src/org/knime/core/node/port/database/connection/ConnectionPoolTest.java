@@ -0,0 +1,250 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.database.connection;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link ConnectionPool} used by {@link CachedConnectionFactory#executePooled}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ConnectionPoolTest {
+
+    /** Minimal in-memory connection keeping track of its session settings. */
+    private static final class FakeConnection implements InvocationHandler {
+
+        private boolean m_autoCommit = true;
+
+        private boolean m_readOnly;
+
+        private int m_isolation = Connection.TRANSACTION_READ_COMMITTED;
+
+        private boolean m_closed;
+
+        private int m_rollbacks;
+
+        private boolean m_failRollback;
+
+        private final Connection m_proxy = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, this);
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getAutoCommit":
+                    return m_autoCommit;
+                case "setAutoCommit":
+                    m_autoCommit = (Boolean)args[0];
+                    return null;
+                case "isReadOnly":
+                    return m_readOnly;
+                case "setReadOnly":
+                    m_readOnly = (Boolean)args[0];
+                    return null;
+                case "getTransactionIsolation":
+                    return m_isolation;
+                case "setTransactionIsolation":
+                    m_isolation = (Integer)args[0];
+                    return null;
+                case "rollback":
+                    if (m_failRollback) {
+                        throw new SQLException("Connection reset");
+                    }
+                    m_rollbacks++;
+                    return null;
+                case "isClosed":
+                    return m_closed;
+                case "close":
+                    m_closed = true;
+                    return null;
+                case "clearWarnings":
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "FakeConnection";
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+
+    private static ConnectionPool createPool() {
+        return new ConnectionPool(null, 2, 60);
+    }
+
+    /**
+     * Checks that an open transaction is rolled back and the session settings are restored when a connection is
+     * released, and that the connection is reused afterwards.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testReleaseResetsConnection() throws Exception {
+        final ConnectionPool pool = createPool();
+        final FakeConnection fake = new FakeConnection();
+        final Connection conn = pool.borrow(c -> true, () -> fake.m_proxy, 1);
+
+        conn.setAutoCommit(false);
+        conn.setReadOnly(true);
+        conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        pool.release(conn, c -> true);
+
+        assertThat("Transaction not rolled back", fake.m_rollbacks, is(1));
+        assertThat("Auto-commit not restored", fake.m_autoCommit, is(true));
+        assertThat("Read-only not restored", fake.m_readOnly, is(false));
+        assertThat("Isolation not restored", fake.m_isolation, is(Connection.TRANSACTION_READ_COMMITTED));
+        assertThat("Connection not idle", pool.getIdleCount(), is(1));
+
+        final Connection reused = pool.borrow(c -> true, () -> {
+            throw new SQLException("No new connection expected");
+        }, 1);
+        assertTrue("Idle connection not reused", reused == conn);
+        pool.release(reused, c -> true);
+        assertThat("Auto-commit connection rolled back", fake.m_rollbacks, is(1));
+    }
+
+    /**
+     * Checks that connections failing the validation on release are closed and removed from the pool.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testInvalidConnectionEvicted() throws Exception {
+        final ConnectionPool pool = createPool();
+        final FakeConnection fake = new FakeConnection();
+        final Connection conn = pool.borrow(c -> true, () -> fake.m_proxy, 1);
+        assertThat("Unexpected number of open connections", pool.getOpenCount(), is(1));
+
+        pool.release(conn, c -> false);
+        assertTrue("Invalid connection not closed", fake.m_closed);
+        assertThat("Invalid connection still counted", pool.getOpenCount(), is(0));
+        assertThat("Invalid connection kept", pool.getIdleCount(), is(0));
+    }
+
+    /**
+     * Checks that connections that can't be reset are closed and removed from the pool.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testFailedResetEvictsConnection() throws Exception {
+        final ConnectionPool pool = createPool();
+        final FakeConnection fake = new FakeConnection();
+        final Connection conn = pool.borrow(c -> true, () -> fake.m_proxy, 1);
+
+        conn.setAutoCommit(false);
+        fake.m_failRollback = true;
+        pool.release(conn, c -> true);
+        assertTrue("Connection not closed", fake.m_closed);
+        assertThat("Connection still counted", pool.getOpenCount(), is(0));
+        assertThat("Connection kept", pool.getIdleCount(), is(0));
+    }
+
+    /**
+     * Checks that closed connections are removed from the pool and that idle connections failing the validation on
+     * borrow are replaced by a new one.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testClosedAndStaleConnections() throws Exception {
+        final ConnectionPool pool = createPool();
+        final FakeConnection first = new FakeConnection();
+        Connection conn = pool.borrow(c -> true, () -> first.m_proxy, 1);
+        conn.close();
+        pool.release(conn, c -> true);
+        assertThat("Closed connection still counted", pool.getOpenCount(), is(0));
+
+        final FakeConnection second = new FakeConnection();
+        conn = pool.borrow(c -> true, () -> second.m_proxy, 1);
+        pool.release(conn, c -> true);
+        final FakeConnection third = new FakeConnection();
+        conn = pool.borrow(c -> false, () -> third.m_proxy, 1);
+        assertTrue("Stale idle connection returned", conn == third.m_proxy);
+        assertTrue("Stale idle connection not closed", second.m_closed);
+        assertThat("Unexpected number of open connections", pool.getOpenCount(), is(1));
+    }
+
+    /**
+     * Checks that idle connections are closed after the idle timeout and that only pools without open connections
+     * are retired, after which they don't hand out connections anymore.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testEvictAndRetire() throws Exception {
+        final ConnectionPool pool = new ConnectionPool(null, 2, 0);
+        final FakeConnection fake = new FakeConnection();
+        final Connection conn = pool.borrow(c -> true, () -> fake.m_proxy, 1);
+        assertThat("Pool with borrowed connection retired", pool.retireIfUnused(), is(false));
+
+        pool.release(conn, c -> true);
+        assertThat("Pool with idle connection retired", pool.retireIfUnused(), is(false));
+        Thread.sleep(1);
+        pool.evictIdleConnections();
+        assertTrue("Idle connection not closed", fake.m_closed);
+        assertThat("Idle connection still counted", pool.getOpenCount(), is(0));
+
+        assertThat("Unused pool not retired", pool.retireIfUnused(), is(true));
+        assertTrue("Retired pool returned connection", pool.borrow(c -> true, () -> {
+            throw new SQLException("No new connection expected");
+        }, 1) == null);
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.database.reader;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DefaultRowIterator;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.port.database.DatabaseQueryConnectionSettings;
+import org.knime.core.node.port.database.connection.CachedConnectionFactory;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.workflow.CredentialsProvider;
+
+/**
+ * Tests the computation of the partition bounds used by {@link DBReaderImpl} for partitioned reads and the streamed
+ * reads of {@link DBReaderImpl#readTable(ExecutionContext, CredentialsProvider, boolean, RowOutput)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class DBReaderImplTest {
+
+    /** Checks that the bounds are strictly ascending and lie in (min, max]. */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static void checkBounds(final Object[] bounds, final Comparable min, final Comparable max) {
+        Comparable last = min;
+        for (Object bound : bounds) {
+            assertThat("Unexpected type of bound " + bound, bound.getClass().equals(min.getClass()), is(true));
+            assertTrue("Bounds not ascending: " + Arrays.toString(bounds), last.compareTo(bound) < 0);
+            assertTrue("Bound exceeds maximum: " + Arrays.toString(bounds), max.compareTo(bound) >= 0);
+            last = (Comparable)bound;
+        }
+    }
+
+    /**
+     * Checks the bounds of a small integer range.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testIntegerBounds() throws Exception {
+        assertThat(DBReaderImpl.computePartitionBounds(0, 100, 4), is(new Object[]{25L, 50L, 75L}));
+        assertThat(DBReaderImpl.computePartitionBounds(-10L, 10L, 2), is(new Object[]{0L}));
+        assertThat(DBReaderImpl.computePartitionBounds(5, 5, 4), is(new Object[0]));
+    }
+
+    /**
+     * Checks that more partitions than values in the range result in fewer, distinct bounds.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testMorePartitionsThanValues() throws Exception {
+        assertThat(DBReaderImpl.computePartitionBounds(0, 2, 10), is(new Object[]{1L}));
+        assertThat(DBReaderImpl.computePartitionBounds(0, 3, 10), is(new Object[]{1L, 2L}));
+        assertThat(DBReaderImpl.computePartitionBounds(0, 1, 16), is(new Object[0]));
+        assertThat(DBReaderImpl.computePartitionBounds(0.0, 1e-320, 8).length <= 7, is(true));
+    }
+
+    /**
+     * Checks that extreme integral values neither overflow nor lose precision.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testExtremeIntegralBounds() throws Exception {
+        final Object[] longBounds = DBReaderImpl.computePartitionBounds(Long.MIN_VALUE, Long.MAX_VALUE, 4);
+        assertThat(longBounds.length, is(3));
+        checkBounds(longBounds, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertThat(longBounds[1], is((Object)(-1L)));
+
+        final BigInteger bigMin = BigInteger.valueOf(Long.MIN_VALUE).multiply(BigInteger.TEN);
+        final BigInteger bigMax = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TEN);
+        final Object[] bigBounds = DBReaderImpl.computePartitionBounds(bigMin, bigMax, 5);
+        assertThat(bigBounds.length, is(4));
+        checkBounds(bigBounds, bigMin, bigMax);
+
+        final BigInteger nearMax = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(1000));
+        assertThat(DBReaderImpl.computePartitionBounds(nearMax, nearMax.add(BigInteger.valueOf(4)), 4),
+            is(new Object[]{nearMax.add(BigInteger.ONE), nearMax.add(BigInteger.valueOf(2)),
+                nearMax.add(BigInteger.valueOf(3))}));
+    }
+
+    /**
+     * Checks that extreme decimal values neither overflow nor lose precision.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testExtremeDecimalBounds() throws Exception {
+        final BigDecimal decMin = new BigDecimal("-1e40");
+        final BigDecimal decMax = new BigDecimal("1e40");
+        final Object[] decBounds = DBReaderImpl.computePartitionBounds(decMin, decMax, 4);
+        assertThat(decBounds.length, is(3));
+        checkBounds(decBounds, decMin, decMax);
+        assertThat(((BigDecimal)decBounds[1]).signum(), is(0));
+
+        final BigDecimal preciseMin = new BigDecimal("12345678901234567890.1");
+        final BigDecimal preciseMax = new BigDecimal("12345678901234567890.5");
+        final Object[] preciseBounds = DBReaderImpl.computePartitionBounds(preciseMin, preciseMax, 4);
+        assertThat(preciseBounds.length, is(3));
+        checkBounds(preciseBounds, preciseMin, preciseMax);
+
+        final Object[] doubleBounds = DBReaderImpl.computePartitionBounds(-Double.MAX_VALUE, Double.MAX_VALUE, 4);
+        assertThat(doubleBounds.length, is(3));
+        checkBounds(doubleBounds, -Double.MAX_VALUE, Double.MAX_VALUE);
+    }
+
+    /**
+     * Checks the bounds of date ranges.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testDateBounds() throws Exception {
+        final Timestamp min = new Timestamp(0);
+        final Timestamp max = new Timestamp(4000);
+        assertThat(DBReaderImpl.computePartitionBounds(min, max, 4),
+            is(new Object[]{new Timestamp(1000), new Timestamp(2000), new Timestamp(3000)}));
+        final Object[] extremeBounds =
+            DBReaderImpl.computePartitionBounds(new Timestamp(Long.MIN_VALUE), new Timestamp(Long.MAX_VALUE), 3);
+        assertThat(extremeBounds.length, is(2));
+        checkBounds(extremeBounds, new Timestamp(Long.MIN_VALUE), new Timestamp(Long.MAX_VALUE));
+    }
+
+    /** Row output recording the pushed rows, closing itself after a given number of rows. */
+    private static final class RecordingRowOutput extends RowOutput {
+
+        private final List<String> m_keys = new ArrayList<>();
+
+        private final int m_maxRows;
+
+        private boolean m_isFullySet;
+
+        private int m_closeCount;
+
+        RecordingRowOutput(final int maxRows) {
+            m_maxRows = maxRows;
+        }
+
+        @Override
+        public void push(final DataRow row) throws InterruptedException {
+            if (m_keys.size() == m_maxRows) {
+                throw new OutputClosedException();
+            }
+            m_keys.add(row.getKey().getString());
+        }
+
+        @Override
+        public void setFully(final BufferedDataTable table) throws InterruptedException {
+            m_isFullySet = true;
+            if (m_maxRows == 0) {
+                throw new OutputClosedException();
+            }
+            close();
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            m_closeCount++;
+        }
+    }
+
+    /** Iterator over <code>count</code> rows keeping track of the number of rows read. */
+    private static final class CountingRowIterator extends RowIterator {
+
+        private final int m_count;
+
+        private int m_read;
+
+        CountingRowIterator(final int count) {
+            m_count = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return m_read < m_count;
+        }
+
+        @Override
+        public DataRow next() {
+            return new DefaultRow("Row" + m_read, new IntCell(m_read++));
+        }
+    }
+
+    /**
+     * Checks that streamed rows are pushed in the order they are read and that the output is closed afterwards.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testPushRowsInOrder() throws Exception {
+        final RecordingRowOutput output = new RecordingRowOutput(Integer.MAX_VALUE);
+        DBReaderImpl.pushRows(new CountingRowIterator(2500), new ExecutionMonitor(), output);
+        assertThat("Unexpected number of rows", output.m_keys.size(), is(2500));
+        for (int i = 0; i < output.m_keys.size(); i++) {
+            assertThat("Rows not in order", output.m_keys.get(i), is("Row" + i));
+        }
+        assertThat("Output not closed once", output.m_closeCount, is(1));
+
+        final RecordingRowOutput emptyOutput = new RecordingRowOutput(Integer.MAX_VALUE);
+        DBReaderImpl.pushRows(new DefaultRowIterator(), new ExecutionMonitor(), emptyOutput);
+        assertThat("Rows pushed for empty result", emptyOutput.m_keys.size(), is(0));
+        assertThat("Empty output not closed", emptyOutput.m_closeCount, is(1));
+    }
+
+    /**
+     * Checks that no more rows are read once the output is closed by its consumers.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testPushRowsStopsWhenOutputClosed() throws Exception {
+        final RecordingRowOutput output = new RecordingRowOutput(3);
+        final CountingRowIterator it = new CountingRowIterator(100);
+        DBReaderImpl.pushRows(it, new ExecutionMonitor(), output);
+        assertThat("Unexpected rows pushed", output.m_keys, is(Arrays.asList("Row0", "Row1", "Row2")));
+        assertThat("Rows read after output was closed", it.m_read, is(4));
+        assertThat("Output not closed once", output.m_closeCount, is(1));
+    }
+
+    /**
+     * Checks that cancellation and interruption are unwrapped from the exception thrown by the connection settings
+     * and that other exceptions are passed on.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testUnwrapReadException() throws Exception {
+        final CanceledExecutionException canceled = new CanceledExecutionException("Canceled");
+        try {
+            DBReaderImpl.unwrapReadException(new SQLException(canceled));
+            fail("Cancellation not rethrown");
+        } catch (CanceledExecutionException e) {
+            assertTrue("Unexpected cancellation", e == canceled);
+        }
+        final InterruptedException interrupted = new InterruptedException();
+        try {
+            DBReaderImpl.unwrapReadException(new SQLException(interrupted));
+            fail("Interruption not rethrown");
+        } catch (InterruptedException e) {
+            assertTrue("Unexpected interruption", e == interrupted);
+        }
+        final SQLException sqlException = new SQLException("Syntax error", new IllegalStateException());
+        assertTrue("Exception not passed on", DBReaderImpl.unwrapReadException(sqlException) == sqlException);
+    }
+
+    /**
+     * Checks that the streamable operator reads the complete table and sets it to the output if connection pooling
+     * is disabled, also if the output is closed by its consumers.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testNonPooledFallback() throws Exception {
+        Assume.assumeTrue(!CachedConnectionFactory.isPoolingEnabled());
+        final List<Boolean> useDbRowIds = new ArrayList<>();
+        final DBReaderImpl reader = new DBReaderImpl(new DatabaseQueryConnectionSettings()) {
+            @Override
+            public BufferedDataTable createTable(final ExecutionContext exec, final CredentialsProvider cp,
+                final boolean useDbRowId) {
+                useDbRowIds.add(useDbRowId);
+                return null;
+            }
+        };
+
+        final RecordingRowOutput output = new RecordingRowOutput(Integer.MAX_VALUE);
+        reader.createStreamableOperator(null, true, 1).runFinal(new PortInput[0], new PortOutput[]{null, output},
+            null);
+        assertThat("Table not read once", useDbRowIds, is(Arrays.asList(true)));
+        assertThat("Table not set", output.m_isFullySet, is(true));
+        assertThat("Output not closed once", output.m_closeCount, is(1));
+
+        final RecordingRowOutput closedOutput = new RecordingRowOutput(0);
+        reader.readTable(null, null, false, closedOutput);
+        assertThat("Table not read", useDbRowIds, is(Arrays.asList(true, false)));
+        assertThat("Closed output not closed once", closedOutput.m_closeCount, is(1));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.database.writer;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.port.database.writer.DBWriterImpl.ParallelWriteState;
+
+/**
+ * Tests the commit coordination of concurrent writes in {@link DBWriterImpl}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class DBWriterImplTest {
+
+    /** Connection in manual commit mode recording whether it has been committed or rolled back. */
+    private static final class FakeConnection implements InvocationHandler {
+
+        private final boolean m_failCommit;
+
+        private boolean m_committed;
+
+        private boolean m_rolledBack;
+
+        private final Connection m_proxy = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, this);
+
+        FakeConnection(final boolean failCommit) {
+            m_failCommit = failCommit;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getAutoCommit":
+                    return false;
+                case "commit":
+                    if (m_failCommit) {
+                        throw new SQLException("Commit refused");
+                    }
+                    m_committed = true;
+                    return null;
+                case "rollback":
+                    m_rolledBack = true;
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+
+    private static ParallelWriteState finishWriters(final int writerCount, final Exception failure)
+        throws InterruptedException {
+        final ParallelWriteState state = new ParallelWriteState(writerCount, new ExecutionMonitor());
+        if (failure != null) {
+            state.fail(failure);
+        }
+        for (int i = 0; i < writerCount; i++) {
+            state.writerDone(new AtomicBoolean());
+        }
+        state.awaitWritersAndDecide();
+        return state;
+    }
+
+    /**
+     * Checks that all transactions are committed if no writer failed.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testAllCommitted() throws Exception {
+        final ParallelWriteState state = finishWriters(3, null);
+        for (int i = 0; i < 3; i++) {
+            final FakeConnection conn = new FakeConnection(false);
+            state.completeTransaction(conn.m_proxy);
+            assertThat("Transaction " + i + " not committed", conn.m_committed, is(true));
+            assertThat("Transaction " + i + " rolled back", conn.m_rolledBack, is(false));
+        }
+        assertThat("Unexpected failure", state.getFailure() == null, is(true));
+    }
+
+    /**
+     * Checks that the transactions of all writers are rolled back if any writer failed.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWriterFailureRollsBackAll() throws Exception {
+        final Exception failure = new SQLException("Insert failed");
+        final ParallelWriteState state = finishWriters(3, failure);
+        for (int i = 0; i < 3; i++) {
+            final FakeConnection conn = new FakeConnection(false);
+            state.completeTransaction(conn.m_proxy);
+            assertThat("Transaction " + i + " committed", conn.m_committed, is(false));
+            assertThat("Transaction " + i + " not rolled back", conn.m_rolledBack, is(true));
+        }
+        assertTrue("Unexpected failure", state.getFailure() == failure);
+    }
+
+    /**
+     * Checks that the remaining transactions are rolled back once a commit fails and that the partial write is
+     * reported.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testCommitFailureRollsBackRemaining() throws Exception {
+        final ParallelWriteState state = finishWriters(3, null);
+        final FakeConnection first = new FakeConnection(false);
+        final FakeConnection failing = new FakeConnection(true);
+        final FakeConnection last = new FakeConnection(false);
+        state.completeTransaction(first.m_proxy);
+        state.completeTransaction(failing.m_proxy);
+        state.completeTransaction(last.m_proxy);
+
+        assertThat("First transaction not committed", first.m_committed, is(true));
+        assertThat("Failed transaction not rolled back", failing.m_rolledBack, is(true));
+        assertThat("Transaction committed after failed commit", last.m_committed, is(false));
+        assertThat("Transaction not rolled back after failed commit", last.m_rolledBack, is(true));
+        assertTrue("Commit failure not reported", state.getFailure() instanceof SQLException);
+        assertTrue("Partial write not reported: " + state.getFailure().getMessage(),
+            state.getFailure().getMessage().contains("1 of 3"));
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.property.hilite;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.knime.core.data.RowKey;
+import org.knime.core.node.util.ViewUtils;
+
+/**
+ * Tests for {@link RowKeySet} and {@link RowKeyIndex} and their propagation through hilite handlers and translators.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class RowKeySetTest {
+
+    private static RowKeyIndex createIndex(final String prefix, final int size) {
+        final List<RowKey> keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            keys.add(new RowKey(prefix + i));
+        }
+        return RowKeyIndex.create(keys);
+    }
+
+    /** Waits until all pending hilite events have been delivered. */
+    private static void flushEvents() {
+        ViewUtils.invokeAndWaitInEDT(() -> {
+        });
+    }
+
+    private static class RecordingListener implements HiLiteListener {
+        private final List<KeyEvent> m_hilite = new ArrayList<>();
+
+        private final List<KeyEvent> m_unhilite = new ArrayList<>();
+
+        @Override
+        public void hiLite(final KeyEvent event) {
+            m_hilite.add(event);
+        }
+
+        @Override
+        public void unHiLite(final KeyEvent event) {
+            m_unhilite.add(event);
+        }
+
+        @Override
+        public void unHiLiteAll(final KeyEvent event) {
+        }
+    }
+
+    /**
+     * Tests the index and the set operations against a {@link HashSet}.
+     */
+    @Test
+    public void testSetOperations() {
+        final RowKeyIndex index = createIndex("Row", 200000);
+        assertEquals(200000, index.size());
+        assertEquals(new RowKey("Row4711"), index.getKey(4711));
+        assertEquals(4711, index.indexOf(new RowKey("Row4711")));
+        assertEquals(-1, index.indexOf(new RowKey("Foo")));
+        assertEquals(-1, index.indexOf(null));
+
+        final Random rand = new Random(42);
+        final Set<RowKey> expected1 = new HashSet<>();
+        final Set<RowKey> expected2 = new HashSet<>();
+        final RowKeySet.Builder b1 = RowKeySet.builder(index);
+        for (int i = 0; i < 30000; i++) {
+            final int r = rand.nextInt(index.size());
+            b1.add(r);
+            expected1.add(index.getKey(r));
+            final RowKey k = index.getKey(rand.nextInt(100000));
+            expected2.add(k);
+        }
+        final RowKeySet s1 = b1.build();
+        final RowKeySet s2 = RowKeySet.create(index, expected2);
+        assertEquals(expected1, s1);
+        assertEquals(s1, expected1);
+        assertEquals(expected1.hashCode(), s1.hashCode());
+        assertEquals(expected2.size(), s2.size());
+        assertTrue(s2.contains(s2.iterator().next()));
+        assertFalse(s2.contains(new RowKey("Foo")));
+        assertTrue(s1.isCompatible(s2));
+
+        final Set<RowKey> union = new HashSet<>(expected1);
+        union.addAll(expected2);
+        assertEquals(union, s1.union(s2));
+        final Set<RowKey> intersection = new HashSet<>(expected1);
+        intersection.retainAll(expected2);
+        assertEquals(intersection, s1.intersection(s2));
+        final Set<RowKey> difference = new HashSet<>(expected1);
+        difference.removeAll(expected2);
+        assertEquals(difference, s1.difference(s2));
+        assertTrue(s1.union(s2).containsAll(s2));
+        assertFalse(s1.containsAll(s2));
+
+        // iteration follows the index order
+        int last = -1;
+        for (RowKey k : s1) {
+            final int i = index.indexOf(k);
+            assertTrue(i > last);
+            last = i;
+        }
+        assertEquals(index.size(), RowKeySet.all(index).size());
+        assertTrue(RowKeySet.empty(index).isEmpty());
+    }
+
+    /**
+     * Tests that an index with duplicate keys is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateKeys() {
+        final List<RowKey> keys = new ArrayList<>();
+        keys.add(new RowKey("a"));
+        keys.add(new RowKey("b"));
+        keys.add(new RowKey("a"));
+        RowKeyIndex.create(keys);
+    }
+
+    /**
+     * Tests that the hilite handler keeps and fires {@link RowKeySet}s and handles them together with events of
+     * individual keys.
+     */
+    @Test
+    public void testHiLiteHandler() {
+        final RowKeyIndex index = createIndex("Row", 100000);
+        final HiLiteHandler hdl = new HiLiteHandler();
+        final RecordingListener l = new RecordingListener();
+        hdl.addHiLiteListener(l);
+
+        // individual keys first, they must be merged into the bitmap later on
+        hdl.fireHiLiteEvent(index.getKey(5), new RowKey("Other"));
+        hdl.fireHiLiteEvent(RowKeySet.builder(index).addRange(0, 50000).build());
+        flushEvents();
+        assertEquals(2, l.m_hilite.size());
+        final Set<RowKey> changed = l.m_hilite.get(1).keys();
+        assertThat(changed, instanceOf(RowKeySet.class));
+        assertEquals(49999, changed.size());
+        assertFalse(changed.contains(index.getKey(5)));
+        assertTrue(hdl.isHiLit(index.getKey(5), index.getKey(49999), new RowKey("Other")));
+        assertFalse(hdl.isHiLit(index.getKey(50000)));
+        assertEquals(50000, hdl.getHiLitKeys(index).size());
+        assertEquals(50001, hdl.getHiLitKeys().size());
+
+        // hiliting already hilit rows doesn't fire
+        hdl.fireHiLiteEvent(RowKeySet.builder(index).addRange(100, 200).build());
+        flushEvents();
+        assertEquals(2, l.m_hilite.size());
+
+        // unhilite individual keys out of the bitmap
+        hdl.fireUnHiLiteEvent(index.getKey(10), index.getKey(60000));
+        flushEvents();
+        assertEquals(1, l.m_unhilite.size());
+        assertEquals(1, l.m_unhilite.get(0).keys().size());
+        assertFalse(hdl.isHiLit(index.getKey(10)));
+
+        // unhilite by bitmap
+        hdl.fireUnHiLiteEvent(RowKeySet.builder(index).addRange(0, 100000).build());
+        flushEvents();
+        assertEquals(2, l.m_unhilite.size());
+        assertThat(l.m_unhilite.get(1).keys(), instanceOf(RowKeySet.class));
+        assertEquals(49999, l.m_unhilite.get(1).keys().size());
+        assertTrue(hdl.getHiLitKeys(index).isEmpty());
+        assertTrue(hdl.isHiLit(new RowKey("Other")));
+
+        hdl.fireClearHiLiteEvent();
+        assertTrue(hdl.getHiLitKeys().isEmpty());
+    }
+
+    /**
+     * Tests that querying the hilit keys of another index doesn't change the state of the handler and that events of
+     * overlapping indices are handled correctly.
+     */
+    @Test
+    public void testHiLiteHandlerIndexSwitch() {
+        final RowKeyIndex index = createIndex("Row", 1000);
+        final List<RowKey> otherKeys = new ArrayList<>();
+        for (int i = 500; i < 1500; i++) {
+            otherKeys.add(new RowKey("Row" + i));
+        }
+        final RowKeyIndex otherIndex = RowKeyIndex.create(otherKeys);
+        final HiLiteHandler hdl = new HiLiteHandler();
+
+        hdl.fireHiLiteEvent(RowKeySet.builder(index).addRange(400, 700).build());
+        // individual keys of the current index end up in its bitmap
+        hdl.fireHiLiteEvent(index.getKey(900), new RowKey("Row1200"));
+        final RowKeySet hilitRows = hdl.getHiLitKeys(index);
+        assertEquals(301, hilitRows.size());
+
+        final RowKeySet otherRows = hdl.getHiLitKeys(otherIndex);
+        assertEquals(202, otherRows.size());
+        assertTrue(otherRows.contains(new RowKey("Row1200")));
+        assertSame(hilitRows, hdl.getHiLitKeys(index));
+
+        // switching the index by an event keeps all hilit keys
+        hdl.fireUnHiLiteEvent(RowKeySet.builder(otherIndex).addRange(0, 100).build());
+        assertFalse(hdl.isHiLit(new RowKey("Row500")));
+        assertTrue(hdl.isHiLit(new RowKey("Row499"), new RowKey("Row600"), new RowKey("Row1200")));
+        assertEquals(102, hdl.getHiLitKeys(otherIndex).size());
+        assertEquals(201, hdl.getHiLitKeys(index).size());
+        assertEquals(202, hdl.getHiLitKeys().size());
+    }
+
+    /**
+     * Tests that a translator with a compact mapping propagates {@link RowKeySet}s in both directions.
+     */
+    @Test
+    public void testHiLiteTranslator() {
+        // 1000 groups of 50 rows each
+        final RowKeyIndex groups = createIndex("Group", 1000);
+        final RowKeyIndex rows = createIndex("Row", 50000);
+        final Map<RowKey, Set<RowKey>> map = new LinkedHashMap<>();
+        for (int g = 0; g < groups.size(); g++) {
+            map.put(groups.getKey(g), RowKeySet.builder(rows).addRange(50 * g, 50 * g + 50).build());
+        }
+        final DefaultHiLiteMapper mapper = new DefaultHiLiteMapper(map);
+        final HiLiteHandler source = new HiLiteHandler();
+        final HiLiteHandler target = new HiLiteHandler();
+        final HiLiteTranslator translator = new HiLiteTranslator(source, mapper);
+        translator.addToHiLiteHandler(target);
+        final RecordingListener targetListener = new RecordingListener();
+        target.addHiLiteListener(targetListener);
+        final RecordingListener sourceListener = new RecordingListener();
+        source.addHiLiteListener(sourceListener);
+
+        final Set<RowKey> mapped = mapper.mapKeys(RowKeySet.builder(groups).addRange(0, 10).build());
+        assertThat(mapped, instanceOf(RowKeySet.class));
+        assertEquals(500, mapped.size());
+
+        source.fireHiLiteEvent(RowKeySet.builder(groups).addRange(0, 100).build());
+        flushEvents();
+        assertEquals(1, targetListener.m_hilite.size());
+        assertThat(targetListener.m_hilite.get(0).keys(), instanceOf(RowKeySet.class));
+        assertEquals(5000, target.getHiLitKeys(rows).size());
+
+        // unhiliting one row of a group unhilites the group
+        target.fireUnHiLiteEvent(rows.getKey(75));
+        flushEvents();
+        assertFalse(source.isHiLit(groups.getKey(1)));
+        assertTrue(source.isHiLit(groups.getKey(0), groups.getKey(2)));
+
+        // hiliting all rows of a group hilites the group
+        target.fireHiLiteEvent(RowKeySet.builder(rows).addRange(10000, 10050).build());
+        flushEvents();
+        assertTrue(source.isHiLit(groups.getKey(200)));
+        assertFalse(source.isHiLit(groups.getKey(201)));
+
+        // compacting a plain mapping gives the same translation
+        final Map<RowKey, Set<RowKey>> plainMap = new LinkedHashMap<>();
+        for (Map.Entry<RowKey, Set<RowKey>> e : map.entrySet()) {
+            plainMap.put(e.getKey(), new HashSet<>(e.getValue()));
+        }
+        final Set<RowKey> someGroups = RowKeySet.builder(groups).add(3).add(700).build();
+        final Set<RowKey> compactMapped = new DefaultHiLiteMapper(plainMap).compact(rows).mapKeys(someGroups);
+        assertThat(compactMapped, instanceOf(RowKeySet.class));
+        assertEquals(new DefaultHiLiteMapper(plainMap).mapKeys(someGroups), compactMapped);
+        translator.dispose();
+    }
+}
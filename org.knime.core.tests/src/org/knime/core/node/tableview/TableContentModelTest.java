@@ -46,7 +46,9 @@
  */
 package org.knime.core.node.tableview;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 
 import javax.swing.JTable;
@@ -58,6 +60,7 @@
 import org.knime.core.data.DataTable;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataType;
+import org.knime.core.data.DirectAccessTable;
 import org.knime.core.data.DoubleValue;
 import org.knime.core.data.RowIterator;
 import org.knime.core.data.RowKey;
@@ -65,6 +68,7 @@
 import org.knime.core.data.def.DefaultRowIterator;
 import org.knime.core.data.def.DefaultTable;
 import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.property.hilite.HiLiteHandler;
 import org.knime.core.node.property.hilite.KeyEvent;
@@ -722,6 +726,71 @@ public RowIterator iterator() {
         }
     } // testCachingStrategy()
 
+    /**
+     * Tests that the model jumps to rows of a {@link DirectAccessTable}
+     * without iterating the table from the first row and that the rows are
+     * correct when scrolling up.
+     */
+    public final void testJumpToRow() {
+        final String[] colnames = new String[]{"C1"};
+        final DataType[] colclasses = new DataType[]{DoubleCell.TYPE};
+        final DataRow[] data = new DefaultRow[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new DefaultRow(new RowKey("Row_" + i), new double[]{i});
+        }
+        // number of rows returned by getRows
+        final int[] rowsRead = new int[1];
+        final DataTableSpec spec =
+            new DefaultTable(data, colnames, colclasses).getDataTableSpec();
+        final class DirectAccessDefaultTable
+            implements DataTable, DirectAccessTable {
+            @Override
+            public DataTableSpec getDataTableSpec() {
+                return spec;
+            }
+            @Override
+            public RowIterator iterator() {
+                throw new IllegalStateException("Must not iterate table");
+            }
+            @Override
+            public List<DataRow> getRows(final long start, final int length,
+                final ExecutionMonitor exec) {
+                int end = (int)Math.min(start + length, data.length);
+                rowsRead[0] += Math.max(0, end - (int)start);
+                return Arrays.asList(data).subList(Math.min((int)start, end), end);
+            }
+            @Override
+            public long getRowCount() {
+                return data.length;
+            }
+        }
+        TableContentModel model =
+            new TableContentModel(new DirectAccessDefaultTable());
+        final int chunkSize = 25;
+        final int cacheSize = 2 * chunkSize;
+        model.setChunkSize(chunkSize);
+        model.setCacheSize(cacheSize);
+        assertTrue(model.isRowCountFinal());
+        assertEquals(data.length, model.getRowCount());
+
+        // jump to the end, reads no more than the cache
+        rowsRead[0] = 0;
+        DataRow last = model.getRow(data.length - 1);
+        assertEquals(data[data.length - 1].getKey(), last.getKey());
+        assertTrue(rowsRead[0] <= cacheSize);
+
+        // scroll up to the first row
+        for (int i = data.length - 1; i >= 0; i--) {
+            assertEquals(data[i].getKey(), model.getRow(i).getKey());
+        }
+        // jump to some random rows
+        final Random rand = new Random();
+        for (int i = 0; i < 100; i++) {
+            int row = rand.nextInt(data.length);
+            assertEquals(data[row].getKey(), model.getRow(row).getKey());
+        }
+    } // testJumpToRow()
+
     /**
      * Tests the correctness of the model when only hilited are shown.
      */
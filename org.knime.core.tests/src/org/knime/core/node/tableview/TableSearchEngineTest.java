@@ -0,0 +1,234 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.tableview;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.def.DefaultTable;
+import org.knime.core.node.tableview.FindPosition.SearchOptions;
+import org.knime.core.node.tableview.TableSearchEngine.Hit;
+
+/**
+ * Tests {@link TableSearchEngine}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class TableSearchEngineTest {
+
+    private static final int ROW_COUNT = 100;
+
+    private static DataTable createTable() {
+        final String[][] data = new String[ROW_COUNT][];
+        final String[] rowIDs = new String[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            data[i] = new String[]{"a" + i, "b" + i};
+            rowIDs[i] = "Row" + i;
+        }
+        return new DefaultTable(data, rowIDs, new String[]{"A", "B"});
+    }
+
+    /** A table whose iterator fails when reading the row with the given index. */
+    private static DataTable createFailingTable(final int failingRow) {
+        final DataTable table = createTable();
+        return new DataTable() {
+            @Override
+            public DataTableSpec getDataTableSpec() {
+                return table.getDataTableSpec();
+            }
+
+            @Override
+            public RowIterator iterator() {
+                final RowIterator it = table.iterator();
+                return new RowIterator() {
+                    private int m_index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public DataRow next() {
+                        if (m_index++ == failingRow) {
+                            throw new IllegalStateException("Failing row " + failingRow);
+                        }
+                        return it.next();
+                    }
+                };
+            }
+        };
+    }
+
+    private static TableSearchEngine search(final String str, final SearchOptions options, final int... columns)
+        throws InterruptedException {
+        return search(createTable(), Integer.MAX_VALUE, str, options, columns);
+    }
+
+    private static TableSearchEngine search(final DataTable table, final int maxHits, final String str,
+        final SearchOptions options, final int... columns) throws InterruptedException {
+        final TableSearchEngine engine = new TableSearchEngine(table, ROW_COUNT, new SearchString(str, false, false),
+            options, columns, e -> {
+            }, maxHits);
+        engine.start();
+        awaitDone(engine);
+        return engine;
+    }
+
+    private static void awaitDone(final TableSearchEngine engine) throws InterruptedException {
+        for (int i = 0; i < 500 && !engine.isDone(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat("Search not finished", engine.isDone(), is(true));
+    }
+
+    /** Repeats the navigation while rows are scanned, as the view does when the search progresses. */
+    private static Hit navigate(final TableSearchEngine engine, final Supplier<Hit> navigation)
+        throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            final Hit hit = navigation.get();
+            if (hit != null || engine.isDone()) {
+                return hit;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Navigation does not terminate");
+    }
+
+    private static void assertHit(final Hit hit, final int row, final int column) {
+        assertThat("Row of hit " + hit, hit.getRow(), is(row));
+        assertThat("Column of hit " + hit, hit.getColumn(), is(column));
+    }
+
+    /** Tests next/previous navigation over hits in data cells. */
+    @Test
+    public void testNavigateData() throws Exception {
+        final TableSearchEngine engine = search("7", new SearchOptions(false, false, true), 0, 1);
+        // 7, 17, ..., 67, 70 - 79, 87, 97 in both columns
+        assertThat(engine.getHitCount(), is(2 * 19));
+        assertHit(engine.next(FindPosition.HEADER, FindPosition.HEADER), 7, 0);
+        assertHit(engine.next(7, 0), 7, 1);
+        assertHit(engine.next(7, 1), 17, 0);
+        assertHit(engine.next(97, 1), 7, 0); // continue from top
+        assertHit(engine.previous(17, 0), 7, 1);
+        assertHit(engine.previous(7, 0), 97, 1); // continue from bottom
+        assertHit(engine.previous(ROW_COUNT, FindPosition.HEADER), 97, 1);
+    }
+
+    /** Tests that only the selected columns are searched. */
+    @Test
+    public void testSelectedColumns() throws Exception {
+        final TableSearchEngine engine = search("7", new SearchOptions(false, false, true), 1);
+        assertThat(engine.getHitCount(), is(19));
+        assertHit(engine.next(FindPosition.HEADER, FindPosition.HEADER), 7, 1);
+        assertHit(engine.next(7, 1), 17, 1);
+    }
+
+    /** Tests search in row IDs and column names. */
+    @Test
+    public void testRowIDsAndColumnNames() throws Exception {
+        TableSearchEngine engine = search("Row1", new SearchOptions(true, false, false), 0, 1);
+        assertThat(engine.getHitCount(), is(11));
+        assertHit(engine.next(FindPosition.HEADER, FindPosition.HEADER), 1, FindPosition.HEADER);
+        assertHit(engine.next(1, FindPosition.HEADER), 10, FindPosition.HEADER);
+
+        engine = search("B", new SearchOptions(false, true, false), 0, 1);
+        assertThat(engine.getHitCount(), is(1));
+        assertHit(engine.next(FindPosition.HEADER, FindPosition.HEADER), FindPosition.HEADER, 1);
+    }
+
+    /** Tests navigation over all hits if only few hits are kept in memory. */
+    @Test
+    public void testLimitedHits() throws Exception {
+        final TableSearchEngine engine =
+            search(createTable(), 3, "7", new SearchOptions(false, false, true), 0, 1);
+        final int[] rows = {7, 17, 27, 37, 47, 57, 67, 70, 71, 72, 73, 74, 75, 76, 77, 78, 79, 87, 97};
+        Hit hit = new Hit(FindPosition.HEADER, FindPosition.HEADER);
+        for (int i = 0; i < 2 * rows.length + 1; i++) {
+            final Hit from = hit;
+            hit = navigate(engine, () -> engine.next(from.getRow(), from.getColumn()));
+            assertHit(hit, rows[i / 2 % rows.length], i % 2);
+            // the hits of a row are kept entirely
+            assertThat("Hits in memory", engine.getHitCount(), is(lessThanOrEqualTo(4)));
+        }
+        hit = new Hit(ROW_COUNT, FindPosition.HEADER);
+        for (int i = 2 * rows.length - 1; i >= -1; i--) {
+            final Hit from = hit;
+            hit = navigate(engine, () -> engine.previous(from.getRow(), from.getColumn()));
+            final int index = (i + 2 * rows.length) % (2 * rows.length);
+            assertHit(hit, rows[index / 2], index % 2);
+            assertThat("Hits in memory", engine.getHitCount(), is(lessThanOrEqualTo(4)));
+        }
+    }
+
+    /** Tests that rows that can't be read are skipped. */
+    @Test
+    public void testFailingRows() throws Exception {
+        final TableSearchEngine engine =
+            search(createFailingTable(50), Integer.MAX_VALUE, "7", new SearchOptions(false, false, true), 0, 1);
+        assertThat(engine.getHitCount(), is(2 * 5));
+        assertHit(navigate(engine, () -> engine.next(47, 1)), 7, 0);
+        assertHit(navigate(engine, () -> engine.previous(7, 0)), 47, 1);
+    }
+
+    /** Tests a search without hits. */
+    @Test
+    public void testNotFound() throws Exception {
+        final TableSearchEngine engine = search("xyz", new SearchOptions(true, true, true), 0, 1);
+        assertThat(engine.getHitCount(), is(0));
+        assertThat(engine.next(FindPosition.HEADER, FindPosition.HEADER), is(nullValue()));
+        assertThat(engine.previous(ROW_COUNT, FindPosition.HEADER), is(nullValue()));
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.util.tokenizer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link ParallelTokenizer} by comparing its results with the sequential {@link Tokenizer}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ParallelTokenizerTest {
+
+    /** Folder for the test files. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private static TokenizerSettings createSettings() {
+        final TokenizerSettings settings = new TokenizerSettings();
+        settings.addDelimiterPattern(",", false, false, false);
+        settings.addDelimiterPattern("\n", true, true, false);
+        settings.addQuotePattern("\"", "\"", '\\');
+        settings.addBlockCommentPattern("/*", "*/", false, false);
+        settings.addSingleLineCommentPattern("#", false, false);
+        settings.setLineContinuationCharacter('&');
+        settings.addWhiteSpaceCharacter(' ');
+        settings.allowLFinQuotes(true);
+        return settings;
+    }
+
+    /* creates records with quotes, comments and line continuations spanning multiple lines */
+    private static String createContent(final long seed, final int records) {
+        final Random rand = new Random(seed);
+        final StringBuilder b = new StringBuilder();
+        for (int r = 0; r < records; r++) {
+            final int cols = 1 + rand.nextInt(5);
+            for (int c = 0; c < cols; c++) {
+                if (c > 0) {
+                    b.append(',');
+                }
+                switch (rand.nextInt(8)) {
+                    case 0:
+                        b.append("\"quoted\nover\n\nlines \\\" ").append(r).append('"');
+                        break;
+                    case 1:
+                        b.append("/* block\ncomment\n*/x").append(c);
+                        break;
+                    case 2:
+                        b.append("cont&\n  inued");
+                        break;
+                    case 3:
+                        b.append(" spaced ");
+                        break;
+                    case 4:
+                        b.append("\"").append(r).append('"');
+                        break;
+                    default:
+                        b.append("v").append(r).append('_').append(c);
+                }
+            }
+            if (rand.nextInt(10) == 0) {
+                b.append(" # line comment");
+            }
+            b.append(rand.nextInt(10) == 0 ? "\r\n\n" : "\n");
+        }
+        return b.toString();
+    }
+
+    private static List<String> tokenizeSequentially(final String content, final TokenizerSettings settings) {
+        final Tokenizer tokenizer = new Tokenizer(new StringReader(content));
+        tokenizer.setSettings(settings);
+        final List<String> result = new ArrayList<>();
+        String token;
+        while ((token = tokenizer.nextToken()) != null) {
+            result.add(describe(token, tokenizer.lastTokenWasQuoted(), tokenizer.lastTokenWasDelimiter(),
+                tokenizer.lastTokenWasDelimited()));
+        }
+        return result;
+    }
+
+    private static List<String> tokenizeInParallel(final File file, final TokenizerSettings settings,
+        final int chunkSize) throws IOException {
+        final List<String> result = new ArrayList<>();
+        try (ParallelTokenizer tokenizer =
+            new ParallelTokenizer(file, StandardCharsets.UTF_8, settings, 4, chunkSize)) {
+            String token;
+            while ((token = tokenizer.nextToken()) != null) {
+                // a pushed back token must be returned again
+                tokenizer.pushBack();
+                assertEquals(token, tokenizer.nextToken());
+                result.add(describe(token, tokenizer.lastTokenWasQuoted(), tokenizer.lastTokenWasDelimiter(),
+                    tokenizer.lastTokenWasDelimited()));
+            }
+        }
+        return result;
+    }
+
+    private static String describe(final String token, final boolean quoted, final boolean delimiter,
+        final boolean delimited) {
+        return token + "|" + quoted + "|" + delimiter + "|" + delimited;
+    }
+
+    private File write(final String content) throws IOException {
+        final File file = m_tempFolder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Tokenizes generated content with various chunk sizes, including chunks that start inside quotes, comments
+     * and line continuations.
+     *
+     * @throws IOException if the test file can't be written
+     */
+    @Test
+    public void testSameTokensAsSequential() throws IOException {
+        final TokenizerSettings settings = createSettings();
+        for (long seed = 0; seed < 5; seed++) {
+            final String content = createContent(seed, 500);
+            final File file = write(content);
+            final List<String> expected = tokenizeSequentially(content, settings);
+            for (int chunkSize : new int[]{1, 7, 64, 1000, 1 << 20}) {
+                assertEquals("seed " + seed + ", chunk size " + chunkSize, expected,
+                    tokenizeInParallel(file, settings, chunkSize));
+            }
+        }
+    }
+
+    /**
+     * Tests that the lines to skip are only skipped at the beginning of the file.
+     *
+     * @throws IOException if the test file can't be written
+     */
+    @Test
+    public void testSkipFirstLines() throws IOException {
+        final TokenizerSettings settings = createSettings();
+        settings.setSkipFirstLines(30);
+        final String content = createContent(42, 200);
+        assertEquals(tokenizeSequentially(content, settings), tokenizeInParallel(write(content), settings, 16));
+    }
+
+    /**
+     * Tests that files which can't be split (no new line delimiter) are tokenized sequentially.
+     *
+     * @throws IOException if the test file can't be written
+     */
+    @Test
+    public void testNotSplittable() throws IOException {
+        final TokenizerSettings settings = new TokenizerSettings();
+        settings.addDelimiterPattern(",", false, false, false);
+        final String content = createContent(7, 100);
+        assertEquals(tokenizeSequentially(content, settings), tokenizeInParallel(write(content), settings, 16));
+    }
+
+    /**
+     * Tests that an error (new line in quotes) is thrown after the tokens read before, like the sequential
+     * tokenizer does.
+     *
+     * @throws IOException if the test file can't be written
+     */
+    @Test
+    public void testErrorAfterPrecedingTokens() throws IOException {
+        final TokenizerSettings settings = createSettings();
+        settings.allowLFinQuotes(false);
+        final String content = "a,b\nc,d\ne,\"f\ng\"\nh\n";
+        final List<String> tokens = new ArrayList<>();
+        try (ParallelTokenizer tokenizer =
+            new ParallelTokenizer(write(content), StandardCharsets.UTF_8, settings, 2, 2)) {
+            try {
+                String token;
+                while ((token = tokenizer.nextToken()) != null) {
+                    tokens.add(tokenizer.lastTokenWasDelimiter() ? "LF" : token);
+                }
+            } catch (TokenizerException te) {
+                tokens.add("error");
+            }
+        }
+        assertEquals("[a, b, LF, c, d, LF, e, error]", tokens.toString());
+    }
+}
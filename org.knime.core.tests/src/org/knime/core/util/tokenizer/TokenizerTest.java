@@ -1585,4 +1585,62 @@ public void testAddWhiteSpaceCharacter() throws TokenizerException {
         token = ft.nextToken();
         assertNull(token);
     }
+
+    /**
+     * Tests that a tokenizer reading ahead in blocks and returning tokens as
+     * character sequences returns the same tokens as the default tokenizer -
+     * on an input that is longer than the read-ahead block.
+     * @throws TokenizerException if somethings goes wrong.
+     */
+    public void testReadAheadMode() throws TokenizerException {
+        TokenizerSettings fts = new TokenizerSettings();
+        fts.addDelimiterPattern(",", false, false, false);
+        fts.addDelimiterPattern("\n", false, true, false);
+        fts.addQuotePattern("\"", "\"", '\\');
+        fts.addQuotePattern("'", "'", true);
+        fts.addSingleLineCommentPattern("#", false, false);
+        fts.addBlockCommentPattern("/*", "*/", false, false);
+        fts.addWhiteSpaceCharacter(' ');
+        fts.addWhiteSpaceCharacter('\t');
+        fts.setLineContinuationCharacter('&');
+        fts.allowLFinQuotes(true);
+        fts.setSkipFirstLines(1);
+
+        StringBuilder input = new StringBuilder("header, \"to\", skip\n");
+        for (int i = 0; i < 1000; i++) {
+            input.append(i).append(", \"quoted \\\" ").append(i).append("\"\t,'single'");
+            input.append(i % 7 == 0 ? "\r\n" : "\n");
+            input.append("  foo & \n bar,/* block\n comment */ , # line comment\n");
+            input.append("\"multi\nline\",,").append(i * 3).append(" \n");
+        }
+        input.append("last");
+
+        Tokenizer expected = new Tokenizer(new StringReader(input.toString()));
+        expected.setSettings(fts);
+        Tokenizer ft = new Tokenizer(new StringReader(input.toString()), true);
+        ft.setSettings(fts);
+
+        int count = 0;
+        String token;
+        do {
+            token = expected.nextToken();
+            CharSequence chars = ft.nextTokenChars();
+            if (token == null) {
+                assertNull(chars);
+            } else {
+                assertEquals(token, chars.toString());
+            }
+            assertEquals(expected.lastTokenWasQuoted(), ft.lastTokenWasQuoted());
+            assertEquals(expected.lastTokenWasDelimiter(), ft.lastTokenWasDelimiter());
+            assertEquals(expected.getLineNumber(), ft.getLineNumber());
+            count++;
+            if (count % 100 == 0) {
+                // pushed back tokens come back as character sequence or string
+                ft.pushBack();
+                assertEquals(token, ft.nextToken());
+            }
+        } while (token != null);
+        assertTrue("Too few tokens: " + count, count > 8000);
+        assertEquals(expected.getReadBytes(), ft.getReadBytes());
+    }
 } // TokenizerTest
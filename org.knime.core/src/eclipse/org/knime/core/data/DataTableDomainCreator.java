@@ -85,6 +85,9 @@ public class DataTableDomainCreator implements IDataTableDomainCreator {
 
     private final DataValueComparator[] m_comparators;
 
+    /** Flags for columns whose min/max is not updated (null if none), see {@link #setSkipBoundedColumns(boolean)}. */
+    private boolean[] m_skippedBoundedColumns;
+
     /**
      * A new instance that recreates the domain of certains columns. Which columns are processed and if the domains
      * should be initialized with the domain from the incoming table can be controlled by the two
@@ -142,6 +145,35 @@ public DataTableDomainCreator(final DataTableSpec inputSpec,
         }
     }
 
+    /**
+     * Creates an empty partial domain creator with the same configuration as the argument, used to compute the domain
+     * of a subset of rows that is later {@link #merge(DataTableDomainCreator) merged} into the template.
+     *
+     * @param template the creator whose configuration to copy
+     */
+    @SuppressWarnings("unchecked")
+    private DataTableDomainCreator(final DataTableDomainCreator template) {
+        final int numColumns = template.m_inputSpec.getNumColumns();
+        m_inputSpec = template.m_inputSpec;
+        m_mins = new DataCell[numColumns];
+        m_maxs = new DataCell[numColumns];
+        m_possVals = new LinkedHashSet[numColumns];
+        m_comparators = template.m_comparators;
+        m_domainValuesColumnSelection = template.m_domainValuesColumnSelection;
+        m_domainMinMaxColumnSelection = template.m_domainMinMaxColumnSelection;
+        m_maxPossibleValues = template.m_maxPossibleValues;
+        m_skippedBoundedColumns = template.m_skippedBoundedColumns;
+        for (int i = 0; i < numColumns; i++) {
+            if (template.m_possVals[i] != null) {
+                m_possVals[i] = new LinkedHashSet<>();
+            }
+            if (template.m_mins[i] != null && !template.isSkippedBoundedColumn(i)) {
+                m_mins[i] = DataType.getMissingCell();
+                m_maxs[i] = DataType.getMissingCell();
+            }
+        }
+    }
+
     /**
      * A new instance that recreates the domain of all columns. Domain values are recreated for all {@link NominalValue}
      * columns whereas min/max values are recreated for all {@link BoundedValue} columns.
@@ -183,6 +215,74 @@ public void setMaxPossibleValues(final int maxValues) {
         m_maxPossibleValues = maxValues;
     }
 
+    /**
+     * If set, the min and max values of columns whose domain is taken from the input spec (i.e. not dropped) and that
+     * already have a lower and an upper bound are not updated while rows are added. This saves the comparisons for
+     * columns whose bounds are known in advance; the caller must ensure that all values lie within these bounds,
+     * otherwise the created domain is invalid. Defaults to <code>false</code>.
+     *
+     * @param skip whether to skip the min/max computation for already bounded columns
+     * @since 3.8
+     */
+    @Override
+    public void setSkipBoundedColumns(final boolean skip) {
+        if (!skip) {
+            m_skippedBoundedColumns = null;
+            return;
+        }
+        m_skippedBoundedColumns = new boolean[m_inputSpec.getNumColumns()];
+        for (int i = 0; i < m_skippedBoundedColumns.length; i++) {
+            final DataColumnSpec colSpec = m_inputSpec.getColumnSpec(i);
+            m_skippedBoundedColumns[i] = m_domainMinMaxColumnSelection.createDomain(colSpec)
+                && !m_domainMinMaxColumnSelection.dropDomain(colSpec) && colSpec.getDomain().hasBounds();
+        }
+    }
+
+    private boolean isSkippedBoundedColumn(final int col) {
+        return m_skippedBoundedColumns != null && m_skippedBoundedColumns[col];
+    }
+
+    /**
+     * Creates a new, empty domain creator with the same configuration (including the maximum number of possible
+     * values) as this instance. It's used to calculate the domain of a part of the table independently of (and
+     * possibly concurrently to) this instance and then to {@link #merge(DataTableDomainCreator) merge} it back.
+     *
+     * @return a new partial domain creator
+     * @since 3.8
+     */
+    public DataTableDomainCreator createPartial() {
+        return new DataTableDomainCreator(this);
+    }
+
+    /**
+     * Merges the domain computed by a {@link #createPartial() partial creator} into this instance. In order to retain
+     * the order of possible values, partial creators need to be merged in the order of the rows they have processed.
+     *
+     * @param partial a creator created by {@link #createPartial()} on this instance
+     * @since 3.8
+     */
+    public void merge(final DataTableDomainCreator partial) {
+        if (partial.m_inputSpec.getNumColumns() != m_inputSpec.getNumColumns()) {
+            throw new IllegalArgumentException("Unequal number of columns in partial and this domain: "
+                + partial.m_inputSpec.getNumColumns() + " vs. " + m_inputSpec.getNumColumns());
+        }
+        for (int i = 0; i < m_possVals.length; i++) {
+            if (m_possVals[i] != null) {
+                if (partial.m_possVals[i] == null) {
+                    // too many values in partial domain
+                    m_possVals[i] = null;
+                } else if (m_possVals[i].addAll(partial.m_possVals[i])
+                    && (m_possVals[i].size() > m_maxPossibleValues)) {
+                    m_possVals[i] = null;
+                }
+            }
+            if (partial.m_mins[i] != null && !partial.m_mins[i].isMissing()) {
+                updateMinMax(i, partial.m_mins[i], m_mins, m_maxs, m_comparators);
+                updateMinMax(i, partial.m_maxs[i], m_mins, m_maxs, m_comparators);
+            }
+        }
+    }
+
     /**
      * Updates the min and max value for an respective column. This method does nothing if the min and max values don't
      * need to be stored, e.g. the column at hand contains string values.
@@ -262,15 +362,22 @@ public void updateDomain(final DataRow row) {
         assert row.getNumCells() == m_inputSpec.getNumColumns() : "Unequal number of columns in spec and row: "
             + m_inputSpec.getNumColumns() + " vs. " + row.getNumCells();
 
-        int i = 0;
-        for (DataCell c : row) {
+        final int numCells = row.getNumCells();
+        for (int i = 0; i < numCells; i++) {
+            final boolean updateMinMax = m_mins[i] != null && !isSkippedBoundedColumn(i);
+            if (m_possVals[i] == null && !updateMinMax) {
+                // nothing to do for this column, don't even access the cell
+                continue;
+            }
+            final DataCell c = row.getCell(i);
             if (!c.isMissing() && m_possVals[i] != null) {
                 if (m_possVals[i].add(c) && (m_possVals[i].size() > m_maxPossibleValues)) {
                     m_possVals[i] = null;
                 }
             }
-            updateMinMax(i, c, m_mins, m_maxs, m_comparators);
-            i++;
+            if (updateMinMax) {
+                updateMinMax(i, c, m_mins, m_maxs, m_comparators);
+            }
         }
     }
 
@@ -52,9 +52,11 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
@@ -65,6 +67,7 @@
 import org.eclipse.core.runtime.Platform;
 import org.knime.core.data.filestore.FileStoreFactory;
 import org.knime.core.eclipseUtil.GlobalClassCreator;
+import org.knime.core.internal.ExtensionIndex;
 import org.knime.core.internal.SerializerMethodLoader;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
@@ -89,6 +92,9 @@ public final class DataTypeRegistry {
 
     private Collection<DataType> m_allDataTypes;
 
+    /** Value class name -> names of the registered cell classes implementing it, see {@link #getValueClassIndex()}. */
+    private volatile Map<String, List<String>> m_valueClassIndex;
+
     private static final DataTypeRegistry INSTANCE = new DataTypeRegistry();
 
     /**
@@ -266,9 +272,16 @@ public Optional<Class<? extends DataValue>> getValueClass(final String className
         Class<? extends DataValue> valueClass = m_valueClassMap.get(className);
 
         if (valueClass == null) {
-            // not found => scan extension point
-            scanExtensionPointForAllSerializers();
+            // not found => load the registered cell classes implementing the value
+            for (String cellClassName : getValueClassIndex().getOrDefault(className, Collections.emptyList())) {
+                getCellClass(cellClassName);
+            }
             valueClass = m_valueClassMap.get(className);
+            if (valueClass == null) {
+                // not in the index (which may be incomplete) => scan the extension point
+                scanExtensionPointForAllSerializers();
+                valueClass = m_valueClassMap.get(className);
+            }
         }
 
         if (valueClass != null) {
@@ -365,6 +378,73 @@ public Optional<DataCellSerializer<DataCell>> getSerializer(final Class<? extend
         }
     }
 
+    /**
+     * Makes sure that later lookups of value classes don't need to scan the extension point, i.e. reads the index of
+     * value classes from disk or (if not available or outdated) scans all registered serializers and writes the index.
+     * This method is called during startup and should not be called by clients.
+     *
+     * @since 3.8
+     * @noreference This method is not intended to be referenced by clients.
+     */
+    public void preload() {
+        getValueClassIndex();
+    }
+
+    /**
+     * Returns a map from value class names to the names of all registered cell classes that implement the value. The
+     * map is read from the {@link ExtensionIndex} if it is up-to-date. Otherwise all registered serializers are
+     * instantiated (which also registers all cell and value classes) and the index is rewritten for the next start.
+     * Not synchronized (as the extension point scan isn't either): extensions are instantiated, which may trigger
+     * arbitrary class initializations.
+     */
+    private Map<String, List<String>> getValueClassIndex() {
+        Map<String, List<String>> valueClassIndex = m_valueClassIndex;
+        if (valueClassIndex == null) {
+            Optional<Map<String, List<String>>> cellToValues = ExtensionIndex.read(EXT_POINT_ID);
+            if (!cellToValues.isPresent()) {
+                scanExtensionPointForAllSerializers();
+                Map<String, List<String>> index = createCellToValuesIndex();
+                ExtensionIndex.write(EXT_POINT_ID, index);
+                cellToValues = Optional.of(index);
+            }
+            Map<String, List<String>> valueToCells = new HashMap<>();
+            cellToValues.get().forEach((cell, values) -> values
+                .forEach(value -> valueToCells.computeIfAbsent(value, k -> new ArrayList<>()).add(cell)));
+            valueClassIndex = valueToCells;
+            m_valueClassIndex = valueClassIndex;
+        }
+        return valueClassIndex;
+    }
+
+    /** Collects the value interfaces of all cell classes with a registered serializer. */
+    private Map<String, List<String>> createCellToValuesIndex() {
+        Map<String, List<String>> index = new HashMap<>();
+        Stream.of(Platform.getExtensionRegistry().getExtensionPoint(EXT_POINT_ID).getExtensions())
+            .flatMap(ext -> Stream.of(ext.getConfigurationElements()))
+            .flatMap(cfe -> Stream.of(cfe.getChildren("serializer")))
+            .map(cfe -> m_cellClassMap.get(cfe.getAttribute("cellClass")))
+            .filter(cellClass -> cellClass != null)
+            .forEach(cellClass -> {
+                Set<String> valueClassNames = new LinkedHashSet<>();
+                collectValueInterfaceNames(cellClass, valueClassNames);
+                index.put(cellClass.getName(), new ArrayList<>(valueClassNames));
+            });
+        return index;
+    }
+
+    private static void collectValueInterfaceNames(final Class<?> clazz, final Set<String> result) {
+        if (clazz != null) {
+            if (DataValue.class.isAssignableFrom(clazz) && clazz.isInterface()) {
+                result.add(clazz.getName());
+            }
+
+            collectValueInterfaceNames(clazz.getSuperclass(), result);
+            for (Class<?> c : clazz.getInterfaces()) {
+                collectValueInterfaceNames(c, result);
+            }
+        }
+    }
+
     private void scanExtensionPointForAllSerializers() {
         IExtensionRegistry registry = Platform.getExtensionRegistry();
         IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
@@ -64,6 +64,19 @@ public interface IDataTableDomainCreator {
      */
     void updateDomain(DataRow row);
 
+    /**
+     * Updates the domain values with a batch of consecutive rows. The default implementation calls
+     * {@link #updateDomain(DataRow)} for each row, implementations may process the rows more efficiently (e.g. in
+     * parallel).
+     *
+     * @param rows the rows in the order they are added to the table
+     */
+    default void updateDomain(final DataRow[] rows) {
+        for (DataRow row : rows) {
+            updateDomain(row);
+        }
+    }
+
     /**
      * Set the maximum number of possible values in the domain of a nominal value columns.
      *
@@ -71,6 +84,18 @@ public interface IDataTableDomainCreator {
      */
     void setMaxPossibleValues(final int maxVals);
 
+    /**
+     * If set, the min and max values of columns that already have a lower and an upper bound (and whose domain is
+     * retained) are not updated while rows are added. The caller must ensure that all values lie within these bounds.
+     * The default implementation ignores the flag, i.e. bounds are always updated.
+     *
+     * @param skip whether to skip the min/max computation for already bounded columns
+     * @since 3.8
+     */
+    default void setSkipBoundedColumns(final boolean skip) {
+        // bounds are always updated
+    }
+
     /**
      * Creates an updated version of the input spec.
      *
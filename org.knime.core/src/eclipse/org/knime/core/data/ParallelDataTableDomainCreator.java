@@ -0,0 +1,232 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * A domain creator that calculates the domain of chunks of rows in parallel. Rows passed to
+ * {@link #updateDomain(DataRow)} are collected into chunks, each chunk is processed by a separate (partial)
+ * {@link DataTableDomainCreator} on the {@link KNIMEConstants#GLOBAL_THREAD_POOL global thread pool}, and the partial
+ * domains are merged in row order into the delegate creator. {@link #createSpec()} (called when a container is
+ * closed) waits for all pending chunks.
+ *
+ * <p>
+ * The result is identical to processing all rows sequentially with the delegate, including the order of possible
+ * values. The number of chunks in flight is bounded, so the calling thread is throttled if the workers can't keep up.
+ * Instances are not thread-safe, i.e. rows must be added by one thread at a time.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ */
+public final class ParallelDataTableDomainCreator implements IDataTableDomainCreator {
+
+    /** The default number of rows processed by one task. */
+    public static final int DEFAULT_CHUNK_SIZE = 2048;
+
+    private static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private final DataTableDomainCreator m_delegate;
+
+    /** Sub pool of the global thread pool computing the partial domains of this instance. */
+    private final ThreadPool m_pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(PARALLELISM);
+
+    private final int m_chunkSize;
+
+    /** Maximum number of chunks submitted but not yet merged. */
+    private final int m_maxPendingChunks;
+
+    /** Partial domains being calculated, in row order. */
+    private final Deque<Future<DataTableDomainCreator>> m_pendingChunks = new ArrayDeque<>();
+
+    private DataRow[] m_currentChunk;
+
+    private int m_currentChunkSize;
+
+    /**
+     * Creates a parallel domain creator with the {@link #DEFAULT_CHUNK_SIZE default chunk size}.
+     *
+     * @param delegate the creator holding the (merged) domain, not null
+     */
+    public ParallelDataTableDomainCreator(final DataTableDomainCreator delegate) {
+        this(delegate, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a parallel domain creator.
+     *
+     * @param delegate the creator holding the (merged) domain, not null
+     * @param chunkSize the number of rows processed by one task, must be positive
+     */
+    public ParallelDataTableDomainCreator(final DataTableDomainCreator delegate, final int chunkSize) {
+        m_delegate = CheckUtils.checkArgumentNotNull(delegate, "Delegate must not be null");
+        CheckUtils.checkArgument(chunkSize > 0, "Chunk size must be positive: %d", chunkSize);
+        m_chunkSize = chunkSize;
+        m_maxPendingChunks = 2 * PARALLELISM;
+        m_currentChunk = new DataRow[chunkSize];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateDomain(final DataRow row) {
+        m_currentChunk[m_currentChunkSize++] = row;
+        if (m_currentChunkSize == m_chunkSize) {
+            submitChunk(m_currentChunk);
+            m_currentChunk = new DataRow[m_chunkSize];
+            m_currentChunkSize = 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Large batches are split into chunks right away, small ones are collected.
+     */
+    @Override
+    public void updateDomain(final DataRow[] rows) {
+        int offset = 0;
+        if (m_currentChunkSize == 0) {
+            for (; rows.length - offset >= m_chunkSize; offset += m_chunkSize) {
+                submitChunk(Arrays.copyOfRange(rows, offset, offset + m_chunkSize));
+            }
+        }
+        for (; offset < rows.length; offset++) {
+            updateDomain(rows[offset]);
+        }
+    }
+
+    private void submitChunk(final DataRow[] chunk) {
+        while (m_pendingChunks.size() >= m_maxPendingChunks) {
+            mergeNextChunk();
+        }
+        final DataTableDomainCreator partial = m_delegate.createPartial();
+        m_pendingChunks.add(m_pool.enqueue(() -> {
+            for (DataRow row : chunk) {
+                partial.updateDomain(row);
+            }
+            return partial;
+        }));
+    }
+
+    /**
+     * Waits for the oldest pending chunk and merges it into the delegate. If the calling thread is itself taken from a
+     * KNIME thread pool it doesn't count as running while waiting, otherwise the chunks may never get a thread.
+     */
+    private void mergeNextChunk() {
+        final Future<DataTableDomainCreator> future = m_pendingChunks.poll();
+        try {
+            final ThreadPool currentPool = ThreadPool.currentPool();
+            m_delegate.merge(currentPool != null ? currentPool.runInvisible(future::get) : future.get());
+        } catch (InterruptedException ie) {
+            throw interrupted(ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            // runInvisible wraps the exceptions thrown by future.get()
+            if (cause instanceof InterruptedException) {
+                throw interrupted((InterruptedException)cause);
+            } else if (cause instanceof ExecutionException) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException("Domain calculation failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private IllegalStateException interrupted(final InterruptedException ie) {
+        m_pendingChunks.forEach(f -> f.cancel(true));
+        m_pendingChunks.clear();
+        Thread.currentThread().interrupt();
+        return new IllegalStateException("Interrupted while waiting for domain calculation", ie);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setMaxPossibleValues(final int maxVals) {
+        m_delegate.setMaxPossibleValues(maxVals);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setSkipBoundedColumns(final boolean skip) {
+        CheckUtils.checkState(m_pendingChunks.isEmpty() && m_currentChunkSize == 0,
+            "Rows have been added already");
+        m_delegate.setSkipBoundedColumns(skip);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Processes the rows of the incomplete chunk on the calling thread and waits until all partial domains have been
+     * merged.
+     */
+    @Override
+    public DataTableSpec createSpec() {
+        while (!m_pendingChunks.isEmpty()) {
+            mergeNextChunk();
+        }
+        for (int i = 0; i < m_currentChunkSize; i++) {
+            m_delegate.updateDomain(m_currentChunk[i]);
+            m_currentChunk[i] = null;
+        }
+        m_currentChunkSize = 0;
+        return m_delegate.createSpec();
+    }
+
+}
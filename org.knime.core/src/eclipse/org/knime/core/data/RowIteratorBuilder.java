@@ -48,8 +48,12 @@
  */
 package org.knime.core.data;
 
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.node.util.CheckUtils;
 
 /**
@@ -89,6 +93,66 @@
      */
     RowIteratorBuilder<I> filterColumns(String... columns);
 
+    /**
+     * Iterate only over rows whose (0-based) index is greater than or equal to the given index. Tables that support it
+     * skip the leading rows without materializing their {@link DataCell}s.
+     *
+     * @param index the index of the first row to be returned, inclusive
+     * @return this {@link RowIteratorBuilder}
+     * @throws IllegalArgumentException if the index is negative
+     * @throws UnsupportedOperationException if this builder doesn't support row selection (the default)
+     * @since 3.8
+     */
+    default RowIteratorBuilder<I> fromIndex(final long index) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support row selection");
+    }
+
+    /**
+     * Iterate only over rows whose (0-based) index is smaller than or equal to the given index. Tables that support it
+     * stop reading once this row has been returned.
+     *
+     * @param index the index of the last row to be returned, inclusive
+     * @return this {@link RowIteratorBuilder}
+     * @throws IllegalArgumentException if the index is negative
+     * @throws UnsupportedOperationException if this builder doesn't support row selection (the default)
+     * @since 3.8
+     */
+    default RowIteratorBuilder<I> toIndex(final long index) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support row selection");
+    }
+
+    /**
+     * Iterate only over rows whose cell in the given column satisfies the predicate. This is meant for simple tests on
+     * primitive columns (int, long, double, boolean, string); tables that support it only deserialize the cells
+     * required to evaluate the predicates and skip the remaining cells of non-matching rows. Multiple invocations are
+     * combined by logical AND. Note that the predicate is also called with missing cells.
+     *
+     * @param index the index of the column the predicate is evaluated on
+     * @param predicate the predicate a row's cell needs to satisfy for the row to be returned
+     * @return this {@link RowIteratorBuilder}
+     * @throws IndexOutOfBoundsException for an index smaller than 0 or larger than the width of the table
+     * @throws UnsupportedOperationException if this builder doesn't support row selection (the default)
+     * @since 3.8
+     */
+    default RowIteratorBuilder<I> filterRows(final int index, final Predicate<? super DataCell> predicate) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support row selection");
+    }
+
+    /**
+     * Iterate only over rows whose cell in the given column satisfies the predicate, see
+     * {@link #filterRows(int, Predicate)}.
+     *
+     * @param column the name of the column the predicate is evaluated on
+     * @param predicate the predicate a row's cell needs to satisfy for the row to be returned
+     * @return this {@link RowIteratorBuilder}
+     * @throws IllegalArgumentException if the column name is not found
+     * @throws UnsupportedOperationException if this builder doesn't support row selection (the default)
+     * @since 3.8
+     */
+    default RowIteratorBuilder<I> filterRows(final String column, final Predicate<? super DataCell> predicate) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support row selection");
+    }
+
     /**
      * Build a new row iterator with the behavior specified via methods invoked in this builder.
      *
@@ -96,9 +160,120 @@
      */
     I build();
 
+    /**
+     * The rows selected via {@link RowIteratorBuilder#fromIndex(long)}, {@link RowIteratorBuilder#toIndex(long)} and
+     * {@link RowIteratorBuilder#filterRows(int, Predicate)}. Instances are immutable and passed on to table
+     * implementations that are able to skip rows without materializing them.
+     *
+     * @since 3.8
+     */
+    public static final class RowSelection {
+
+        /** The selection that contains all rows of a table. */
+        public static final RowSelection ALL = new RowSelection(0, Long.MAX_VALUE, new TreeMap<>());
+
+        private final long m_fromIndex;
+
+        private final long m_toIndex;
+
+        private final int[] m_predicateColumns;
+
+        private final Predicate<DataCell>[] m_predicates;
+
+        @SuppressWarnings("unchecked")
+        private RowSelection(final long fromIndex, final long toIndex,
+            final TreeMap<Integer, Predicate<DataCell>> predicates) {
+            m_fromIndex = fromIndex;
+            m_toIndex = toIndex;
+            m_predicateColumns = predicates.keySet().stream().mapToInt(Integer::intValue).toArray();
+            m_predicates = predicates.values().toArray(new Predicate[predicates.size()]);
+        }
+
+        /** @return the index of the first row to be returned, inclusive */
+        public long getFromIndex() {
+            return m_fromIndex;
+        }
+
+        /** @return the index of the last row to be returned, inclusive ({@link Long#MAX_VALUE} if unbounded) */
+        public long getToIndex() {
+            return m_toIndex;
+        }
+
+        /** @return whether this selection contains each and every row of a table */
+        public boolean isSelectAll() {
+            return m_fromIndex == 0 && m_toIndex == Long.MAX_VALUE && m_predicates.length == 0;
+        }
+
+        /** @return whether there are predicates on any column, i.e., rows need to be inspected to decide on them */
+        public boolean hasPredicates() {
+            return m_predicates.length > 0;
+        }
+
+        /** @return the ascending indices of the columns that have a predicate, not null */
+        public int[] getPredicateColumns() {
+            return m_predicateColumns.clone();
+        }
+
+        /**
+         * @return the highest column index that has a predicate (-1 if there is none), i.e., once that column has been
+         *         tested positively the row is selected and all further cells can be read as usual.
+         */
+        public int getLastPredicateColumn() {
+            return m_predicateColumns.length == 0 ? -1 : m_predicateColumns[m_predicateColumns.length - 1];
+        }
+
+        /**
+         * Tests a single cell against the predicates of its column.
+         *
+         * @param column the column index of the cell
+         * @param cell the cell in question
+         * @return false if there is a predicate on the column and the cell doesn't satisfy it, true otherwise
+         */
+        public boolean test(final int column, final DataCell cell) {
+            int i = Arrays.binarySearch(m_predicateColumns, column);
+            return i < 0 || m_predicates[i].test(cell);
+        }
+
+        /**
+         * Tests a fully materialized row against all predicates (the row index is not taken into account).
+         *
+         * @param row the row in question
+         * @return whether the row satisfies all predicates
+         */
+        public boolean test(final DataRow row) {
+            for (int i = 0; i < m_predicateColumns.length; i++) {
+                if (!m_predicates[i].test(row.getCell(m_predicateColumns[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Wraps an iterator over all rows into an iterator only returning the selected rows. Used for tables that
+         * cannot skip rows themselves.
+         *
+         * @param iterator the iterator over all rows of a table
+         * @return an iterator over the selected rows, closing the argument iterator (if closeable) on close
+         */
+        public CloseableRowIterator filter(final RowIterator iterator) {
+            return new RowSelectionIterator(iterator, this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return "Rows " + m_fromIndex + " to " + (m_toIndex == Long.MAX_VALUE ? "end" : m_toIndex)
+                + (m_predicateColumns.length == 0 ? "" : ", predicates on columns "
+                    + Arrays.toString(m_predicateColumns));
+        }
+    }
+
     /**
      * A {@link RowIteratorBuilder} that always builds default {@link RowIterator}s, i.e., iterators iterating over all
-     * rows and columns of a table.
+     * columns of a table. Selected rows (see {@link #fromIndex(long)}, {@link #toIndex(long)}) are filtered after the
+     * rows have been created by the underlying iterator unless a subclass overrides
+     * {@link #build(RowSelection)} to push the selection down.
      *
      * @param <I> the row iterator to be built
      *
@@ -110,6 +285,12 @@
 
         private final DataTableSpec m_spec;
 
+        private long m_fromIndex = 0;
+
+        private long m_toIndex = Long.MAX_VALUE;
+
+        private final TreeMap<Integer, Predicate<DataCell>> m_predicates = new TreeMap<>();
+
         /**
          * Constructs a new {@link org.knime.core.data.RowIteratorBuilder.DefaultRowIteratorBuilder}.
          *
@@ -139,12 +320,81 @@ public RowIteratorBuilder<I> filterColumns(final String... columns) {
             return filterColumns(m_spec.columnsToIndices(columns));
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public RowIteratorBuilder<I> fromIndex(final long index) {
+            CheckUtils.checkArgument(index >= 0, "Row index must not be negative: %d", index);
+            m_fromIndex = index;
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public RowIteratorBuilder<I> toIndex(final long index) {
+            CheckUtils.checkArgument(index >= 0, "Row index must not be negative: %d", index);
+            m_toIndex = index;
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public RowIteratorBuilder<I> filterRows(final int index, final Predicate<? super DataCell> predicate) {
+            m_spec.verifyIndices(index);
+            CheckUtils.checkArgumentNotNull(predicate, "Predicate must not be null");
+            m_predicates.merge(index, predicate::test, Predicate::and);
+            return this;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public RowIteratorBuilder<I> filterRows(final String column, final Predicate<? super DataCell> predicate) {
+            return filterRows(m_spec.columnsToIndices(column)[0], predicate);
+        }
+
+        /**
+         * @return the rows selected via this builder, not null
+         * @since 3.8
+         */
+        protected final RowSelection getRowSelection() {
+            if (m_fromIndex == 0 && m_toIndex == Long.MAX_VALUE && m_predicates.isEmpty()) {
+                return RowSelection.ALL;
+            }
+            return new RowSelection(m_fromIndex, m_toIndex, new TreeMap<>(m_predicates));
+        }
+
         /**
          * {@inheritDoc}
          */
         @Override
         public I build() {
-            return m_iteratorSupplier.get();
+            final RowSelection selection = getRowSelection();
+            return selection.isSelectAll() ? m_iteratorSupplier.get() : build(selection);
+        }
+
+        /**
+         * Called by {@link #build()} if not all rows of the table are selected. This implementation obtains a default
+         * iterator and filters its rows (via {@link RowSelection#filter(RowIterator)}); subclasses with knowledge of
+         * the underlying storage should override it in order to skip non-selected rows early.
+         *
+         * <p>
+         * Note that the default implementation can only be used if <code>I</code> is {@link RowIterator} or
+         * {@link CloseableRowIterator}.
+         *
+         * @param selection the selected rows, never {@link RowSelection#ALL}
+         * @return a new row iterator over the selected rows
+         * @since 3.8
+         */
+        @SuppressWarnings("unchecked")
+        protected I build(final RowSelection selection) {
+            return (I)selection.filter(m_iteratorSupplier.get());
         }
 
     }
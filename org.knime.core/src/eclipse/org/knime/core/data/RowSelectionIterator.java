@@ -0,0 +1,114 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data;
+
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.RowIteratorBuilder.RowSelection;
+import org.knime.core.data.container.CloseableRowIterator;
+
+/**
+ * Decorator for a row iterator that only returns the rows contained in a {@link RowSelection}. Used by tables that
+ * can't skip rows in their underlying storage, see {@link RowSelection#filter(RowIterator)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RowSelectionIterator extends CloseableRowIterator {
+
+    private final RowIterator m_iterator;
+
+    private final RowSelection m_selection;
+
+    /** Index of the row that is returned by the next call of {@link RowIterator#next()} on the delegate. */
+    private long m_index;
+
+    private DataRow m_next;
+
+    /**
+     * @param iterator the iterator over all rows
+     * @param selection the rows to be returned
+     */
+    RowSelectionIterator(final RowIterator iterator, final RowSelection selection) {
+        m_iterator = iterator;
+        m_selection = selection;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext() {
+        while (m_next == null && m_index <= m_selection.getToIndex() && m_iterator.hasNext()) {
+            final DataRow row = m_iterator.next();
+            if (m_index++ >= m_selection.getFromIndex() && m_selection.test(row)) {
+                m_next = row;
+            }
+        }
+        if (m_next == null) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("Iterator at end");
+        }
+        final DataRow next = m_next;
+        m_next = null;
+        return next;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        if (m_iterator instanceof CloseableRowIterator) {
+            ((CloseableRowIterator)m_iterator).close();
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.knime.core.data.container.BlobDataCell.BlobAddress;
+
+/**
+ * A least recently used cache of blob cells read from disc, shared by all buffers. It reduces the overhead of reading
+ * a blob cell over and over again, e.g. if a blob is added multiple times to a table (the iterator will read the blob
+ * address, treat it as unseen and then ask the owning buffer to restore the blob). Being global, the number of cached
+ * cells doesn't grow with the number of tables; the cells are only softly referenced.
+ *
+ * <p>
+ * Entries are keyed by an id of the owning buffer (see {@link #newOwnerID()}) and the blob address, as blob addresses
+ * are only unique within a workflow.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class BlobCache {
+
+    /** Maximum number of entries in the global cache. */
+    static final int MAX_SIZE = 1000;
+
+    private static final BlobCache INSTANCE = new BlobCache(MAX_SIZE);
+
+    private static final AtomicLong OWNER_ID = new AtomicLong();
+
+    private final LinkedHashMap<Key, SoftReference<BlobDataCell>> m_map;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize the maximum number of entries
+     */
+    BlobCache(final int maxSize) {
+        m_map = new LinkedHashMap<Key, SoftReference<BlobDataCell>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Entry<Key, SoftReference<BlobDataCell>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cache shared by all buffers
+     */
+    static BlobCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return a new id to be used as owner in calls to this cache, one per buffer
+     */
+    static long newOwnerID() {
+        return OWNER_ID.incrementAndGet();
+    }
+
+    /**
+     * Get the cached cell.
+     *
+     * @param ownerID the id of the buffer owning the blob
+     * @param address the address of the blob
+     * @return the cell or null if not cached (or garbage collected)
+     */
+    synchronized BlobDataCell get(final long ownerID, final BlobAddress address) {
+        final SoftReference<BlobDataCell> ref = m_map.get(new Key(ownerID, address));
+        return ref != null ? ref.get() : null;
+    }
+
+    /**
+     * Adds a cell to the cache.
+     *
+     * @param ownerID the id of the buffer owning the blob
+     * @param address the address of the blob
+     * @param cell the cell
+     */
+    synchronized void put(final long ownerID, final BlobAddress address, final BlobDataCell cell) {
+        m_map.put(new Key(ownerID, address), new SoftReference<BlobDataCell>(cell));
+    }
+
+    /**
+     * Removes all cells of the given owner, called when the buffer is cleared.
+     *
+     * @param ownerID the id of the buffer
+     */
+    synchronized void invalidate(final long ownerID) {
+        for (Iterator<Key> it = m_map.keySet().iterator(); it.hasNext();) {
+            if (it.next().m_ownerID == ownerID) {
+                it.remove();
+            }
+        }
+    }
+
+    /** @return the number of entries, only for test purposes */
+    synchronized int size() {
+        return m_map.size();
+    }
+
+    private static final class Key {
+
+        private final long m_ownerID;
+
+        private final BlobAddress m_address;
+
+        Key(final long ownerID, final BlobAddress address) {
+            m_ownerID = ownerID;
+            m_address = address;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key)obj;
+            return m_ownerID == other.m_ownerID && m_address.equals(other.m_address);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(m_ownerID) + m_address.hashCode();
+        }
+    }
+}
@@ -0,0 +1,516 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Stores the blobs of a {@link Buffer} in a few large segment files instead of one file per blob. Blobs are appended
+ * to the current segment file (a new one is started once it exceeds {@link #MAX_SEGMENT_SIZE}); their position and
+ * length are kept in an index, which is written to {@link #INDEX_FILE_NAME} when the store is {@link #flush()
+ * flushed}. The presence of this file is what tells a loaded table that its blobs are packed (see
+ * {@link #exists(File)}), so old workflows with one file per blob are read as before.
+ *
+ * <p>
+ * Blobs are addressed by column and index in column (see {@link BlobDataCell.BlobAddress}) and are read back using
+ * positional reads on shared file channels, hence concurrent readers don't block each other. At most one blob is
+ * written at a time (the buffer writes while holding its lock); reads and writes may happen concurrently.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class BlobPackStore {
+
+    /** Name of the index file in the blob directory. */
+    static final String INDEX_FILE_NAME = "blobs.index";
+
+    /** A new segment file is started once the current one exceeds this size. */
+    static final long MAX_SEGMENT_SIZE = 256L << 20;
+
+    private static final String SEGMENT_FILE_PREFIX = "blobs_";
+
+    private static final String SEGMENT_FILE_SUFFIX = ".pack";
+
+    private static final int INDEX_VERSION = 1;
+
+    /** Number of bits used for the offset within a segment when encoding a position, the rest is the segment. */
+    private static final int OFFSET_BITS = 40;
+
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    private final File m_dir;
+
+    /** Per column the positions (segment and offset, see {@link #OFFSET_BITS}) of the blobs by index in column. */
+    private long[][] m_positions = new long[0][];
+
+    /** Per column the lengths of the blobs by index in column, -1 for blobs that were never written. */
+    private long[][] m_lengths = new long[0][];
+
+    /** Per column the number of used entries in the above arrays. */
+    private int[] m_counts = new int[0];
+
+    private int m_segmentCount;
+
+    /** The stream to the last segment file, null if closed (reopened in append mode on the next write). */
+    private OutputStream m_out;
+
+    /** The number of bytes in the last segment file, including those not yet flushed. */
+    private long m_segmentSize;
+
+    /** Whether there is data or index information that is not yet written to disc. */
+    private boolean m_isDirty;
+
+    /** Whether an entry is currently being written, see {@link #newEntry(int, int)}. */
+    private boolean m_isWritingEntry;
+
+    /** Channels to the segment files for reading, opened lazily. */
+    private FileChannel[] m_channels = new FileChannel[0];
+
+    private BlobPackStore(final File dir) {
+        m_dir = dir;
+    }
+
+    /**
+     * Creates a new, empty store writing to the given directory.
+     *
+     * @param dir the (existing) blob directory of the buffer
+     * @return a new store
+     */
+    static BlobPackStore create(final File dir) {
+        return new BlobPackStore(dir);
+    }
+
+    /**
+     * Opens the store in the given directory, reading its index.
+     *
+     * @param dir the blob directory of the buffer
+     * @return the store
+     * @throws IOException if the index can't be read
+     */
+    static BlobPackStore open(final File dir) throws IOException {
+        BlobPackStore store = new BlobPackStore(dir);
+        store.readIndex();
+        return store;
+    }
+
+    /**
+     * Whether the given blob directory contains packed blobs.
+     *
+     * @param dir the blob directory, may be null
+     * @return true if the directory contains an index file
+     */
+    static boolean exists(final File dir) {
+        return dir != null && new File(dir, INDEX_FILE_NAME).isFile();
+    }
+
+    private File getSegmentFile(final int segment) {
+        return new File(m_dir, SEGMENT_FILE_PREFIX + segment + SEGMENT_FILE_SUFFIX);
+    }
+
+    /**
+     * Returns a stream to write the blob with the given coordinates to. The blob is part of the store once the
+     * returned stream is closed. Only one entry can be written at a time.
+     *
+     * @param column the column of the blob
+     * @param indexInColumn the index of the blob in its column
+     * @return a stream to write the blob content to
+     * @throws IOException if the segment file can't be created
+     */
+    synchronized OutputStream newEntry(final int column, final int indexInColumn) throws IOException {
+        if (m_isWritingEntry) {
+            throw new IllegalStateException("Previous blob entry has not been closed");
+        }
+        if (m_out == null || m_segmentSize >= MAX_SEGMENT_SIZE) {
+            openSegmentForWriting();
+        }
+        m_isWritingEntry = true;
+        m_isDirty = true;
+        return new EntryOutputStream(column, indexInColumn, m_segmentCount - 1, m_segmentSize);
+    }
+
+    private void openSegmentForWriting() throws IOException {
+        final boolean isNewSegment = m_segmentCount == 0 || m_segmentSize >= MAX_SEGMENT_SIZE;
+        if (m_out != null) {
+            m_out.close();
+            m_out = null;
+        }
+        final int segment = isNewSegment ? m_segmentCount : m_segmentCount - 1;
+        final File file = getSegmentFile(segment);
+        m_out = new BufferedOutputStream(new FileOutputStream(file, !isNewSegment));
+        if (isNewSegment) {
+            m_segmentCount++;
+            m_segmentSize = 0L;
+            Buffer.onFileCreated(file);
+        } else {
+            m_segmentSize = file.length();
+        }
+    }
+
+    private void commitEntry(final int column, final int indexInColumn, final int segment, final long offset,
+        final long length) {
+        assert Thread.holdsLock(this);
+        if (column >= m_counts.length) {
+            m_positions = Arrays.copyOf(m_positions, column + 1);
+            m_lengths = Arrays.copyOf(m_lengths, column + 1);
+            m_counts = Arrays.copyOf(m_counts, column + 1);
+        }
+        long[] positions = m_positions[column];
+        long[] lengths = m_lengths[column];
+        if (positions == null || indexInColumn >= positions.length) {
+            final int oldLength = positions == null ? 0 : positions.length;
+            final int capacity = Math.max(16, Math.max(indexInColumn + 1, 2 * oldLength));
+            positions = positions == null ? new long[capacity] : Arrays.copyOf(positions, capacity);
+            lengths = lengths == null ? new long[capacity] : Arrays.copyOf(lengths, capacity);
+            Arrays.fill(lengths, oldLength, capacity, -1L);
+            m_positions[column] = positions;
+            m_lengths[column] = lengths;
+        }
+        positions[indexInColumn] = ((long)segment << OFFSET_BITS) | offset;
+        lengths[indexInColumn] = length;
+        m_counts[column] = Math.max(m_counts[column], indexInColumn + 1);
+    }
+
+    /**
+     * Opens the blob with the given coordinates for reading.
+     *
+     * @param column the column of the blob
+     * @param indexInColumn the index of the blob in its column
+     * @return a stream of the blob content (as written to the stream returned by {@link #newEntry(int, int)})
+     * @throws IOException if the blob is not part of this store or the segment file can't be opened
+     */
+    InputStream openEntry(final int column, final int indexInColumn) throws IOException {
+        final long position;
+        final long length;
+        final FileChannel channel;
+        synchronized (this) {
+            if (column >= m_counts.length || indexInColumn < 0 || indexInColumn >= m_counts[column]
+                || m_lengths[column][indexInColumn] < 0) {
+                throw new IOException("No blob at index " + indexInColumn + " in column " + column
+                    + " in blob pack \"" + m_dir.getAbsolutePath() + "\"");
+            }
+            position = m_positions[column][indexInColumn];
+            length = m_lengths[column][indexInColumn];
+            if (m_out != null) {
+                // the entry may still be in the write buffer
+                m_out.flush();
+            }
+            channel = getChannel((int)(position >>> OFFSET_BITS));
+        }
+        return new ChannelRangeInputStream(channel, position & OFFSET_MASK, length);
+    }
+
+    private FileChannel getChannel(final int segment) throws IOException {
+        assert Thread.holdsLock(this);
+        if (segment >= m_channels.length) {
+            m_channels = Arrays.copyOf(m_channels, m_segmentCount);
+        }
+        FileChannel channel = m_channels[segment];
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(getSegmentFile(segment).toPath(), StandardOpenOption.READ);
+            m_channels[segment] = channel;
+        }
+        return channel;
+    }
+
+    /**
+     * Writes pending data and the index to disc. The store remains usable for reading and writing.
+     *
+     * @throws IOException if writing fails
+     */
+    synchronized void flush() throws IOException {
+        if (m_isWritingEntry) {
+            throw new IllegalStateException("Blob entry is still being written");
+        }
+        if (m_out != null) {
+            m_out.close();
+            m_out = null;
+        }
+        if (m_isDirty) {
+            writeIndex();
+            m_isDirty = false;
+        }
+    }
+
+    /**
+     * Closes all open files without writing the index; called before the blob directory gets deleted.
+     *
+     * @throws IOException if closing a file fails
+     */
+    synchronized void close() throws IOException {
+        IOException exception = null;
+        if (m_out != null) {
+            try {
+                m_out.close();
+            } catch (IOException ioe) {
+                exception = ioe;
+            }
+            m_out = null;
+        }
+        for (int i = 0; i < m_channels.length; i++) {
+            if (m_channels[i] != null) {
+                try {
+                    m_channels[i].close();
+                } catch (IOException ioe) {
+                    exception = exception == null ? ioe : exception;
+                }
+                m_channels[i] = null;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        final File indexFile = new File(m_dir, INDEX_FILE_NAME);
+        try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(m_segmentCount);
+            out.writeInt(m_counts.length);
+            for (int col = 0; col < m_counts.length; col++) {
+                out.writeInt(m_counts[col]);
+                for (int i = 0; i < m_counts[col]; i++) {
+                    out.writeLong(m_positions[col][i]);
+                    out.writeLong(m_lengths[col][i]);
+                }
+            }
+        }
+    }
+
+    private void readIndex() throws IOException {
+        final File indexFile = new File(m_dir, INDEX_FILE_NAME);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            final int version = in.readInt();
+            if (version != INDEX_VERSION) {
+                throw new IOException("Unsupported blob index version " + version + " in \""
+                    + indexFile.getAbsolutePath() + "\"");
+            }
+            m_segmentCount = in.readInt();
+            final int columnCount = in.readInt();
+            m_positions = new long[columnCount][];
+            m_lengths = new long[columnCount][];
+            m_counts = new int[columnCount];
+            for (int col = 0; col < columnCount; col++) {
+                final int count = in.readInt();
+                m_positions[col] = new long[count];
+                m_lengths[col] = new long[count];
+                m_counts[col] = count;
+                for (int i = 0; i < count; i++) {
+                    m_positions[col][i] = in.readLong();
+                    m_lengths[col][i] = in.readLong();
+                }
+            }
+        }
+        if (m_segmentCount > 0) {
+            m_segmentSize = getSegmentFile(m_segmentCount - 1).length();
+        }
+    }
+
+    /** Stream returned by {@link BlobPackStore#newEntry(int, int)}, appends to the current segment. */
+    private final class EntryOutputStream extends OutputStream {
+
+        private final int m_column;
+
+        private final int m_indexInColumn;
+
+        private final int m_segment;
+
+        private final long m_offset;
+
+        private long m_length;
+
+        private boolean m_isClosed;
+
+        /** Whether writing failed, the (incomplete) entry is then not committed. */
+        private boolean m_isFailed;
+
+        EntryOutputStream(final int column, final int indexInColumn, final int segment, final long offset) {
+            m_column = column;
+            m_indexInColumn = indexInColumn;
+            m_segment = segment;
+            m_offset = offset;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            synchronized (BlobPackStore.this) {
+                checkOpen();
+                try {
+                    m_out.write(b);
+                } catch (IOException | RuntimeException e) {
+                    fail(e);
+                    throw e;
+                }
+                m_length += 1;
+                m_segmentSize += 1;
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            synchronized (BlobPackStore.this) {
+                checkOpen();
+                try {
+                    m_out.write(b, off, len);
+                } catch (IOException | RuntimeException e) {
+                    fail(e);
+                    throw e;
+                }
+                m_length += len;
+                m_segmentSize += len;
+            }
+        }
+
+        /**
+         * Marks this entry as failed. The current segment may contain part of it, so later entries go to a new
+         * segment (their offsets would be wrong otherwise).
+         */
+        private void fail(final Exception e) {
+            assert Thread.holdsLock(BlobPackStore.this);
+            m_isFailed = true;
+            m_segmentSize = MAX_SEGMENT_SIZE;
+            try {
+                m_out.close();
+            } catch (IOException ioe) {
+                e.addSuppressed(ioe);
+            }
+            m_out = null;
+        }
+
+        private void checkOpen() throws IOException {
+            if (m_isClosed) {
+                throw new IOException("Blob entry stream is closed");
+            }
+            if (m_out == null) {
+                m_isFailed = true;
+                throw new IOException("Blob pack has been closed while writing entry");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (BlobPackStore.this) {
+                if (!m_isClosed) {
+                    m_isClosed = true;
+                    try {
+                        if (!m_isFailed) {
+                            commitEntry(m_column, m_indexInColumn, m_segment, m_offset, m_length);
+                        }
+                    } finally {
+                        // allows the next entry even if this one failed
+                        m_isWritingEntry = false;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Reads a range of a file channel using positional reads, hence the channel can be shared among streams. */
+    private static final class ChannelRangeInputStream extends InputStream {
+
+        private final FileChannel m_channel;
+
+        private long m_position;
+
+        private long m_remaining;
+
+        ChannelRangeInputStream(final FileChannel channel, final long position, final long length) {
+            m_channel = channel;
+            m_position = position;
+            m_remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : (b[0] & 0xFF);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (m_remaining <= 0) {
+                return -1;
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(b, off, (int)Math.min(len, m_remaining));
+            final int read = m_channel.read(buffer, m_position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of blob pack file");
+            }
+            m_position += read;
+            m_remaining -= read;
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final long skipped = Math.max(0, Math.min(n, m_remaining));
+            m_position += skipped;
+            m_remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int)Math.min(Integer.MAX_VALUE, m_remaining);
+        }
+    }
+}
@@ -56,7 +56,6 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.text.NumberFormat;
@@ -66,10 +65,8 @@
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
@@ -378,12 +375,8 @@ public Thread newThread(final Runnable r) {
         }
     });
 
-    /**
-     * Hash used to reduce the overhead of reading a blob cell over and over again. Useful in cases where a blob is
-     * added multiple times to a table... the iterator will read the blob address, treat it as unseen and then ask the
-     * owning Buffer to restore the blob.
-     */
-    private final BlobLRUCache m_blobLRUCache = new BlobLRUCache();
+    /** The id of this buffer in the {@link BlobCache}, which caches the blob cells read by this buffer. */
+    private final long m_blobCacheID = BlobCache.newOwnerID();
 
     static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         @SuppressWarnings("unchecked")
@@ -423,6 +416,18 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
     /** The directory where blob cells are stored or null if none available. */
     private File m_blobDir;
 
+    /**
+     * Whether the blobs of this buffer are stored in pack files rather than one file per blob. Fixed on creation: by
+     * the {@link BufferSettings} when writing, by the presence of the pack index in the blob directory when reading.
+     */
+    private final boolean m_isBlobPackMode;
+
+    /**
+     * The pack files in {@link #m_blobDir}, null unless in {@linkplain #m_isBlobPackMode pack mode}. Opened when a
+     * buffer for reading is created, created with the first blob when writing (see {@link #getBlobPackStore()}).
+     */
+    private volatile BlobPackStore m_blobPackStore;
+
     /** true if any row contained in this buffer contains blob cells. */
     private boolean m_containsBlobs;
 
@@ -580,6 +585,7 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         m_dataRepository = dataRepository;
         m_spec = spec;
         m_outputFormat = m_bufferSettings.getOutputFormat(m_spec);
+        m_isBlobPackMode = m_bufferSettings.useBlobPackFiles();
         BufferTracker.getInstance().bufferCreated(this);
     }
 
@@ -628,6 +634,8 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
         m_spec = spec;
         m_binFile = binFile;
         m_blobDir = blobDir;
+        m_isBlobPackMode = BlobPackStore.exists(blobDir);
+        m_blobPackStore = m_isBlobPackMode ? BlobPackStore.open(blobDir) : null;
         m_bufferID = bufferID;
         if (dataRepository == null) {
             LOGGER
@@ -730,25 +738,61 @@ synchronized void addRow(final DataRow r, final boolean isCopyOfExisting, final
                 m_outputWriter.writeRow(row);
             }
         } catch (Exception e) {
-            if (!(e instanceof IOException)) {
-                LOGGER.coding("Writing cells to temporary buffer must not throw " + e.getClass().getSimpleName(), e);
-            }
-            StringBuilder builder = new StringBuilder("Error while writing to buffer");
-            if (m_binFile != null) {
-                builder.append(", failed to write to file \"");
-                builder.append(m_binFile.getName());
-                builder.append("\"");
-            }
-            builder.append(": ");
-            String message = e.getMessage();
-            if (message == null || message.length() == 0) {
-                message = "No details available";
-            }
-            builder.append(message);
-            throw new RuntimeException(builder.toString(), e);
+            throw createWriteException(e);
         }
     } // addRow(DataRow)
 
+    /**
+     * Adds a batch of rows to the buffer, see {@link #addRow(DataRow, boolean, boolean)}. The buffer is locked once
+     * per batch and, once rows are written to disk, the writer is prepared once per batch rather than once per row.
+     *
+     * @param rows The rows to be added.
+     * @param isCopyOfExisting See {@link #addRow(DataRow, boolean, boolean)}
+     * @param forceCopyOfBlobs See {@link #addRow(DataRow, boolean, boolean)}
+     */
+    synchronized void addRows(final DataRow[] rows, final boolean isCopyOfExisting, final boolean forceCopyOfBlobs) {
+        try {
+            boolean isWriterFlushed = false;
+            for (DataRow r : rows) {
+                BlobSupportDataRow row = saveBlobsAndFileStores(r, isCopyOfExisting, forceCopyOfBlobs);
+                if (getAndIncrementSize() == Integer.MAX_VALUE) {
+                    flushBuffer();
+                }
+                if (m_listWhileAddRow != null) {
+                    m_listWhileAddRow.add(row);
+                    m_lifecycle.onAddRowToList(row);
+                } else {
+                    if (!isWriterFlushed) {
+                        flushBuffer();
+                        isWriterFlushed = true;
+                    }
+                    m_outputWriter.writeRow(row);
+                }
+            }
+        } catch (Exception e) {
+            throw createWriteException(e);
+        }
+    } // addRows(DataRow[])
+
+    private RuntimeException createWriteException(final Exception e) {
+        if (!(e instanceof IOException)) {
+            LOGGER.coding("Writing cells to temporary buffer must not throw " + e.getClass().getSimpleName(), e);
+        }
+        StringBuilder builder = new StringBuilder("Error while writing to buffer");
+        if (m_binFile != null) {
+            builder.append(", failed to write to file \"");
+            builder.append(m_binFile.getName());
+            builder.append("\"");
+        }
+        builder.append(": ");
+        String message = e.getMessage();
+        if (message == null || message.length() == 0) {
+            message = "No details available";
+        }
+        builder.append(message);
+        return new RuntimeException(builder.toString(), e);
+    }
+
     /**
      * @throws IOException
      */
@@ -948,9 +992,7 @@ private DataCell handleIncomingBlob(final DataCell cell, final int col, final in
             if (b != null && !isToCloneForVersionHop) {
                 int indexBlobInCol = m_indicesOfBlobInColumns[col]++;
                 rewrite.setIndexOfBlobInColumn(indexBlobInCol);
-                File source = b.getBlobFile(ad.getIndexOfBlobInColumn(), ad.getColumn(), false, ad.isUseCompression());
-                File dest = getBlobFile(indexBlobInCol, col, true, ad.isUseCompression());
-                FileUtil.copy(source, dest);
+                copyBlob(b, ad, indexBlobInCol, col);
                 wc = new BlobWrapperDataCell(this, rewrite, cl);
             } else {
                 BlobDataCell bc;
@@ -1002,7 +1044,6 @@ private void writeBlobDataCell(final BlobDataCell cell, final BlobAddress a) thr
         int indexInColumn = m_indicesOfBlobInColumns[column]++;
         a.setIndexOfBlobInColumn(indexInColumn);
         boolean isToCompress = Buffer.isUseCompressionForBlobs(CellClassInfo.get(cell));
-        File outFile = getBlobFile(indexInColumn, column, true, isToCompress);
         BlobAddress originalBA = cell.getBlobAddress();
         if (!Objects.equals(originalBA, a)) {
             int originalBufferIndex = originalBA.getBufferID();
@@ -1017,18 +1058,20 @@ private void writeBlobDataCell(final BlobDataCell cell, final BlobAddress a) thr
                 }
             }
             if (originalBuffer != null) {
-                int index = originalBA.getIndexOfBlobInColumn();
-                int col = originalBA.getColumn();
-                boolean compress = originalBA.isUseCompression();
-                File source = originalBuffer.getBlobFile(index, col, false, compress);
-                FileUtil.copy(source, outFile);
+                copyBlob(originalBuffer, originalBA, indexInColumn, column);
                 return;
             }
         }
-        OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile));
-        Buffer.onFileCreated(outFile);
+        final OutputStream blobOut = openBlobOutputStream(indexInColumn, column, isToCompress);
+        OutputStream out = blobOut;
         if (isToCompress) {
-            out = new GZIPOutputStream(out);
+            try {
+                out = new GZIPOutputStream(out);
+            } catch (IOException | RuntimeException e) {
+                // closes the entry, otherwise no further blobs could be written to the pack files
+                blobOut.close();
+                throw e;
+            }
             // buffering the gzip stream brings another performance boost
             // (in one case from 5mins down to 2 mins)
             out = new BufferedOutputStream(out);
@@ -1043,6 +1086,23 @@ private void writeBlobDataCell(final BlobDataCell cell, final BlobAddress a) thr
         }
     }
 
+    /**
+     * Copies the blob at the given address of another buffer into this buffer, without deserializing it.
+     *
+     * @param source the buffer owning the blob
+     * @param sourceAddress the address of the blob in the source buffer
+     * @param indexBlobInCol the index of the copy in its column in this buffer
+     * @param column the column of the copy
+     */
+    private void copyBlob(final Buffer source, final BlobAddress sourceAddress, final int indexBlobInCol,
+        final int column) throws IOException {
+        try (InputStream in = source.openBlobInputStream(sourceAddress.getIndexOfBlobInColumn(),
+                sourceAddress.getColumn(), sourceAddress.isUseCompression());
+                OutputStream out = openBlobOutputStream(indexBlobInCol, column, sourceAddress.isUseCompression())) {
+            IOUtils.copyLarge(in, out);
+        }
+    }
+
     private boolean mustBeFlushedPriorSave(final DataCell cell, final boolean isWrapperCell,
         final boolean isCollectionCell) {
         if (cell instanceof FileStoreCell) {
@@ -1110,6 +1170,14 @@ void closeInternal() {
             flushBuffer();
             closeWriterAndWriteMeta();
         }
+        final BlobPackStore packStore = m_blobPackStore;
+        if (packStore != null) {
+            try {
+                packStore.flush();
+            } catch (IOException ioe) {
+                throw new RuntimeException("Cannot write blob pack index in \"" + m_blobDir + "\"", ioe);
+            }
+        }
         m_localRepository = null;
     }
 
@@ -1274,6 +1342,9 @@ private void initOutputReader(final NodeSettingsRO outputFormatSettings, final i
         m_outputReader = m_outputFormat.createReader(m_binFile, m_spec, m_dataRepository, outputFormatSettings,
             version, !shouldSkipRowKey());
         m_outputReader.setBufferAndDataRepository(this, m_dataRepository);
+        if (m_outputReader instanceof DefaultTableStoreReader) {
+            ((DefaultTableStoreReader)m_outputReader).setStringCellCache(m_bufferSettings.createStringCellCache());
+        }
     }
 
     /**
@@ -1370,8 +1441,7 @@ BlobDataCell readBlobDataCell(final BlobAddress blobAddress, final CellClassInfo
             Buffer blobBuffer = cnTbl.getBuffer();
             return blobBuffer.readBlobDataCell(blobAddress, cl);
         }
-        SoftReference<BlobDataCell> softRef = m_blobLRUCache.get(blobAddress);
-        BlobDataCell result = softRef != null ? softRef.get() : null;
+        BlobDataCell result = BlobCache.getInstance().get(m_blobCacheID, blobAddress);
         if (result != null) {
             return result;
         }
@@ -1380,10 +1450,76 @@ BlobDataCell readBlobDataCell(final BlobAddress blobAddress, final CellClassInfo
         } else {
             result = BufferFromFileIteratorVersion20.readBlobDataCell(blobAddress, cl, this);
         }
-        m_blobLRUCache.put(blobAddress, new SoftReference<BlobDataCell>(result));
+        BlobCache.getInstance().put(m_blobCacheID, blobAddress, result);
         return result;
     }
 
+    /**
+     * Returns the pack files to write the blobs of this buffer to (only to be called in
+     * {@linkplain #m_isBlobPackMode pack mode}), creating them (and the blob directory) with the first blob.
+     *
+     * @return the pack store
+     * @throws IOException if the blob directory can't be created
+     */
+    private BlobPackStore getBlobPackStore() throws IOException {
+        BlobPackStore packStore = m_blobPackStore;
+        if (packStore == null) {
+            synchronized (this) {
+                packStore = m_blobPackStore;
+                if (packStore == null) {
+                    ensureBlobDirExists();
+                    packStore = BlobPackStore.create(m_blobDir);
+                    m_blobPackStore = packStore;
+                }
+            }
+        }
+        return packStore;
+    }
+
+    /**
+     * Opens the (possibly compressed) content of a blob of this buffer, either from its individual file or from the
+     * pack files.
+     *
+     * @param indexBlobInCol The index in the column (generally the row number).
+     * @param column The column index.
+     * @param isCompressed If the blob is compressed
+     * @return A stream of the blob content, to be closed by the caller.
+     * @throws IOException If the blob can't be found or opened.
+     */
+    InputStream openBlobInputStream(final int indexBlobInCol, final int column, final boolean isCompressed)
+        throws IOException {
+        if (m_isBlobPackMode) {
+            final BlobPackStore packStore = m_blobPackStore;
+            if (packStore == null) {
+                throw new IOException("No blob at index " + indexBlobInCol + " in column " + column
+                    + ", no blobs written or buffer cleared");
+            }
+            return packStore.openEntry(column, indexBlobInCol);
+        }
+        return new FileInputStream(getBlobFile(indexBlobInCol, column, false, isCompressed));
+    }
+
+    /**
+     * Opens the stream to write a new blob to, either an individual file or an entry in the pack files.
+     *
+     * @param indexBlobInCol The index in the column (generally the row number).
+     * @param column The column index.
+     * @param isCompressed If the blob is to be compressed (the caller compresses it, this only affects the file name)
+     * @return A buffered stream, to be closed by the caller.
+     * @throws IOException If the file can't be created.
+     */
+    private OutputStream openBlobOutputStream(final int indexBlobInCol, final int column,
+        final boolean isCompressed) throws IOException {
+        if (m_isBlobPackMode) {
+            // writes to the buffered stream of the current pack file
+            return getBlobPackStore().newEntry(column, indexBlobInCol);
+        }
+        File outFile = getBlobFile(indexBlobInCol, column, true, isCompressed);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile));
+        Buffer.onFileCreated(outFile);
+        return out;
+    }
+
     private void ensureBlobDirExists() throws IOException {
         if (m_blobDir == null) {
             ensureTempFileExists();
@@ -1748,6 +1884,15 @@ synchronized void clear() {
                 // output reader might be null if Buffer was created but never read -- no iterators to clear
                 m_outputReader.clearIteratorInstances();
             }
+            final BlobPackStore packStore = m_blobPackStore;
+            if (packStore != null) {
+                try {
+                    packStore.close();
+                } catch (IOException ioe) {
+                    LOGGER.debug("Unable to close blob pack files in \"" + m_blobDir + "\"", ioe);
+                }
+                m_blobPackStore = null;
+            }
             if (m_blobDir != null) {
                 DeleteInBackgroundThread.delete(m_binFile, m_blobDir);
             } else {
@@ -1757,9 +1902,7 @@ synchronized void clear() {
         if (m_fileStoreHandler instanceof NotInWorkflowWriteFileStoreHandler) {
             m_fileStoreHandler.clearAndDispose();
         }
-        if (m_blobLRUCache != null) {
-            m_blobLRUCache.clear();
-        }
+        BlobCache.getInstance().invalidate(m_blobCacheID);
         m_binFile = null;
         m_blobDir = null;
     }
@@ -1826,35 +1969,6 @@ synchronized void flushBuffer() {
         }
     }
 
-    /** Last recently used cache for blobs. */
-    private static final class BlobLRUCache extends LinkedHashMap<BlobAddress, SoftReference<BlobDataCell>> {
-
-        /** Default constructor, instructs for access order. */
-        BlobLRUCache() {
-            super(16, 0.75f, true); // args copied from HashMap implementation
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        protected synchronized boolean removeEldestEntry(final Entry<BlobAddress, SoftReference<BlobDataCell>> eldest) {
-            return size() >= 100;
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        public synchronized SoftReference<BlobDataCell> get(final Object key) {
-            return super.get(key);
-        }
-
-        /** {@inheritDoc} */
-        @Override
-        public synchronized SoftReference<BlobDataCell> put(final BlobAddress key,
-                                                            final SoftReference<BlobDataCell> value) {
-            return super.put(key, value);
-        }
-
-    }
-
     /**
      * The BackIntoMemoryIterator holds lists of datarows read from a file. It is strongly referenced only by the
      * FromListIterators and is only weak-referenced in the outer Buffer class. This way, we make sure that the
@@ -1969,6 +2083,32 @@ public DataRow next() {
             }
         }
 
+        /**
+         * {@inheritDoc}
+         *
+         * <p>
+         * Copies the rows held in memory into the batch under a single lock.
+         */
+        @Override
+        public RowBatch nextBatch(final int maxRows) {
+            if (maxRows <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive: " + maxRows);
+            }
+            final RowBatch batch = getReusableBatch(m_spec.getNumColumns(), maxRows);
+            Object semaphore = m_backIntoMemoryIterator != null ? m_backIntoMemoryIterator : FromListIterator.this;
+            synchronized (semaphore) {
+                while (batch.size() < maxRows && hasNext()) {
+                    if (m_list != null && m_nextIndex < m_list.size()) {
+                        batch.addRow(m_list.get(m_nextIndex++));
+                    } else {
+                        // rows not yet restored from disk
+                        batch.addRow(next());
+                    }
+                }
+            }
+            return batch;
+        }
+
         /** {@inheritDoc} */
         @Override
         public void close() {
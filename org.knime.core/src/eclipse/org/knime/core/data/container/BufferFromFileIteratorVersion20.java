@@ -48,8 +48,6 @@
 package org.knime.core.data.container;
 
 import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -59,6 +57,7 @@
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellSerializer;
 import org.knime.core.data.DataType;
+import org.knime.core.data.RowIteratorBuilder.RowSelection;
 import org.knime.core.data.RowKey;
 import org.knime.core.data.container.BlobDataCell.BlobAddress;
 import org.knime.core.data.container.DCObjectInputVersion2.BlockableDCObjectInputVersion2;
@@ -68,6 +67,7 @@
 import org.knime.core.data.filestore.FileStoreKey;
 import org.knime.core.data.filestore.FileStoreUtil;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.node.util.CheckUtils;
 
 /**
  * File iterator to read stream written by a {@link Buffer}.
@@ -83,7 +83,19 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
     private final DefaultTableStoreReader m_tableFormatReader;
 
     /** Row pointer. */
-    private int m_pointer;
+    private long m_pointer;
+
+    /** The rows to be returned, rows not contained are skipped in the stream. */
+    private final RowSelection m_selection;
+
+    /** Index of the row after the last row to be returned. */
+    private final long m_endIndex;
+
+    /** The next selected row, only used in case the selection has predicates (which requires reading ahead). */
+    private BlobSupportDataRow m_nextSelectedRow;
+
+    /** The cells of the row currently read by {@link #nextBatch(int)}, reused for all rows. */
+    private DataCell[] m_batchCells;
 
     /** Content of the rows that get returned in {@link #next()} when the
      * table is {@link #close()}'d. Will be instantiated lazy. */
@@ -106,6 +118,16 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
      * @throws IOException If stream reading fails.
      */
     BufferFromFileIteratorVersion20(final DefaultTableStoreReader tableFormatReader) throws IOException {
+        this(tableFormatReader, RowSelection.ALL);
+    }
+
+    /** Inits iterator, opens input stream.
+     * @param tableFormatReader The associated buffer.
+     * @param selection The rows to return, others are skipped without deserializing their cells.
+     * @throws IOException If stream reading fails.
+     */
+    BufferFromFileIteratorVersion20(final DefaultTableStoreReader tableFormatReader, final RowSelection selection)
+        throws IOException {
         // init the pointer
         m_pointer = 0;
 
@@ -119,8 +141,12 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
         assert m_tableFormatReader.getReadVersion() >= 6 : "Iterator is not backward compatible, use instead "
             + BufferFromFileIteratorVersion1x.class.getSimpleName();
 
+        m_selection = selection;
+        final long toIndex = selection.getToIndex();
+        m_endIndex = toIndex == Long.MAX_VALUE ? Long.MAX_VALUE : toIndex + 1;
+
         // open the input stream
-        m_dataCellStreamReader = new DataCellStreamReader(tableFormatReader);
+        m_dataCellStreamReader = new DataCellStreamReader(tableFormatReader, tableFormatReader.getStringCellCache());
         m_inStream = new BlockableDCObjectInputVersion2(getInputStream(tableFormatReader), m_dataCellStreamReader);
     }
 
@@ -128,7 +154,18 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
     /** {@inheritDoc} */
     @Override
     public synchronized boolean hasNext() {
-        boolean hasNext = m_pointer < m_tableFormatReader.size();
+        final long end = Math.min(m_endIndex, m_tableFormatReader.size());
+        boolean hasNext;
+        if (m_selection.hasPredicates()) {
+            while (m_nextSelectedRow == null && m_pointer < end) {
+                skipToFromIndex();
+                m_nextSelectedRow = m_pointer < end ? readRow(true) : null;
+            }
+            hasNext = m_nextSelectedRow != null;
+        } else {
+            skipToFromIndex();
+            hasNext = m_pointer < end;
+        }
         if (!hasNext && (m_inStream != null)) {
             close();
         }
@@ -141,9 +178,93 @@ public synchronized BlobSupportDataRow next() {
         if (!hasNext()) {
             throw new NoSuchElementException("Iterator at end");
         }
-        final BlockableDCObjectInputVersion2 inStream = m_inStream;
+        if (m_nextSelectedRow != null) {
+            final BlobSupportDataRow next = m_nextSelectedRow;
+            m_nextSelectedRow = null;
+            return next;
+        }
+        return readRow(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Reads the rows straight into the batch under a single lock, without creating a row object (and cell array) per
+     * row.
+     */
+    @Override
+    public synchronized RowBatch nextBatch(final int maxRows) {
+        CheckUtils.checkArgument(maxRows > 0, "Batch size must be positive: %d", maxRows);
+        final int colCount = m_tableFormatReader.getTableSpec().getNumColumns();
+        final RowBatch batch = getReusableBatch(colCount, maxRows);
+        if (m_batchCells == null) {
+            m_batchCells = new DataCell[colCount];
+        }
+        while (batch.size() < maxRows && hasNext()) {
+            if (m_nextSelectedRow != null) {
+                // read ahead by hasNext() in order to evaluate the predicates
+                batch.addRow(m_nextSelectedRow);
+                m_nextSelectedRow = null;
+            } else if (m_inStream == null) {
+                batch.addRow(readRow(false));
+            } else {
+                batch.addRow(readRow(m_batchCells, false), m_batchCells);
+            }
+        }
+        return batch;
+    }
+
+    /** Skips all rows before the first selected row without materializing them. */
+    private void skipToFromIndex() {
+        final long fromIndex = Math.min(m_selection.getFromIndex(), m_tableFormatReader.size());
+        while (m_pointer < fromIndex) {
+            final BlockableDCObjectInputVersion2 inStream = m_inStream;
+            if (inStream == null) { // iterator was closed, nothing to skip in the stream
+                m_pointer = fromIndex;
+                return;
+            }
+            try {
+                if (m_tableFormatReader.isReadRowKey()) {
+                    inStream.endBlock();
+                }
+                skipCells(inStream, 0);
+                readEndOfRow(inStream);
+            } catch (IOException ioe) {
+                handleReadThrowable(ioe);
+            } finally {
+                m_pointer++;
+            }
+        }
+    }
+
+    /** Skips the cells of the current row (starting with the argument column) by pushing the stream to the end of
+     * their blocks, i.e. no cell is deserialized. */
+    private void skipCells(final BlockableDCObjectInputVersion2 inStream, final int firstColumn)
+        throws IOException {
         int colCount = m_tableFormatReader.getTableSpec().getNumColumns();
-        if (inStream == null) { // iterator was closed
+        for (int i = firstColumn; i < colCount; i++) {
+            inStream.endBlock();
+        }
+    }
+
+    /** Reads the row separator, complaining if it's not there. */
+    private static void readEndOfRow(final BlockableDCObjectInputVersion2 inStream) throws IOException {
+        byte eoRow = inStream.readControlByte();
+        if (eoRow != BYTE_ROW_SEPARATOR) {
+            throw new IOException("Expected end of row byte, got '" + eoRow + "', (byte " + (int)eoRow + ")");
+        }
+    }
+
+    /**
+     * Reads the row at the current pointer position and increments the pointer.
+     *
+     * @param applyPredicates whether to test the cells against the predicates of the row selection
+     * @return the row or <code>null</code> if a predicate failed (the remaining cells have been skipped then)
+     */
+    private BlobSupportDataRow readRow(final boolean applyPredicates) {
+        final int colCount = m_tableFormatReader.getTableSpec().getNumColumns();
+        if (m_inStream == null) { // iterator was closed
             if (m_missingCellsForClosedTable == null) {
                 m_missingCellsForClosedTable = new DataCell[colCount];
                 Arrays.fill(m_missingCellsForClosedTable,
@@ -154,6 +275,23 @@ public synchronized BlobSupportDataRow next() {
             m_pointer++;
             return new BlobSupportDataRow(key, m_missingCellsForClosedTable);
         }
+        final DataCell[] cells = new DataCell[colCount];
+        final RowKey key = readRow(cells, applyPredicates);
+        return key != null ? new BlobSupportDataRow(key, cells) : null;
+    }
+
+    /**
+     * Reads the cells of the row at the current pointer position into the argument array and increments the pointer.
+     * The stream must not be closed.
+     *
+     * @param cells the array to read the cells into, its length is the number of columns
+     * @param applyPredicates whether to test the cells against the predicates of the row selection
+     * @return the key of the row or <code>null</code> if a predicate failed (the remaining cells have been skipped
+     *         then)
+     */
+    private RowKey readRow(final DataCell[] cells, final boolean applyPredicates) {
+        final BlockableDCObjectInputVersion2 inStream = m_inStream;
+        final int colCount = cells.length;
         RowKey key;
         try {
             key = readRowKeyAndEndBlock(inStream);
@@ -164,32 +302,39 @@ public synchronized BlobSupportDataRow next() {
             String keyS = "Read_failed__auto_generated_key_" + m_pointer;
             key = new RowKey(keyS);
         }
-        DataCell[] cells = new DataCell[colCount];
+        final int lastPredicateColumn = applyPredicates ? m_selection.getLastPredicateColumn() : -1;
+        boolean isSelected = true;
         for (int i = 0; i < colCount; i++) {
             DataCell nextCell;
             try {
                 try {
-                    nextCell = m_dataCellStreamReader.readDataCell(m_inStream);
+                    nextCell = m_dataCellStreamReader.readDataCell(inStream);
                 } finally {
-                    m_inStream.endBlock();
+                    inStream.endBlock();
                 }
             } catch (final Exception e) {
                 handleReadThrowable(e);
                 nextCell = DataType.getMissingCell();
             }
             cells[i] = nextCell;
+            if (i <= lastPredicateColumn && !m_selection.test(i, nextCell)) {
+                isSelected = false;
+                try {
+                    skipCells(inStream, i + 1);
+                } catch (IOException ioe) {
+                    handleReadThrowable(ioe);
+                }
+                break;
+            }
         }
         try {
-            byte eoRow = inStream.readControlByte();
-            if (eoRow != BYTE_ROW_SEPARATOR) {
-                throw new IOException("Expected end of row byte, got '" + eoRow + "', (byte " + (int)eoRow + ")");
-            }
+            readEndOfRow(inStream);
         } catch (IOException ioe) {
             handleReadThrowable(ioe);
         } finally {
             m_pointer++;
         }
-        return new BlobSupportDataRow(key, cells);
+        return isSelected ? key : null;
     }
 
     /** Reads a row key from the stream and ends the block. In case of buffers
@@ -272,8 +417,7 @@ static BlobDataCell readBlobDataCell(final BlobAddress blobAddress, final CellCl
         int column = blobAddress.getColumn();
         int indexInColumn = blobAddress.getIndexOfBlobInColumn();
         boolean isCompress = blobAddress.isUseCompression();
-        File inFile = buffer.getBlobFile(indexInColumn, column, false, isCompress);
-        InputStream in = new BufferedInputStream(new FileInputStream(inFile));
+        InputStream in = new BufferedInputStream(buffer.openBlobInputStream(indexInColumn, column, isCompress));
         if (isCompress) {
             in = new GZIPInputStream(in);
             // that buffering is important
@@ -305,10 +449,28 @@ public static class DataCellStreamReader {
         /** Associated buffer. */
         private final AbstractTableStoreReader m_tableFormatReader;
 
+        /** The {@link PrimitiveCellType} for each type shortcut byte (indexed by the unsigned byte value), if any. */
+        private final PrimitiveCellType[] m_primitiveTypes = new PrimitiveCellType[256];
+
+        /** Whether the corresponding entry in {@link #m_primitiveTypes} has been determined. */
+        private final boolean[] m_primitiveTypesResolved = new boolean[256];
+
+        /** Cache returning shared string cells, may be null. */
+        private final StringCellCache m_stringCellCache;
+
         /** Only memorizes the table reader.
          * @param tableFormatReader associated reader, possibly be null. */
         public DataCellStreamReader(final AbstractTableStoreReader tableFormatReader) {
+            this(tableFormatReader, null);
+        }
+
+        /** Memorizes the table reader and the string cell cache.
+         * @param tableFormatReader associated reader, possibly be null.
+         * @param stringCellCache cache returning shared string cells, possibly null. */
+        DataCellStreamReader(final AbstractTableStoreReader tableFormatReader,
+            final StringCellCache stringCellCache) {
             m_tableFormatReader = tableFormatReader;
+            m_stringCellCache = stringCellCache;
         }
 
         /**
@@ -332,6 +494,14 @@ public DataCell readDataCell(final DCObjectInputVersion2 inStream) throws IOExce
             }
 
             CellClassInfo type = m_tableFormatReader.getTypeForChar(identifier);
+            if (!isJavaSerialization) {
+                final PrimitiveCellType primitiveType = getPrimitiveType(identifier, type);
+                if (primitiveType == PrimitiveCellType.STRING && m_stringCellCache != null) {
+                    return m_stringCellCache.get(inStream.readUTF());
+                } else if (primitiveType != null) {
+                    return inStream.readPrimitiveCell(primitiveType);
+                }
+            }
             Class<? extends DataCell> cellClass = type.getCellClass();
             boolean isBlob = BlobDataCell.class.isAssignableFrom(cellClass);
             boolean isFileStore = FileStoreCell.class.isAssignableFrom(cellClass);
@@ -374,6 +544,15 @@ public DataCell readDataCell(final DCObjectInputVersion2 inStream) throws IOExce
 
             return result;
         }
+
+        private PrimitiveCellType getPrimitiveType(final byte identifier, final CellClassInfo type) {
+            final int index = identifier & 0xFF;
+            if (!m_primitiveTypesResolved[index]) {
+                m_primitiveTypes[index] = PrimitiveCellType.get(type);
+                m_primitiveTypesResolved[index] = true;
+            }
+            return m_primitiveTypes[index];
+        }
     } // class DataCellStreamReader
 
 }
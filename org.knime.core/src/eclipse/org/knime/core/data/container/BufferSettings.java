@@ -55,6 +55,7 @@
 import org.knime.core.data.container.storage.TableStoreFormatRegistry;
 import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.node.util.CheckUtils;
 
 /**
  * The buffer settings. Solely used for benchmarking.
@@ -86,6 +87,12 @@ public final class BufferSettings {
     /** The output table store format. */
     private final TableStoreFormat m_outputFormat;
 
+    /** The size of the table's string cell cache, 0 for none and -1 for the global cache. */
+    private final int m_stringCellCacheSize;
+
+    /** Whether blobs are written to a few pack files rather than one file per blob. */
+    private final boolean m_useBlobPackFiles;
+
     /**
      * Default constructor.
      */
@@ -93,6 +100,8 @@ public final class BufferSettings {
         m_enableLRU = initLRU();
         m_lruCacheSize = DEF_LRU_CACHE_SIZE;
         m_outputFormat = TableStoreFormatRegistry.getInstance().getInstanceTableStoreFormat();
+        m_stringCellCacheSize = -1;
+        m_useBlobPackFiles = Boolean.getBoolean(KNIMEConstants.PROPERTY_BLOB_PACK_FILES);
     }
 
     /**
@@ -101,12 +110,17 @@ public final class BufferSettings {
      * @param enableLRU the enable LRU flag
      * @param lruCacheSize the LRU cache size
      * @param outputFormat the output format
+     * @param stringCellCacheSize the size of the string cell cache
+     * @param useBlobPackFiles whether to write blobs to pack files
      * @noreference This constructor is not intended to be referenced by clients.
      */
-    private BufferSettings(final boolean enableLRU, final int lruCacheSize, final TableStoreFormat outputFormat) {
+    private BufferSettings(final boolean enableLRU, final int lruCacheSize, final TableStoreFormat outputFormat,
+        final int stringCellCacheSize, final boolean useBlobPackFiles) {
         m_enableLRU = enableLRU;
         m_lruCacheSize = lruCacheSize;
         m_outputFormat = outputFormat;
+        m_stringCellCacheSize = stringCellCacheSize;
+        m_useBlobPackFiles = useBlobPackFiles;
     }
 
     /**
@@ -166,6 +180,59 @@ TableStoreFormat getOutputFormat(final DataTableSpec spec) {
         return storeFormat;
     }
 
+    /**
+     * Returns the cache used to share string cells while reading the table from disc. That's either a new cache for
+     * the table, the global cache (see {@link KNIMEConstants#PROPERTY_STRING_CELL_CACHE_SIZE}) or <code>null</code>.
+     *
+     * @return the cache or <code>null</code>
+     */
+    StringCellCache createStringCellCache() {
+        if (m_stringCellCacheSize < 0) {
+            return StringCellCache.getGlobalInstance();
+        }
+        return m_stringCellCacheSize == 0 ? null : new StringCellCache(m_stringCellCacheSize);
+    }
+
+    /**
+     * Returns whether blobs are appended to a few large pack files (with an index) rather than written to one file per
+     * blob. Tables are read correctly in either case.
+     *
+     * @return whether to write blobs to pack files
+     * @see KNIMEConstants#PROPERTY_BLOB_PACK_FILES
+     */
+    boolean useBlobPackFiles() {
+        return m_useBlobPackFiles;
+    }
+
+    /**
+     * Creates a new <code>BufferSettings</code> object by replicating the current <code>BufferSettings</code> instance
+     * and solely changes whether blobs are written to pack files.
+     *
+     * @param useBlobPackFiles whether to append blobs to a few pack files instead of one file per blob
+     * @return a new instance of {@code BufferSettings}
+     * @since 3.8
+     */
+    public BufferSettings withBlobPackFiles(final boolean useBlobPackFiles) {
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, m_outputFormat, m_stringCellCacheSize,
+            useBlobPackFiles);
+    }
+
+    /**
+     * Creates a new <code>BufferSettings</code> object by replicating the current <code>BufferSettings</code> instance
+     * and solely changes the size of the cache that shares equal string cells while the table is read from disc.
+     *
+     * @param stringCellCacheSize the number of entries of a cache dedicated to the table, 0 to disable caching or -1
+     *            to use the global cache (the default)
+     * @return a new instance of {@code BufferSettings}
+     * @since 3.8
+     */
+    public BufferSettings withStringCellCacheSize(final int stringCellCacheSize) {
+        CheckUtils.checkArgument(stringCellCacheSize >= -1, "Invalid string cell cache size: %d",
+            stringCellCacheSize);
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, m_outputFormat, stringCellCacheSize,
+            m_useBlobPackFiles);
+    }
+
     /**
      * Creates a new <code>BufferSettings</code> object by replicating the current <code>BufferSettings</code> instance
      * and solely changes the enable LRU caching flag.
@@ -174,7 +241,8 @@ TableStoreFormat getOutputFormat(final DataTableSpec spec) {
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withLRU(final boolean enableLRU) {
-        return new BufferSettings(enableLRU, m_lruCacheSize, m_outputFormat);
+        return new BufferSettings(enableLRU, m_lruCacheSize, m_outputFormat, m_stringCellCacheSize,
+            m_useBlobPackFiles);
     }
 
     /**
@@ -185,7 +253,8 @@ public BufferSettings withLRU(final boolean enableLRU) {
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withLRUCacheSize(final int lruCacheSize) {
-        return new BufferSettings(m_enableLRU, lruCacheSize, m_outputFormat);
+        return new BufferSettings(m_enableLRU, lruCacheSize, m_outputFormat, m_stringCellCacheSize,
+            m_useBlobPackFiles);
     }
 
     /**
@@ -196,7 +265,8 @@ public BufferSettings withLRUCacheSize(final int lruCacheSize) {
      * @return a new instance of {@code BufferSettings}
      */
     public BufferSettings withOutputFormat(final TableStoreFormat outputFormat) {
-        return new BufferSettings(m_enableLRU, m_lruCacheSize, outputFormat);
+        return new BufferSettings(m_enableLRU, m_lruCacheSize, outputFormat, m_stringCellCacheSize,
+            m_useBlobPackFiles);
     }
 
 }
@@ -49,7 +49,9 @@
 
 import java.io.Closeable;
 
+import org.knime.core.data.DataRow;
 import org.knime.core.data.RowIterator;
+import org.knime.core.node.util.CheckUtils;
 
 /**
  * A {@link RowIterator row iterator} that can be closed in order to save
@@ -64,6 +66,56 @@
  */
 public abstract class CloseableRowIterator extends RowIterator implements Closeable {
 
+    /** The batch returned by {@link #nextBatch(int)}, created lazily and reused. */
+    private RowBatch m_batch;
+
+    /**
+     * Returns up to <code>maxRows</code> next rows of this iterator as a batch. The returned batch is reused by
+     * subsequent calls, i.e. its content is only valid until this method is called again. The returned batch is empty
+     * if (and only if) there are no more rows. Calls of this method can be mixed with {@link #next()}.
+     *
+     * <p>
+     * This implementation collects the rows returned by {@link #next()}; subclasses may overwrite it to fill the batch
+     * directly.
+     *
+     * @param maxRows the maximum number of rows in the returned batch, must be positive
+     * @return the (reused) batch containing the next rows, not null
+     * @throws IllegalArgumentException if <code>maxRows</code> is not positive
+     * @since 3.8
+     */
+    public RowBatch nextBatch(final int maxRows) {
+        CheckUtils.checkArgument(maxRows > 0, "Batch size must be positive: %d", maxRows);
+        if (m_batch != null) {
+            m_batch.clear();
+        }
+        for (int i = 0; i < maxRows && hasNext(); i++) {
+            final DataRow row = next();
+            if (m_batch == null) {
+                m_batch = new RowBatch(row.getNumCells(), maxRows);
+            }
+            m_batch.addRow(row);
+        }
+        return m_batch != null ? m_batch : new RowBatch(0, 0);
+    }
+
+    /**
+     * Returns the (cleared) batch to be filled and returned by {@link #nextBatch(int)}. Meant for subclasses that
+     * overwrite {@link #nextBatch(int)} in order to fill the batch directly; the batch is reused across calls.
+     *
+     * @param numColumns the number of cells in each row
+     * @param capacity the initial capacity if a new batch needs to be created
+     * @return the empty batch, not null
+     * @since 3.8
+     */
+    protected final RowBatch getReusableBatch(final int numColumns, final int capacity) {
+        if (m_batch == null || m_batch.getNumColumns() != numColumns) {
+            m_batch = new RowBatch(numColumns, capacity);
+        } else {
+            m_batch.clear();
+        }
+        return m_batch;
+    }
+
     /** Closes this iterator. Subsequent calls of {@link RowIterator#hasNext()}
      * will return <code>false</code>. This method does not need to be called
      * if the iterator was pushed to the end (stream will be closed
@@ -301,6 +301,8 @@ private static void copyEntryToDir(final ZipEntry entry,
         if (entry.isDirectory()) {
             Files.createDirectories(f.toPath());
         } else {
+            // blob pack files are located directly in the blob directory, which has no zip entry of its own
+            Files.createDirectories(f.getParentFile().toPath());
             try (OutputStream o = new FileOutputStream(f)) {
                 FileUtil.copy(in, o);
             }
@@ -104,6 +104,22 @@ DataCell readDataCellPerKNIMESerializer(final DataCellSerializer<? extends DataC
         return serializer.deserialize(m_dataIn);
     }
 
+    /** Reads one of the built-in primitive cells as written by its serializer.
+     * @param type The type of the cell.
+     * @return The cell, possibly a shared instance.
+     * @throws IOException If reading fails.
+     */
+    DataCell readPrimitiveCell(final PrimitiveCellType type) throws IOException {
+        return type.read(m_dataIn);
+    }
+
+    /** Reads a string as written by {@link java.io.DataOutput#writeUTF(String)} (with support for long strings).
+     * @return The string.
+     * @throws IOException If reading fails.
+     */
+    String readUTF() throws IOException {
+        return m_dataIn.readUTF();
+    }
 
     /** Reads a data cell from the stream using java de-serialization.
      * @return A new data cell instance.
@@ -97,6 +97,15 @@ public void writeDataCellPerKNIMESerializer(
         serializer.serialize(cell, m_dataOut);
     }
 
+    /** Writes the value of one of the built-in primitive cells, producing the same bytes as its serializer.
+     * @param type The type of the cell.
+     * @param cell The cell to be written.
+     * @throws IOException If that fails.
+     */
+    void writePrimitiveCell(final PrimitiveCellType type, final DataCell cell) throws IOException {
+        type.write(cell, m_dataOut);
+    }
+
     /**
      * Saves an array of file store keys
      * @since 3.7
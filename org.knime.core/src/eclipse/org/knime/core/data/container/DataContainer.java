@@ -368,43 +368,77 @@ public DataContainer(final DataTableSpec spec, final DataContainerSettings setti
 
     private void addRowToTableWrite(final DataRow row) {
         // let's do every possible sanity check
+        checkCellCount(row);
+        for (int c = 0; c < row.getNumCells(); c++) {
+            DataCell value = getRawCell(row, c);
+            checkCellType(m_spec.getColumnSpec(c).getType(), getRuntimeType(value), value, c, row.getKey());
+        } // for all cells
+        m_domainCreator.updateDomain(row);
+        addRowKeyForDuplicateCheck(row.getKey());
+        m_buffer.addRow(row, false, m_forceCopyOfBlobs);
+    }
+
+    /**
+     * Same as {@link #addRowToTableWrite(DataRow)} but for a batch of rows. Types are checked column by column, and
+     * each distinct runtime type is only checked once per column and batch.
+     */
+    private void addRowsToTableWrite(final DataRow[] rows) {
+        for (DataRow row : rows) {
+            checkCellCount(row);
+        }
+        for (int c = 0; c < m_spec.getNumColumns(); c++) {
+            final DataType columnType = m_spec.getColumnSpec(c).getType();
+            DataType lastCheckedType = null;
+            for (DataRow row : rows) {
+                DataCell value = getRawCell(row, c);
+                DataType runtimeType = getRuntimeType(value);
+                if (runtimeType != lastCheckedType) {
+                    checkCellType(columnType, runtimeType, value, c, row.getKey());
+                    lastCheckedType = runtimeType;
+                }
+            }
+        }
+        m_domainCreator.updateDomain(rows);
+        for (DataRow row : rows) {
+            addRowKeyForDuplicateCheck(row.getKey());
+        }
+        m_buffer.addRows(rows, false, m_forceCopyOfBlobs);
+    }
+
+    private void checkCellCount(final DataRow row) {
         int numCells = row.getNumCells();
-        RowKey key = row.getKey();
         if (numCells != m_spec.getNumColumns()) {
-            throw new IllegalArgumentException("Cell count in row \"" + key
+            throw new IllegalArgumentException("Cell count in row \"" + row.getKey()
                 + "\" is not equal to length of column names array: " + numCells + " vs. " + m_spec.getNumColumns());
         }
-        for (int c = 0; c < numCells; c++) {
-            DataType columnClass = m_spec.getColumnSpec(c).getType();
-            DataCell value;
-            DataType runtimeType;
-            if (row instanceof BlobSupportDataRow) {
-                BlobSupportDataRow bsvalue = (BlobSupportDataRow)row;
-                value = bsvalue.getRawCell(c);
-            } else {
-                value = row.getCell(c);
-            }
-            if (value instanceof BlobWrapperDataCell) {
-                BlobWrapperDataCell bw = (BlobWrapperDataCell)value;
-                runtimeType = bw.getBlobDataType();
-            } else {
-                runtimeType = value.getType();
-            }
+    }
 
-            if (!columnClass.isASuperTypeOf(runtimeType)) {
-                String valString = value.toString();
-                // avoid too long string representations
-                if (valString.length() > 30) {
-                    valString = valString.substring(0, 30) + "...";
-                }
-                throw new IllegalArgumentException("Runtime class of object \"" + valString + "\" (index " + c
-                    + ") in row \"" + key + "\" is " + runtimeType.toString() + " and does "
-                    + "not comply with its supposed superclass " + columnClass.toString());
+    private static DataCell getRawCell(final DataRow row, final int index) {
+        if (row instanceof BlobSupportDataRow) {
+            return ((BlobSupportDataRow)row).getRawCell(index);
+        }
+        return row.getCell(index);
+    }
+
+    private static DataType getRuntimeType(final DataCell value) {
+        if (value instanceof BlobWrapperDataCell) {
+            return ((BlobWrapperDataCell)value).getBlobDataType();
+        }
+        return value.getType();
+    }
+
+    private static void checkCellType(final DataType columnClass, final DataType runtimeType, final DataCell value,
+        final int index, final RowKey key) {
+        if (!columnClass.isASuperTypeOf(runtimeType)) {
+            String valString = value.toString();
+            // avoid too long string representations
+            if (valString.length() > 30) {
+                valString = valString.substring(0, 30) + "...";
             }
-        } // for all cells
-        m_domainCreator.updateDomain(row);
-        addRowKeyForDuplicateCheck(key);
-        m_buffer.addRow(row, false, m_forceCopyOfBlobs);
+            throw new IllegalArgumentException("Runtime class of object \"" + valString + "\" (index " + index
+                + ") in row \"" + key + "\" is " + runtimeType.toString() + " and does "
+                + "not comply with its supposed superclass " + columnClass.toString());
+        }
     }
 
     private void checkAsyncWriteThrowable() {
@@ -552,7 +586,8 @@ public void close() {
     }
 
     /**
-     * Adds the argument object (which will be a DataRow unless when called from close()) to the data row queue.
+     * Adds the argument object (which will be a DataRow or an array of DataRows unless when called from close()) to
+     * the data row queue.
      *
      * @param object the object to add.
      */
@@ -661,16 +696,7 @@ public void addRowToTable(final DataRow row) {
         if (row == null) {
             throw new NullPointerException("Can't add null rows to container");
         }
-        if (m_buffer == null) {
-            int bufID = createInternalBufferID();
-            Map<Integer, ContainerTable> localTableRep = getLocalTableRepository();
-            IWriteFileStoreHandler fileStoreHandler = getFileStoreHandler();
-            m_buffer = m_bufferCreator.createBuffer(m_spec, m_maxRowsInMemory, bufID, getDataRepository(),
-                localTableRep, fileStoreHandler, m_isSynchronousWrite);
-            if (m_buffer == null) {
-                throw new NullPointerException("Implementation error, must not return a null buffer.");
-            }
-        }
+        ensureBufferCreated();
         if (m_isSynchronousWrite) {
             if (MemoryAlertSystem.getInstance().isMemoryLow()) {
                 m_buffer.flushBuffer();
@@ -685,6 +711,56 @@ public void addRowToTable(final DataRow row) {
         m_size += 1;
     } // addRowToTable(DataRow)
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The state and memory checks are done once per batch, the cell types are validated column by column and in
+     * asynchronous mode the whole batch is handed over to the writer thread at once.
+     *
+     * @since 3.8
+     */
+    @Override
+    public void addRowsToTable(final RowBatch batch) {
+        if (!isOpen()) {
+            throw new IllegalStateException("Cannot add rows: container has not been initialized (opened).");
+        }
+        if (batch == null) {
+            throw new NullPointerException("Can't add null batch to container");
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        ensureBufferCreated();
+        // the batch may be reused by the caller, the rows are kept (in memory or in the write queue)
+        final DataRow[] rows = batch.toRows();
+        if (m_isSynchronousWrite) {
+            if (MemoryAlertSystem.getInstance().isMemoryLow()) {
+                m_buffer.flushBuffer();
+            }
+            addRowsToTableWrite(rows);
+        } else {
+            if (MemoryAlertSystem.getInstance().isMemoryLow()) {
+                offerToAsynchronousQueue(FLUSH_CACHE);
+            }
+            offerToAsynchronousQueue(rows);
+        }
+        m_size += rows.length;
+    } // addRowsToTable(RowBatch)
+
+    private void ensureBufferCreated() {
+        if (m_buffer == null) {
+            int bufID = createInternalBufferID();
+            Map<Integer, ContainerTable> localTableRep = getLocalTableRepository();
+            IWriteFileStoreHandler fileStoreHandler = getFileStoreHandler();
+            m_buffer = m_bufferCreator.createBuffer(m_spec, m_maxRowsInMemory, bufID, getDataRepository(),
+                localTableRep, fileStoreHandler, m_isSynchronousWrite);
+            if (m_buffer == null) {
+                throw new NullPointerException("Implementation error, must not return a null buffer.");
+            }
+        }
+    }
+
     /** @return size of buffer temp file in bytes, -1 if not set. Only for debugging/test purposes. */
     long getBufferFileSize() {
         Buffer b = m_table != null ? m_table.getBuffer() : m_buffer;
@@ -1141,6 +1217,9 @@ private Void callWithContext() throws Exception {
                     } else if (obj == FLUSH_CACHE) {
                         // memory consumption critical; buffer should be flushed
                         d.m_buffer.flushBuffer();
+                    } else if (obj instanceof DataRow[]) {
+                        // a batch of rows, see addRowsToTable(RowBatch)
+                        d.addRowsToTableWrite((DataRow[])obj);
                     } else {
                         // fetch and handle / write data row
                         final DataRow row = (DataRow)obj;
@@ -56,6 +56,7 @@
 import org.knime.core.data.DataTableDomainCreator;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.IDataTableDomainCreator;
+import org.knime.core.data.ParallelDataTableDomainCreator;
 import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.workflow.ConfigurableWorkflowContext;
@@ -125,6 +126,9 @@ private static class Builder {
         /** The maximum number of domain values used by {@link IDuplicateChecker}. */
         private int m_maxDomainValues;
 
+        /** The skip bounded columns flag used by the {@link IDataTableDomainCreator}. */
+        private boolean m_skipBoundedColumns;
+
         /** The function creating new instances of {@link IDuplicateChecker}. */
         private Supplier<IDuplicateChecker> m_duplicateCheckerCreator;
 
@@ -146,6 +150,7 @@ private static class Builder {
             m_asyncCacheSize = settings.m_asyncCacheSize;
             m_initDomain = settings.m_initDomain;
             m_maxDomainValues = settings.m_maxDomainValues;
+            m_skipBoundedColumns = settings.m_skipBoundedColumns;
             m_duplicateCheckerCreator = settings.m_duplicateCheckerCreator;
             m_tableDomainCreatorFunction = settings.m_tableDomainCreatorFunction;
             m_bufferSettings = settings.m_bufferSettings;
@@ -181,6 +186,11 @@ Builder setMaxDomainValues(final int maxDomainValues) {
             return this;
         }
 
+        Builder setSkipBoundedColumns(final boolean skipBoundedColumns) {
+            m_skipBoundedColumns = skipBoundedColumns;
+            return this;
+        }
+
         Builder setDuplicateCheckerCreator(final Supplier<IDuplicateChecker> supplier) {
             m_duplicateCheckerCreator = supplier;
             return this;
@@ -225,6 +235,9 @@ DataContainerSettings build() {
     /** The maximum number of domain values used by {@link IDuplicateChecker}. */
     private final int m_maxDomainValues;
 
+    /** The skip bounded columns flag used by the {@link IDataTableDomainCreator}. */
+    private final boolean m_skipBoundedColumns;
+
     /** The function creating new instances of {@link IDuplicateChecker}. */
     private final Supplier<IDuplicateChecker> m_duplicateCheckerCreator;
 
@@ -250,8 +263,9 @@ private DataContainerSettings() {
         m_asyncCacheSize = initAsyncCacheSize();
         m_initDomain = initDomain();
         m_maxDomainValues = initMaxDomainValues();
+        m_skipBoundedColumns = false;
         m_duplicateCheckerCreator = () -> new DuplicateChecker();
-        m_tableDomainCreatorFunction = (spec, initDomain) -> new DataTableDomainCreator(spec, initDomain);
+        m_tableDomainCreatorFunction = initDomainCreatorFunction();
         m_bufferSettings = DEFAULT_BUFFER_INSTANCE;
     }
 
@@ -267,6 +281,7 @@ private DataContainerSettings(final Builder builder) {
         m_asyncCacheSize = builder.m_asyncCacheSize;
         m_initDomain = builder.m_initDomain;
         m_maxDomainValues = builder.m_maxDomainValues;
+        m_skipBoundedColumns = builder.m_skipBoundedColumns;
         m_duplicateCheckerCreator = builder.m_duplicateCheckerCreator;
         m_tableDomainCreatorFunction = builder.m_tableDomainCreatorFunction;
         m_bufferSettings = builder.m_bufferSettings;
@@ -341,6 +356,16 @@ public int getMaxDomainValues() {
         return m_maxDomainValues;
     }
 
+    /**
+     * Returns whether the min/max computation is skipped for columns that are already bounded.
+     *
+     * @return the skip bounded columns flag
+     * @since 3.8
+     */
+    public boolean getSkipBoundedColumns() {
+        return m_skipBoundedColumns;
+    }
+
     /**
      * Creates a {@link IDuplicateChecker} ensuring that the row keys are unique.
      *
@@ -359,6 +384,9 @@ IDuplicateChecker createDuplicateChecker() {
     IDataTableDomainCreator createDomainCreator(final DataTableSpec spec) {
         final IDataTableDomainCreator creator = m_tableDomainCreatorFunction.apply(spec, m_initDomain);
         creator.setMaxPossibleValues(m_maxDomainValues);
+        if (m_skipBoundedColumns) {
+            creator.setSkipBoundedColumns(true);
+        }
         return creator;
     }
 
@@ -451,6 +479,23 @@ public DataContainerSettings withMaxDomainValues(final int maxDomainValues) {
         return b.build();
     }
 
+    /**
+     * Creates a new <code>DataContainerSetting</code> object by replicating the current
+     * <code>DataContainerSetting</code> instance and solely changes the flag whether the
+     * {@link IDataTableDomainCreator} skips the min/max computation for columns whose bounds are already known. If
+     * set, the caller must ensure that all values of such columns lie within the bounds of the spec.
+     *
+     * @param skipBoundedColumns the new skip bounded columns flag
+     * @return a new instance of {@code DataContainerSettings}
+     * @see IDataTableDomainCreator#setSkipBoundedColumns(boolean)
+     * @since 3.8
+     */
+    public DataContainerSettings withSkipBoundedColumns(final boolean skipBoundedColumns) {
+        final Builder b = new Builder(this);
+        b.setSkipBoundedColumns(skipBoundedColumns);
+        return b.build();
+    }
+
     /**
      * Creates a new <code>DataContainerSetting</code> object by replicating the current
      * <code>DataContainerSetting</code> instance and solely changes the supplier to create instances of
@@ -578,6 +623,21 @@ private static boolean initDomain() {
         return DEF_INIT_DOMAIN;
     }
 
+    /**
+     * Initializes the function creating domain creators w.r.t. the defined properties.
+     *
+     * @return the function creating instances of {@link IDataTableDomainCreator}
+     */
+    private static BiFunction<DataTableSpec, Boolean, IDataTableDomainCreator> initDomainCreatorFunction() {
+        if (Boolean.getBoolean(KNIMEConstants.PROPERTY_DOMAIN_PARALLEL)) {
+            LOGGER.debug("Calculating table domains in parallel; " + KNIMEConstants.PROPERTY_DOMAIN_PARALLEL
+                + " is set");
+            return (spec, initDomain) -> new ParallelDataTableDomainCreator(
+                new DataTableDomainCreator(spec, initDomain));
+        }
+        return (spec, initDomain) -> new DataTableDomainCreator(spec, initDomain);
+    }
+
     /**
      * Initializes the maximum number of possible domain values w.r.t. the defined properties.
      *
@@ -52,6 +52,7 @@
 import java.io.InputStream;
 
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowIteratorBuilder.RowSelection;
 import org.knime.core.data.container.DefaultTableStoreFormat.CompressionFormat;
 import org.knime.core.data.container.storage.AbstractTableStoreReader;
 import org.knime.core.data.container.storage.AbstractTableStoreWriter;
@@ -72,6 +73,9 @@ final class DefaultTableStoreReader extends AbstractTableStoreReader {
 
     private final boolean m_isReadRowKey;
 
+    /** Cache sharing equal string cells, may be null. */
+    private StringCellCache m_stringCellCache;
+
     /**
      * Constructs a reader for materializing serialized KNIME tables.
      *
@@ -110,13 +114,39 @@ final class DefaultTableStoreReader extends AbstractTableStoreReader {
         m_compressionFormat = cF;
     }
 
+    /**
+     * Sets the cache used to share equal string cells among the rows being read.
+     *
+     * @param stringCellCache the cache or <code>null</code> to create a new cell for each string
+     */
+    void setStringCellCache(final StringCellCache stringCellCache) {
+        m_stringCellCache = stringCellCache;
+    }
+
+    /**
+     * @return the cache sharing string cells, may be null
+     */
+    StringCellCache getStringCellCache() {
+        return m_stringCellCache;
+    }
+
     @Override
     public TableStoreCloseableRowIterator iterator() {
+        return iterator(RowSelection.ALL);
+    }
+
+    /** Skips non-selected rows in the stream without deserializing them (unless the format is too old).
+     * {@inheritDoc} */
+    @Override
+    public TableStoreCloseableRowIterator iterator(final RowSelection selection) {
         try {
             if (getReadVersion() <= 5) { // 2.0 tech preview and before
+                if (!selection.isSelectAll()) {
+                    return super.iterator(selection);
+                }
                 return new BufferFromFileIteratorVersion1x(this);
             } else {
-                return new BufferFromFileIteratorVersion20(this);
+                return new BufferFromFileIteratorVersion20(this, selection);
             }
         } catch (IOException ioe) {
             StringBuilder b = new StringBuilder("Cannot read file \"");
@@ -75,6 +75,9 @@ final class DefaultTableStoreWriter extends AbstractTableStoreWriter implements
     /** The compression format. */
     private final CompressionFormat m_compFormat;
 
+    /** The type shortcut bytes of the {@link PrimitiveCellType}s written so far, indexed by their ordinal. */
+    private final Byte[] m_primitiveShortCuts = new Byte[PrimitiveCellType.values().length];
+
     /**
      * Constructs a writer for writing KNIME tables to disk using the given compression format.
      *
@@ -109,6 +112,34 @@ public void writeRow(final DataRow row) throws IOException {
         m_outStream.endRow();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The built-in primitive cells ({@link PrimitiveCellType}) bypass the lookup of their class info and serializer;
+     * the written bytes are the same.
+     */
+    @Override
+    public void writeDataCell(final DataCell cell, final DCObjectOutputVersion2 outStream) throws IOException {
+        final PrimitiveCellType primitiveType = PrimitiveCellType.get(cell.getClass());
+        if (primitiveType != null) {
+            final int index = primitiveType.ordinal();
+            if (m_primitiveShortCuts[index] == null) {
+                final CellClassInfo cellClass = CellClassInfo.get(cell);
+                if (getSerializerForDataCell(cellClass) != null && PrimitiveCellType.get(cellClass) != null) {
+                    m_primitiveShortCuts[index] = getTypeShortCut(cellClass);
+                }
+            }
+            final Byte identifier = m_primitiveShortCuts[index];
+            if (identifier != null) {
+                outStream.writeControlByte(identifier);
+                outStream.writePrimitiveCell(primitiveType, cell);
+                return;
+            }
+        }
+        super.writeDataCell(cell, outStream);
+    }
+
     /**
      * Writes the row key to the out stream. This method is overridden in {@link NoKeyBuffer} in order to skip the row
      * key.
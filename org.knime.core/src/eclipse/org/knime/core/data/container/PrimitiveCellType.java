@@ -0,0 +1,223 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * The built-in cell implementations that are (de-)serialized directly by the table store writer and reader rather
+ * than through their {@link DataCellSerializer}. The bytes being written are identical to those written by the
+ * respective serializer, i.e. the file format is unaffected; what's saved is the per-cell serializer lookup and
+ * dispatch and, on read, the allocation of frequently used cells (small ints, booleans).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+enum PrimitiveCellType {
+
+    /** {@link IntCell}. */
+    INT(IntCell.IntCellSerializer.class) {
+        @Override
+        void write(final DataCell cell, final DataOutput output) throws IOException {
+            output.writeInt(((IntCell)cell).getIntValue());
+        }
+
+        @Override
+        DataCell read(final DataInput input) throws IOException {
+            return getIntCell(input.readInt());
+        }
+    },
+
+    /** {@link LongCell}. */
+    LONG(LongCell.LongSerializer.class) {
+        @Override
+        void write(final DataCell cell, final DataOutput output) throws IOException {
+            output.writeLong(((LongCell)cell).getLongValue());
+        }
+
+        @Override
+        DataCell read(final DataInput input) throws IOException {
+            return new LongCell(input.readLong());
+        }
+    },
+
+    /** {@link DoubleCell}. */
+    DOUBLE(DoubleCell.DoubleSerializer.class) {
+        @Override
+        void write(final DataCell cell, final DataOutput output) throws IOException {
+            output.writeDouble(((DoubleCell)cell).getDoubleValue());
+        }
+
+        @Override
+        DataCell read(final DataInput input) throws IOException {
+            return new DoubleCell(input.readDouble());
+        }
+    },
+
+    /** {@link BooleanCell}. */
+    BOOLEAN(BooleanCell.BooleanSerializer.class) {
+        @Override
+        void write(final DataCell cell, final DataOutput output) throws IOException {
+            output.writeBoolean(((BooleanCell)cell).getBooleanValue());
+        }
+
+        @Override
+        DataCell read(final DataInput input) throws IOException {
+            return BooleanCell.get(input.readBoolean());
+        }
+    },
+
+    /** {@link StringCell}. */
+    STRING(StringCell.StringSerializer.class) {
+        @Override
+        void write(final DataCell cell, final DataOutput output) throws IOException {
+            output.writeUTF(((StringCell)cell).getStringValue());
+        }
+
+        @Override
+        DataCell read(final DataInput input) throws IOException {
+            return new StringCell(input.readUTF());
+        }
+    };
+
+    /** Lowest int value whose cell is cached. */
+    private static final int INT_CACHE_LOW = -128;
+
+    /** Highest int value whose cell is cached. */
+    private static final int INT_CACHE_HIGH = 1023;
+
+    private static final IntCell[] INT_CACHE = new IntCell[INT_CACHE_HIGH - INT_CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < INT_CACHE.length; i++) {
+            INT_CACHE[i] = new IntCell(i + INT_CACHE_LOW);
+        }
+    }
+
+    /** Class of the serializer registered by default, whose format is reproduced by this type. */
+    private final Class<?> m_serializerClass;
+
+    private PrimitiveCellType(final Class<?> serializerClass) {
+        m_serializerClass = serializerClass;
+    }
+
+    /**
+     * Writes the value of the argument cell, exactly as its serializer would do.
+     *
+     * @param cell the cell to write, must be of this type's class
+     * @param output to write to
+     * @throws IOException if writing fails
+     */
+    abstract void write(DataCell cell, DataOutput output) throws IOException;
+
+    /**
+     * Reads a cell as written by {@link #write(DataCell, DataOutput)} (or the cell's serializer).
+     *
+     * @param input to read from
+     * @return the cell, possibly a shared instance
+     * @throws IOException if reading fails
+     */
+    abstract DataCell read(DataInput input) throws IOException;
+
+    /**
+     * Get the type representing the argument class. Subclasses of the built-in cells are not supported.
+     *
+     * @param cellClass the class of the cell
+     * @return the type or <code>null</code> if cells of that class need to be written via their serializer
+     */
+    static PrimitiveCellType get(final Class<? extends DataCell> cellClass) {
+        if (cellClass == DoubleCell.class) {
+            return DOUBLE;
+        } else if (cellClass == IntCell.class) {
+            return INT;
+        } else if (cellClass == StringCell.class) {
+            return STRING;
+        } else if (cellClass == LongCell.class) {
+            return LONG;
+        } else if (cellClass == BooleanCell.class) {
+            return BOOLEAN;
+        }
+        return null;
+    }
+
+    /**
+     * Get the type for a cell class as read from a table's meta information. Only returns a type if the cell class is
+     * one of the built-in classes and it is (de-)serialized with its default serializer.
+     *
+     * @param info the cell class info
+     * @return the type or <code>null</code>
+     */
+    static PrimitiveCellType get(final CellClassInfo info) {
+        final PrimitiveCellType type = get(info.getCellClass());
+        if (type != null && info.getCollectionElementType() == null && info.getSerializer() != null
+            && info.getSerializer().getClass() == type.m_serializerClass) {
+            return type;
+        }
+        return null;
+    }
+
+    /**
+     * Returns an {@link IntCell} for the argument, which is a shared instance for small values.
+     *
+     * @param value the int value
+     * @return a cell representing that value
+     */
+    static IntCell getIntCell(final int value) {
+        if (value >= INT_CACHE_LOW && value <= INT_CACHE_HIGH) {
+            return INT_CACHE[value - INT_CACHE_LOW];
+        }
+        return new IntCell(value);
+    }
+}
@@ -75,4 +75,26 @@ public interface RowAppender {
      *         If the row's key has already been added.
      */
     public void addRowToTable(final DataRow row);
+
+    /**
+     * Appends all rows of the argument batch (in order) to the end of a container. The batch is not referenced after
+     * this method returns, i.e. it can be cleared and reused.
+     *
+     * <p>
+     * This default implementation adds the rows one by one via {@link #addRowToTable(DataRow)}; implementations such as
+     * {@link DataContainer} perform their checks once per batch.
+     *
+     * @param batch the rows to be added
+     * @throws NullPointerException if the argument is <code>null</code>
+     * @throws IllegalStateException If the state forbids to add rows.
+     * @throws IllegalArgumentException if the structure of any row forbids to add it to the table
+     * @throws DataContainerException See {@link #addRowToTable(DataRow)}
+     * @throws org.knime.core.util.DuplicateKeyException If a row's key has already been added.
+     * @since 3.8
+     */
+    public default void addRowsToTable(final RowBatch batch) {
+        for (int r = 0; r < batch.size(); r++) {
+            addRowToTable(batch.getRow(r));
+        }
+    }
 }
@@ -0,0 +1,298 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import java.util.Arrays;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowKey;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * A batch of consecutive rows, stored column by column. Batches are returned by
+ * {@link CloseableRowIterator#nextBatch(int)} and can be added to a container in one go via
+ * {@link RowAppender#addRowsToTable(RowBatch)}, which pays the per-row overhead (state checks, synchronization, queue
+ * hand-over to the writer thread, type checks) only once per batch.
+ *
+ * <p>
+ * Batches are meant to be reused: the content of a batch returned by an iterator is only valid until the next call of
+ * {@link CloseableRowIterator#nextBatch(int)}; a batch passed to a container can be cleared and refilled as soon as
+ * the call returns.
+ *
+ * <p>
+ * Cells are kept as they were added, i.e. blob cells may be wrapped in a {@link BlobWrapperDataCell}. The accessors of
+ * this class and of {@link Column} unwrap them.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ */
+public final class RowBatch {
+
+    private final int m_numColumns;
+
+    private RowKey[] m_keys;
+
+    /** The cells, indexed by column first and row second. */
+    private final DataCell[][] m_columns;
+
+    private int m_size;
+
+    /**
+     * Creates a new, empty batch.
+     *
+     * @param numColumns the number of cells in each row of the batch
+     * @param capacity the initial number of rows the batch can hold (it grows if more rows are added)
+     * @throws IllegalArgumentException if either argument is negative
+     */
+    public RowBatch(final int numColumns, final int capacity) {
+        CheckUtils.checkArgument(numColumns >= 0, "Number of columns must not be negative: %d", numColumns);
+        CheckUtils.checkArgument(capacity >= 0, "Capacity must not be negative: %d", capacity);
+        m_numColumns = numColumns;
+        m_keys = new RowKey[capacity];
+        m_columns = new DataCell[numColumns][capacity];
+    }
+
+    /** @return the number of cells in each row */
+    public int getNumColumns() {
+        return m_numColumns;
+    }
+
+    /** @return the number of rows currently in the batch */
+    public int size() {
+        return m_size;
+    }
+
+    /** @return whether the batch contains no rows */
+    public boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    /** Removes all rows from the batch, keeping the allocated arrays for reuse. */
+    public void clear() {
+        Arrays.fill(m_keys, 0, m_size, null);
+        for (DataCell[] column : m_columns) {
+            Arrays.fill(column, 0, m_size, null);
+        }
+        m_size = 0;
+    }
+
+    /**
+     * Appends a row to the batch.
+     *
+     * @param row the row to add, not null
+     * @throws IllegalArgumentException if the row's cell count differs from {@link #getNumColumns()}
+     */
+    public void addRow(final DataRow row) {
+        final int numCells = row.getNumCells();
+        if (numCells != m_numColumns) {
+            throw new IllegalArgumentException("Cell count in row \"" + row.getKey()
+                + "\" is not equal to the number of columns of the batch: " + numCells + " vs. " + m_numColumns);
+        }
+        ensureCapacity(m_size + 1);
+        m_keys[m_size] = row.getKey();
+        if (row instanceof BlobSupportDataRow) {
+            final BlobSupportDataRow blobRow = (BlobSupportDataRow)row;
+            for (int c = 0; c < m_numColumns; c++) {
+                m_columns[c][m_size] = blobRow.getRawCell(c);
+            }
+        } else {
+            for (int c = 0; c < m_numColumns; c++) {
+                m_columns[c][m_size] = row.getCell(c);
+            }
+        }
+        m_size++;
+    }
+
+    /**
+     * Appends a row to the batch.
+     *
+     * @param key the key of the row, not null
+     * @param cells the cells of the row, the array is not referenced by the batch
+     * @throws IllegalArgumentException if the number of cells differs from {@link #getNumColumns()}
+     */
+    public void addRow(final RowKey key, final DataCell... cells) {
+        if (cells.length != m_numColumns) {
+            throw new IllegalArgumentException("Cell count in row \"" + key
+                + "\" is not equal to the number of columns of the batch: " + cells.length + " vs. " + m_numColumns);
+        }
+        ensureCapacity(m_size + 1);
+        m_keys[m_size] = key;
+        for (int c = 0; c < m_numColumns; c++) {
+            m_columns[c][m_size] = cells[c];
+        }
+        m_size++;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > m_keys.length) {
+            final int newCapacity = Math.max(capacity, m_keys.length + (m_keys.length >> 1) + 1);
+            m_keys = Arrays.copyOf(m_keys, newCapacity);
+            for (int c = 0; c < m_numColumns; c++) {
+                m_columns[c] = Arrays.copyOf(m_columns[c], newCapacity);
+            }
+        }
+    }
+
+    /**
+     * @param row the row index within the batch
+     * @return the key of the row
+     * @throws IndexOutOfBoundsException if the index is not within [0, {@link #size()})
+     */
+    public RowKey getKey(final int row) {
+        checkRowIndex(row);
+        return m_keys[row];
+    }
+
+    /**
+     * @param row the row index within the batch
+     * @param column the column index
+     * @return the cell, never a {@link BlobWrapperDataCell}
+     * @throws IndexOutOfBoundsException if either index is out of range
+     */
+    public DataCell getCell(final int row, final int column) {
+        checkRowIndex(row);
+        return unwrap(m_columns[column][row]);
+    }
+
+    /**
+     * @param column the column index
+     * @return a view on the cells of the column in this batch, which reflects subsequent changes of the batch
+     * @throws IndexOutOfBoundsException if the column index is out of range
+     */
+    public Column getColumn(final int column) {
+        if (column < 0 || column >= m_numColumns) {
+            throw new IndexOutOfBoundsException("Column index out of range: " + column);
+        }
+        return new Column(column);
+    }
+
+    /**
+     * Creates a row object for a row of the batch. This allocates a new row (and cell array) and is meant as fallback
+     * for code that requires {@link DataRow}s.
+     *
+     * @param row the row index within the batch
+     * @return a new row
+     * @throws IndexOutOfBoundsException if the index is not within [0, {@link #size()})
+     */
+    public DataRow getRow(final int row) {
+        checkRowIndex(row);
+        final DataCell[] cells = new DataCell[m_numColumns];
+        for (int c = 0; c < m_numColumns; c++) {
+            cells[c] = m_columns[c][row];
+        }
+        return new BlobSupportDataRow(m_keys[row], cells);
+    }
+
+    /** @return a new array containing a new row object for each row in this batch, see {@link #getRow(int)} */
+    DataRow[] toRows() {
+        final DataRow[] rows = new DataRow[m_size];
+        for (int r = 0; r < m_size; r++) {
+            rows[r] = getRow(r);
+        }
+        return rows;
+    }
+
+    private void checkRowIndex(final int row) {
+        if (row < 0 || row >= m_size) {
+            throw new IndexOutOfBoundsException("Row index out of range: " + row + " (size: " + m_size + ")");
+        }
+    }
+
+    private static DataCell unwrap(final DataCell cell) {
+        if (cell instanceof BlobWrapperDataCell) {
+            return ((BlobWrapperDataCell)cell).getCell();
+        }
+        return cell;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Row batch (" + m_size + " rows, " + m_numColumns + " columns)";
+    }
+
+    /** A view on the cells of one column of a {@link RowBatch}. */
+    public final class Column {
+
+        private final int m_index;
+
+        private Column(final int index) {
+            m_index = index;
+        }
+
+        /** @return the index of the column in the batch */
+        public int getIndex() {
+            return m_index;
+        }
+
+        /** @return the number of cells in the column, i.e. the size of the batch */
+        public int size() {
+            return m_size;
+        }
+
+        /**
+         * @param row the row index within the batch
+         * @return the cell, never a {@link BlobWrapperDataCell}
+         * @throws IndexOutOfBoundsException if the index is not within [0, {@link #size()})
+         */
+        public DataCell getCell(final int row) {
+            checkRowIndex(row);
+            return unwrap(m_columns[m_index][row]);
+        }
+
+        /**
+         * @param row the row index within the batch
+         * @return whether the cell is missing
+         * @throws IndexOutOfBoundsException if the index is not within [0, {@link #size()})
+         */
+        public boolean isMissing(final int row) {
+            checkRowIndex(row);
+            return m_columns[m_index][row].isMissing();
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.container;
+
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.util.CheckUtils;
+
+/**
+ * A bounded cache returning shared {@link StringCell} instances for repeated string values while tables are read from
+ * disc. It is used to reduce the heap footprint of tables with many repeated strings (e.g. nominal columns) once they
+ * are held in memory, for instance when restored into the {@link BufferCache} or sorted in memory.
+ *
+ * <p>
+ * The cache is a direct-mapped array: each string is mapped to one slot via its hash code and replaces the previous
+ * entry on collision. Only strings of up to {@link #MAX_STRING_LENGTH} characters are cached, hence the memory held by
+ * a cache is bounded by its size. Lookups are lock-free and instances can be shared among concurrent readers; a race
+ * only causes a missed hit, as {@link StringCell} is immutable.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class StringCellCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(StringCellCache.class);
+
+    /** Maximum length of strings being cached, longer strings are unlikely to repeat. */
+    static final int MAX_STRING_LENGTH = 128;
+
+    /** The global cache as configured via {@link KNIMEConstants#PROPERTY_STRING_CELL_CACHE_SIZE} or null. */
+    private static final StringCellCache GLOBAL_INSTANCE = initGlobalInstance();
+
+    private final StringCell[] m_cells;
+
+    private final int m_mask;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param size the number of entries, rounded up to the next power of 2, must be positive
+     */
+    StringCellCache(final int size) {
+        CheckUtils.checkArgument(size > 0, "Cache size must be positive: %d", size);
+        final int capacity = size > (1 << 30) ? (1 << 30) : Integer.highestOneBit(size - 1) << 1;
+        m_cells = new StringCell[Math.max(1, capacity)];
+        m_mask = m_cells.length - 1;
+    }
+
+    /**
+     * Returns a cell representing the argument string, which is a shared instance if the value has been requested
+     * recently.
+     *
+     * @param value the string value, not null
+     * @return a cell for the value
+     */
+    StringCell get(final String value) {
+        if (value.length() > MAX_STRING_LENGTH) {
+            return new StringCell(value);
+        }
+        final int hash = value.hashCode();
+        final int index = (hash ^ (hash >>> 16)) & m_mask;
+        StringCell cell = m_cells[index];
+        if (cell != null && cell.getStringValue().equals(value)) {
+            return cell;
+        }
+        cell = new StringCell(value);
+        m_cells[index] = cell;
+        return cell;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return the size of the cache
+     */
+    int size() {
+        return m_cells.length;
+    }
+
+    /**
+     * Get the cache that is shared by all tables that don't define their own cache.
+     *
+     * @return the global cache or <code>null</code> if disabled (the default)
+     */
+    static StringCellCache getGlobalInstance() {
+        return GLOBAL_INSTANCE;
+    }
+
+    private static StringCellCache initGlobalInstance() {
+        final String sizeString = System.getProperty(KNIMEConstants.PROPERTY_STRING_CELL_CACHE_SIZE);
+        if (sizeString != null) {
+            try {
+                final int size = Integer.parseInt(sizeString.trim());
+                if (size > 0) {
+                    LOGGER.debug("Using a cache of " + size + " string cells when reading tables");
+                    return new StringCellCache(size);
+                }
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_STRING_CELL_CACHE_SIZE
+                    + ", no string cell cache used", nfe);
+            }
+        }
+        return null;
+    }
+}
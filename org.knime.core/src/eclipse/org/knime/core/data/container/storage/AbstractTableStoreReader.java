@@ -66,9 +66,11 @@
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.DataRow;
 import org.knime.core.data.IDataRepository;
 import org.knime.core.data.RowIteratorBuilder;
 import org.knime.core.data.RowIteratorBuilder.DefaultRowIteratorBuilder;
+import org.knime.core.data.RowIteratorBuilder.RowSelection;
 import org.knime.core.data.container.BlobDataCell.BlobAddress;
 import org.knime.core.data.container.BlobWrapperDataCell;
 import org.knime.core.data.container.Buffer;
@@ -190,6 +192,19 @@ public final BlobWrapperDataCell createBlobWrapperCell(final BlobAddress address
      */
     public abstract TableStoreCloseableRowIterator iterator();
 
+    /**
+     * Returns a row iterator which only returns the rows contained in the argument selection. The default
+     * implementation filters the rows returned by {@link #iterator()}; subclasses are encouraged to overwrite this
+     * method in order to skip non-selected rows without deserializing them.
+     *
+     * @param selection the selected rows, not null
+     * @return row iterator over the selected rows
+     * @since 3.8
+     */
+    public TableStoreCloseableRowIterator iterator(final RowSelection selection) {
+        return new FilteredTableStoreRowIterator(iterator(), selection);
+    }
+
     /**
      * Returns a {@link RowIteratorBuilder} that can be used to assemble more complex
      * {@link TableStoreCloseableRowIterator}s that only iterate over parts of a table.
@@ -206,6 +221,11 @@ public TableStoreCloseableRowIterator build() {
                 registerNewIteratorInstance(iterator);
                 return iterator;
             }
+
+            @Override
+            protected TableStoreCloseableRowIterator build(final RowSelection selection) {
+                return iterator(selection);
+            }
         };
     }
 
@@ -415,4 +435,43 @@ public final void close() {
         public abstract boolean performClose() throws IOException;
     }
 
+    /** Filters the rows of another iterator, used by the default implementation of {@link #iterator(RowSelection)}. */
+    private static final class FilteredTableStoreRowIterator extends TableStoreCloseableRowIterator {
+
+        private final TableStoreCloseableRowIterator m_iterator;
+
+        private final CloseableRowIterator m_filterIterator;
+
+        FilteredTableStoreRowIterator(final TableStoreCloseableRowIterator iterator, final RowSelection selection) {
+            m_iterator = iterator;
+            m_filterIterator = selection.filter(iterator);
+        }
+
+        /** Also sets the reader on the delegate as it closes itself once it reaches the end of the table.
+         * {@inheritDoc} */
+        @Override
+        public void setReader(final AbstractTableStoreReader reader) {
+            super.setReader(reader);
+            m_iterator.setReader(reader);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            return m_filterIterator.hasNext();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public DataRow next() {
+            return m_filterIterator.next();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean performClose() throws IOException {
+            return m_iterator.performClose();
+        }
+    }
+
 }
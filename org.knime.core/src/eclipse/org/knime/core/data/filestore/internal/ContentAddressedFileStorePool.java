@@ -0,0 +1,296 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.filestore.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+import org.knime.core.util.LRUCache;
+
+/**
+ * Process-wide store of file store contents addressed by their SHA-256 hash. Copies of file stores with byte-identical
+ * content share one physical file: the files in the handler directories are hard links to a file in the pool
+ * directory. Each handler that links a file to pooled content holds a reference to it (see {@link #copy(File, File)})
+ * and gives it back when the file is deleted (see {@link #release(String)}); the pooled file is deleted once the last
+ * reference is released.
+ *
+ * <p>As all links share the same content, only files that are never written again must be pooled. This is the case
+ * for copies of file stores taken into another handler: their source is flushed before it is copied and nobody writes
+ * to the copy. Files created by a handler itself are never pooled, they may still be written after the handler is
+ * closed (e.g. when a {@link org.knime.core.data.filestore.FileStoreCell} is flushed lazily or by a loop start
+ * handler whose loop body creates file stores). Only regular files of at least {@value #MIN_FILE_SIZE} bytes are
+ * pooled. Pooling is disabled if the file system doesn't support hard links. When the workflow is saved, the saved
+ * files of pooled copies are linked to the pooled content, too (see {@link WriteFileStoreHandler#saveFiles}).
+ *
+ * <p>The pool is only used if enabled via {@link KNIMEConstants#PROPERTY_DEDUPLICATE_FILESTORES}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ContentAddressedFileStorePool {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ContentAddressedFileStorePool.class);
+
+    /** Files smaller than this are not deduplicated, hashing and linking them isn't worth it. */
+    static final int MIN_FILE_SIZE = 4096;
+
+    private static final ContentAddressedFileStorePool INSTANCE =
+        Boolean.getBoolean(KNIMEConstants.PROPERTY_DEDUPLICATE_FILESTORES) ? new ContentAddressedFileStorePool() : null;
+
+    /** A file in the pool directory along with the number of handlers referencing it. */
+    private static final class Entry {
+        private final File m_file;
+
+        private final long m_size;
+
+        private int m_refCount;
+
+        Entry(final File file, final long size) {
+            m_file = file;
+            m_size = size;
+        }
+    }
+
+    /** Hash of a file, valid as long as the file isn't modified. */
+    private static final class CachedHash {
+        private final long m_size;
+
+        private final long m_lastModified;
+
+        private final String m_hash;
+
+        CachedHash(final long size, final long lastModified, final String hash) {
+            m_size = size;
+            m_lastModified = lastModified;
+            m_hash = hash;
+        }
+    }
+
+    private final Map<String, Entry> m_entries = new HashMap<>();
+
+    /** Hashes of recently copied source files, which are often copied into many handlers. Guarded by 'this'. */
+    private final LRUCache<File, CachedHash> m_hashCache = new LRUCache<>(1000);
+
+    private File m_poolDir;
+
+    private volatile boolean m_isLinkingUnsupported;
+
+    /** Use {@link #getInstance()}, only called directly by tests. */
+    ContentAddressedFileStorePool() {
+    }
+
+    /**
+     * @return the pool or <code>null</code> if file stores are not to be deduplicated (the default)
+     */
+    static ContentAddressedFileStorePool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Replaces the given file by a link to the pooled copy of its content. If the content isn't pooled yet, the file
+     * becomes the pooled copy.
+     *
+     * @return the hash or <code>null</code> if the file was left untouched
+     */
+    private String pool(final File file, final long size, final String hash) throws IOException {
+        synchronized (this) {
+            Entry entry = m_entries.get(hash);
+            if (entry == null) {
+                final File pooled = new File(getPoolDir(), hash);
+                if (!link(pooled.toPath(), file.toPath())) {
+                    return null;
+                }
+                entry = new Entry(pooled, size);
+                m_entries.put(hash, entry);
+            } else {
+                if (entry.m_size != size) {
+                    return null; // can't happen unless the file is modified while being hashed
+                }
+                final Path target = file.toPath();
+                final Path tempLink = target.resolveSibling(target.getFileName() + ".link");
+                if (!link(tempLink, entry.m_file.toPath())) {
+                    return null;
+                }
+                Files.move(tempLink, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            entry.m_refCount++;
+            return hash;
+        }
+    }
+
+    /**
+     * Creates the target file with the content of the source file, as link to the pooled copy of the content if
+     * possible. Otherwise the content is copied.
+     *
+     * @param source the file to copy, a regular file whose content has been flushed
+     * @param target the file to create (its parent directory must exist), must never be written afterwards
+     * @return the hash of the content, which needs to be {@link #release(String) released} when the target is
+     *         deleted, or <code>null</code> if the content was copied
+     * @throws IOException if reading or writing fails
+     */
+    String copy(final File source, final File target) throws IOException {
+        if (!isCandidate(source)) {
+            Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return null;
+        }
+        final long size = source.length();
+        final String hash = getHash(source);
+        synchronized (this) {
+            final Entry entry = m_entries.get(hash);
+            if (entry != null && entry.m_size == size && link(target.toPath(), entry.m_file.toPath())) {
+                entry.m_refCount++;
+                return hash;
+            }
+        }
+        Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return pool(target, size, hash);
+    }
+
+    /**
+     * Gives back a reference obtained from {@link #copy(File, File)}. The pooled copy is deleted when no references
+     * are left.
+     *
+     * @param hash the hash of the content
+     */
+    synchronized void release(final String hash) {
+        final Entry entry = m_entries.get(hash);
+        if (entry == null) {
+            LOGGER.coding("No pooled file store content for hash " + hash);
+            return;
+        }
+        entry.m_refCount--;
+        if (entry.m_refCount <= 0) {
+            m_entries.remove(hash);
+            if (!entry.m_file.delete() && entry.m_file.exists()) {
+                LOGGER.debug("Unable to delete pooled file store content " + entry.m_file.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * @param hash the hash of a content
+     * @return the number of references to the pooled content, 0 if not pooled
+     */
+    synchronized int getReferenceCount(final String hash) {
+        final Entry entry = m_entries.get(hash);
+        return entry == null ? 0 : entry.m_refCount;
+    }
+
+    private boolean isCandidate(final File file) {
+        return !m_isLinkingUnsupported && file.isFile() && file.length() >= MIN_FILE_SIZE;
+    }
+
+    private synchronized File getPoolDir() throws IOException {
+        if (m_poolDir == null) {
+            m_poolDir = FileUtil.createTempDir("fs-pool-");
+        }
+        return m_poolDir;
+    }
+
+    /** Creates a hard link, disables deduplication if the file system doesn't support it. */
+    private boolean link(final Path link, final Path existing) {
+        try {
+            Files.createLink(link, existing);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            if (!m_isLinkingUnsupported) {
+                m_isLinkingUnsupported = true;
+                LOGGER.debug("Unable to create hard links, file stores won't be deduplicated: " + e.getMessage(), e);
+            }
+            return false;
+        }
+    }
+
+    private String getHash(final File file) throws IOException {
+        final long size = file.length();
+        final long lastModified = file.lastModified();
+        synchronized (this) {
+            final CachedHash cached = m_hashCache.get(file);
+            if (cached != null && cached.m_size == size && cached.m_lastModified == lastModified) {
+                return cached.m_hash;
+            }
+        }
+        final String hash = hash(file);
+        synchronized (this) {
+            m_hashCache.put(file, new CachedHash(size, lastModified, hash));
+        }
+        return hash;
+    }
+
+    /** @return the SHA-256 hash of the file's content as hex string */
+    static String hash(final File file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // every JRE is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+        final byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b & 0xff));
+        }
+        return hex.toString();
+    }
+}
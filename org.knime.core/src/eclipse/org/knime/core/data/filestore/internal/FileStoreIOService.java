@@ -0,0 +1,327 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.filestore.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Copies file store directories, e.g. when a workflow is saved or a saved file store directory is restored after
+ * load. Larger directories are copied in parallel on the {@linkplain KNIMEConstants#GLOBAL_THREAD_POOL global thread
+ * pool}. Files are copied with {@link Files#copy(Path, Path, java.nio.file.CopyOption...)}, which uses in-kernel
+ * copies where the JRE supports them.
+ *
+ * <p>
+ * A hard link shares its content with the source file, so a later write to either of them changes both. Files are
+ * therefore only linked if enabled via {@link KNIMEConstants#PROPERTY_FILESTORE_HARDLINKS} <i>and</i> the caller
+ * guarantees that neither the source nor the target files are written afterwards, see
+ * {@link #copy(File, File, ExecutionMonitor, boolean)}. When a workflow is saved, copies of file stores sharing
+ * deduplicated content are linked as well, see {@link WriteFileStoreHandler#saveFiles(File, ExecutionMonitor)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @noreference This class is not intended to be referenced by clients.
+ * @since 3.8
+ */
+public final class FileStoreIOService {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(FileStoreIOService.class);
+
+    /** Directories with fewer files are copied in the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    /** Maximum number of files copied by one task. */
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    /** Maximum number of concurrent copy tasks of one operation, more don't pay off for disk I/O. */
+    private static final int MAX_THREADS = 8;
+
+    static final boolean USE_HARD_LINKS = Boolean.getBoolean(KNIMEConstants.PROPERTY_FILESTORE_HARDLINKS);
+
+    /** Which files are linked within one copy operation; no more files are linked after the first failure. */
+    private static final class LinkState {
+        private final Predicate<Path> m_isLinkable;
+
+        private volatile boolean m_isLinkingSupported = true;
+
+        LinkState(final Predicate<Path> isLinkable) {
+            m_isLinkable = isLinkable;
+        }
+
+        boolean isLinking(final Path source) {
+            return m_isLinkingSupported && m_isLinkable.test(source);
+        }
+    }
+
+    private FileStoreIOService() {
+    }
+
+    /**
+     * Copies the source file or directory (recursively) to the target location, replacing existing files. Files are
+     * always copied, never linked.
+     *
+     * @param source the file or directory to copy
+     * @param target the target file or directory (created if needed)
+     * @param exec for progress and cancellation, may be <code>null</code>
+     * @throws IOException if the source doesn't exist or copying fails
+     * @throws CanceledExecutionException if canceled via the execution monitor
+     */
+    public static void copy(final File source, final File target, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        copy(source, target, exec, false);
+    }
+
+    /**
+     * Copies the source file or directory (recursively) to the target location, replacing existing files. If
+     * <code>isReadOnly</code> is set and hard links are enabled via {@link KNIMEConstants#PROPERTY_FILESTORE_HARDLINKS}
+     * the files are hard linked instead, provided source and target are on the same file system.
+     *
+     * @param source the file or directory to copy
+     * @param target the target file or directory (created if needed)
+     * @param exec for progress and cancellation, may be <code>null</code>
+     * @param isReadOnly whether neither the source nor the target files are ever written after this call, e.g. the
+     *            files of a file store handler restored from a saved workflow
+     * @throws IOException if the source doesn't exist or copying fails
+     * @throws CanceledExecutionException if canceled via the execution monitor
+     */
+    public static void copy(final File source, final File target, final ExecutionMonitor exec,
+        final boolean isReadOnly) throws IOException, CanceledExecutionException {
+        copyOrLink(source, target, exec, isReadOnly && USE_HARD_LINKS);
+    }
+
+    /** Implements {@link #copy(File, File, ExecutionMonitor, boolean)}, linking files if <code>link</code> is set. */
+    static void copyOrLink(final File source, final File target, final ExecutionMonitor exec, final boolean link)
+        throws IOException, CanceledExecutionException {
+        copyOrLink(source, target, exec, file -> link);
+    }
+
+    /**
+     * Copies the source file or directory (recursively) to the target location, linking the source files accepted by
+     * the predicate instead of copying them.
+     *
+     * @param source the file or directory to copy
+     * @param target the target file or directory (created if needed)
+     * @param exec for progress and cancellation, may be <code>null</code>
+     * @param isLinkable tests whether a source file and its target are never written afterwards
+     * @throws IOException if the source doesn't exist or copying fails
+     * @throws CanceledExecutionException if canceled via the execution monitor
+     */
+    static void copyOrLink(final File source, final File target, final ExecutionMonitor exec,
+        final Predicate<Path> isLinkable) throws IOException, CanceledExecutionException {
+        final ExecutionMonitor mon = exec != null ? exec : new ExecutionMonitor();
+        if (!source.exists()) {
+            throw new IOException("Source directory \"" + source + "\" does not exist.");
+        }
+        final LinkState linkState = new LinkState(isLinkable);
+        if (!source.isDirectory()) {
+            copyFile(source.toPath(), target.toPath(), linkState);
+            return;
+        }
+        final List<Path[]> files = collectFiles(source.toPath(), target.toPath());
+        mon.checkCanceled();
+        if (files.size() < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < files.size(); i++) {
+                final Path[] pair = files.get(i);
+                copyFile(pair[0], pair[1], linkState);
+                mon.setProgress((i + 1) / (double)files.size());
+                mon.checkCanceled();
+            }
+            return;
+        }
+        copyInParallel(files, linkState, mon);
+    }
+
+    /** Creates the target directories and returns the (source, target) pairs of all files. */
+    private static List<Path[]> collectFiles(final Path source, final Path target) throws IOException {
+        final List<Path[]> files = new ArrayList<>();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs)
+                throws IOException {
+                final Path targetDir = target.resolve(source.relativize(dir).toString());
+                if (Files.exists(targetDir, LinkOption.NOFOLLOW_LINKS) && !Files.isDirectory(targetDir)) {
+                    Files.delete(targetDir);
+                }
+                Files.createDirectories(targetDir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                files.add(new Path[]{file, target.resolve(source.relativize(file).toString())});
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private static void copyInParallel(final List<Path[]> files, final LinkState linkState,
+        final ExecutionMonitor mon) throws IOException, CanceledExecutionException {
+        final ThreadPool pool =
+            KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(Math.max(1, Math.min(MAX_THREADS,
+                KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads())));
+        final int total = files.size();
+        final int batchSize = Math.min(MAX_BATCH_SIZE, Math.max(16, total / (4 * pool.getMaxThreads())));
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicBoolean isAborted = new AtomicBoolean();
+        final List<Future<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < total; start += batchSize) {
+            final List<Path[]> batch = files.subList(start, Math.min(total, start + batchSize));
+            futures.add(pool.enqueue(() -> {
+                for (Path[] pair : batch) {
+                    if (isAborted.get()) {
+                        return null;
+                    }
+                    copyFile(pair[0], pair[1], linkState);
+                    done.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        try {
+            final ThreadPool currentPool = ThreadPool.currentPool();
+            if (currentPool != null) {
+                // the waiting thread must not count as running, otherwise the copy tasks may never get a thread
+                currentPool.runInvisible(() -> {
+                    awaitAll(futures, done, total, mon);
+                    return null;
+                });
+            } else {
+                awaitAll(futures, done, total, mon);
+            }
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof ExecutionException) {
+                // failed copy task, wrapped once more by runInvisible
+                cause = cause.getCause();
+            }
+            if (cause instanceof CanceledExecutionException) {
+                throw (CanceledExecutionException)cause;
+            } else if (cause instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while copying file stores", cause);
+            } else if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while copying file stores", ie);
+        } finally {
+            // no-op if all tasks completed, otherwise lets the remaining tasks return early
+            isAborted.set(true);
+            futures.forEach(f -> f.cancel(false));
+        }
+        mon.setProgress(1.0);
+    }
+
+    /** Waits for all copy tasks, reporting progress and checking for cancellation in between. */
+    private static void awaitAll(final List<Future<Void>> futures, final AtomicInteger done, final int total,
+        final ExecutionMonitor mon) throws ExecutionException, InterruptedException, CanceledExecutionException {
+        for (Future<Void> future : futures) {
+            while (true) {
+                try {
+                    future.get(100, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException te) {
+                    mon.setProgress(done.get() / (double)total, () -> done.get() + "/" + total + " files");
+                    mon.checkCanceled();
+                }
+            }
+        }
+    }
+
+    /** Links or copies a single file, replacing an existing target unless it already is the (linked) source. */
+    private static void copyFile(final Path source, final Path target, final LinkState linkState)
+        throws IOException {
+        final boolean isLinking = linkState.isLinking(source);
+        if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            if (Files.isSameFile(source, target)) {
+                if (isLinking || source.toRealPath().equals(target.toRealPath())) {
+                    return; // e.g. linked when the workflow was loaded
+                }
+                // a link to the source, replace it by a copy so that the files don't share their content
+            }
+            Files.delete(target);
+        }
+        if (isLinking) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (UnsupportedOperationException | IOException e) {
+                // different file systems, or links not supported -- copy all files of this operation
+                linkState.m_isLinkingSupported = false;
+                LOGGER.debug("Unable to hard link file store files, copying them instead: " + e.getMessage());
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
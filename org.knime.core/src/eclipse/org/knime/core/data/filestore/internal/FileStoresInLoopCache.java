@@ -47,7 +47,6 @@
  */
 package org.knime.core.data.filestore.internal;
 
-import java.io.File;
 import java.util.Collections;
 
 import org.knime.core.data.DataColumnSpecCreator;
@@ -69,7 +68,6 @@
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.node.util.ConvenienceMethods;
-import org.knime.core.util.FileUtil;
 import org.knime.core.util.MutableInteger;
 
 /**
@@ -224,8 +222,9 @@ void dispose() {
     private void delete(final FileStoreKey key, final ILoopStartWriteFileStoreHandler handler,
             final MutableInteger nrFilesDeleted, final MutableInteger nrFilesFailedDelete) {
         FileStore fileStore = handler.getFileStore(key);
-        File file = fileStore.getFile();
-        if (file.exists() && !FileUtil.deleteRecursively(file)) {
+        // the owner also releases pooled content the file links to
+        WriteFileStoreHandler owner = (WriteFileStoreHandler)FileStoreUtil.getFileStoreHandler(fileStore);
+        if (!owner.deleteFileStoreFile(fileStore)) {
             nrFilesFailedDelete.inc();
         }
         nrFilesDeleted.inc();
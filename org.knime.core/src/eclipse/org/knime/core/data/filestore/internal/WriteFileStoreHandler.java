@@ -49,14 +49,25 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 import org.knime.core.data.IDataRepository;
 import org.knime.core.data.filestore.FileStore;
 import org.knime.core.data.filestore.FileStoreKey;
 import org.knime.core.data.filestore.FileStoreUtil;
 import org.knime.core.data.filestore.internal.FileStoreProxy.FlushCallback;
+import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.node.workflow.WorkflowDataRepository;
@@ -84,20 +95,48 @@ public class WriteFileStoreHandler implements IWriteFileStoreHandler {
 
     private final String m_name;
     private final UUID m_storeUUID;
-    private File m_baseDirInWorkflowFolder;
-    private File m_baseDir;
+    /** Location of the saved file stores after load, null once restored (see {@link #ensureOpenAfterLoad()}). */
+    private volatile File m_baseDirInWorkflowFolder;
+    private volatile File m_baseDir;
+    /** Whether the handler was restored from a saved workflow and hasn't created file stores since. */
+    private volatile boolean m_isReadOnly;
     private InternalDuplicateChecker m_duplicateChecker;
     private IDataRepository m_dataRepository;
     private LRUCache<FileStoreKey, FileStoreKey> m_createdFileStoreKeys;
     private int m_nextIndex = 0;
+    /** The content pool, null unless file stores are deduplicated. */
+    private final ContentAddressedFileStorePool m_contentPool;
+    /** Copies in this handler referencing pooled contents, by file store index; released when the files are
+     * deleted. */
+    private Map<Integer, PooledCopy> m_pooledCopies;
+    /** Copies of foreign file stores currently taken, other threads copying the same file store wait for them. */
+    private final Map<FileStoreKey, CompletableFuture<FileStoreKey>> m_copiesInProgress = new HashMap<>();
 
 
+    /** A copy of a foreign file store linked to pooled content, never written. */
+    private static final class PooledCopy {
+        private final File m_file;
+
+        private final String m_hash;
+
+        PooledCopy(final File file, final String hash) {
+            m_file = file;
+            m_hash = hash;
+        }
+    }
+
     /**
      *  */
     public WriteFileStoreHandler(final String name, final UUID storeUUID) {
+        this(name, storeUUID, ContentAddressedFileStorePool.getInstance());
+    }
+
+    /** Constructor with explicit content pool (null if not deduplicating), used by tests. */
+    WriteFileStoreHandler(final String name, final UUID storeUUID, final ContentAddressedFileStorePool contentPool) {
         CheckUtils.checkArgumentNotNull(name, "Argument must not be null.");
         m_name = name;
         m_storeUUID = storeUUID;
+        m_contentPool = contentPool;
     }
 
     /** {@inheritDoc} */
@@ -140,6 +179,73 @@ public void clearAndDispose() {
                 LOGGER.warn(b.toString());
             }
         }
+        releasePooledContents();
+    }
+
+    /** Gives back the references to pooled contents, the files of this handler are deleted. */
+    private synchronized void releasePooledContents() {
+        if (m_pooledCopies != null) {
+            m_pooledCopies.values().forEach(c -> m_contentPool.release(c.m_hash));
+            m_pooledCopies = null;
+        }
+    }
+
+    /** Remembers a reference to pooled content (hash may be null if the content wasn't pooled). */
+    private void addPooledContent(final FileStore fs, final String hash) {
+        assert Thread.holdsLock(this);
+        if (hash != null) {
+            if (m_pooledCopies == null) {
+                m_pooledCopies = new HashMap<>();
+            }
+            m_pooledCopies.put(FileStoreUtil.getFileStoreKey(fs).getIndex(), new PooledCopy(fs.getFile(), hash));
+        }
+    }
+
+    /**
+     * Deletes the file (or directory) of a file store of this handler, e.g. when the loop iteration that created it
+     * is discarded, and gives back its reference to pooled content (if any).
+     *
+     * @param fs a file store of this handler
+     * @return whether the file no longer exists
+     */
+    boolean deleteFileStoreFile(final FileStore fs) {
+        final FileStoreKey key = FileStoreUtil.getFileStoreKey(fs);
+        assert key.getStoreUUID().equals(m_storeUUID) : "Not a file store of " + this + ": " + key;
+        final File file = fs.getFile();
+        final boolean isDeleted = !file.exists() || FileUtil.deleteRecursively(file);
+        synchronized (this) {
+            final PooledCopy pooledCopy = m_pooledCopies == null ? null : m_pooledCopies.remove(key.getIndex());
+            if (pooledCopy != null) {
+                // the link is gone (or orphaned if not deleted), the pooled content no longer needs to be kept for it
+                m_contentPool.release(pooledCopy.m_hash);
+            }
+        }
+        return isDeleted;
+    }
+
+    /**
+     * Copies the files of this handler to the given directory, e.g. when the workflow is saved. Files that are never
+     * written afterwards are hard linked instead: all files if the handler was restored from a saved workflow and hard
+     * links are enabled via {@link KNIMEConstants#PROPERTY_FILESTORE_HARDLINKS}, and the copies of foreign file stores
+     * that share pooled content if file stores are deduplicated (see
+     * {@link KNIMEConstants#PROPERTY_DEDUPLICATE_FILESTORES}), so that the saved files share that content, too.
+     *
+     * @param saveLocation the directory to save the files to (created if needed)
+     * @param exec for progress and cancellation, may be <code>null</code>
+     * @throws IOException if copying fails
+     * @throws CanceledExecutionException if canceled via the execution monitor
+     * @since 3.8
+     */
+    public void saveFiles(final File saveLocation, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        final boolean isLinkingAll = m_isReadOnly && FileStoreIOService.USE_HARD_LINKS;
+        final Set<Path> pooledFiles;
+        synchronized (this) {
+            pooledFiles = m_pooledCopies == null ? Collections.emptySet() : m_pooledCopies.values().stream()
+                .map(c -> c.m_file.toPath().toAbsolutePath().normalize()).collect(Collectors.toSet());
+        }
+        FileStoreIOService.copyOrLink(m_baseDir, saveLocation, exec,
+            file -> isLinkingAll || pooledFiles.contains(file.toAbsolutePath().normalize()));
     }
 
     /** @return the baseDir */
@@ -172,31 +278,75 @@ public boolean mustBeFlushedPriorSave(final FileStore fs) {
         return getOwnerHandler(key) == null;
     }
 
-    private synchronized FileStoreKey copyFileStore(final FileStore fs, final FlushCallback flushCallback) {
+    /**
+     * Copies a file store of an unknown handler into this handler. Only the bookkeeping is done while holding the
+     * lock of this handler; flushing and copying the content is done outside of it so that different file stores can
+     * be copied concurrently.
+     */
+    private FileStoreKey copyFileStore(final FileStore fs, final FlushCallback flushCallback) {
         FileStoreKey key = FileStoreUtil.getFileStoreKey(fs);
-        if (m_createdFileStoreKeys == null) {
-            LOGGER.debug("Duplicating file store objects - file store handler id "
-                    + key.getStoreUUID() + " is unknown to " + m_dataRepository.getClass().getName());
-            LOGGER.debug("Dump of valid file store handlers follows, omitting further log output");
-            m_dataRepository.printValidFileStoreHandlersToLogDebug();
-            m_createdFileStoreKeys = new LRUCache<FileStoreKey, FileStoreKey>(10000);
+        final CompletableFuture<FileStoreKey> copyInProgress;
+        final CompletableFuture<FileStoreKey> copy;
+        final FileStore newStore;
+        synchronized (this) {
+            if (m_createdFileStoreKeys == null) {
+                LOGGER.debug("Duplicating file store objects - file store handler id "
+                        + key.getStoreUUID() + " is unknown to " + m_dataRepository.getClass().getName());
+                LOGGER.debug("Dump of valid file store handlers follows, omitting further log output");
+                m_dataRepository.printValidFileStoreHandlersToLogDebug();
+                m_createdFileStoreKeys = new LRUCache<FileStoreKey, FileStoreKey>(10000);
+            }
+            FileStoreKey local = m_createdFileStoreKeys.get(key);
+            if (local != null) {
+                return local;
+            }
+            copyInProgress = m_copiesInProgress.get(key);
+            if (copyInProgress == null) {
+                try {
+                    newStore = createFileStoreInternal(getNextIndex() + "_" + key.getName(), null, -1);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed copying file stores to local handler", e);
+                }
+                copy = new CompletableFuture<>();
+                m_copiesInProgress.put(key, copy);
+            } else {
+                newStore = null;
+                copy = null;
+            }
         }
-        FileStoreKey local = m_createdFileStoreKeys.get(key);
-        if (local != null) {
-            return local;
+        if (copyInProgress != null) {
+            try {
+                return copyInProgress.join();
+            } catch (CompletionException e) {
+                throw new RuntimeException("Failed copying file stores to local handler", e.getCause());
+            }
         }
-        FileStore newStore;
+        String pooledContentHash = null;
         try {
             // fixes problem with file store cell that keep things in memory until serialized:
             // notify them that a copy is taken place and that they need to flush their in memory content
             FileStoreUtil.invokeFlush(flushCallback);
-            newStore = createFileStoreInternal(getNextIndex() + "_" + key.getName(), null, -1);
-            FileUtil.copyDir(fs.getFile(), newStore.getFile());
-        } catch (IOException e) {
+            final File source = fs.getFile();
+            if (m_contentPool != null && source.isFile()) {
+                // the source is flushed and the copy is never written, link it if the content is already pooled
+                pooledContentHash = m_contentPool.copy(source, newStore.getFile());
+            } else {
+                FileStoreIOService.copy(source, newStore.getFile(), null);
+            }
+        } catch (IOException | CanceledExecutionException | RuntimeException e) {
+            synchronized (this) {
+                m_copiesInProgress.remove(key);
+            }
+            copy.completeExceptionally(e);
             throw new RuntimeException("Failed copying file stores to local handler", e);
         }
         final FileStoreKey newKey = FileStoreUtil.getFileStoreKey(newStore);
-        m_createdFileStoreKeys.put(key, newKey);
+        synchronized (this) {
+            addPooledContent(newStore, pooledContentHash);
+            m_createdFileStoreKeys.put(key, newKey);
+            m_copiesInProgress.remove(key);
+        }
+        copy.complete(newKey);
         return newKey;
     }
 
@@ -232,12 +382,14 @@ IFileStoreHandler getOwnerHandler(final FileStoreKey key) {
         return ownerHandler;
     }
 
-    private synchronized FileStore getFileStoreInternal(final FileStoreKey key)
+    private FileStore getFileStoreInternal(final FileStoreKey key)
         throws IOException {
         assert key.getStoreUUID().equals(getStoreUUID());
-        CheckUtils.checkState(getBaseDir() != null || m_baseDirInWorkflowFolder != null,
-                "No file stores in \"%s\"", toString());
-        ensureOpenAfterLoad();
+        if (m_baseDirInWorkflowFolder != null) {
+            // synchronized, only the first access after load restores the directory
+            ensureOpenAfterLoad();
+        }
+        CheckUtils.checkState(getBaseDir() != null, "No file stores in \"%s\"", toString());
         return FileStoreUtil.createFileStore(this, key);
     }
 
@@ -286,10 +438,24 @@ FileStore createFileStoreInternal(final String name,
         }
         getParentDir(m_nextIndex, true);
         m_nextIndex++;
+        m_isReadOnly = false;
         FileStore fs = FileStoreUtil.createFileStore(this, key);
         return fs;
     }
 
+    /**
+     * Whether the files of this handler are never written, which is the case for a handler restored from a saved
+     * workflow as long as it doesn't create new file stores. Only then its files may be hard linked when the
+     * workflow is saved, see
+     * {@link FileStoreIOService#copy(File, File, org.knime.core.node.ExecutionMonitor, boolean)}.
+     *
+     * @return that property
+     * @since 3.8
+     */
+    public boolean isReadOnly() {
+        return m_isReadOnly;
+    }
+
     /** @return the nextIndex */
     public int getNextIndex() {
         return m_nextIndex;
@@ -361,13 +527,19 @@ public void close() {
     @Override
     public synchronized void ensureOpenAfterLoad() throws IOException {
         if (m_baseDirInWorkflowFolder != null) {
-            assert m_baseDir == null;
             ensureInitBaseDirectory();
             LOGGER.debugWithFormat("Restoring file store directory \"%s\" from \"%s\"",
                 toString(), m_baseDirInWorkflowFolder);
             File source = m_baseDirInWorkflowFolder;
+            try {
+                // the saved files are not written and neither are the restored ones (read only handler)
+                FileStoreIOService.copy(source, m_baseDir, null, true);
+            } catch (CanceledExecutionException e) {
+                // can't happen without execution monitor
+                throw new IOException(e.getMessage(), e);
+            }
+            // cleared only now as unsynchronized readers (getFileStoreInternal) rely on the directory being complete
             m_baseDirInWorkflowFolder = null;
-            FileUtil.copyDir(source, m_baseDir);
         }
     }
 
@@ -379,6 +551,7 @@ public static final IFileStoreHandler restore(final String name,
         WriteFileStoreHandler fileStoreHandler = new WriteFileStoreHandler(name, uuid);
         fileStoreHandler.addToRepository(dataRepository);
         fileStoreHandler.m_baseDirInWorkflowFolder = inWorkflowDirectory;
+        fileStoreHandler.m_isReadOnly = true;
         return fileStoreHandler;
     }
 
@@ -0,0 +1,279 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.core.util.ThreadUtils;
+
+/**
+ * Row iterator that reads the rows of another iterator ahead on the {@link KNIMEConstants#GLOBAL_THREAD_POOL global
+ * thread pool}, such that reading the rows (e.g. from disk or a database) overlaps with processing the rows already
+ * read. At most <code>capacity</code> rows are read ahead; reading is resumed once the consumer has taken half of
+ * them. The background task ends whenever the buffer is full, i.e. it doesn't occupy a pool thread while waiting for
+ * the consumer. If no row has been read ahead, e.g. because the pool is busy, the consumer reads the next row itself.
+ *
+ * <p>
+ * The wrapped iterator is only accessed by one thread at a time, so it doesn't need to be thread-safe. Errors of the
+ * wrapped iterator are rethrown by {@link #hasNext()} once all rows read before the error have been returned; checked
+ * exceptions (including the {@link CanceledExecutionException} if the execution monitor is canceled) are rethrown as
+ * the cause of an {@link IllegalStateException}. {@link #close()} waits until the wrapped iterator is no longer
+ * accessed and closes it if it is a {@link CloseableRowIterator}. Instances are meant to be used by one consumer
+ * thread.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class PrefetchingRowIterator extends CloseableRowIterator {
+
+    private final RowIterator m_source;
+
+    private final int m_capacity;
+
+    private final ExecutionMonitor m_exec;
+
+    /** Held while the wrapped iterator is accessed, acquired before the lock of 'this'. */
+    private final Object m_sourceLock = new Object();
+
+    /* the rows read ahead, guarded by 'this' */
+    private final Deque<DataRow> m_rows;
+
+    /* guarded by 'this' */
+    private boolean m_isSourceAtEnd;
+
+    /* the error of the wrapped iterator, rethrown after all rows have been returned, guarded by 'this' */
+    private Throwable m_failure;
+
+    /* guarded by 'this' */
+    private boolean m_isClosed;
+
+    /* whether a background task is queued or running, guarded by 'this' */
+    private boolean m_isFetchScheduled;
+
+    /* the row taken but not returned yet, only accessed by the consumer */
+    private DataRow m_next;
+
+    /**
+     * Creates a new iterator and starts reading ahead.
+     *
+     * @param source the iterator to read from, not accessed by any other thread afterwards
+     * @param capacity the maximum number of rows read ahead
+     */
+    public PrefetchingRowIterator(final RowIterator source, final int capacity) {
+        this(source, capacity, null);
+    }
+
+    /**
+     * Creates a new iterator and starts reading ahead.
+     *
+     * @param source the iterator to read from, not accessed by any other thread afterwards
+     * @param capacity the maximum number of rows read ahead
+     * @param exec the monitor checked for cancellation before each row is read, may be <code>null</code>
+     */
+    public PrefetchingRowIterator(final RowIterator source, final int capacity, final ExecutionMonitor exec) {
+        m_source = CheckUtils.checkArgumentNotNull(source, "Source iterator must not be null");
+        m_capacity = Math.max(1, capacity);
+        m_exec = exec;
+        m_rows = new ArrayDeque<>(Math.min(m_capacity, 1024));
+        synchronized (this) {
+            scheduleFetch();
+        }
+    }
+
+    /** Queues a background task reading ahead unless one is queued already, must hold the lock of 'this'. */
+    private void scheduleFetch() {
+        if (!m_isFetchScheduled && !m_isClosed && !m_isSourceAtEnd) {
+            m_isFetchScheduled = true;
+            KNIMEConstants.GLOBAL_THREAD_POOL.enqueue(ThreadUtils.runnableWithContext(this::fetch, false));
+        }
+    }
+
+    /** Reads rows from the wrapped iterator until the buffer is full, runs on the thread pool. */
+    private void fetch() {
+        try {
+            while (true) {
+                synchronized (m_sourceLock) {
+                    synchronized (this) {
+                        if (m_isClosed || m_isSourceAtEnd || m_rows.size() >= m_capacity) {
+                            return;
+                        }
+                    }
+                    readRow();
+                }
+            }
+        } finally {
+            synchronized (this) {
+                m_isFetchScheduled = false;
+                // the consumer may have taken rows after the last check
+                if (m_rows.size() <= m_capacity / 2) {
+                    scheduleFetch();
+                }
+            }
+        }
+    }
+
+    /** Reads a single row from the wrapped iterator and appends it to the buffer, must hold the source lock. */
+    private void readRow() {
+        DataRow row = null;
+        Throwable failure = null;
+        try {
+            if (m_exec != null) {
+                m_exec.checkCanceled();
+            }
+            if (m_source.hasNext()) {
+                row = m_source.next();
+            }
+        } catch (Throwable t) { // NOSONAR rethrown in consumer thread
+            failure = t;
+        }
+        synchronized (this) {
+            if (row != null) {
+                m_rows.add(row);
+            } else {
+                m_isSourceAtEnd = true;
+                m_failure = failure;
+            }
+        }
+    }
+
+    /** @return the next buffered row or null if there is none, schedules reading ahead if the buffer runs low */
+    private synchronized DataRow poll() {
+        if (m_isClosed) {
+            return null;
+        }
+        final DataRow row = m_rows.poll();
+        if (m_rows.size() <= m_capacity / 2) {
+            scheduleFetch();
+        }
+        return row;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        if (m_next != null) {
+            return true;
+        }
+        DataRow next = poll();
+        if (next == null) {
+            // wait for the row being read in the background or read it ourselves
+            synchronized (m_sourceLock) {
+                next = poll();
+                if (next == null && !isAtEnd()) {
+                    readRow();
+                    next = poll();
+                }
+            }
+        }
+        if (next == null) {
+            final Throwable failure;
+            synchronized (this) {
+                failure = m_failure;
+                m_failure = null;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException)failure;
+            } else if (failure instanceof Error) {
+                throw (Error)failure;
+            } else if (failure != null) {
+                throw new IllegalStateException(failure.getMessage(), failure);
+            }
+            return false;
+        }
+        m_next = next;
+        return true;
+    }
+
+    private synchronized boolean isAtEnd() {
+        return m_isClosed || m_isSourceAtEnd;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more rows");
+        }
+        final DataRow row = m_next;
+        m_next = null;
+        return row;
+    }
+
+    /**
+     * Stops reading ahead, waits until the wrapped iterator is no longer accessed by the background task and closes
+     * it if it is a {@link CloseableRowIterator}.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (m_isClosed) {
+                return;
+            }
+            m_isClosed = true;
+            m_rows.clear();
+        }
+        m_next = null;
+        synchronized (m_sourceLock) {
+            if (m_source instanceof CloseableRowIterator) {
+                ((CloseableRowIterator)m_source).close();
+            }
+        }
+    }
+}
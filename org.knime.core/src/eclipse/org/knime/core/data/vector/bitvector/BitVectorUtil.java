@@ -51,7 +51,8 @@
 
 /**
  * A utility class providing methods to apply set operations like "AND", "OR", and "XOR" on different kind of
- * {@link BitVectorValue}s, such as {@link SparseBitVectorCell}s or {@link DenseBitVectorCell}s in a convenient way.
+ * {@link BitVectorValue}s, such as {@link SparseBitVectorCell}s, {@link DenseBitVectorCell}s or
+ * {@link CompressedBitVectorCell}s in a convenient way.
  *
  * @author Kilian Thiel, University of Konstanz
  * @author Marcel Hanser, University of Konstanz
@@ -71,6 +72,11 @@ private BitVectorUtil() { /*empty*/
      * {@link DenseBitVectorCell}s. All other implementations need to access the bits through get/set methods which
      * probably performs very poorly.<br>
      *
+     * If both arguments are {@link CompressedBitVectorCell}s the result is a compressed bit vector cell computed by
+     * {@link CompressedBitVectorCellFactory#and(BitVectorValue, BitVectorValue)}. If only one of them is compressed it
+     * is converted into a dense bit vector cell first, i.e. the type of the result is the same as for any other
+     * non-sparse implementation.<br>
+     *
      * To perform the AND operation the sparse implementation
      * {@link SparseBitVectorCellFactory#and(BitVectorValue, BitVectorValue)}, or the dense implementation
      * {@link DenseBitVectorCellFactory#and(BitVectorValue, BitVectorValue)} is called.
@@ -84,11 +90,16 @@ public static BitVectorValue and(final BitVectorValue bv1, final BitVectorValue
             throw new NullPointerException(NPE_MESSAGE);
         }
 
-        int noSparseBVC = sparseBitVectorCellCount(bv1, bv2);
+        if (bv1 instanceof CompressedBitVectorCell && bv2 instanceof CompressedBitVectorCell) {
+            return CompressedBitVectorCellFactory.and(bv1, bv2);
+        }
+        final BitVectorValue op1 = decompress(bv1);
+        final BitVectorValue op2 = decompress(bv2);
+        int noSparseBVC = sparseBitVectorCellCount(op1, op2);
         if (noSparseBVC >= 1) {
-            return SparseBitVectorCellFactory.and(bv1, bv2);
+            return SparseBitVectorCellFactory.and(op1, op2);
         }
-        return DenseBitVectorCellFactory.and(bv1, bv2);
+        return DenseBitVectorCellFactory.and(op1, op2);
     }
 
     /**
@@ -99,6 +110,11 @@ public static BitVectorValue and(final BitVectorValue bv1, final BitVectorValue
      * {@link DenseBitVectorCell}s. All other implementations need to access the bits through get/set methods which
      * probably performs very poorly.<br>
      *
+     * If both arguments are {@link CompressedBitVectorCell}s the result is a compressed bit vector cell computed by
+     * {@link CompressedBitVectorCellFactory#or(BitVectorValue, BitVectorValue)}. If only one of them is compressed it
+     * is converted into a dense bit vector cell first, i.e. the type of the result is the same as for any other
+     * non-sparse implementation.<br>
+     *
      * To perform the OR operation the sparse implementation
      * {@link SparseBitVectorCellFactory#or(BitVectorValue, BitVectorValue)}, or the dense implementation
      * {@link DenseBitVectorCellFactory#or(BitVectorValue, BitVectorValue)} is called.
@@ -112,11 +128,16 @@ public static BitVectorValue or(final BitVectorValue bv1, final BitVectorValue b
             throw new NullPointerException(NPE_MESSAGE);
         }
 
-        int noSparseBVC = sparseBitVectorCellCount(bv1, bv2);
+        if (bv1 instanceof CompressedBitVectorCell && bv2 instanceof CompressedBitVectorCell) {
+            return CompressedBitVectorCellFactory.or(bv1, bv2);
+        }
+        final BitVectorValue op1 = decompress(bv1);
+        final BitVectorValue op2 = decompress(bv2);
+        int noSparseBVC = sparseBitVectorCellCount(op1, op2);
         if (noSparseBVC == 2) {
-            return SparseBitVectorCellFactory.or(bv1, bv2);
+            return SparseBitVectorCellFactory.or(op1, op2);
         }
-        return DenseBitVectorCellFactory.or(bv1, bv2);
+        return DenseBitVectorCellFactory.or(op1, op2);
     }
 
     /**
@@ -127,6 +148,11 @@ public static BitVectorValue or(final BitVectorValue bv1, final BitVectorValue b
      * {@link DenseBitVectorCell}s. All other implementations need to access the bits through get/set methods which
      * probably performs very poorly.<br>
      *
+     * If both arguments are {@link CompressedBitVectorCell}s the result is a compressed bit vector cell computed by
+     * {@link CompressedBitVectorCellFactory#xor(BitVectorValue, BitVectorValue)}. If only one of them is compressed it
+     * is converted into a dense bit vector cell first, i.e. the type of the result is the same as for any other
+     * non-sparse implementation.<br>
+     *
      * To perform the XOR operation the sparse implementation
      * {@link SparseBitVectorCellFactory#xor(BitVectorValue, BitVectorValue)}, or the dense implementation
      * {@link DenseBitVectorCellFactory#xor(BitVectorValue, BitVectorValue)} is called.
@@ -140,11 +166,30 @@ public static BitVectorValue xor(final BitVectorValue bv1, final BitVectorValue
             throw new NullPointerException(NPE_MESSAGE);
         }
 
-        int noSparseBVC = sparseBitVectorCellCount(bv1, bv2);
+        if (bv1 instanceof CompressedBitVectorCell && bv2 instanceof CompressedBitVectorCell) {
+            return CompressedBitVectorCellFactory.xor(bv1, bv2);
+        }
+        final BitVectorValue op1 = decompress(bv1);
+        final BitVectorValue op2 = decompress(bv2);
+        int noSparseBVC = sparseBitVectorCellCount(op1, op2);
         if (noSparseBVC == 2) {
-            return SparseBitVectorCellFactory.xor(bv1, bv2);
+            return SparseBitVectorCellFactory.xor(op1, op2);
+        }
+        return DenseBitVectorCellFactory.xor(op1, op2);
+    }
+
+    /**
+     * Converts a compressed bit vector cell into a dense bit vector cell, other values are returned unchanged.
+     *
+     * @param bv the value to convert
+     * @return a dense cell with the bits of a compressed cell or the argument itself
+     */
+    private static BitVectorValue decompress(final BitVectorValue bv) {
+        if (bv instanceof CompressedBitVectorCell) {
+            return new DenseBitVectorCellFactory(((CompressedBitVectorCell)bv).getBitVector().toDenseBitVector())
+                .createDataCell();
         }
-        return DenseBitVectorCellFactory.xor(bv1, bv2);
+        return bv;
     }
 
     /**
@@ -169,6 +214,9 @@ public static long cardinalityOfIntersection(final BitVectorValue bv1, final Bit
             return ((DenseBitVectorCell)bv1).cardinalityOfIntersection((DenseBitVectorCell)bv2);
         } else if (bv1 instanceof SparseBitVectorCell && bv2 instanceof SparseBitVectorCell) {
             return ((SparseBitVectorCell)bv1).cardinalityOfIntersection((SparseBitVectorCell)bv2);
+        } else if (isCompressedAndConvertible(bv1, bv2)) {
+            return CompressedBitVectorCellFactory.operand(bv1)
+                .cardinalityOfIntersection(CompressedBitVectorCellFactory.operand(bv2));
         }
 
         // we have to go into the loop
@@ -203,6 +251,9 @@ public static long cardinalityOfRelativeComplement(final BitVectorValue bv1, fin
             return ((DenseBitVectorCell)bv1).cardinalityOfRelativeComplement((DenseBitVectorCell)bv2);
         } else if (bv1 instanceof SparseBitVectorCell && bv2 instanceof SparseBitVectorCell) {
             return ((SparseBitVectorCell)bv1).cardinalityOfRelativeComplement((SparseBitVectorCell)bv2);
+        } else if (isCompressedAndConvertible(bv1, bv2)) {
+            return CompressedBitVectorCellFactory.operand(bv1)
+                .cardinalityOfRelativeComplement(CompressedBitVectorCellFactory.operand(bv2));
         }
 
         long bv1Idx = bv1.nextSetBit(0);
@@ -218,6 +269,139 @@ public static long cardinalityOfRelativeComplement(final BitVectorValue bv1, fin
         return toReturn;
     }
 
+    /**
+     * Packs the given vectors into one contiguous array of 64 bit words, for use with the bulk operations like
+     * {@link #cardinalitiesOfIntersectionAndUnion(long[], long[], int, int, int[], int[])}. Vector i occupies the
+     * words at index <code>i * wordsPerVector</code> to <code>(i + 1) * wordsPerVector - 1</code>, its bit with
+     * index j is stored in word <code>j &gt;&gt;&gt; 6</code> at bit position <code>j % 64</code> (see
+     * {@link DenseBitVector#getAllBits()}). Bits beyond <code>64 * wordsPerVector</code> are dropped.
+     *
+     * @param vectors the vectors to pack
+     * @param wordsPerVector the number of words per vector, usually <code>((length - 1) &gt;&gt; 6) + 1</code>
+     * @return the packed vectors
+     * @throws NullPointerException if any argument is <code>null</code>
+     * @throws IllegalArgumentException if the packed vectors would exceed the maximum array size
+     * @since 3.8
+     */
+    public static long[] packBits(final BitVectorValue[] vectors, final int wordsPerVector) {
+        CheckUtils.checkNotNull(vectors, NPE_MESSAGE);
+        CheckUtils.checkArgument(wordsPerVector > 0, "Words per vector must be positive: %d", wordsPerVector);
+        final long size = (long)vectors.length * wordsPerVector;
+        CheckUtils.checkArgument(size <= Integer.MAX_VALUE - 8, "Too many words to pack: %d", size);
+        final long maxBit = 64L * wordsPerVector;
+        final long[] result = new long[(int)size];
+        for (int i = 0; i < vectors.length; i++) {
+            final BitVectorValue bv = CheckUtils.checkNotNull(vectors[i], NPE_MESSAGE);
+            final int offset = i * wordsPerVector;
+            if (bv instanceof DenseBitVectorCell) {
+                ((DenseBitVectorCell)bv).copyBitsTo(result, offset, wordsPerVector);
+            } else {
+                for (long idx = bv.nextSetBit(0); idx >= 0 && idx < maxBit; idx = bv.nextSetBit(idx + 1)) {
+                    result[offset + (int)(idx >>> 6)] |= 1L << idx;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the cardinalities of the intersection and of the union of a query vector with each of the vectors in
+     * <code>fromIndex</code> (inclusive) to <code>toIndex</code> (exclusive) in a packed array as created by
+     * {@link #packBits(BitVectorValue[], int)}. The results for vector i are stored at index i of the result
+     * arrays. The method doesn't allocate any memory; disjoint index ranges can be computed concurrently.
+     *
+     * @param query the query vector as words, its length is the number of words per vector
+     * @param matrix the packed vectors
+     * @param fromIndex the index of the first vector
+     * @param toIndex the index after the last vector
+     * @param intersections the array to store the intersection cardinalities to, may be <code>null</code>
+     * @param unions the array to store the union cardinalities to, may be <code>null</code>
+     * @throws NullPointerException if the query or the matrix is <code>null</code>
+     * @throws IndexOutOfBoundsException if the matrix or a result array is too short
+     * @since 3.8
+     */
+    public static void cardinalitiesOfIntersectionAndUnion(final long[] query, final long[] matrix,
+        final int fromIndex, final int toIndex, final int[] intersections, final int[] unions) {
+        CheckUtils.checkNotNull(query, NPE_MESSAGE);
+        CheckUtils.checkNotNull(matrix, NPE_MESSAGE);
+        checkRange(query, matrix, fromIndex, toIndex);
+        final int words = query.length;
+        for (int i = fromIndex, offset = fromIndex * words; i < toIndex; i++, offset += words) {
+            int intersection = 0;
+            int union = 0;
+            for (int w = 0; w < words; w++) {
+                final long q = query[w];
+                final long m = matrix[offset + w];
+                intersection += Long.bitCount(q & m);
+                union += Long.bitCount(q | m);
+            }
+            if (intersections != null) {
+                intersections[i] = intersection;
+            }
+            if (unions != null) {
+                unions[i] = union;
+            }
+        }
+    }
+
+    /**
+     * Computes the Tanimoto (Jaccard) similarity, i.e. the cardinality of the intersection divided by the
+     * cardinality of the union, of a query vector with each of the vectors in <code>fromIndex</code> (inclusive) to
+     * <code>toIndex</code> (exclusive) in a packed array as created by {@link #packBits(BitVectorValue[], int)}.
+     * Two empty vectors have a similarity of 1. The result for vector i is stored at index i of the result array.
+     * The method doesn't allocate any memory; disjoint index ranges can be computed concurrently.
+     *
+     * @param query the query vector as words, its length is the number of words per vector
+     * @param matrix the packed vectors
+     * @param fromIndex the index of the first vector
+     * @param toIndex the index after the last vector
+     * @param similarities the array to store the similarities to
+     * @throws NullPointerException if any array is <code>null</code>
+     * @throws IndexOutOfBoundsException if the matrix or the result array is too short
+     * @since 3.8
+     */
+    public static void tanimotoSimilarities(final long[] query, final long[] matrix, final int fromIndex,
+        final int toIndex, final double[] similarities) {
+        CheckUtils.checkNotNull(query, NPE_MESSAGE);
+        CheckUtils.checkNotNull(matrix, NPE_MESSAGE);
+        CheckUtils.checkNotNull(similarities, NPE_MESSAGE);
+        checkRange(query, matrix, fromIndex, toIndex);
+        final int words = query.length;
+        for (int i = fromIndex, offset = fromIndex * words; i < toIndex; i++, offset += words) {
+            int intersection = 0;
+            int union = 0;
+            for (int w = 0; w < words; w++) {
+                final long q = query[w];
+                final long m = matrix[offset + w];
+                intersection += Long.bitCount(q & m);
+                union += Long.bitCount(q | m);
+            }
+            similarities[i] = union == 0 ? 1.0 : (double)intersection / union;
+        }
+    }
+
+    private static void checkRange(final long[] query, final long[] matrix, final int fromIndex,
+        final int toIndex) {
+        CheckUtils.checkArgument(query.length > 0, "Query vector must not be empty");
+        if (fromIndex < 0 || fromIndex > toIndex || (long)toIndex * query.length > matrix.length) {
+            throw new IndexOutOfBoundsException("Invalid vector range [" + fromIndex + ", " + toIndex
+                + ") for " + (matrix.length / query.length) + " packed vectors");
+        }
+    }
+
+    /* true if one vector is compressed and the other one can be converted efficiently */
+    private static boolean isCompressedAndConvertible(final BitVectorValue bv1, final BitVectorValue bv2) {
+        if (bv1 instanceof CompressedBitVectorCell) {
+            return isKnownCell(bv2);
+        }
+        return bv2 instanceof CompressedBitVectorCell && isKnownCell(bv1);
+    }
+
+    private static boolean isKnownCell(final BitVectorValue bv) {
+        return bv instanceof CompressedBitVectorCell || bv instanceof DenseBitVectorCell
+            || bv instanceof SparseBitVectorCell;
+    }
+
     private static int sparseBitVectorCellCount(final BitVectorValue bv1, final BitVectorValue bv2) {
         int count = 0;
         if (bv1 instanceof SparseBitVectorCell) {
@@ -0,0 +1,1398 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.vector.bitvector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A bit vector of fixed length that is compressed in chunks of 65536 bits (roaring bitmap style). Each chunk that
+ * contains at least one set bit is stored in the smallest of three container types: the sorted positions of its set
+ * bits (for at most 4096 set bits), a plain bitmap, or a list of runs of consecutive set bits. Empty chunks aren't
+ * stored at all.<br>
+ * The representation is suitable for long vectors with a medium density (about 0.1% to 10% set bits, or clustered
+ * bits), which are either large as {@link DenseBitVector} or slow to combine as {@link SparseBitVector}. The set
+ * operations and the cardinality computations operate on the containers directly, chunk by chunk.<br>
+ * The length of the vector is restricted to {@link #MAX_LENGTH} (i.e. 2<sup>47</sup>).<br>
+ * The implementation is not thread-safe.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ */
+public class CompressedBitVector implements BitVector {
+
+    /** The maximum length of a compressed bit vector. */
+    public static final long MAX_LENGTH = 1L << 47;
+
+    private static final int CHUNK_BITS = 16;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /* the number of words of a bitmap container */
+    private static final int BITMAP_WORDS = CHUNK_SIZE >>> 6;
+
+    /* the maximum cardinality of an array container */
+    private static final int ARRAY_MAX = 4096;
+
+    private static final byte TYPE_ARRAY = 0;
+
+    private static final byte TYPE_BITMAP = 1;
+
+    private static final byte TYPE_RUN = 2;
+
+    private final long m_length;
+
+    /* the sorted keys (index >>> 16) of the non-empty chunks, m_size are used */
+    private int[] m_keys;
+
+    /* the containers of the chunks, in the order of the keys; never empty */
+    private Container[] m_containers;
+
+    private int m_size;
+
+    /**
+     * Creates a new vector of the specified length with all bits cleared.
+     *
+     * @param length the length of the vector to create
+     * @throws IllegalArgumentException if the length is negative or larger than {@link #MAX_LENGTH}
+     */
+    public CompressedBitVector(final long length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length of a BitVector can't be negative.");
+        }
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Can't create a vector that big!");
+        }
+        m_length = length;
+        m_keys = new int[4];
+        m_containers = new Container[4];
+        m_size = 0;
+    }
+
+    /**
+     * Creates a new instance as copy of the passed argument.
+     *
+     * @param clone the vector to copy into the new instance
+     */
+    public CompressedBitVector(final CompressedBitVector clone) {
+        m_length = clone.m_length;
+        m_size = clone.m_size;
+        m_keys = Arrays.copyOf(clone.m_keys, Math.max(4, m_size));
+        m_containers = new Container[m_keys.length];
+        for (int i = 0; i < m_size; i++) {
+            m_containers[i] = clone.m_containers[i].copy();
+        }
+    }
+
+    /**
+     * Creates a new instance with the same length and bits as the passed dense vector.
+     *
+     * @param vector the vector to convert
+     * @throws IllegalArgumentException if the vector is longer than {@link #MAX_LENGTH}
+     */
+    public CompressedBitVector(final DenseBitVector vector) {
+        this(vector.length());
+        final long[] bits = vector.getAllBits();
+        for (int offset = 0; offset < bits.length; offset += BITMAP_WORDS) {
+            final long[] words = Arrays.copyOfRange(bits, offset, offset + BITMAP_WORDS);
+            final Container c = Container.fromWords(words);
+            if (c != null) {
+                append(offset / BITMAP_WORDS, c);
+            }
+        }
+    }
+
+    /**
+     * Creates a new instance with the same length and bits as the passed sparse vector.
+     *
+     * @param vector the vector to convert
+     * @throws IllegalArgumentException if the vector is longer than {@link #MAX_LENGTH}
+     */
+    public CompressedBitVector(final SparseBitVector vector) {
+        this(vector.length());
+        final long[] indices = vector.getAllOneIndices();
+        int i = 0;
+        while (i < indices.length) {
+            // all indices of one chunk
+            final int key = (int)(indices[i] >>> CHUNK_BITS);
+            int end = i + 1;
+            while (end < indices.length && (int)(indices[end] >>> CHUNK_BITS) == key) {
+                end++;
+            }
+            final Container c;
+            if (end - i <= ARRAY_MAX) {
+                final char[] values = new char[end - i];
+                for (int j = i; j < end; j++) {
+                    values[j - i] = (char)(indices[j] & CHUNK_MASK);
+                }
+                c = new ArrayContainer(values, values.length).optimize();
+            } else {
+                final long[] words = new long[BITMAP_WORDS];
+                for (int j = i; j < end; j++) {
+                    final int low = (int)(indices[j] & CHUNK_MASK);
+                    words[low >>> 6] |= 1L << low;
+                }
+                c = Container.fromWords(words);
+            }
+            append(key, c);
+            i = end;
+        }
+    }
+
+    /**
+     * Initializes the created bit vector from the hex representation in the passed string, see
+     * {@link DenseBitVector#DenseBitVector(String)}.
+     *
+     * @param hexString containing the hex value to initialize the vector with
+     * @throws IllegalArgumentException if <code>hexString</code> contains characters other then the hex characters
+     *             (i.e. <code>0 - 9, A - F, and 'a' - 'f'</code>)
+     */
+    public CompressedBitVector(final String hexString) {
+        this(new DenseBitVector(hexString));
+    }
+
+    /* adds a container with a key larger than all existing ones */
+    private void append(final int key, final Container c) {
+        assert m_size == 0 || m_keys[m_size - 1] < key;
+        insert(m_size, key, c);
+    }
+
+    private void insert(final int pos, final int key, final Container c) {
+        if (m_size == m_keys.length) {
+            final int newLength = Math.max(4, m_size << 1);
+            m_keys = Arrays.copyOf(m_keys, newLength);
+            m_containers = Arrays.copyOf(m_containers, newLength);
+        }
+        System.arraycopy(m_keys, pos, m_keys, pos + 1, m_size - pos);
+        System.arraycopy(m_containers, pos, m_containers, pos + 1, m_size - pos);
+        m_keys[pos] = key;
+        m_containers[pos] = c;
+        m_size++;
+    }
+
+    private void delete(final int pos) {
+        System.arraycopy(m_keys, pos + 1, m_keys, pos, m_size - pos - 1);
+        System.arraycopy(m_containers, pos + 1, m_containers, pos, m_size - pos - 1);
+        m_size--;
+        m_containers[m_size] = null;
+    }
+
+    /* the position of the key, or -(insertion point) - 1 */
+    private int findKey(final int key) {
+        return Arrays.binarySearch(m_keys, 0, m_size, key);
+    }
+
+    private void checkIndex(final long bitIdx) {
+        if (bitIdx >= m_length) {
+            throw new ArrayIndexOutOfBoundsException("Index ('" + bitIdx + "') too large for vector of length "
+                + m_length);
+        }
+        if (bitIdx < 0) {
+            throw new ArrayIndexOutOfBoundsException("Index of the bit can't be negative");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long length() {
+        return m_length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void set(final long bitIdx, final boolean value) {
+        if (value) {
+            set(bitIdx);
+        } else {
+            clear(bitIdx);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void set(final long bitIdx) {
+        checkIndex(bitIdx);
+        final int key = (int)(bitIdx >>> CHUNK_BITS);
+        final int low = (int)(bitIdx & CHUNK_MASK);
+        final int pos = findKey(key);
+        if (pos >= 0) {
+            m_containers[pos] = m_containers[pos].add(low);
+        } else {
+            final ArrayContainer c = new ArrayContainer(new char[4], 0);
+            c.add(low);
+            insert(-(pos + 1), key, c);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear(final long bitIdx) {
+        checkIndex(bitIdx);
+        final int pos = findKey((int)(bitIdx >>> CHUNK_BITS));
+        if (pos >= 0) {
+            final Container c = m_containers[pos].remove((int)(bitIdx & CHUNK_MASK));
+            if (c.cardinality() == 0) {
+                delete(pos);
+            } else {
+                m_containers[pos] = c;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean get(final long bitIdx) {
+        checkIndex(bitIdx);
+        final int pos = findKey((int)(bitIdx >>> CHUNK_BITS));
+        return pos >= 0 && m_containers[pos].contains((int)(bitIdx & CHUNK_MASK));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextSetBit(final long startIdx) {
+        if (startIdx < 0) {
+            throw new ArrayIndexOutOfBoundsException("Starting index can't be negative");
+        }
+        if (startIdx >= m_length) {
+            return -1;
+        }
+        final int key = (int)(startIdx >>> CHUNK_BITS);
+        int pos = findKey(key);
+        if (pos >= 0) {
+            final int low = m_containers[pos].nextSetBit((int)(startIdx & CHUNK_MASK));
+            if (low >= 0) {
+                return ((long)key << CHUNK_BITS) | low;
+            }
+            pos++;
+        } else {
+            pos = -(pos + 1);
+        }
+        if (pos >= m_size) {
+            return -1;
+        }
+        return ((long)m_keys[pos] << CHUNK_BITS) | m_containers[pos].nextSetBit(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextClearBit(final long startIdx) {
+        if (startIdx < 0) {
+            throw new ArrayIndexOutOfBoundsException("Starting index can't be negative");
+        }
+        long idx = startIdx;
+        while (idx < m_length) {
+            final int key = (int)(idx >>> CHUNK_BITS);
+            final int pos = findKey(key);
+            if (pos < 0) {
+                return idx;
+            }
+            final int low = m_containers[pos].nextClearBit((int)(idx & CHUNK_MASK));
+            if (low < CHUNK_SIZE) {
+                idx = ((long)key << CHUNK_BITS) | low;
+                return idx < m_length ? idx : -1;
+            }
+            // the chunk is full, continue with the next one
+            idx = (long)(key + 1) << CHUNK_BITS;
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long cardinality() {
+        long result = 0;
+        for (int i = 0; i < m_size; i++) {
+            result += m_containers[i].cardinality();
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    /**
+     * Converts each chunk into the container type with the smallest memory footprint. Setting or clearing bits
+     * keeps the chunks in array or bitmap containers; the vectors returned by the set operations are already
+     * optimized.
+     */
+    public void optimize() {
+        for (int i = 0; i < m_size; i++) {
+            m_containers[i] = m_containers[i].optimize();
+        }
+    }
+
+    /**
+     * Creates and returns a new bit vector whose bits are set at positions where both, this and the argument vector
+     * have their bits set. The length of the new vector is the maximum of the length of this and the argument.
+     *
+     * @param bv the vector to AND this one with
+     * @return a new instance containing the result of the AND operation
+     */
+    public CompressedBitVector and(final CompressedBitVector bv) {
+        final CompressedBitVector result = new CompressedBitVector(Math.max(m_length, bv.m_length));
+        int i = 0;
+        int j = 0;
+        while (i < m_size && j < bv.m_size) {
+            if (m_keys[i] == bv.m_keys[j]) {
+                final Container c = Container.and(m_containers[i], bv.m_containers[j]);
+                if (c != null) {
+                    result.append(m_keys[i], c);
+                }
+                i++;
+                j++;
+            } else if (m_keys[i] < bv.m_keys[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates and returns a new bit vector whose bits are set at positions where at least one of the vectors (this
+     * or the argument vector) have a bit set. The length of the new vector is the maximum of the length of this and
+     * the argument.
+     *
+     * @param bv the vector to OR this one with
+     * @return a new instance containing the result of the OR operation
+     */
+    public CompressedBitVector or(final CompressedBitVector bv) {
+        final CompressedBitVector result = new CompressedBitVector(Math.max(m_length, bv.m_length));
+        int i = 0;
+        int j = 0;
+        while (i < m_size || j < bv.m_size) {
+            if (j >= bv.m_size || (i < m_size && m_keys[i] < bv.m_keys[j])) {
+                result.append(m_keys[i], m_containers[i].copy());
+                i++;
+            } else if (i >= m_size || bv.m_keys[j] < m_keys[i]) {
+                result.append(bv.m_keys[j], bv.m_containers[j].copy());
+                j++;
+            } else {
+                result.append(m_keys[i], Container.or(m_containers[i], bv.m_containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates and returns a new bit vector whose bits are set at positions where (exactly) one of the vectors (this
+     * or the argument vector) have a bit set. The length of the new vector is the maximum of the length of this and
+     * the argument.
+     *
+     * @param bv the vector to XOR this one with
+     * @return a new instance containing the result of the XOR operation
+     */
+    public CompressedBitVector xor(final CompressedBitVector bv) {
+        final CompressedBitVector result = new CompressedBitVector(Math.max(m_length, bv.m_length));
+        int i = 0;
+        int j = 0;
+        while (i < m_size || j < bv.m_size) {
+            if (j >= bv.m_size || (i < m_size && m_keys[i] < bv.m_keys[j])) {
+                result.append(m_keys[i], m_containers[i].copy());
+                i++;
+            } else if (i >= m_size || bv.m_keys[j] < m_keys[i]) {
+                result.append(bv.m_keys[j], bv.m_containers[j].copy());
+                j++;
+            } else {
+                final Container c = Container.xor(m_containers[i], bv.m_containers[j]);
+                if (c != null) {
+                    result.append(m_keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates and returns a new bit vector whose bits are set at positions where this vector has its bit set but the
+     * argument vector has not. The length of the new vector is the maximum of the length of this and the argument.
+     *
+     * @param bv the vector whose bits are cleared from this one
+     * @return a new instance containing the result of the AND NOT operation
+     */
+    public CompressedBitVector andNot(final CompressedBitVector bv) {
+        final CompressedBitVector result = new CompressedBitVector(Math.max(m_length, bv.m_length));
+        int i = 0;
+        int j = 0;
+        while (i < m_size) {
+            if (j >= bv.m_size || m_keys[i] < bv.m_keys[j]) {
+                result.append(m_keys[i], m_containers[i].copy());
+                i++;
+            } else if (bv.m_keys[j] < m_keys[i]) {
+                j++;
+            } else {
+                final Container c = Container.andNot(m_containers[i], bv.m_containers[j]);
+                if (c != null) {
+                    result.append(m_keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the cardinality of the intersection with the given bitVector.
+     *
+     * @see BitVectorUtil#cardinalityOfIntersection(BitVectorValue, BitVectorValue)
+     * @param bitVector the other operand for the AND operator
+     * @return the cardinality of the intersection
+     */
+    long cardinalityOfIntersection(final CompressedBitVector bitVector) {
+        long result = 0;
+        int i = 0;
+        int j = 0;
+        while (i < m_size && j < bitVector.m_size) {
+            if (m_keys[i] == bitVector.m_keys[j]) {
+                result += m_containers[i].andCardinality(bitVector.m_containers[j]);
+                i++;
+                j++;
+            } else if (m_keys[i] < bitVector.m_keys[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the cardinality of the complement relative to the given bitVector.
+     *
+     * @see BitVectorUtil#cardinalityOfRelativeComplement(BitVectorValue, BitVectorValue)
+     * @param bitVector the other operand
+     * @return the cardinality of the relative complement
+     */
+    long cardinalityOfRelativeComplement(final CompressedBitVector bitVector) {
+        return cardinality() - cardinalityOfIntersection(bitVector);
+    }
+
+    /**
+     * Returns a dense bit vector with the same length and bits as this vector.
+     *
+     * @return a new dense bit vector
+     * @throws IllegalArgumentException if this vector is too long to be represented as dense bit vector
+     */
+    public DenseBitVector toDenseBitVector() {
+        final long arrayLength = ((m_length - 1) >> 6) + 1;
+        if (arrayLength >= Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Can't create a dense vector that big!");
+        }
+        final long[] bits = new long[(int)arrayLength];
+        final long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < m_size; i++) {
+            Arrays.fill(words, 0L);
+            m_containers[i].fillWords(words);
+            final int offset = m_keys[i] * BITMAP_WORDS;
+            System.arraycopy(words, 0, bits, offset, Math.min(BITMAP_WORDS, bits.length - offset));
+        }
+        return new DenseBitVector(bits, m_length);
+    }
+
+    /**
+     * Returns a sparse bit vector with the same length and bits as this vector.
+     *
+     * @return a new sparse bit vector
+     * @throws IllegalArgumentException if more bits are set than a sparse bit vector can hold
+     */
+    public SparseBitVector toSparseBitVector() {
+        final long cardinality = cardinality();
+        if (cardinality > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many bits set for a sparse vector: " + cardinality);
+        }
+        final long[] indices = new long[(int)cardinality];
+        int idx = 0;
+        for (int i = 0; i < m_size; i++) {
+            final long base = (long)m_keys[i] << CHUNK_BITS;
+            final Container c = m_containers[i];
+            for (int low = c.nextSetBit(0); low >= 0; low = low < CHUNK_MASK ? c.nextSetBit(low + 1) : -1) {
+                indices[idx++] = base | low;
+            }
+        }
+        return new SparseBitVector(m_length, indices);
+    }
+
+    /* a dense copy of the first bits (as many as are displayed) */
+    private DenseBitVector getDisplayBits() {
+        final long max = Math.min(m_length, BitVectorValue.MAX_DISPLAY_BITS);
+        final DenseBitVector result = new DenseBitVector(max);
+        for (long i = nextSetBit(0); i >= 0 && i < max; i = nextSetBit(i + 1)) {
+            result.set(i);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toHexString() {
+        final String hex = getDisplayBits().toHexString();
+        return m_length > BitVectorValue.MAX_DISPLAY_BITS ? "..." + hex : hex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toBinaryString() {
+        final String bin = getDisplayBits().toBinaryString();
+        return m_length > BitVectorValue.MAX_DISPLAY_BITS ? bin + "..." : bin;
+    }
+
+    /**
+     * Returns a string containing (comma separated) indices of the bits set in this vector and the total number of
+     * bits. The number of bit indices added to the string is limited to {@link BitVectorValue#MAX_DISPLAY_BITS}. If
+     * the output is truncated, the string ends on &quot;... }&quot;
+     *
+     * @return a string containing (comma separated) indices of the bits set in this vector.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+        result.append("{length=").append(m_length).append(", set bits=");
+        int count = 0;
+        long i = nextSetBit(0);
+        for (; i >= 0 && count < BitVectorValue.MAX_DISPLAY_BITS; i = nextSetBit(i + 1), count++) {
+            result.append(i).append(", ");
+        }
+        if (i >= 0) {
+            result.append("... ");
+        } else if (count > 0) {
+            result.delete(result.length() - 2, result.length());
+        }
+        result.append('}');
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        // same as the other bit vector implementations
+        long hash = 0;
+        for (int i = 0; i < m_size; i++) {
+            final long base = (long)m_keys[i] << CHUNK_BITS;
+            final Container c = m_containers[i];
+            for (int low = c.nextSetBit(0); low >= 0; low = low < CHUNK_MASK ? c.nextSetBit(low + 1) : -1) {
+                hash = hash * 524287 + ((base | low) + 1);
+            }
+        }
+        return (int)(hash ^ (hash >> 32));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof CompressedBitVector)) {
+            return false;
+        }
+        final CompressedBitVector o = (CompressedBitVector)obj;
+        if (o.m_length != m_length || o.m_size != m_size) {
+            return false;
+        }
+        for (int i = 0; i < m_size; i++) {
+            if (o.m_keys[i] != m_keys[i]) {
+                return false;
+            }
+            // containers with the same bits might be of different type
+            final int card = m_containers[i].cardinality();
+            if (o.m_containers[i].cardinality() != card
+                || m_containers[i].andCardinality(o.m_containers[i]) != card) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the vector to the passed output, see {@link #read(DataInput)}.
+     *
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    void write(final DataOutput out) throws IOException {
+        out.writeLong(m_length);
+        out.writeInt(m_size);
+        for (int i = 0; i < m_size; i++) {
+            out.writeInt(m_keys[i]);
+            m_containers[i].write(out);
+        }
+    }
+
+    /**
+     * Reads a vector written by {@link #write(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the vector read
+     * @throws IOException if reading fails or the data is corrupt
+     */
+    static CompressedBitVector read(final DataInput in) throws IOException {
+        final CompressedBitVector result = new CompressedBitVector(in.readLong());
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            final int key = in.readInt();
+            final byte type = in.readByte();
+            final Container c;
+            switch (type) {
+                case TYPE_ARRAY:
+                    c = ArrayContainer.read(in);
+                    break;
+                case TYPE_BITMAP:
+                    c = BitmapContainer.read(in);
+                    break;
+                case TYPE_RUN:
+                    c = RunContainer.read(in);
+                    break;
+                default:
+                    throw new IOException("Unknown container type " + type + " in compressed bit vector");
+            }
+            result.append(key, c);
+        }
+        return result;
+    }
+
+    /* sets the bits start to end (inclusive) in the words */
+    private static void setRange(final long[] words, final int start, final int end) {
+        final int firstWord = start >>> 6;
+        final int lastWord = end >>> 6;
+        final long firstMask = -1L << start;
+        final long lastMask = -1L >>> (63 - (end & 63));
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[firstWord] |= firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            words[w] = -1L;
+        }
+        words[lastWord] |= lastMask;
+    }
+
+    /* the number of bits set in the words from start to end (inclusive) */
+    private static int cardinalityInRange(final long[] words, final int start, final int end) {
+        final int firstWord = start >>> 6;
+        final int lastWord = end >>> 6;
+        final long firstMask = -1L << start;
+        final long lastMask = -1L >>> (63 - (end & 63));
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        }
+        int result = Long.bitCount(words[firstWord] & firstMask);
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            result += Long.bitCount(words[w]);
+        }
+        return result + Long.bitCount(words[lastWord] & lastMask);
+    }
+
+    /** The bits of one chunk. */
+    private abstract static class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(int value);
+
+        /* returns this or a container of a different type if this one can't hold the value */
+        abstract Container add(int value);
+
+        /* returns this or a container of a different type */
+        abstract Container remove(int value);
+
+        /* -1 if there is none */
+        abstract int nextSetBit(int from);
+
+        /* CHUNK_SIZE if there is none */
+        abstract int nextClearBit(int from);
+
+        /* sets the bits of this container in the passed bitmap words */
+        abstract void fillWords(long[] words);
+
+        abstract int andCardinality(Container other);
+
+        abstract Container copy();
+
+        abstract void write(DataOutput out) throws IOException;
+
+        Container optimize() {
+            final long[] words = new long[BITMAP_WORDS];
+            fillWords(words);
+            return fromWords(words);
+        }
+
+        /* the container with the smallest footprint for the bits, null if no bit is set. Takes over the array. */
+        static Container fromWords(final long[] words) {
+            int card = 0;
+            int runs = 0;
+            long prev = 0;
+            for (long w : words) {
+                card += Long.bitCount(w);
+                // a run starts where a bit is set and its predecessor isn't
+                runs += Long.bitCount(w & ~((w << 1) | (prev >>> 63)));
+                prev = w;
+            }
+            if (card == 0) {
+                return null;
+            }
+            // sizes in bytes: 4 per run, 2 per array value, 8192 for a bitmap
+            if (4 * runs < Math.min(2 * card, 8 * BITMAP_WORDS)) {
+                return RunContainer.fromWords(words, runs);
+            }
+            if (card <= ARRAY_MAX) {
+                return ArrayContainer.fromWords(words, card);
+            }
+            return new BitmapContainer(words, card);
+        }
+
+        static Container and(final Container a, final Container b) {
+            if (a instanceof ArrayContainer) {
+                return ((ArrayContainer)a).and(b);
+            }
+            if (b instanceof ArrayContainer) {
+                return ((ArrayContainer)b).and(a);
+            }
+            final long[] words = new long[BITMAP_WORDS];
+            a.fillWords(words);
+            final long[] other = new long[BITMAP_WORDS];
+            b.fillWords(other);
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] &= other[i];
+            }
+            return fromWords(words);
+        }
+
+        static Container or(final Container a, final Container b) {
+            if (a instanceof ArrayContainer && b instanceof ArrayContainer
+                && a.cardinality() + b.cardinality() <= ARRAY_MAX) {
+                return ((ArrayContainer)a).or((ArrayContainer)b).optimize();
+            }
+            final long[] words = new long[BITMAP_WORDS];
+            a.fillWords(words);
+            b.fillWords(words);
+            return fromWords(words);
+        }
+
+        static Container andNot(final Container a, final Container b) {
+            if (a instanceof ArrayContainer) {
+                return ((ArrayContainer)a).andNot(b);
+            }
+            final long[] words = new long[BITMAP_WORDS];
+            a.fillWords(words);
+            final long[] other = new long[BITMAP_WORDS];
+            b.fillWords(other);
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] &= ~other[i];
+            }
+            return fromWords(words);
+        }
+
+        static Container xor(final Container a, final Container b) {
+            final long[] words = new long[BITMAP_WORDS];
+            a.fillWords(words);
+            final long[] other = new long[BITMAP_WORDS];
+            b.fillWords(other);
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] ^= other[i];
+            }
+            return fromWords(words);
+        }
+    }
+
+    /** Sorted positions of at most {@link CompressedBitVector#ARRAY_MAX} set bits. */
+    private static final class ArrayContainer extends Container {
+
+        private char[] m_values;
+
+        private int m_card;
+
+        ArrayContainer(final char[] values, final int card) {
+            m_values = values;
+            m_card = card;
+        }
+
+        static ArrayContainer fromWords(final long[] words, final int card) {
+            final char[] values = new char[card];
+            int idx = 0;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[idx++] = (char)((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, card);
+        }
+
+        static ArrayContainer read(final DataInput in) throws IOException {
+            final int card = in.readInt();
+            final char[] values = new char[card];
+            for (int i = 0; i < card; i++) {
+                values[i] = in.readChar();
+            }
+            return new ArrayContainer(values, card);
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            out.writeByte(TYPE_ARRAY);
+            out.writeInt(m_card);
+            for (int i = 0; i < m_card; i++) {
+                out.writeChar(m_values[i]);
+            }
+        }
+
+        @Override
+        int cardinality() {
+            return m_card;
+        }
+
+        @Override
+        boolean contains(final int value) {
+            return Arrays.binarySearch(m_values, 0, m_card, (char)value) >= 0;
+        }
+
+        @Override
+        Container add(final int value) {
+            int pos = Arrays.binarySearch(m_values, 0, m_card, (char)value);
+            if (pos >= 0) {
+                return this;
+            }
+            if (m_card == ARRAY_MAX) {
+                final long[] words = new long[BITMAP_WORDS];
+                fillWords(words);
+                return new BitmapContainer(words, m_card).add(value);
+            }
+            pos = -(pos + 1);
+            if (m_card == m_values.length) {
+                m_values = Arrays.copyOf(m_values, Math.min(ARRAY_MAX, Math.max(4, m_card << 1)));
+            }
+            System.arraycopy(m_values, pos, m_values, pos + 1, m_card - pos);
+            m_values[pos] = (char)value;
+            m_card++;
+            return this;
+        }
+
+        @Override
+        Container remove(final int value) {
+            final int pos = Arrays.binarySearch(m_values, 0, m_card, (char)value);
+            if (pos >= 0) {
+                System.arraycopy(m_values, pos + 1, m_values, pos, m_card - pos - 1);
+                m_card--;
+            }
+            return this;
+        }
+
+        @Override
+        int nextSetBit(final int from) {
+            int pos = Arrays.binarySearch(m_values, 0, m_card, (char)from);
+            if (pos >= 0) {
+                return from;
+            }
+            pos = -(pos + 1);
+            return pos < m_card ? m_values[pos] : -1;
+        }
+
+        @Override
+        int nextClearBit(final int from) {
+            int pos = Arrays.binarySearch(m_values, 0, m_card, (char)from);
+            if (pos < 0) {
+                return from;
+            }
+            int value = from;
+            while (++pos < m_card && m_values[pos] == value + 1) {
+                value++;
+            }
+            return value + 1;
+        }
+
+        @Override
+        void fillWords(final long[] words) {
+            for (int i = 0; i < m_card; i++) {
+                words[m_values[i] >>> 6] |= 1L << m_values[i];
+            }
+        }
+
+        @Override
+        int andCardinality(final Container other) {
+            int result = 0;
+            if (other instanceof ArrayContainer) {
+                final ArrayContainer o = (ArrayContainer)other;
+                int i = 0;
+                int j = 0;
+                while (i < m_card && j < o.m_card) {
+                    if (m_values[i] == o.m_values[j]) {
+                        result++;
+                        i++;
+                        j++;
+                    } else if (m_values[i] < o.m_values[j]) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < m_card; i++) {
+                    if (other.contains(m_values[i])) {
+                        result++;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /* the values contained in this and the other container, null if there are none */
+        Container and(final Container other) {
+            final char[] values = new char[m_card];
+            int card = 0;
+            if (other instanceof ArrayContainer) {
+                final ArrayContainer o = (ArrayContainer)other;
+                int i = 0;
+                int j = 0;
+                while (i < m_card && j < o.m_card) {
+                    if (m_values[i] == o.m_values[j]) {
+                        values[card++] = m_values[i];
+                        i++;
+                        j++;
+                    } else if (m_values[i] < o.m_values[j]) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < m_card; i++) {
+                    if (other.contains(m_values[i])) {
+                        values[card++] = m_values[i];
+                    }
+                }
+            }
+            return card == 0 ? null : new ArrayContainer(values, card);
+        }
+
+        /* the values not contained in the other container, null if there are none */
+        Container andNot(final Container other) {
+            final char[] values = new char[m_card];
+            int card = 0;
+            for (int i = 0; i < m_card; i++) {
+                if (!other.contains(m_values[i])) {
+                    values[card++] = m_values[i];
+                }
+            }
+            return card == 0 ? null : new ArrayContainer(values, card);
+        }
+
+        /* the merged values; the sum of the cardinalities must not exceed ARRAY_MAX */
+        ArrayContainer or(final ArrayContainer o) {
+            final char[] values = new char[m_card + o.m_card];
+            int card = 0;
+            int i = 0;
+            int j = 0;
+            while (i < m_card || j < o.m_card) {
+                if (j >= o.m_card || (i < m_card && m_values[i] < o.m_values[j])) {
+                    values[card++] = m_values[i++];
+                } else if (i >= m_card || o.m_values[j] < m_values[i]) {
+                    values[card++] = o.m_values[j++];
+                } else {
+                    values[card++] = m_values[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(values, card);
+        }
+
+        @Override
+        Container optimize() {
+            if (m_card == 0) {
+                return this;
+            }
+            int runs = 1;
+            for (int i = 1; i < m_card; i++) {
+                if (m_values[i] != m_values[i - 1] + 1) {
+                    runs++;
+                }
+            }
+            if (2 * runs < m_card) {
+                return super.optimize();
+            }
+            return m_values.length == m_card ? this : new ArrayContainer(Arrays.copyOf(m_values, m_card), m_card);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(m_values, m_card), m_card);
+        }
+    }
+
+    /** A bitmap of all bits of the chunk. */
+    private static final class BitmapContainer extends Container {
+
+        private final long[] m_words;
+
+        private int m_card;
+
+        BitmapContainer(final long[] words, final int card) {
+            m_words = words;
+            m_card = card;
+        }
+
+        static BitmapContainer read(final DataInput in) throws IOException {
+            final long[] words = new long[BITMAP_WORDS];
+            int card = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] = in.readLong();
+                card += Long.bitCount(words[i]);
+            }
+            return new BitmapContainer(words, card);
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            out.writeByte(TYPE_BITMAP);
+            for (long w : m_words) {
+                out.writeLong(w);
+            }
+        }
+
+        @Override
+        int cardinality() {
+            return m_card;
+        }
+
+        @Override
+        boolean contains(final int value) {
+            return (m_words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(final int value) {
+            if (!contains(value)) {
+                m_words[value >>> 6] |= 1L << value;
+                m_card++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(final int value) {
+            if (contains(value)) {
+                m_words[value >>> 6] &= ~(1L << value);
+                m_card--;
+                if (m_card <= ARRAY_MAX) {
+                    return ArrayContainer.fromWords(m_words, m_card);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        int nextSetBit(final int from) {
+            int w = from >>> 6;
+            long word = m_words[w] & (-1L << from);
+            while (word == 0) {
+                if (++w == BITMAP_WORDS) {
+                    return -1;
+                }
+                word = m_words[w];
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        int nextClearBit(final int from) {
+            int w = from >>> 6;
+            long word = ~m_words[w] & (-1L << from);
+            while (word == 0) {
+                if (++w == BITMAP_WORDS) {
+                    return CHUNK_SIZE;
+                }
+                word = ~m_words[w];
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        void fillWords(final long[] words) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                words[i] |= m_words[i];
+            }
+        }
+
+        @Override
+        int andCardinality(final Container other) {
+            if (other instanceof BitmapContainer) {
+                final long[] o = ((BitmapContainer)other).m_words;
+                int result = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result += Long.bitCount(m_words[i] & o[i]);
+                }
+                return result;
+            }
+            if (other instanceof RunContainer) {
+                final RunContainer o = (RunContainer)other;
+                int result = 0;
+                for (int r = 0; r < o.m_numRuns; r++) {
+                    result += cardinalityInRange(m_words, o.start(r), o.end(r));
+                }
+                return result;
+            }
+            return other.andCardinality(this);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(m_words.clone(), m_card);
+        }
+    }
+
+    /** Runs of consecutive set bits, stored as pairs of start and length - 1. */
+    private static final class RunContainer extends Container {
+
+        private final char[] m_runs;
+
+        private final int m_numRuns;
+
+        private final int m_card;
+
+        RunContainer(final char[] runs, final int numRuns) {
+            m_runs = runs;
+            m_numRuns = numRuns;
+            int card = 0;
+            for (int r = 0; r < numRuns; r++) {
+                card += runs[2 * r + 1] + 1;
+            }
+            m_card = card;
+        }
+
+        static RunContainer fromWords(final long[] words, final int numRuns) {
+            final char[] runs = new char[2 * numRuns];
+            int r = 0;
+            int start = nextSet(words, 0);
+            while (start >= 0) {
+                final int end = nextClear(words, start) - 1;
+                runs[2 * r] = (char)start;
+                runs[2 * r + 1] = (char)(end - start);
+                r++;
+                start = end + 1 < CHUNK_SIZE ? nextSet(words, end + 1) : -1;
+            }
+            assert r == numRuns;
+            return new RunContainer(runs, numRuns);
+        }
+
+        private static int nextSet(final long[] words, final int from) {
+            return new BitmapContainer(words, 0).nextSetBit(from);
+        }
+
+        private static int nextClear(final long[] words, final int from) {
+            return new BitmapContainer(words, 0).nextClearBit(from);
+        }
+
+        static RunContainer read(final DataInput in) throws IOException {
+            final int numRuns = in.readInt();
+            final char[] runs = new char[2 * numRuns];
+            for (int i = 0; i < runs.length; i++) {
+                runs[i] = in.readChar();
+            }
+            return new RunContainer(runs, numRuns);
+        }
+
+        @Override
+        void write(final DataOutput out) throws IOException {
+            out.writeByte(TYPE_RUN);
+            out.writeInt(m_numRuns);
+            for (int i = 0; i < 2 * m_numRuns; i++) {
+                out.writeChar(m_runs[i]);
+            }
+        }
+
+        int start(final int run) {
+            return m_runs[2 * run];
+        }
+
+        int end(final int run) {
+            return m_runs[2 * run] + m_runs[2 * run + 1];
+        }
+
+        /* the index of the last run starting at or before value, -1 if there is none */
+        private int findRun(final int value) {
+            int low = 0;
+            int high = m_numRuns - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                if (start(mid) <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        @Override
+        int cardinality() {
+            return m_card;
+        }
+
+        @Override
+        boolean contains(final int value) {
+            final int r = findRun(value);
+            return r >= 0 && value <= end(r);
+        }
+
+        /* runs are immutable, changes are applied to an array or bitmap copy */
+        private Container toMutable() {
+            final long[] words = new long[BITMAP_WORDS];
+            fillWords(words);
+            return m_card < ARRAY_MAX ? ArrayContainer.fromWords(words, m_card) : new BitmapContainer(words, m_card);
+        }
+
+        @Override
+        Container add(final int value) {
+            return contains(value) ? this : toMutable().add(value);
+        }
+
+        @Override
+        Container remove(final int value) {
+            return contains(value) ? toMutable().remove(value) : this;
+        }
+
+        @Override
+        int nextSetBit(final int from) {
+            final int r = findRun(from);
+            if (r >= 0 && from <= end(r)) {
+                return from;
+            }
+            return r + 1 < m_numRuns ? start(r + 1) : -1;
+        }
+
+        @Override
+        int nextClearBit(final int from) {
+            final int r = findRun(from);
+            if (r < 0 || from > end(r)) {
+                return from;
+            }
+            // runs are maximal, i.e. the bit after a run is never set
+            return end(r) + 1;
+        }
+
+        @Override
+        void fillWords(final long[] words) {
+            for (int r = 0; r < m_numRuns; r++) {
+                setRange(words, start(r), end(r));
+            }
+        }
+
+        @Override
+        int andCardinality(final Container other) {
+            if (other instanceof RunContainer) {
+                final RunContainer o = (RunContainer)other;
+                int result = 0;
+                int i = 0;
+                int j = 0;
+                while (i < m_numRuns && j < o.m_numRuns) {
+                    final int start = Math.max(start(i), o.start(j));
+                    final int end = Math.min(end(i), o.end(j));
+                    if (start <= end) {
+                        result += end - start + 1;
+                    }
+                    if (end(i) < o.end(j)) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+                return result;
+            }
+            return other.andCardinality(this);
+        }
+
+        @Override
+        Container optimize() {
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            // immutable
+            return this;
+        }
+    }
+}
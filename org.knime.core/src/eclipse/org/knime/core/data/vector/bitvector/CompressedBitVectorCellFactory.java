@@ -0,0 +1,283 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.vector.bitvector;
+
+import org.knime.core.data.DataCell;
+
+/**
+ * Creates {@link CompressedBitVectorCell}s, either from scratch or by converting other bit vector values.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ */
+public class CompressedBitVectorCellFactory implements BitVectorCellFactory<CompressedBitVectorCell> {
+
+    private final CompressedBitVector m_vector;
+
+    /**
+     * Initializes the factory to the specified length, all bits cleared.
+     *
+     * @param length of the vector in the cell to create
+     */
+    public CompressedBitVectorCellFactory(final long length) {
+        m_vector = new CompressedBitVector(length);
+    }
+
+    /**
+     * A copy of the specified vector is stored in the created bit vector cell.
+     *
+     * @param vector used to initialize the bits.
+     */
+    public CompressedBitVectorCellFactory(final CompressedBitVector vector) {
+        m_vector = new CompressedBitVector(vector);
+    }
+
+    /**
+     * Initializes the factory with the length and the bits of the passed value, which can be of any bit vector
+     * implementation (dense and sparse cells are converted efficiently).
+     *
+     * @param value the bit vector value to convert
+     */
+    public CompressedBitVectorCellFactory(final BitVectorValue value) {
+        m_vector = toCompressedBitVector(value);
+    }
+
+    /**
+     * Initializes the created bit vector from the hex representation in the passed string. Only characters
+     * <code>'0' - '9'</code> and <code>'A' - 'F'</code> are allowed. The character at string position
+     * <code>(length - 1)</code> represents the bits with index 0 to 3 in the vector. The character at position 0
+     * represents the bits with the highest indices. The length of the vector created is the length of the string
+     * times 4 (as each character represents four bits).
+     *
+     * @param hexString containing the hex value to initialize the vector with
+     * @throws IllegalArgumentException if <code>hexString</code> contains characters other then the hex characters
+     *             (i.e. <code>0 - 9, A - F</code>)
+     */
+    public CompressedBitVectorCellFactory(final String hexString) {
+        m_vector = new CompressedBitVector(hexString);
+    }
+
+    /**
+     * Sets the bit with the specified index in the vector.
+     *
+     * @param bitIndex the index of the bit to set to one.
+     */
+    @Override
+    public void set(final long bitIndex) {
+        m_vector.set(bitIndex);
+    }
+
+    /**
+     * Sets the bit at the specified index to the new value.
+     *
+     * @param bitIdx the index of the bit to set or clear
+     * @param value if true, the specified bit will be set, otherwise it will be cleared.
+     * @throws ArrayIndexOutOfBoundsException if the index is negative or larger than the size of the vector
+     */
+    @Override
+    public void set(final long bitIdx, final boolean value) {
+        m_vector.set(bitIdx, value);
+    }
+
+    /**
+     * Clears the bit with the specified index in the vector.
+     *
+     * @param bitIndex the index of the bit to set to zero.
+     */
+    @Override
+    public void clear(final long bitIndex) {
+        m_vector.clear(bitIndex);
+    }
+
+    /**
+     * Creates a {@link DataCell} from the currently stored bit vector.
+     *
+     * @return a {@link DataCell} containing the current value of the vector
+     */
+    @Override
+    public CompressedBitVectorCell createDataCell() {
+        return new CompressedBitVectorCell(m_vector);
+    }
+
+    /**
+     * Converts any bit vector value into a compressed bit vector.
+     *
+     * @param value the value to convert
+     * @return a new compressed bit vector with the length and bits of the value
+     */
+    static CompressedBitVector toCompressedBitVector(final BitVectorValue value) {
+        if (value instanceof CompressedBitVectorCell) {
+            return ((CompressedBitVectorCell)value).getBitVectorCopy();
+        } else if (value instanceof DenseBitVectorCell) {
+            return new CompressedBitVector(((DenseBitVectorCell)value).getBitVectorCopy());
+        } else if (value instanceof SparseBitVectorCell) {
+            return new CompressedBitVector(((SparseBitVectorCell)value).getBitVectorCopy());
+        }
+        final CompressedBitVector result = new CompressedBitVector(value.length());
+        for (long i = value.nextSetBit(0); i >= 0; i = value.nextSetBit(i + 1)) {
+            result.set(i);
+        }
+        result.optimize();
+        return result;
+    }
+
+    /**
+     * Creates a compressed bit vector cell containing the result of the AND operation on the passed operands. The
+     * length of the result vector is the maximum of the lengths of the operands. Operands which are not compressed
+     * bit vector cells are converted first.
+     *
+     * @param bv1 the first operand to AND with the other
+     * @param bv2 the other operand to AND with the first one
+     * @return the result of the AND operation
+     */
+    public static CompressedBitVectorCell and(final BitVectorValue bv1, final BitVectorValue bv2) {
+        return new CompressedBitVectorCell(operand(bv1).and(operand(bv2)));
+    }
+
+    /**
+     * Creates a compressed bit vector cell containing the result of the OR operation on the passed operands. The
+     * length of the result vector is the maximum of the lengths of the operands. Operands which are not compressed
+     * bit vector cells are converted first.
+     *
+     * @param bv1 the first operand to OR with the other
+     * @param bv2 the other operand to OR with the first one
+     * @return the result of the OR operation
+     */
+    public static CompressedBitVectorCell or(final BitVectorValue bv1, final BitVectorValue bv2) {
+        return new CompressedBitVectorCell(operand(bv1).or(operand(bv2)));
+    }
+
+    /**
+     * Creates a compressed bit vector cell containing the result of the XOR operation on the passed operands. The
+     * length of the result vector is the maximum of the lengths of the operands. Operands which are not compressed
+     * bit vector cells are converted first.
+     *
+     * @param bv1 the first operand to XOR with the other
+     * @param bv2 the other operand to XOR with the first one
+     * @return the result of the XOR operation
+     */
+    public static CompressedBitVectorCell xor(final BitVectorValue bv1, final BitVectorValue bv2) {
+        return new CompressedBitVectorCell(operand(bv1).xor(operand(bv2)));
+    }
+
+    /**
+     * Returns the vector of a compressed cell without copying it, or converts any other bit vector value. The result
+     * must not be modified.
+     *
+     * @param value the value to get the vector for
+     * @return the (shared) compressed bit vector
+     */
+    static CompressedBitVector operand(final BitVectorValue value) {
+        if (value instanceof CompressedBitVectorCell) {
+            return ((CompressedBitVectorCell)value).getBitVector();
+        }
+        return toCompressedBitVector(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long length() {
+        return m_vector.length();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean get(final long bitIdx) {
+        return m_vector.get(bitIdx);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextSetBit(final long startIdx) {
+        return m_vector.nextSetBit(startIdx);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextClearBit(final long startIdx) {
+        return m_vector.nextClearBit(startIdx);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long cardinality() {
+        return m_vector.cardinality();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return m_vector.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toHexString() {
+        return m_vector.toHexString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toBinaryString() {
+        return m_vector.toBinaryString();
+    }
+}
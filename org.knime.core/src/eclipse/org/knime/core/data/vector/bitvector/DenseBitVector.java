@@ -1274,6 +1274,18 @@ long cardinalityOfIntersection(final DenseBitVector bitVector) {
         return result;
     }
 
+    /**
+     * Copies the storage words into the given array, at most the given number of words.
+     *
+     * @see BitVectorUtil#packBits(BitVectorValue[], int)
+     * @param dest the array to copy the words to
+     * @param offset the index of the first word in the destination array
+     * @param words the maximum number of words to copy
+     */
+    void copyBitsTo(final long[] dest, final int offset, final int words) {
+        System.arraycopy(m_storage, 0, dest, offset, Math.min(m_storage.length, words));
+    }
+
     /**
      * Computes the cardinality of the complement relative to the given bitVector.
      *
@@ -215,6 +215,16 @@ long cardinalityOfIntersection(final DenseBitVectorCell bitVectorCell) {
         return m_bitVector.cardinalityOfIntersection(bitVectorCell.m_bitVector);
     }
 
+    /**
+     * @see BitVectorUtil#packBits(BitVectorValue[], int)
+     * @param dest the array to copy the words to
+     * @param offset the index of the first word in the destination array
+     * @param words the maximum number of words to copy
+     */
+    void copyBitsTo(final long[] dest, final int offset, final int words) {
+        m_bitVector.copyBitsTo(dest, offset, words);
+    }
+
     /**
      * @see BitVectorUtil#cardinalityOfRelativeComplement(BitVectorValue, BitVectorValue)
      * @param bitVectorCell the other cell containing the operand
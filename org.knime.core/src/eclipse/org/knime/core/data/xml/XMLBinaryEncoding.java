@@ -0,0 +1,382 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * A compact, pre-tokenized binary form of an XML document, written by the serializers of {@link XMLCell} and
+ * {@link XMLBlobCell} if enabled via {@link org.knime.core.node.KNIMEConstants#PROPERTY_XML_BINARY_ENCODING}. A
+ * document is restored from it by creating the DOM nodes directly, which is considerably faster than parsing the XML
+ * text (no character decoding, tokenizing, namespace resolution or whitespace removal).
+ *
+ * <p>
+ * The format starts with a version byte, followed by a table of all element and attribute names, namespace URIs,
+ * prefixes and processing instruction targets, each stored once, and the properties of the document (XML version
+ * and standalone flag). The nodes follow in document order; each node is a tag byte followed by indices into the
+ * name table and/or an inline string. Child nodes of elements and of the
+ * document are terminated by an end tag. Integers are variable length encoded, strings are UTF-8 prefixed by their
+ * length.
+ *
+ * <p>
+ * Only elements, attributes, text, CDATA sections, comments and processing instructions are supported. Documents
+ * containing other nodes (e.g. document types or unresolved entity references) are not encoded and must be stored as
+ * text. The XML and input encoding of the document are not kept, they only describe the text the document was
+ * parsed from.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class XMLBinaryEncoding {
+
+    /** Version of the format, first byte of every encoded document. */
+    static final byte VERSION = 1;
+
+    /** Flag in the document properties for {@link Document#getXmlStandalone()}. */
+    private static final int FLAG_STANDALONE = 1;
+
+    private static final byte TAG_END = 0;
+
+    private static final byte TAG_ELEMENT = 1;
+
+    private static final byte TAG_TEXT = 2;
+
+    private static final byte TAG_CDATA = 3;
+
+    private static final byte TAG_COMMENT = 4;
+
+    private static final byte TAG_PI = 5;
+
+    private static final DOMImplementation DOM_IMPLEMENTATION = createDOMImplementation();
+
+    private XMLBinaryEncoding() {
+    }
+
+    /** @return the DOM implementation of the namespace aware document builders, creates the decoded documents */
+    private static DOMImplementation createDOMImplementation() {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try {
+            return factory.newDocumentBuilder().getDOMImplementation();
+        } catch (ParserConfigurationException ex) {
+            // the default configuration is always supported
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Encodes the given document.
+     *
+     * @param doc the document
+     * @return the binary form or <code>null</code> if the document contains nodes not supported by the format
+     */
+    static byte[] encode(final Document doc) {
+        final Encoder encoder = new Encoder();
+        encoder.writeDocumentProperties(doc);
+        if (!encoder.writeChildren(doc)) {
+            return null;
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Restores a document from its binary form.
+     *
+     * @param encoded the binary form as returned by {@link #encode(Document)}
+     * @return a new document
+     * @throws IOException if the data is corrupt or of an unsupported version
+     */
+    static Document decode(final byte[] encoded) throws IOException {
+        final Decoder decoder = new Decoder(encoded);
+        try {
+            return decoder.readDocument();
+        } catch (DOMException | IndexOutOfBoundsException ex) {
+            throw new IOException("Invalid binary XML data: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static String qualifiedName(final String prefix, final String localName) {
+        return prefix == null ? localName : prefix + ':' + localName;
+    }
+
+    /** Writes the nodes to a body buffer while collecting the name table, both are joined in the end. */
+    private static final class Encoder {
+
+        private final Map<String, Integer> m_names = new LinkedHashMap<>();
+
+        private final ByteArrayOutputStream m_body = new ByteArrayOutputStream();
+
+        /** Writes the flags and the XML version of the document. */
+        void writeDocumentProperties(final Document doc) {
+            m_body.write(doc.getXmlStandalone() ? FLAG_STANDALONE : 0);
+            writeName(doc.getXmlVersion());
+        }
+
+        /** Writes the children of the node and an end tag, returns false if an unsupported node is encountered. */
+        boolean writeChildren(final Node parent) {
+            for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+                switch (child.getNodeType()) {
+                    case Node.ELEMENT_NODE:
+                        if (!writeElement((Element)child)) {
+                            return false;
+                        }
+                        break;
+                    case Node.TEXT_NODE:
+                        m_body.write(TAG_TEXT);
+                        writeString(m_body, child.getNodeValue());
+                        break;
+                    case Node.CDATA_SECTION_NODE:
+                        m_body.write(TAG_CDATA);
+                        writeString(m_body, child.getNodeValue());
+                        break;
+                    case Node.COMMENT_NODE:
+                        m_body.write(TAG_COMMENT);
+                        writeString(m_body, child.getNodeValue());
+                        break;
+                    case Node.PROCESSING_INSTRUCTION_NODE:
+                        m_body.write(TAG_PI);
+                        writeName(child.getNodeName());
+                        writeString(m_body, child.getNodeValue() == null ? "" : child.getNodeValue());
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            m_body.write(TAG_END);
+            return true;
+        }
+
+        private boolean writeElement(final Element element) {
+            m_body.write(TAG_ELEMENT);
+            writeName(element.getNamespaceURI());
+            writeName(element.getLocalName() == null ? null : element.getPrefix());
+            writeName(element.getLocalName() == null ? element.getNodeName() : element.getLocalName());
+            final NamedNodeMap attrs = element.getAttributes();
+            writeInt(m_body, attrs.getLength());
+            for (int i = 0; i < attrs.getLength(); i++) {
+                final Attr attr = (Attr)attrs.item(i);
+                writeName(attr.getNamespaceURI());
+                writeName(attr.getLocalName() == null ? null : attr.getPrefix());
+                writeName(attr.getLocalName() == null ? attr.getName() : attr.getLocalName());
+                writeString(m_body, attr.getValue());
+            }
+            return writeChildren(element);
+        }
+
+        /** Writes the index of the name in the name table, 0 for <code>null</code>. */
+        private void writeName(final String name) {
+            if (name == null) {
+                writeInt(m_body, 0);
+                return;
+            }
+            Integer index = m_names.get(name);
+            if (index == null) {
+                index = m_names.size() + 1;
+                m_names.put(name, index);
+            }
+            writeInt(m_body, index);
+        }
+
+        byte[] toByteArray() {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(m_body.size() + 16 * m_names.size() + 8);
+            out.write(VERSION);
+            writeInt(out, m_names.size());
+            for (String name : m_names.keySet()) {
+                writeString(out, name);
+            }
+            final byte[] body = m_body.toByteArray();
+            out.write(body, 0, body.length);
+            return out.toByteArray();
+        }
+
+        private static void writeString(final ByteArrayOutputStream out, final String s) {
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeInt(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        private static void writeInt(final ByteArrayOutputStream out, final int value) {
+            int v = value;
+            while ((v & ~0x7F) != 0) {
+                out.write((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            out.write(v);
+        }
+    }
+
+    private static final class Decoder {
+
+        private final byte[] m_data;
+
+        private int m_pos;
+
+        private String[] m_names;
+
+        Decoder(final byte[] data) {
+            m_data = data;
+        }
+
+        Document readDocument() throws IOException {
+            final byte version = m_data[m_pos++];
+            if (version != VERSION) {
+                throw new IOException("Unsupported version of binary XML data: " + version);
+            }
+            final int nameCount = readInt();
+            m_names = new String[nameCount + 1];
+            for (int i = 1; i <= nameCount; i++) {
+                m_names[i] = readString();
+            }
+            final Document doc = DOM_IMPLEMENTATION.createDocument(null, null, null);
+            readDocumentProperties(doc);
+            readChildren(doc, doc);
+            return doc;
+        }
+
+        private void readDocumentProperties(final Document doc) {
+            final int flags = m_data[m_pos++];
+            final String xmlVersion = readName();
+            if (xmlVersion != null) {
+                doc.setXmlVersion(xmlVersion);
+            }
+            doc.setXmlStandalone((flags & FLAG_STANDALONE) != 0);
+        }
+
+        /** Reads the child nodes up to the end tag and appends them to the parent. */
+        private void readChildren(final Document doc, final Node parent) throws IOException {
+            while (true) {
+                final byte tag = m_data[m_pos++];
+                switch (tag) {
+                    case TAG_END:
+                        return;
+                    case TAG_ELEMENT:
+                        final Element element = readElement(doc);
+                        parent.appendChild(element);
+                        readChildren(doc, element);
+                        break;
+                    case TAG_TEXT:
+                        parent.appendChild(doc.createTextNode(readString()));
+                        break;
+                    case TAG_CDATA:
+                        parent.appendChild(doc.createCDATASection(readString()));
+                        break;
+                    case TAG_COMMENT:
+                        parent.appendChild(doc.createComment(readString()));
+                        break;
+                    case TAG_PI:
+                        final String target = readName();
+                        parent.appendChild(doc.createProcessingInstruction(target, readString()));
+                        break;
+                    default:
+                        throw new IOException("Invalid tag in binary XML data: " + tag);
+                }
+            }
+        }
+
+        private Element readElement(final Document doc) {
+            final String namespaceURI = readName();
+            final String prefix = readName();
+            final String qualifiedName = qualifiedName(prefix, readName());
+            final Element element;
+            if (namespaceURI == null && qualifiedName.indexOf(':') >= 0) {
+                // created without namespace support (DOM level 1)
+                element = doc.createElement(qualifiedName);
+            } else {
+                element = doc.createElementNS(namespaceURI, qualifiedName);
+            }
+            final int attrCount = readInt();
+            for (int i = 0; i < attrCount; i++) {
+                final String attrNamespaceURI = readName();
+                final String attrPrefix = readName();
+                final String attrName = qualifiedName(attrPrefix, readName());
+                final String value = readString();
+                if (attrNamespaceURI == null && attrName.indexOf(':') >= 0) {
+                    element.setAttribute(attrName, value);
+                } else {
+                    element.setAttributeNS(attrNamespaceURI, attrName, value);
+                }
+            }
+            return element;
+        }
+
+        private String readName() {
+            return m_names[readInt()];
+        }
+
+        private String readString() {
+            final int length = readInt();
+            final String s = new String(m_data, m_pos, length, StandardCharsets.UTF_8);
+            m_pos += length;
+            return s;
+        }
+
+        private int readInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = m_data[m_pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -49,8 +49,6 @@
 
 import java.io.IOException;
 
-import javax.xml.parsers.ParserConfigurationException;
-
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellDataInput;
 import org.knime.core.data.DataCellDataOutput;
@@ -61,7 +59,6 @@
 import org.knime.core.data.container.BlobDataCell;
 import org.knime.core.data.util.LockedSupplier;
 import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
 
 /**
  * {@link BlobDataCell} implementation that encapsulates a
@@ -84,7 +81,7 @@ public static final class XMLSerializer implements DataCellSerializer<XMLBlobCel
         public void serialize(final XMLBlobCell cell,
                 final DataCellDataOutput output) throws IOException {
             try {
-                output.writeUTF(cell.getStringValue());
+                cell.m_content.writeTo(output);
             } catch (IOException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -98,14 +95,7 @@ public void serialize(final XMLBlobCell cell,
         @Override
         public XMLBlobCell deserialize(final DataCellDataInput input)
                 throws IOException {
-            String s = input.readUTF();
-            try {
-                return new XMLBlobCell(new XMLCellContent(s, false));
-            } catch (ParserConfigurationException e) {
-                throw new IOException(e.getMessage(), e);
-            } catch (SAXException e) {
-                throw new IOException(e.getMessage(), e);
-            }
+            return new XMLBlobCell(XMLCellContent.readFrom(input));
         }
     }
 
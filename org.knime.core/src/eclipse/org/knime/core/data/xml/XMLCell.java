@@ -49,8 +49,6 @@
 
 import java.io.IOException;
 
-import javax.xml.parsers.ParserConfigurationException;
-
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataCellDataInput;
 import org.knime.core.data.DataCellDataOutput;
@@ -61,7 +59,6 @@
 import org.knime.core.data.StringValue;
 import org.knime.core.data.util.LockedSupplier;
 import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
 
 /**
  * {@link DataCell} implementation that encapsulates a {@link XMLCellContent}.
@@ -89,7 +86,7 @@ public static final class XMLSerializer implements DataCellSerializer<XMLCell> {
         public void serialize(final XMLCell cell,
                 final DataCellDataOutput output) throws IOException {
             try {
-                output.writeUTF(cell.getStringValue());
+                cell.m_content.writeTo(output);
             } catch (IOException ex) {
                 throw ex;
             } catch (Exception ex) {
@@ -103,14 +100,7 @@ public void serialize(final XMLCell cell,
         @Override
         public XMLCell deserialize(final DataCellDataInput input)
                 throws IOException {
-            String s = input.readUTF();
-            try {
-                return new XMLCell(new XMLCellContent(s, false));
-            } catch (ParserConfigurationException e) {
-                throw new IOException(e.getMessage(), e);
-            } catch (SAXException e) {
-                throw new IOException(e.getMessage(), e);
-            }
+            return new XMLCell(XMLCellContent.readFrom(input));
         }
     }
 
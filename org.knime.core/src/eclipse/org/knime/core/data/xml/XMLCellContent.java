@@ -48,6 +48,8 @@
 package org.knime.core.data.xml;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
@@ -62,6 +64,7 @@
 import org.knime.core.data.xml.io.XMLCellReaderFactory;
 import org.knime.core.data.xml.io.XMLCellWriter;
 import org.knime.core.data.xml.io.XMLCellWriterFactory;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.w3c.dom.DOMConfiguration;
 import org.w3c.dom.Document;
@@ -71,15 +74,37 @@
  * This class encapsulates a {@link Document}. It is the common content of a
  * {@link XMLCell} and a {@link XMLBlobCell}.
  *
+ * <p>The content is kept in its serialized form, either as text or in the
+ * binary form of {@link XMLBinaryEncoding} (if read from or written to a
+ * table in this form, see
+ * {@link KNIMEConstants#PROPERTY_XML_BINARY_ENCODING}). The parsed
+ * document is held in the global {@link XMLDocumentCache} and restored from
+ * the serialized form when it has been evicted. Documents too large for the
+ * cache are softly referenced by the content instead.
+ *
  * @author Heiko Hofer
  */
 public class XMLCellContent implements XMLValue<Document> {
     private static final NodeLogger LOGGER = NodeLogger
             .getLogger(XMLCellContent.class);
 
-    private final String m_xmlString;
+    /** The XML text; created lazily from the document if the content was read in the binary form. */
+    private volatile String m_xmlString;
+
+    private static final boolean USE_BINARY_ENCODING =
+        Boolean.getBoolean(KNIMEConstants.PROPERTY_XML_BINARY_ENCODING);
+
+    /** Marks a document that can't be encoded in the binary form. */
+    private static final byte[] NOT_ENCODABLE = new byte[0];
 
-    private SoftReference<Document> m_content;
+    /** The binary form of the document, only set if the content was read or written in this form. */
+    private volatile byte[] m_encoded;
+
+    /** Key of the parsed document in the {@link XMLDocumentCache}. */
+    private final long m_cacheKey = XMLDocumentCache.newKey();
+
+    /** The parsed document if it is too large for the {@link XMLDocumentCache}, otherwise <code>null</code>. */
+    private volatile SoftReference<Document> m_uncachedDocument;
 
     private final ReentrantLock m_lock = new ReentrantLock();
 
@@ -103,7 +128,7 @@ public class XMLCellContent implements XMLValue<Document> {
                 Document doc = parse(xmlString);
                 // store the normalized string as cell content
                 m_xmlString = serialize(doc);
-                m_content = new SoftReference<Document>(doc);
+                cacheDocument(doc);
             } catch (IOException ex) {
                 Throwable cause = ex;
                 while ((cause.getCause() != cause) && (cause.getCause() != null)) {
@@ -117,7 +142,6 @@ public class XMLCellContent implements XMLValue<Document> {
             }
         } else {
             m_xmlString = xmlString;
-            m_content = new SoftReference<Document>(null);
         }
     }
 
@@ -135,8 +159,8 @@ public class XMLCellContent implements XMLValue<Document> {
             ParserConfigurationException, SAXException, XMLStreamException {
         try {
             Document doc = parse(is);
-            m_content = new SoftReference<Document>(doc);
             m_xmlString = serialize(doc);
+            cacheDocument(doc);
         } catch (IOException ex) {
             Throwable cause = ex;
             while ((cause.getCause() != cause) && (cause.getCause() != null)) {
@@ -156,7 +180,6 @@ public class XMLCellContent implements XMLValue<Document> {
      * @param doc an XML document
      */
     XMLCellContent(final Document doc) {
-        m_content = new SoftReference<Document>(doc);
         // Transform CDATA to text
         DOMConfiguration domConfig = doc.getDomConfig();
         domConfig.setParameter("cdata-sections", Boolean.FALSE);
@@ -171,6 +194,9 @@ public class XMLCellContent implements XMLValue<Document> {
             // should not happen
         }
         m_xmlString = s;
+        if (s != null) {
+            cacheDocument(doc);
+        }
     }
 
     /**
@@ -194,7 +220,6 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
             doc.normalizeDocument();
 
             s = serialize(documentSupplier.get());
-            m_content = new SoftReference<Document>(null);
         } catch (IOException ex) {
             // should not happen
         }
@@ -203,6 +228,16 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
 
     }
 
+    /**
+     * Creates a new instance from the binary form of a document, see
+     * {@link #readFrom(DataInput)}.
+     *
+     * @param encoded the document as returned by {@link XMLBinaryEncoding#encode(Document)}
+     */
+    private XMLCellContent(final byte[] encoded) {
+        m_encoded = encoded;
+    }
+
     /**
      * Return the document. The returned document must not be changed!
      *
@@ -214,11 +249,17 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
     @Deprecated
     @Override
     public Document getDocument() {
-        Document doc = m_content.get();
+        Document doc = XMLDocumentCache.getInstance().get(m_cacheKey);
+        final SoftReference<Document> uncachedDocument = m_uncachedDocument;
+        if (doc == null && uncachedDocument != null) {
+            doc = uncachedDocument.get();
+        }
         if (doc == null) {
             try {
-                doc = parse(m_xmlString);
-                m_content = new SoftReference<Document>(doc);
+                final byte[] encoded = m_encoded;
+                doc = encoded != null && encoded != NOT_ENCODABLE ? XMLBinaryEncoding.decode(encoded)
+                    : parse(m_xmlString);
+                cacheDocument(doc);
             } catch (Exception ex) {
                 LOGGER.error("Error while parsing XML in XML Cell", ex);
             }
@@ -232,7 +273,98 @@ public Document getDocument() {
      * @return The XML Document as a string.
      */
     String getStringValue() {
-        return m_xmlString;
+        String s = m_xmlString;
+        if (s == null) {
+            try (LockedSupplier<Document> supplier = getDocumentSupplier()) {
+                s = serialize(supplier.get());
+                m_xmlString = s;
+            } catch (IOException ex) {
+                LOGGER.error("Error while serializing XML in XML Cell", ex);
+            }
+        }
+        return s;
+    }
+
+    private void cacheDocument(final Document doc) {
+        final String xmlString = m_xmlString;
+        final long length = xmlString != null ? xmlString.length() : m_encoded.length;
+        if (XMLDocumentCache.getInstance().put(m_cacheKey, doc, length)) {
+            m_uncachedDocument = null;
+        } else {
+            // too large for the cache (or the cache is disabled), parsing it again on each access would be expensive
+            m_uncachedDocument = new SoftReference<>(doc);
+        }
+    }
+
+    /**
+     * Writes this content as text, or in the binary form of {@link XMLBinaryEncoding} if enabled via
+     * {@link KNIMEConstants#PROPERTY_XML_BINARY_ENCODING}. Used by the serializers of {@link XMLCell} and
+     * {@link XMLBlobCell}.
+     *
+     * @param output the output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(final DataOutput output) throws IOException {
+        writeTo(output, USE_BINARY_ENCODING);
+    }
+
+    /**
+     * Writes this content in the binary form if <code>useBinaryEncoding</code> is set and the document contains
+     * only nodes supported by the binary form, otherwise as text.
+     *
+     * @param output the output to write to
+     * @param useBinaryEncoding whether to write the binary form
+     * @throws IOException if writing fails
+     */
+    void writeTo(final DataOutput output, final boolean useBinaryEncoding) throws IOException {
+        final byte[] encoded = useBinaryEncoding ? getEncoded() : null;
+        if (encoded == null) {
+            output.writeUTF(getStringValue());
+        } else {
+            // the text form is never empty, an empty string marks the binary form
+            output.writeUTF("");
+            output.writeInt(encoded.length);
+            output.write(encoded);
+        }
+    }
+
+    /** @return the binary form, encoded once, or <code>null</code> if the document can't be encoded */
+    private byte[] getEncoded() {
+        byte[] encoded = m_encoded;
+        if (encoded == null) {
+            try (LockedSupplier<Document> supplier = getDocumentSupplier()) {
+                final Document doc = supplier.get();
+                encoded = doc != null ? XMLBinaryEncoding.encode(doc) : null;
+            }
+            if (encoded == null) {
+                encoded = NOT_ENCODABLE;
+            }
+            m_encoded = encoded;
+        }
+        return encoded != NOT_ENCODABLE ? encoded : null;
+    }
+
+    /**
+     * Reads a content written by {@link #writeTo(DataOutput)}, either as text (as also written by previous versions)
+     * or in the binary form.
+     *
+     * @param input the input to read from
+     * @return a new content
+     * @throws IOException if reading fails
+     */
+    static XMLCellContent readFrom(final DataInput input) throws IOException {
+        final String s = input.readUTF();
+        if (s.isEmpty()) {
+            final byte[] encoded = new byte[input.readInt()];
+            input.readFully(encoded);
+            return new XMLCellContent(encoded);
+        }
+        try {
+            return new XMLCellContent(s, false);
+        } catch (ParserConfigurationException | SAXException e) {
+            // not thrown as the string is not parsed
+            throw new IOException(e.getMessage(), e);
+        }
     }
 
     private static String serialize(final Document doc) throws IOException {
@@ -0,0 +1,206 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.knime.core.data.util.memory.MemoryAlert;
+import org.knime.core.data.util.memory.MemoryAlertListener;
+import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.w3c.dom.Document;
+
+/**
+ * A least recently used cache of the parsed documents of {@link XMLCellContent}s, shared by all cells. Unlike a soft
+ * reference per cell, the memory held by the cache is bounded by a global budget (see
+ * {@link KNIMEConstants#PROPERTY_XML_DOCUMENT_CACHE_SIZE}), so a table with many XML cells can't fill the heap with
+ * documents until the garbage collector clears all of them at once. The size of a document is estimated from the
+ * length of its serialized (text or binary) form. The cache is cleared on low memory. Documents larger than the budget
+ * are not cached, their contents hold them via soft references as before.
+ *
+ * <p>
+ * Entries are keyed by an id of the owning content (see {@link #newKey()}). Entries of contents that have been
+ * garbage collected are never requested again and eventually evicted.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class XMLDocumentCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(XMLDocumentCache.class);
+
+    /** Default budget in MB if {@link KNIMEConstants#PROPERTY_XML_DOCUMENT_CACHE_SIZE} is not set. */
+    static final int DEFAULT_SIZE_MB = 64;
+
+    /** Estimated number of bytes a DOM occupies per byte (or character) of its serialized form. */
+    static final int BYTES_PER_SERIALIZED_BYTE = 8;
+
+    private static final AtomicLong KEY = new AtomicLong();
+
+    private static final XMLDocumentCache INSTANCE = initInstance();
+
+    private final long m_maxSize;
+
+    private final LinkedHashMap<Long, Entry> m_map = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long m_size;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize the budget in (estimated) bytes, 0 disables the cache
+     */
+    XMLDocumentCache(final long maxSize) {
+        m_maxSize = maxSize;
+    }
+
+    /**
+     * @return the cache shared by all XML cells
+     */
+    static XMLDocumentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return a new key to be used in calls to this cache, one per {@link XMLCellContent}
+     */
+    static long newKey() {
+        return KEY.incrementAndGet();
+    }
+
+    /**
+     * Get the cached document.
+     *
+     * @param key the key of the content
+     * @return the document or <code>null</code> if not cached (or evicted)
+     */
+    synchronized Document get(final long key) {
+        final Entry entry = m_map.get(key);
+        return entry != null ? entry.m_document : null;
+    }
+
+    /**
+     * Adds a document to the cache, evicting the least recently used documents if the budget is exceeded. Documents
+     * larger than the budget are not cached.
+     *
+     * @param key the key of the content
+     * @param document the parsed document
+     * @param serializedLength the length of the serialized form of the document, used to estimate its size
+     * @return whether the document was cached, false if it is larger than the budget
+     */
+    synchronized boolean put(final long key, final Document document, final long serializedLength) {
+        final long size = BYTES_PER_SERIALIZED_BYTE * serializedLength;
+        final Entry old = m_map.remove(key);
+        if (old != null) {
+            m_size -= old.m_size;
+        }
+        if (size > m_maxSize) {
+            return false;
+        }
+        for (Iterator<Entry> it = m_map.values().iterator(); m_size + size > m_maxSize && it.hasNext();) {
+            m_size -= it.next().m_size;
+            it.remove();
+        }
+        m_map.put(key, new Entry(document, size));
+        m_size += size;
+        return true;
+    }
+
+    /**
+     * Removes all documents.
+     */
+    synchronized void clear() {
+        m_map.clear();
+        m_size = 0;
+    }
+
+    /** @return the budget in (estimated) bytes */
+    long getMaxSize() {
+        return m_maxSize;
+    }
+
+    /** @return the estimated size of all cached documents in bytes, only for test purposes */
+    synchronized long size() {
+        return m_size;
+    }
+
+    private static XMLDocumentCache initInstance() {
+        long sizeMB = DEFAULT_SIZE_MB;
+        final String sizeString = System.getProperty(KNIMEConstants.PROPERTY_XML_DOCUMENT_CACHE_SIZE);
+        if (sizeString != null) {
+            try {
+                sizeMB = Math.max(0, Long.parseLong(sizeString.trim()));
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_XML_DOCUMENT_CACHE_SIZE
+                    + ", using default of " + DEFAULT_SIZE_MB + "MB", nfe);
+            }
+        }
+        final XMLDocumentCache cache = new XMLDocumentCache(sizeMB << 20);
+        MemoryAlertSystem.getInstance().addListener(new MemoryAlertListener() {
+            @Override
+            protected boolean memoryAlert(final MemoryAlert alert) {
+                LOGGER.debug("Clearing XML document cache due to low memory event");
+                cache.clear();
+                return false;
+            }
+        });
+        return cache;
+    }
+
+    private static final class Entry {
+
+        private final Document m_document;
+
+        private final long m_size;
+
+        Entry(final Document document, final long size) {
+            m_document = document;
+            m_size = size;
+        }
+    }
+}
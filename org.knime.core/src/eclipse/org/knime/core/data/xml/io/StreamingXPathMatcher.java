@@ -0,0 +1,464 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml.io;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamReader;
+
+import org.knime.core.node.InvalidSettingsException;
+
+/**
+ * Matches elements of an XML stream against a subset of XPath 1.0 that can be evaluated in one pass over the
+ * document, i.e. without building a DOM. Used by the streaming XPath reader (see
+ * {@link XMLCellReaderFactory#createStreamingXPathXMLCellReader(java.io.InputStream, StreamingXPathMatcher)}).
+ *
+ * <p>
+ * The supported subset is a union (<code>|</code>) of absolute location paths selecting elements. Each step may use
+ * the child (<code>/</code>) or descendant (<code>//</code>) axis, a name test (<code>name</code>,
+ * <code>prefix:name</code>, <code>prefix:*</code> or <code>*</code>) and any number of predicates of the form
+ * <code>[@attr]</code>, <code>[@attr='value']</code>, <code>[@attr!='value']</code> or <code>[n]</code> (position
+ * among the siblings passing the name test and the preceding predicates). The path <code>/</code> selects the
+ * document element. Examples: <code>/feed/entry</code>, <code>//item[@type='book']</code>,
+ * <code>/a:root/a:*[1]</code>.
+ *
+ * <p>
+ * The matcher keeps state only for the elements on the path from the document element to the current element,
+ * hence its memory usage doesn't depend on the size of the document. Like {@link LimitedXPathMatcher} an instance
+ * is stateful and must only be used for one document.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ */
+public final class StreamingXPathMatcher {
+
+    private final Step[][] m_paths;
+
+    /** The state of the open elements, the bottom-most entry represents the document. */
+    private final Deque<Frame> m_frames = new ArrayDeque<>();
+
+    /**
+     * Create a new instance.
+     *
+     * @param xpath the XPath expression, see class description for the supported subset
+     * @param nsContext the namespace context used to resolve prefixes in the expression
+     * @throws InvalidSettingsException if the expression is not part of the supported subset or uses undefined
+     *             prefixes
+     */
+    public StreamingXPathMatcher(final String xpath, final NamespaceContext nsContext)
+        throws InvalidSettingsException {
+        final List<Step[]> paths = new ArrayList<>();
+        for (String path : split(xpath, '|')) {
+            paths.add(parsePath(path.trim(), nsContext));
+        }
+        m_paths = paths.toArray(new Step[paths.size()][]);
+        final Frame document = new Frame(m_paths.length);
+        for (BitSet active : document.m_active) {
+            active.set(0);
+        }
+        m_frames.push(document);
+    }
+
+    /**
+     * Called for each start element of the stream.
+     *
+     * @param parser the parser, positioned on a start element
+     * @return true if the element is selected by the expression
+     */
+    boolean startElement(final XMLStreamReader parser) {
+        final Frame parent = m_frames.peek();
+        final Frame child = new Frame(m_paths.length);
+        boolean match = false;
+        for (int p = 0; p < m_paths.length; p++) {
+            final Step[] steps = m_paths[p];
+            final BitSet active = parent.m_active[p];
+            for (int k = active.nextSetBit(0); k >= 0; k = active.nextSetBit(k + 1)) {
+                final Step step = steps[k];
+                if (step.m_isDescendant) {
+                    // the step may match any element further down
+                    child.m_active[p].set(k);
+                }
+                if (step.matches(parser, parent, p, k)) {
+                    if (k == steps.length - 1) {
+                        match = true;
+                    } else {
+                        child.m_active[p].set(k + 1);
+                    }
+                }
+            }
+        }
+        m_frames.push(child);
+        return match;
+    }
+
+    /** Called for each end element of the stream. */
+    void endElement() {
+        if (m_frames.size() > 1) {
+            m_frames.pop();
+        }
+    }
+
+    private static Step[] parsePath(final String path, final NamespaceContext nsContext)
+        throws InvalidSettingsException {
+        if (path.equals("/")) {
+            // the document element
+            return new Step[]{new Step(false, null, null, new ArrayList<>())};
+        }
+        if (!path.startsWith("/")) {
+            throw new InvalidSettingsException("Only absolute paths are supported by the streaming reader: \""
+                + path + "\"");
+        }
+        final List<Step> steps = new ArrayList<>();
+        int i = 0;
+        while (i < path.length()) {
+            // path.charAt(i) is '/'
+            boolean isDescendant = path.startsWith("//", i);
+            i += isDescendant ? 2 : 1;
+            int end = i;
+            int bracketDepth = 0;
+            char quote = 0;
+            while (end < path.length() && (quote != 0 || bracketDepth > 0 || path.charAt(end) != '/')) {
+                final char c = path.charAt(end);
+                if (quote != 0) {
+                    quote = c == quote ? 0 : quote;
+                } else if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '[') {
+                    bracketDepth++;
+                } else if (c == ']') {
+                    bracketDepth--;
+                }
+                end++;
+            }
+            steps.add(parseStep(path.substring(i, end).trim(), isDescendant, nsContext, path));
+            i = end;
+        }
+        return steps.toArray(new Step[steps.size()]);
+    }
+
+    private static Step parseStep(final String step, final boolean isDescendant, final NamespaceContext nsContext,
+        final String path) throws InvalidSettingsException {
+        final int bracket = step.indexOf('[');
+        final String nameTest = (bracket < 0 ? step : step.substring(0, bracket)).trim();
+        if (nameTest.isEmpty() || nameTest.contains("(") || nameTest.contains("::") || nameTest.startsWith("@")
+            || nameTest.startsWith(".")) {
+            throw new InvalidSettingsException("Unsupported step \"" + step + "\" in \"" + path
+                + "\", the streaming reader supports element name tests only");
+        }
+        final String[] name = resolve(nameTest, nsContext);
+        final List<Predicate> predicates = new ArrayList<>();
+        int i = bracket;
+        while (i >= 0 && i < step.length()) {
+            if (step.charAt(i) != '[') {
+                throw new InvalidSettingsException("Unable to parse step \"" + step + "\" in \"" + path + "\"");
+            }
+            final int end = findClosingBracket(step, i);
+            if (end < 0) {
+                throw new InvalidSettingsException("Missing ']' in step \"" + step + "\" in \"" + path + "\"");
+            }
+            predicates.add(parsePredicate(step.substring(i + 1, end).trim(), nsContext, path));
+            i = end + 1;
+            while (i < step.length() && Character.isWhitespace(step.charAt(i))) {
+                i++;
+            }
+        }
+        return new Step(isDescendant, "*".equals(name[1]) ? null : name[1], name[0], predicates);
+    }
+
+    private static int findClosingBracket(final String step, final int open) {
+        char quote = 0;
+        for (int i = open + 1; i < step.length(); i++) {
+            final char c = step.charAt(i);
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Predicate parsePredicate(final String predicate, final NamespaceContext nsContext,
+        final String path) throws InvalidSettingsException {
+        if (predicate.matches("\\d+")) {
+            final int position = Integer.parseInt(predicate);
+            if (position < 1) {
+                throw new InvalidSettingsException("Invalid position " + position + " in \"" + path + "\"");
+            }
+            return new Predicate(position);
+        }
+        if (predicate.startsWith("@")) {
+            // the operator must precede the literal, which may contain '=' itself
+            final int firstQuote = indexOfQuote(predicate);
+            final String head = firstQuote < 0 ? predicate : predicate.substring(0, firstQuote);
+            final int notEquals = head.indexOf("!=");
+            final int equals = notEquals >= 0 ? notEquals + 1 : head.indexOf('=');
+            final String attribute = (equals < 0 ? predicate.substring(1)
+                : predicate.substring(1, notEquals >= 0 ? notEquals : equals)).trim();
+            final String[] name = resolve(attribute, nsContext);
+            if ("*".equals(name[1])) {
+                throw new InvalidSettingsException("Attribute wildcards are not supported: \"" + path + "\"");
+            }
+            if (equals < 0) {
+                return new Predicate(name[0], name[1], null, false);
+            }
+            final String literal = predicate.substring(equals + 1).trim();
+            if (literal.length() < 2 || (literal.charAt(0) != '\'' && literal.charAt(0) != '"')
+                || literal.charAt(literal.length() - 1) != literal.charAt(0)) {
+                throw new InvalidSettingsException("Attributes can only be compared to string literals: \""
+                    + predicate + "\" in \"" + path + "\"");
+            }
+            return new Predicate(name[0], name[1], literal.substring(1, literal.length() - 1), notEquals >= 0);
+        }
+        throw new InvalidSettingsException("Unsupported predicate \"[" + predicate + "]\" in \"" + path
+            + "\", the streaming reader supports attribute tests and positions only");
+    }
+
+    private static int indexOfQuote(final String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) == '\'' || s.charAt(i) == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** @return namespace URI (null for any namespace) and local name of a (possibly prefixed) name test */
+    private static String[] resolve(final String qname, final NamespaceContext nsContext)
+        throws InvalidSettingsException {
+        if (qname.equals("*")) {
+            return new String[]{null, "*"};
+        }
+        final int colon = qname.indexOf(':');
+        final String prefix = colon > -1 ? qname.substring(0, colon) : XMLConstants.DEFAULT_NS_PREFIX;
+        final String localName = colon > -1 ? qname.substring(colon + 1) : qname;
+        if (localName.isEmpty() || !isName(localName)) {
+            throw new InvalidSettingsException("Invalid name \"" + qname + "\"");
+        }
+        final String nsURI = prefix.isEmpty() ? XMLConstants.NULL_NS_URI : nsContext.getNamespaceURI(prefix);
+        if (!prefix.isEmpty() && (nsURI == null || nsURI.isEmpty())) {
+            throw new InvalidSettingsException("Please specify a namespace for the prefix: \"" + prefix + "\"");
+        }
+        return new String[]{nsURI, localName};
+    }
+
+    private static boolean isName(final String name) {
+        if (name.equals("*")) {
+            return true;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c > 0x7F)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Splits at the separator, ignoring separators in quotes or brackets. */
+    private static List<String> split(final String expression, final char separator)
+        throws InvalidSettingsException {
+        final List<String> result = new ArrayList<>();
+        int start = 0;
+        int bracketDepth = 0;
+        char quote = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            final char c = expression.charAt(i);
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[') {
+                bracketDepth++;
+            } else if (c == ']') {
+                bracketDepth--;
+            } else if (c == separator && bracketDepth == 0) {
+                result.add(expression.substring(start, i));
+                start = i + 1;
+            }
+        }
+        result.add(expression.substring(start));
+        for (String s : result) {
+            if (s.trim().isEmpty()) {
+                throw new InvalidSettingsException("Empty path in XPath expression \"" + expression + "\"");
+            }
+        }
+        return result;
+    }
+
+    /** The matching state of an open element. */
+    private static final class Frame {
+
+        /** Per path the steps to be tested against the children of the element. */
+        private final BitSet[] m_active;
+
+        /** Per path and step the number of children passing the tests before a position predicate, or null. */
+        private int[][] m_positions;
+
+        Frame(final int pathCount) {
+            m_active = new BitSet[pathCount];
+            for (int i = 0; i < pathCount; i++) {
+                m_active[i] = new BitSet();
+            }
+        }
+
+        int nextPosition(final int path, final int step) {
+            if (m_positions == null) {
+                m_positions = new int[m_active.length][];
+            }
+            if (m_positions[path] == null || m_positions[path].length <= step) {
+                final int[] old = m_positions[path];
+                m_positions[path] = new int[step + 1];
+                if (old != null) {
+                    System.arraycopy(old, 0, m_positions[path], 0, old.length);
+                }
+            }
+            return ++m_positions[path][step];
+        }
+    }
+
+    /** A location step. */
+    private static final class Step {
+
+        private final boolean m_isDescendant;
+
+        /** Local name or null for any. */
+        private final String m_localName;
+
+        /** Namespace URI or null for any. */
+        private final String m_nsURI;
+
+        private final Predicate[] m_predicates;
+
+        Step(final boolean isDescendant, final String localName, final String nsURI,
+            final List<Predicate> predicates) {
+            m_isDescendant = isDescendant;
+            m_localName = localName;
+            m_nsURI = nsURI;
+            m_predicates = predicates.toArray(new Predicate[predicates.size()]);
+        }
+
+        boolean matches(final XMLStreamReader parser, final Frame parent, final int path, final int step) {
+            if (m_localName != null && !m_localName.equals(parser.getLocalName())) {
+                return false;
+            }
+            if (m_nsURI != null && !m_nsURI.equals(nullToEmpty(parser.getNamespaceURI()))) {
+                return false;
+            }
+            boolean isPositionCounted = false;
+            for (Predicate predicate : m_predicates) {
+                if (predicate.m_position > 0) {
+                    // only one position per step and evaluation is counted, later positions filter the first
+                    final int position = isPositionCounted ? 1 : parent.nextPosition(path, step);
+                    isPositionCounted = true;
+                    if (position != predicate.m_position) {
+                        return false;
+                    }
+                } else if (!predicate.matches(parser)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** An attribute or position predicate. */
+    private static final class Predicate {
+
+        /** Position (1-based) or 0 for attribute predicates. */
+        private final int m_position;
+
+        private final String m_attrNsURI;
+
+        private final String m_attrLocalName;
+
+        /** Value to compare to or null to test existence only. */
+        private final String m_value;
+
+        private final boolean m_isNotEquals;
+
+        Predicate(final int position) {
+            this(position, null, null, null, false);
+        }
+
+        Predicate(final String attrNsURI, final String attrLocalName, final String value,
+            final boolean isNotEquals) {
+            this(0, attrNsURI, attrLocalName, value, isNotEquals);
+        }
+
+        private Predicate(final int position, final String attrNsURI, final String attrLocalName,
+            final String value, final boolean isNotEquals) {
+            m_position = position;
+            m_attrNsURI = attrNsURI;
+            m_attrLocalName = attrLocalName;
+            m_value = value;
+            m_isNotEquals = isNotEquals;
+        }
+
+        boolean matches(final XMLStreamReader parser) {
+            for (int i = 0; i < parser.getAttributeCount(); i++) {
+                if (m_attrLocalName.equals(parser.getAttributeLocalName(i))
+                    && m_attrNsURI.equals(nullToEmpty(parser.getAttributeNamespace(i)))) {
+                    return m_value == null || (m_value.equals(parser.getAttributeValue(i)) != m_isNotEquals);
+                }
+            }
+            // XPath: a comparison with a non-existing attribute is false, also for '!='
+            return false;
+        }
+    }
+
+    private static String nullToEmpty(final String s) {
+        return s == null ? XMLConstants.NULL_NS_URI : s;
+    }
+}
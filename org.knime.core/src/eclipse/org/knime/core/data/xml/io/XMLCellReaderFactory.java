@@ -109,4 +109,20 @@ public static XMLCellReader createXPathXMLCellReader(final InputStream is,
 			throws ParserConfigurationException, XMLStreamException {
 		return new XMLXpathCellReader(is, xpathMatcher);
 	}
+
+    /**
+     * Creates a {@link XMLCellReader} to read the elements selected by the given XPath in one pass without building
+     * a DOM of the document, hence with memory usage independent of the document size. Every element is read in a
+     * single DataCell whereas namespaces, xml:base, xml:space and xml:lang definitions are retained.
+     *
+     * @param is the xml document
+     * @param xpathMatcher selects the elements to read
+     * @return {@link XMLCellReader} to read the selected elements
+     * @throws XMLStreamException when parser could not be configured
+     * @since 3.8
+     */
+    public static XMLCellReader createStreamingXPathXMLCellReader(final InputStream is,
+        final StreamingXPathMatcher xpathMatcher) throws XMLStreamException {
+        return new XMLStreamingXPathCellReader(is, xpathMatcher);
+    }
 }
@@ -0,0 +1,333 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.data.xml.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.knime.core.data.xml.XMLCellFactory;
+import org.knime.core.data.xml.XMLValue;
+import org.knime.core.node.KNIMEConstants;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * Reads the elements selected by a {@link StreamingXPathMatcher} from an XML source in one pass. Unlike
+ * {@link XMLXpathCellReader} no DOM is built while reading: the selected elements are written to a string with a
+ * {@link XMLStreamWriter} while they are parsed, everything else is skipped. The memory used is therefore bounded
+ * by the size of the largest selected element (plus the depth of the document), regardless of the size of the
+ * document.
+ *
+ * <p>
+ * As in {@link XMLXpathCellReader}, every selected element is read into a single cell that retains the namespace,
+ * <code>xml:base</code>, <code>xml:space</code> and <code>xml:lang</code> declarations in scope. Whitespace-only text
+ * is dropped unless <code>xml:space="preserve"</code> applies. Nested selected elements are returned in the order
+ * they end, i.e. inner elements before outer ones.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+class XMLStreamingXPathCellReader implements XMLCellReader {
+
+    private static final String[] INHERITED_XML_ATTRIBUTES = {"base", "space", "lang"};
+
+    private final InputStream m_in;
+
+    private final XMLStreamReader m_parser;
+
+    private final XMLOutputFactory m_outputFactory = XMLOutputFactory.newInstance();
+
+    private final StreamingXPathMatcher m_xpathMatcher;
+
+    /** Per open element the namespace declarations of that element (prefix to URI, "" for the default). */
+    private final Deque<Map<String, String>> m_namespaceStack = new ArrayDeque<>();
+
+    /** Per open element the values of xml:base, xml:space and xml:lang in scope (null if undeclared). */
+    private final Deque<String[]> m_xmlAttributeStack = new ArrayDeque<>();
+
+    /** The selected elements being written, innermost last. */
+    private final List<Capture> m_captures = new ArrayList<>();
+
+    /**
+     * Create a new instance.
+     *
+     * @param is the xml source
+     * @param xpathMatcher selects the elements to read
+     * @throws XMLStreamException if the parser can't be created
+     */
+    XMLStreamingXPathCellReader(final InputStream is, final StreamingXPathMatcher xpathMatcher)
+        throws XMLStreamException {
+        m_in = is;
+        m_xpathMatcher = xpathMatcher;
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.TRUE);
+        if (Boolean.getBoolean(KNIMEConstants.PROPERTY_XML_DISABLE_EXT_ENTITIES)) { // see AP-6752
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        }
+        m_parser = factory.createXMLStreamReader(m_in);
+        m_xmlAttributeStack.push(new String[INHERITED_XML_ATTRIBUTES.length]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public XMLValue<Document> readXML() throws IOException {
+        try {
+            while (m_parser.hasNext()) {
+                switch (m_parser.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        startElement();
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        final String completed = endElement();
+                        if (completed != null) {
+                            return createDataCell(completed);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (!m_captures.isEmpty() && (!m_parser.isWhiteSpace() || isPreserveSpace())) {
+                            for (Capture c : m_captures) {
+                                c.m_writer.writeCharacters(m_parser.getText());
+                            }
+                        }
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        for (Capture c : m_captures) {
+                            c.m_writer.writeComment(m_parser.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        for (Capture c : m_captures) {
+                            c.m_writer.writeEntityRef(m_parser.getLocalName());
+                        }
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        for (Capture c : m_captures) {
+                            c.m_writer.writeProcessingInstruction(m_parser.getPITarget(), m_parser.getPIData());
+                        }
+                        break;
+                    default:
+                        // DTD, document start/end: not part of any element
+                        break;
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private boolean isPreserveSpace() {
+        return "preserve".equals(m_xmlAttributeStack.peek()[1]);
+    }
+
+    private void startElement() throws XMLStreamException {
+        final Map<String, String> declarations = new LinkedHashMap<>();
+        for (int i = 0; i < m_parser.getNamespaceCount(); i++) {
+            final String prefix = m_parser.getNamespacePrefix(i);
+            declarations.put(prefix == null ? XMLConstants.DEFAULT_NS_PREFIX : prefix,
+                nullToEmpty(m_parser.getNamespaceURI(i)));
+        }
+        m_namespaceStack.push(declarations);
+        final String[] xmlAttributes = m_xmlAttributeStack.peek().clone();
+        for (int i = 0; i < m_parser.getAttributeCount(); i++) {
+            if (XMLConstants.XML_NS_URI.equals(m_parser.getAttributeNamespace(i))) {
+                for (int a = 0; a < INHERITED_XML_ATTRIBUTES.length; a++) {
+                    if (INHERITED_XML_ATTRIBUTES[a].equals(m_parser.getAttributeLocalName(i))) {
+                        xmlAttributes[a] = m_parser.getAttributeValue(i);
+                    }
+                }
+            }
+        }
+        m_xmlAttributeStack.push(xmlAttributes);
+
+        for (Capture c : m_captures) {
+            writeStartElement(c.m_writer, declarations, null);
+            c.m_depth++;
+        }
+        if (m_xpathMatcher.startElement(m_parser)) {
+            final Capture c = new Capture();
+            writeStartElement(c.m_writer, getNamespacesInScope(), xmlAttributes);
+            m_captures.add(c);
+        }
+    }
+
+    /** @return the content of a selected element that ends with this event or null */
+    private String endElement() throws XMLStreamException {
+        m_xpathMatcher.endElement();
+        m_namespaceStack.pop();
+        m_xmlAttributeStack.pop();
+        String completed = null;
+        for (int i = m_captures.size() - 1; i >= 0; i--) {
+            final Capture c = m_captures.get(i);
+            c.m_writer.writeEndElement();
+            if (--c.m_depth == 0) {
+                // only the innermost capture can end with this event
+                c.m_writer.writeEndDocument();
+                c.m_writer.close();
+                completed = c.m_out.toString();
+                m_captures.remove(i);
+            }
+        }
+        return completed;
+    }
+
+    /** Namespace declarations of all open elements, inner ones overriding outer ones. */
+    private Map<String, String> getNamespacesInScope() {
+        final Map<String, String> result = new LinkedHashMap<>();
+        for (Map<String, String> declarations : m_namespaceStack) {
+            // iterates from innermost to outermost
+            for (Map.Entry<String, String> e : declarations.entrySet()) {
+                result.putIfAbsent(e.getKey(), e.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the current start element including the given namespace declarations and, for the root of a selected
+     * element, the inherited xml attributes.
+     */
+    private void writeStartElement(final XMLStreamWriter writer, final Map<String, String> namespaces,
+        final String[] inheritedXmlAttributes) throws XMLStreamException {
+        final String prefix = m_parser.getPrefix();
+        writer.writeStartElement(prefix == null ? XMLConstants.DEFAULT_NS_PREFIX : prefix, m_parser.getLocalName(),
+            nullToEmpty(m_parser.getNamespaceURI()));
+        for (Map.Entry<String, String> e : namespaces.entrySet()) {
+            if (e.getKey().isEmpty()) {
+                writer.writeDefaultNamespace(e.getValue());
+            } else {
+                writer.writeNamespace(e.getKey(), e.getValue());
+            }
+        }
+        boolean[] isXmlAttributeWritten = new boolean[INHERITED_XML_ATTRIBUTES.length];
+        for (int i = 0; i < m_parser.getAttributeCount(); i++) {
+            final String attrPrefix = m_parser.getAttributePrefix(i);
+            final String attrNamespace = nullToEmpty(m_parser.getAttributeNamespace(i));
+            final String attrLocalName = m_parser.getAttributeLocalName(i);
+            if (attrNamespace.isEmpty()) {
+                writer.writeAttribute(attrLocalName, m_parser.getAttributeValue(i));
+            } else {
+                writer.writeAttribute(attrPrefix == null ? XMLConstants.DEFAULT_NS_PREFIX : attrPrefix,
+                    attrNamespace, attrLocalName, m_parser.getAttributeValue(i));
+            }
+            if (XMLConstants.XML_NS_URI.equals(attrNamespace)) {
+                for (int a = 0; a < INHERITED_XML_ATTRIBUTES.length; a++) {
+                    isXmlAttributeWritten[a] |= INHERITED_XML_ATTRIBUTES[a].equals(attrLocalName);
+                }
+            }
+        }
+        if (inheritedXmlAttributes != null) {
+            for (int a = 0; a < INHERITED_XML_ATTRIBUTES.length; a++) {
+                if (!isXmlAttributeWritten[a] && inheritedXmlAttributes[a] != null) {
+                    writer.writeAttribute(XMLConstants.XML_NS_PREFIX, XMLConstants.XML_NS_URI,
+                        INHERITED_XML_ATTRIBUTES[a], inheritedXmlAttributes[a]);
+                }
+            }
+        }
+    }
+
+    private static String nullToEmpty(final String s) {
+        return s == null ? XMLConstants.NULL_NS_URI : s;
+    }
+
+    /** Create data cell from the serialized element. */
+    @SuppressWarnings("unchecked")
+    private static XMLValue<Document> createDataCell(final String xml) throws IOException {
+        try {
+            return (XMLValue<Document>)XMLCellFactory.create(xml);
+        } catch (ParserConfigurationException | SAXException | XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            m_parser.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        m_in.close();
+    }
+
+    /** A selected element being written. */
+    private final class Capture {
+
+        private final StringWriter m_out = new StringWriter();
+
+        private final XMLStreamWriter m_writer;
+
+        /** Number of open elements in this capture. */
+        private int m_depth = 1;
+
+        Capture() throws XMLStreamException {
+            m_writer = m_outputFactory.createXMLStreamWriter(m_out);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.EclipseUtil;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Small on-disk indices of information collected from extension points (e.g. which data value interfaces are
+ * implemented by which registered cell class), so that later starts can skip scanning and instantiating all
+ * contributed extensions. An index is a map from string keys to lists of strings; it is stored in the KNIME home
+ * directory together with a fingerprint of the symbolic names, versions and modification times of all installed
+ * bundles and is only used if the installed bundles haven't changed since.
+ *
+ * <p>Indices are only read and written when running inside an OSGi framework and not from an SDK (where the
+ * extensions of bundles in the workspace change without a new version).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class ExtensionIndex {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ExtensionIndex.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String INDEX_DIR = "extension-index";
+
+    private static String fingerprint;
+
+    private ExtensionIndex() {
+    }
+
+    /**
+     * Reads the index with the given name.
+     *
+     * @param name the name of the index, e.g. the extension point id
+     * @return the index, or an empty optional if no valid index exists (e.g. because bundles have been updated)
+     */
+    public static Optional<Map<String, List<String>>> read(final String name) {
+        final String currentFingerprint = getFingerprint();
+        final Path file = getIndexFile(name);
+        if (currentFingerprint == null || file == null) {
+            return Optional.empty();
+        }
+        return read(name, file, currentFingerprint);
+    }
+
+    /**
+     * Reads an index file.
+     *
+     * @param name the name of the index, used for log messages
+     * @param file the index file
+     * @param currentFingerprint the fingerprint of the installed bundles
+     * @return the index, or an empty optional if the file doesn't exist, can't be read or has another fingerprint
+     */
+    static Optional<Map<String, List<String>>> read(final String name, final Path file,
+        final String currentFingerprint) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (InputStream fileIn = Files.newInputStream(file);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(fileIn))) {
+            if (in.readInt() != FORMAT_VERSION || !currentFingerprint.equals(in.readUTF())) {
+                LOGGER.debug("Extension index '" + name + "' is outdated");
+                return Optional.empty();
+            }
+            final int size = in.readInt();
+            final Map<String, List<String>> entries = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                final String key = in.readUTF();
+                final String[] values = new String[in.readInt()];
+                for (int j = 0; j < values.length; j++) {
+                    values[j] = in.readUTF();
+                }
+                entries.put(key, Collections.unmodifiableList(Arrays.asList(values)));
+            }
+            return Optional.of(Collections.unmodifiableMap(entries));
+        } catch (IOException ex) {
+            LOGGER.debug("Could not read extension index '" + name + "': " + ex.getMessage(), ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the index with the given name, replacing an existing one. Errors are logged but not reported otherwise,
+     * as the index is only an optimization.
+     *
+     * @param name the name of the index, e.g. the extension point id
+     * @param entries the index entries
+     */
+    public static void write(final String name, final Map<String, List<String>> entries) {
+        final String currentFingerprint = getFingerprint();
+        final Path file = getIndexFile(name);
+        if (currentFingerprint != null && file != null) {
+            write(name, file, currentFingerprint, entries);
+        }
+    }
+
+    /**
+     * Writes an index file, replacing an existing one. Errors are logged only.
+     *
+     * @param name the name of the index, used for log messages
+     * @param file the index file
+     * @param currentFingerprint the fingerprint of the installed bundles
+     * @param entries the index entries
+     */
+    static void write(final String name, final Path file, final String currentFingerprint,
+        final Map<String, List<String>> entries) {
+        try {
+            Files.createDirectories(file.getParent());
+            final Path tempFile = Files.createTempFile(file.getParent(), name, ".tmp");
+            try {
+                try (OutputStream fileOut = Files.newOutputStream(tempFile);
+                        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeUTF(currentFingerprint);
+                    out.writeInt(entries.size());
+                    for (Map.Entry<String, List<String>> e : entries.entrySet()) {
+                        out.writeUTF(e.getKey());
+                        out.writeInt(e.getValue().size());
+                        for (String value : e.getValue()) {
+                            out.writeUTF(value);
+                        }
+                    }
+                }
+                // concurrently starting instances must never see a partially written index
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            LOGGER.debug("Wrote extension index '" + name + "' with " + entries.size() + " entries");
+        } catch (IOException ex) {
+            LOGGER.debug("Could not write extension index '" + name + "': " + ex.getMessage(), ex);
+        }
+    }
+
+    private static Path getIndexFile(final String name) {
+        final String homeDir = KNIMEConstants.getKNIMEHomeDir();
+        return homeDir == null ? null : Paths.get(homeDir, INDEX_DIR, name + ".idx");
+    }
+
+    /**
+     * Returns a hash over the symbolic names, versions and modification times of all installed bundles, or
+     * <code>null</code> if not running inside an OSGi framework or if running from an SDK. The set of bundles doesn't
+     * change while running (updates require a restart), hence it is computed only once.
+     */
+    private static synchronized String getFingerprint() {
+        if (fingerprint == null) {
+            final Bundle coreBundle = FrameworkUtil.getBundle(ExtensionIndex.class);
+            final BundleContext context = coreBundle == null ? null : coreBundle.getBundleContext();
+            if (context == null || EclipseUtil.isRunFromSDK()) {
+                return null;
+            }
+            fingerprint = computeFingerprint(context.getBundles());
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Computes the fingerprint of the given bundles; the order of the bundles doesn't matter. The modification time
+     * covers bundles that are replaced or re-installed without changing their version (e.g. snapshot builds).
+     *
+     * @param bundles the installed bundles
+     * @return a hex encoded hash
+     */
+    static String computeFingerprint(final Bundle[] bundles) {
+        final List<String> bundleKeys = new ArrayList<>();
+        for (Bundle b : bundles) {
+            bundleKeys.add(b.getSymbolicName() + "@" + b.getVersion() + "@" + b.getLastModified());
+        }
+        Collections.sort(bundleKeys);
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String b : bundleKeys) {
+                digest.update(b.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte)'\n');
+            }
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b & 0xff));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // every JRE is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.LoggingEvent;
+import org.knime.core.node.NodeLogger.AsyncOverflowPolicy;
+
+/**
+ * Hands log events from the logging threads to a single dispatcher thread, which calls the log4j appenders. Events
+ * are kept in a bounded, lock-free ring buffer; logging threads only contend on a single compare-and-set and never
+ * on the appender locks. If the buffer is full the configured {@link AsyncOverflowPolicy} applies.
+ *
+ * <p>The ring buffer follows the well-known bounded multi-producer queue design where each slot carries a sequence
+ * number that tells producers and the (single) consumer whether the slot is free or published.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class AsyncLogDispatcher {
+
+    /** Maximum time the idle dispatcher thread sleeps before checking the buffer again. */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** Time a blocked logging thread waits before trying again to insert its event. */
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AtomicReferenceArray<LoggingEvent> m_events;
+
+    /** Per slot: equals the position if the slot is free, position + 1 if the event at the position is published. */
+    private final AtomicLongArray m_sequences;
+
+    private final int m_mask;
+
+    private final AsyncOverflowPolicy m_policy;
+
+    /** Next position to be claimed by a logging thread. */
+    private final AtomicLong m_tail = new AtomicLong();
+
+    /** Next position to be read by the dispatcher thread; only written by that thread. */
+    private volatile long m_head;
+
+    private final AtomicLong m_discardedCount = new AtomicLong();
+
+    /** Number of discarded events already reported; only used by the dispatcher thread. */
+    private long m_reportedDiscardedCount;
+
+    private final Thread m_thread;
+
+    private volatile boolean m_idle;
+
+    private volatile boolean m_stopped;
+
+    /**
+     * Number of logging threads currently inside {@link #dispatch(LoggingEvent)}; the dispatcher thread only
+     * terminates once it is stopped and no logging thread can still insert an event.
+     */
+    private final AtomicInteger m_activeProducers = new AtomicInteger();
+
+    /**
+     * Creates and starts a new dispatcher.
+     *
+     * @param capacity the minimum number of events the buffer can hold, rounded up to the next power of two
+     * @param policy what to do if the buffer is full
+     */
+    AsyncLogDispatcher(final int capacity, final AsyncOverflowPolicy policy) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity for log event buffer: " + capacity);
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Overflow policy must not be null");
+        }
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        m_events = new AtomicReferenceArray<>(size);
+        m_sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            m_sequences.set(i, i);
+        }
+        m_mask = size - 1;
+        m_policy = policy;
+        m_thread = new Thread(this::dispatchLoop, "KNIME-Log-Dispatcher");
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    /** @return the number of events the buffer can hold */
+    int getCapacity() {
+        return m_mask + 1;
+    }
+
+    /** @return the overflow policy */
+    AsyncOverflowPolicy getPolicy() {
+        return m_policy;
+    }
+
+    /** @return the number of events discarded so far (due to a full buffer) */
+    long getDiscardedCount() {
+        return m_discardedCount.get();
+    }
+
+    /**
+     * Queues an event for its logger's appenders. Everything the appenders may query lazily from the current
+     * thread (thread name, NDC, MDC) and the rendered message are fixed before the event is queued.
+     *
+     * @param event the event to dispatch
+     */
+    void dispatch(final LoggingEvent event) {
+        event.getThreadName();
+        event.getNDC();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+        if (Thread.currentThread() == m_thread) {
+            // an appender logging itself must not wait for its own thread
+            append(event);
+            return;
+        }
+        // registered before m_stopped is read, see dispatchLoop
+        m_activeProducers.incrementAndGet();
+        if (m_stopped) {
+            m_activeProducers.decrementAndGet();
+            // events queued before by this thread must be written first
+            awaitTermination();
+            append(event);
+            return;
+        }
+        try {
+            if (!offer(event)) {
+                dispatchFull(event);
+            }
+        } finally {
+            m_activeProducers.decrementAndGet();
+        }
+    }
+
+    private void dispatchFull(final LoggingEvent event) {
+        final boolean mayDiscard;
+        switch (m_policy) {
+            case DISCARD:
+                mayDiscard = true;
+                break;
+            case DISCARD_BELOW_WARN:
+                mayDiscard = !event.getLevel().isGreaterOrEqual(Level.WARN);
+                break;
+            default:
+                mayDiscard = false;
+        }
+        if (mayDiscard) {
+            m_discardedCount.incrementAndGet();
+            return;
+        }
+        do {
+            LockSupport.unpark(m_thread);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            if (!m_thread.isAlive()) {
+                // only possible if the dispatcher thread died, it keeps draining while logging threads are waiting
+                append(event);
+                return;
+            }
+        } while (!offer(event));
+    }
+
+    /**
+     * Waits until all events queued so far have been passed to the appenders (or the dispatcher is stopped).
+     */
+    void flush() {
+        if (Thread.currentThread() == m_thread) {
+            return;
+        }
+        final long target = m_tail.get();
+        while (m_head < target && m_thread.isAlive()) {
+            LockSupport.unpark(m_thread);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Passes all queued events to the appenders and stops the dispatcher thread. Events dispatched afterwards are
+     * appended by the calling thread.
+     */
+    void stop() {
+        m_stopped = true;
+        LockSupport.unpark(m_thread);
+        awaitTermination();
+    }
+
+    private void awaitTermination() {
+        if (Thread.currentThread() != m_thread) {
+            try {
+                m_thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean offer(final LoggingEvent event) {
+        long pos = m_tail.get();
+        while (true) {
+            final int index = (int)(pos & m_mask);
+            final long diff = m_sequences.get(index) - pos;
+            if (diff == 0) {
+                if (m_tail.compareAndSet(pos, pos + 1)) {
+                    m_events.lazySet(index, event);
+                    m_sequences.set(index, pos + 1);
+                    if (m_idle) {
+                        LockSupport.unpark(m_thread);
+                    }
+                    return true;
+                }
+                pos = m_tail.get();
+            } else if (diff < 0) {
+                return false; // full
+            } else {
+                pos = m_tail.get(); // claimed by another thread meanwhile
+            }
+        }
+    }
+
+    private LoggingEvent poll() {
+        final long pos = m_head;
+        final int index = (int)(pos & m_mask);
+        if (m_sequences.get(index) != pos + 1) {
+            return null;
+        }
+        final LoggingEvent event = m_events.get(index);
+        m_events.lazySet(index, null);
+        m_sequences.set(index, pos + m_mask + 1);
+        m_head = pos + 1;
+        return event;
+    }
+
+    private boolean isEmpty() {
+        return m_sequences.get((int)(m_head & m_mask)) != m_head + 1;
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            final LoggingEvent event = poll();
+            if (event != null) {
+                append(event);
+            } else if (m_stopped && m_activeProducers.get() == 0) {
+                // logging threads arriving from now on see m_stopped and append themselves; those that left
+                // dispatch before have published their events already
+                for (LoggingEvent e = poll(); e != null; e = poll()) {
+                    append(e);
+                }
+                reportDiscarded();
+                return;
+            } else {
+                reportDiscarded();
+                m_idle = true;
+                if (isEmpty()) {
+                    LockSupport.parkNanos(this, m_stopped ? FULL_PARK_NANOS : IDLE_PARK_NANOS);
+                }
+                m_idle = false;
+            }
+        }
+    }
+
+    private void reportDiscarded() {
+        final long discardedCount = m_discardedCount.get();
+        final long discarded = discardedCount - m_reportedDiscardedCount;
+        if (discarded > 0) {
+            m_reportedDiscardedCount = discardedCount;
+            append(new LoggingEvent(Logger.class.getName(), Logger.getLogger(NodeLogger.class), Level.WARN,
+                discarded + " log message(s) discarded because the asynchronous log buffer was full", null));
+        }
+    }
+
+    private static void append(final LoggingEvent event) {
+        try {
+            event.getLogger().callAppenders(event);
+        } catch (RuntimeException ex) {
+            LogLog.error("Failed to append log event: " + ex.getMessage(), ex);
+        }
+    }
+}
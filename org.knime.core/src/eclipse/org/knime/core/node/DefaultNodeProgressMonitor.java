@@ -45,13 +45,15 @@
 package org.knime.core.node;
 
 import java.lang.ref.WeakReference;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
@@ -68,6 +70,10 @@
  * <p>
  * This progress monitor uses a static timer task looking every 250 milliseconds if progress information has changed.
  * The <code>ProgressEvent</code> is fired if either the value or message has changed only.
+ * <p>
+ * Progress and message updates don't lock: each update is an atomic write, which makes it cheap to report progress
+ * once per row. A monitor whose state changed queues itself (once) for the timer task, so the timer task only visits
+ * monitors that actually changed. Sub progress monitors add their progress increments to the parent atomically.
  *
  * @author Thomas Gabriel, University of Konstanz
  */
@@ -77,17 +83,18 @@ public class DefaultNodeProgressMonitor implements NodeProgressMonitor {
 
     private static final Supplier<String> NULL_SUPPLIER = () -> null;
 
-    /** The cancel requested flag. */
-    private boolean m_cancelExecute;
+    /** Progress value (as {@link Double#doubleToLongBits(double) bits}) representing 'no progress available'. */
+    private static final long NO_PROGRESS = Double.doubleToLongBits(Double.NaN);
 
-    /** Progress of the execution between 0 and 1, or null if not available. */
-    private Double m_progress;
+    /** The cancel requested flag. */
+    private volatile boolean m_cancelExecute;
 
-    /** Lazy setter of new message - generation may be skipped if new messages come in faster than processed. */
-    private Supplier<String> m_messageSupplier;
+    /** Progress of the execution between 0 and 1 (as bits), or {@link #NO_PROGRESS} if not available. */
+    private final AtomicLong m_progress = new AtomicLong(NO_PROGRESS);
 
-    /** Lazy setter of new append message - used by SubNodeProgressMonitor. */
-    private Supplier<String> m_appendSupplier;
+    /** Lazy setters of new message and append message (used by SubNodeProgressMonitor) - generation may be skipped
+     * if new messages come in faster than processed. */
+    private final AtomicReference<Message> m_message = new AtomicReference<>(Message.NONE);
 
     /** A set of progress listeners. */
     private final CopyOnWriteArrayList<NodeProgressListener> m_listeners;
@@ -96,13 +103,17 @@ public class DefaultNodeProgressMonitor implements NodeProgressMonitor {
     private static final int TIMER_PERIOD = KNIMEConstants.MIN_GUI_REFRESH_INTERVAL;
 
     /**
-     * Keeps a static list of these progress monitors if they are active. The timer task iterates over this list and
-     * informs the monitors about new progress information.
+     * Queue of progress monitors whose progress information has changed since they were last visited. The timer task
+     * polls this queue and informs the monitors' listeners about new progress information.
      */
-    private static final List<WeakReference<DefaultNodeProgressMonitor>> PROGMONS = new CopyOnWriteArrayList<>();
+    private static final Queue<WeakReference<DefaultNodeProgressMonitor>> CHANGED_PROGMONS =
+        new ConcurrentLinkedQueue<>();
 
-    /** If progress has changed. */
-    private boolean m_changed = false;
+    /** If progress has changed; set when this monitor is added to {@link #CHANGED_PROGMONS}. */
+    private final AtomicBoolean m_changed = new AtomicBoolean();
+
+    /** The reference put into {@link #CHANGED_PROGMONS} - the queue must not keep the monitor alive. */
+    private final WeakReference<DefaultNodeProgressMonitor> m_reference = new WeakReference<>(this);
 
     private static final ScheduledExecutorService NOTIFICATION_SERVICE =
             Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "KNIME Progress Updater"));
@@ -112,15 +123,12 @@ public class DefaultNodeProgressMonitor implements NodeProgressMonitor {
         NOTIFICATION_SERVICE.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
-                // for maintenance only
-                List<WeakReference<DefaultNodeProgressMonitor>> deadList = new LinkedList<>();
-                for (Iterator<WeakReference<DefaultNodeProgressMonitor>> it = PROGMONS.iterator(); it.hasNext();) {
-                    WeakReference<DefaultNodeProgressMonitor> next = it.next();
-                    DefaultNodeProgressMonitor p = next.get();
-
-                    if (p == null) {
-                        deadList.add(next);
-                    } else if (p.m_changed) {
+                // only visit the monitors queued so far - monitors updated during the notification are queued again
+                // and visited in the next run
+                for (int i = CHANGED_PROGMONS.size(); i > 0; i--) {
+                    WeakReference<DefaultNodeProgressMonitor> next = CHANGED_PROGMONS.poll();
+                    DefaultNodeProgressMonitor p = next == null ? null : next.get();
+                    if (p != null) {
                         try {
                             p.fireProgressChanged(); // something has changed
                         } catch (Exception e) {
@@ -129,9 +137,6 @@ public void run() {
                         }
                     }
                 }
-                if (!deadList.isEmpty()) {
-                    PROGMONS.removeAll(deadList);
-                }
             }
         }, TIMER_PERIOD, TIMER_PERIOD, TimeUnit.MILLISECONDS);
     }
@@ -144,10 +149,6 @@ public void run() {
     public DefaultNodeProgressMonitor() {
         m_listeners = new CopyOnWriteArrayList<NodeProgressListener>();
         m_cancelExecute = false;
-        m_messageSupplier = NULL_SUPPLIER;
-        m_appendSupplier = NULL_SUPPLIER;
-        // add this progress monitor to the list of active ones
-        PROGMONS.add(new WeakReference<DefaultNodeProgressMonitor>(this));
     }
 
     /**
@@ -166,14 +167,13 @@ public DefaultNodeProgressMonitor(final NodeProgressListener l) {
      * NOTE: No notification is send to listeners! {@inheritDoc}
      */
     @Override
-    public synchronized void reset() {
-        if ((m_progress != null) || (m_messageSupplier.get() != null)) {
-            m_changed = true;
-        }
+    public void reset() {
+        final Message oldMessage = m_message.getAndSet(Message.NONE);
+        final long oldProgress = m_progress.getAndSet(NO_PROGRESS);
         m_cancelExecute = false;
-        m_progress = null;
-        m_appendSupplier = NULL_SUPPLIER;
-        m_messageSupplier = NULL_SUPPLIER;
+        if ((oldProgress != NO_PROGRESS) || (oldMessage.m_message.get() != null)) {
+            markChanged();
+        }
     }
 
     /**
@@ -213,19 +213,19 @@ public void setExecuteCanceled() {
      * @param message The text message shown in the progress monitor.
      */
     @Override
-    public synchronized void setProgress(final double progress, final String message) {
+    public void setProgress(final double progress, final String message) {
         setProgressIntern(progress);
-        setMessageIntern(() -> message, NULL_SUPPLIER);
-        m_changed = true;
+        m_message.set(new Message(() -> message, NULL_SUPPLIER));
+        markChanged();
     }
 
     /** {@inheritDoc}
      * @since 3.2 */
     @Override
-    public synchronized void setProgress(final double progress, final Supplier<String> message) {
+    public void setProgress(final double progress, final Supplier<String> message) {
         setProgressIntern(progress);
-        m_messageSupplier = CheckUtils.checkArgumentNotNull(message);
-        m_changed = true;
+        setMessageIntern(CheckUtils.checkArgumentNotNull(message));
+        markChanged();
     }
 
     /**
@@ -234,24 +234,24 @@ public synchronized void setProgress(final double progress, final Supplier<Strin
      * @param progress The value between 0 and 1.
      */
     @Override
-    public synchronized void setProgress(final double progress) {
+    public void setProgress(final double progress) {
         if (setProgressIntern(progress)) {
-            m_changed = true;
+            markChanged();
         }
     }
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void setMessage(final String message) {
+    public void setMessage(final String message) {
         setProgress(message);
     }
 
     /** {@inheritDoc}
      * @since 3.2 */
     @Override
-    public synchronized void setMessage(final Supplier<String> message) {
-        m_messageSupplier = CheckUtils.checkArgumentNotNull(message);
-        m_changed = true;
+    public void setMessage(final Supplier<String> message) {
+        setMessageIntern(CheckUtils.checkArgumentNotNull(message));
+        markChanged();
     }
 
     /**
@@ -260,49 +260,82 @@ public synchronized void setMessage(final Supplier<String> message) {
      * @param message The text message shown in the progress monitor.
      */
     @Override
-    public synchronized void setProgress(final String message) {
-        setMessageIntern(() -> message, NULL_SUPPLIER);
-        m_changed = true;
+    public void setProgress(final String message) {
+        m_message.set(new Message(() -> message, NULL_SUPPLIER));
+        markChanged();
     }
 
-    private synchronized void appendMessage(final Supplier<String> appendSupplier) {
-        setMessageIntern(m_messageSupplier, appendSupplier);
-        m_changed = true;
+    private void appendMessage(final Supplier<String> appendSupplier) {
+        Message message = m_message.get();
+        // sub progress monitors always pass the same supplier, usually nothing to update here
+        while (message.m_append != appendSupplier
+            && !m_message.compareAndSet(message, new Message(message.m_message, appendSupplier))) {
+            message = m_message.get();
+        }
+        markChanged();
     }
 
     /**
      * Sets progress internally, returns <code>true</code> if old value has changed.
      */
     private boolean setProgressIntern(final double progress) {
-        final Double oldProgress = m_progress;
         if (progress >= 0.0 && progress <= 1.0) {
-            m_progress = progress;
+            final long progressBits = Double.doubleToLongBits(progress);
+            if (m_progress.get() != progressBits) {
+                m_progress.set(progressBits);
+                return true;
+            }
         }
-        boolean changed = oldProgress == null || oldProgress.doubleValue() != progress;
-        return changed;
+        return false;
     }
 
-    /** Sets message internally. */
-    private void setMessageIntern(final Supplier<String> messageSupplier, final Supplier<String> appendSupplier) {
-        assert Thread.holdsLock(this);
-        m_messageSupplier = messageSupplier;
-        m_appendSupplier = appendSupplier;
+    /**
+     * Adds the argument to the current progress (no progress counts as 0), used by sub progress monitors. The result
+     * is capped at 1.
+     */
+    private void addProgress(final double progressIncrement) {
+        long oldBits;
+        long newBits;
+        do {
+            oldBits = m_progress.get();
+            final double oldProgress = oldBits == NO_PROGRESS ? 0.0 : Double.longBitsToDouble(oldBits);
+            newBits = Double.doubleToLongBits(Math.min(1.0, oldProgress + progressIncrement));
+        } while (oldBits != newBits && !m_progress.compareAndSet(oldBits, newBits));
+        if (oldBits != newBits) {
+            markChanged();
+        }
+    }
+
+    /** Sets message internally, keeps the append message. */
+    private void setMessageIntern(final Supplier<String> messageSupplier) {
+        Message message;
+        do {
+            message = m_message.get();
+        } while (!m_message.compareAndSet(message, new Message(messageSupplier, message.m_append)));
+    }
+
+    /** Queues this monitor for notification unless it is queued already. */
+    private void markChanged() {
+        if (!m_changed.get() && m_changed.compareAndSet(false, true)) {
+            CHANGED_PROGMONS.add(m_reference);
+        }
     }
 
     /**
      * @return The current progress value, or <code>null</code> if not yet set.
      */
     @Override
-    public synchronized Double getProgress() {
-        return m_progress;
+    public Double getProgress() {
+        final long progressBits = m_progress.get();
+        return progressBits == NO_PROGRESS ? null : Double.longBitsToDouble(progressBits);
     }
 
     /**
      * @return The current progress message.
      */
     @Override
-    public synchronized String getMessage() {
-        return m_messageSupplier.get();
+    public String getMessage() {
+        return m_message.get().m_message.get();
     }
 
     /**
@@ -334,8 +367,9 @@ public void removeAllProgressListener() {
     }
 
     private void fireProgressChanged() {
-        m_changed = false;
-        NodeProgress pe = new NodeProgress(getProgress(), createMessage(m_messageSupplier, m_appendSupplier));
+        // reset before reading the state, updates from now on queue this monitor again
+        m_changed.set(false);
+        NodeProgress pe = new NodeProgress(getProgress(), createMessage(m_message.get()));
         for (NodeProgressListener l : m_listeners) {
             try {
                 // we can't provide a useful node id here
@@ -347,9 +381,9 @@ private void fireProgressChanged() {
         }
     }
 
-    private static String createMessage(final Supplier<String> messageSupplier, final Supplier<String> appendSupplier) {
-        String message = messageSupplier.get();
-        String append = appendSupplier.get();
+    private static String createMessage(final Message msg) {
+        String message = msg.m_message.get();
+        String append = msg.m_append.get();
         StringBuilder b = new StringBuilder();
         if (message != null) {
             b.append(message);
@@ -362,6 +396,21 @@ private static String createMessage(final Supplier<String> messageSupplier, fina
         return b.toString();
     }
 
+    /** Immutable pair of message and append message suppliers, replaced atomically. */
+    private static final class Message {
+
+        private static final Message NONE = new Message(NULL_SUPPLIER, NULL_SUPPLIER);
+
+        private final Supplier<String> m_message;
+
+        private final Supplier<String> m_append;
+
+        private Message(final Supplier<String> message, final Supplier<String> append) {
+            m_message = message;
+            m_append = append;
+        }
+    }
+
     /**
      * Progress monitor that is used by "sub-progresses", it doesn't have the range [0, 1] but only [0, b] where b is
      * user-defined.
@@ -372,11 +421,16 @@ static class SubNodeProgressMonitor implements NodeProgressMonitor {
 
         private final double m_maxProg;
 
-        private double m_lastProg;
+        /** Progress of this monitor in [0, 1] (as bits), never decreases. */
+        private final AtomicLong m_progress = new AtomicLong(Double.doubleToLongBits(0.0));
 
-        private Supplier<String> m_innerMessageSupplier;
+        /** The part of {@link #m_progress} that has been propagated to the parent (as bits). */
+        private final AtomicLong m_propagatedProgress = new AtomicLong(Double.doubleToLongBits(0.0));
 
-        private Supplier<String> m_innerAppendSupplier;
+        private final AtomicReference<Message> m_innerMessage = new AtomicReference<>(Message.NONE);
+
+        /** Passed to the parent as append message, evaluated lazily. */
+        private final Supplier<String> m_messageToParent = () -> createMessage(m_innerMessage.get());
 
         /**
          * Creates new sub progress monitor.
@@ -387,8 +441,6 @@ static class SubNodeProgressMonitor implements NodeProgressMonitor {
         SubNodeProgressMonitor(final NodeProgressMonitor parent, final double max) {
             m_maxProg = max;
             m_parent = parent;
-            m_innerMessageSupplier = NULL_SUPPLIER;
-            m_innerAppendSupplier = NULL_SUPPLIER;
         }
 
         /** Must not be called. Throws IllegalStateException. {@inheritDoc} */
@@ -410,7 +462,7 @@ public void checkCanceled() throws CanceledExecutionException {
         /** {@inheritDoc} */
         @Override
         public String getMessage() {
-            return StringUtils.defaultString(m_innerMessageSupplier.get());
+            return StringUtils.defaultString(m_innerMessage.get().m_message.get());
         }
 
         /**
@@ -420,7 +472,7 @@ public String getMessage() {
          */
         @Override
         public Double getProgress() {
-            return m_lastProg;
+            return Double.longBitsToDouble(m_progress.get());
         }
 
         /** {@inheritDoc} */
@@ -493,10 +545,8 @@ public void setProgress(final double progress, final String message) {
         /** {@inheritDoc} */
         @Override
         public void setProgress(final double progress, final Supplier<String> messageSupplier) {
-            synchronized (m_parent) {
-                this.setProgress(progress);
-                this.setMessage(messageSupplier);
-            }
+            this.setProgress(progress);
+            this.setMessage(messageSupplier);
         }
 
         /**
@@ -506,70 +556,105 @@ public void setProgress(final double progress, final Supplier<String> messageSup
          * @param append whether to append
          */
         void setProgress(final Supplier<String> messageSupplier, final boolean append) {
-            synchronized (m_parent) {
-                m_innerMessageSupplier = CheckUtils.checkArgumentNotNull(messageSupplier);
-                if (append) {
-                    m_innerAppendSupplier = NULL_SUPPLIER;
-                }
-                Supplier<String> createSupplier = () -> createMessage(m_innerMessageSupplier, m_innerAppendSupplier);
-                if (m_parent instanceof DefaultNodeProgressMonitor) {
-                    ((DefaultNodeProgressMonitor)m_parent).appendMessage(createSupplier);
-                } else if (m_parent instanceof SubNodeProgressMonitor) {
-                    ((SubNodeProgressMonitor)m_parent).appendMessage(createSupplier);
-                } else {
-                    m_parent.setMessage(createSupplier);
-                }
+            CheckUtils.checkArgumentNotNull(messageSupplier);
+            if (append) {
+                m_innerMessage.set(new Message(messageSupplier, NULL_SUPPLIER));
+            } else {
+                Message message;
+                do {
+                    message = m_innerMessage.get();
+                } while (!m_innerMessage.compareAndSet(message, new Message(messageSupplier, message.m_append)));
             }
+            propagateMessage();
         }
 
         /** @param append Message to append */
         void appendMessage(final Supplier<String> appendSupplier) {
-            m_innerAppendSupplier = appendSupplier;
-            setProgress(m_innerMessageSupplier, false);
+            Message message = m_innerMessage.get();
+            while (message.m_append != appendSupplier
+                && !m_innerMessage.compareAndSet(message, new Message(message.m_message, appendSupplier))) {
+                message = m_innerMessage.get();
+            }
+            propagateMessage();
+        }
+
+        private void propagateMessage() {
+            if (m_parent instanceof DefaultNodeProgressMonitor) {
+                ((DefaultNodeProgressMonitor)m_parent).appendMessage(m_messageToParent);
+            } else if (m_parent instanceof SubNodeProgressMonitor) {
+                ((SubNodeProgressMonitor)m_parent).appendMessage(m_messageToParent);
+            } else {
+                m_parent.setMessage(m_messageToParent);
+            }
         }
 
         /** {@inheritDoc} */
         @Override
         public void setProgress(final double progress) {
-            if (m_maxProg <= 0.0) { // don't report 0-progress ("unknown")
+            if (m_maxProg <= 0.0 || Double.isNaN(progress)) { // don't report 0-progress ("unknown")
                 return;
             }
-            // synchronization is imported here: multiple sub progresses may
-            // report to the parent. "getOldProgress" and "setNewProgress" must
-            // be an atomic operation
-            synchronized (m_parent) {
-                Double progressOfParent = m_parent.getProgress();
-                double boundedProgress = Math.max(0.0, Math.min(progress, 1.0));
-                // diff to the last progress update
-                double diff = Math.max(0.0, boundedProgress - m_lastProg);
-                double subProgress = Math.min(m_maxProg, diff * m_maxProg);
-                if (progressOfParent != null) {
-                    subProgress += progressOfParent;
+            double boundedProgress = Math.max(0.0, Math.min(progress, 1.0));
+            // progress never decreases, multiple threads may report concurrently
+            long oldBits;
+            do {
+                oldBits = m_progress.get();
+                if (boundedProgress <= Double.longBitsToDouble(oldBits)) {
+                    return;
+                }
+            } while (!m_progress.compareAndSet(oldBits, Double.doubleToLongBits(boundedProgress)));
+            propagateProgress(boundedProgress);
+        }
+
+        /** Adds to the current progress, used by nested sub progress monitors. */
+        void addProgress(final double progressIncrement) {
+            if (m_maxProg <= 0.0) {
+                return;
+            }
+            long oldBits;
+            double newProgress;
+            do {
+                oldBits = m_progress.get();
+                final double oldProgress = Double.longBitsToDouble(oldBits);
+                newProgress = Math.min(1.0, oldProgress + progressIncrement);
+                if (newProgress <= oldProgress) {
+                    return;
+                }
+            } while (!m_progress.compareAndSet(oldBits, Double.doubleToLongBits(newProgress)));
+            propagateProgress(newProgress);
+        }
+
+        /** Adds the not yet propagated part of the given progress (scaled to m_maxProg) to the parent's progress. */
+        private void propagateProgress(final double progress) {
+            while (true) {
+                final long propagatedBits = m_propagatedProgress.get();
+                final double propagated = Double.longBitsToDouble(propagatedBits);
+                final double diff = progress - propagated;
+                if (diff <= 0.0) {
+                    return; // another thread propagated a larger progress meanwhile
                 }
-                // we silently swallow small progress updates here as a sequence
-                // of updates (and all of which are scaled using m_maxProg) may
-                // lead to a high accumulated rounding error
-                if (diff < 0.001 && progressOfParent != null) {
-                    // if the parent has no progress so far, we still set
-                    // that small progress, for the parent to show 0%
+                // we silently swallow small progress updates here as a sequence of updates (and all of which are
+                // scaled using m_maxProg) may lead to a high accumulated rounding error and cause contention on the
+                // parent; the very first update is always propagated for the parent to show 0%, the last one for it
+                // to show the full progress
+                if (diff < 0.001 && propagated > 0.0 && progress < 1.0) {
                     return;
                 }
-                // the following is sort of a workaround: we know our parent's
-                // old progress value, then try(!) to set an updated new value
-                // and if the parent's new progress has indeed changed (this
-                // object is the only one, which can set the parent's progress),
-                // we can also update our internal progress. If
-                // m_parent.setProgress did not result in a change of the
-                // parent's progress, this object's update was too little to get
-                // propagated, that means we stick with the previous propagated
-                // progress
-                m_parent.setProgress(subProgress);
-                Double newProgressOfParent = m_parent.getProgress();
-                if (newProgressOfParent != null) {
-                    if (progressOfParent == null
-                        || progressOfParent.doubleValue() != newProgressOfParent.doubleValue()) {
-                        m_lastProg = boundedProgress;
+                if (m_propagatedProgress.compareAndSet(propagatedBits, Double.doubleToLongBits(progress))) {
+                    final double parentIncrement = Math.min(m_maxProg, diff * m_maxProg);
+                    if (m_parent instanceof DefaultNodeProgressMonitor) {
+                        ((DefaultNodeProgressMonitor)m_parent).addProgress(parentIncrement);
+                    } else if (m_parent instanceof SubNodeProgressMonitor) {
+                        ((SubNodeProgressMonitor)m_parent).addProgress(parentIncrement);
+                    } else {
+                        // unknown implementation: "get old progress" and "set new progress" must be atomic
+                        synchronized (m_parent) {
+                            Double progressOfParent = m_parent.getProgress();
+                            double oldProgress = progressOfParent == null ? 0.0 : progressOfParent.doubleValue();
+                            m_parent.setProgress(Math.min(1.0, oldProgress + parentIncrement));
+                        }
                     }
+                    return;
                 }
             }
         }
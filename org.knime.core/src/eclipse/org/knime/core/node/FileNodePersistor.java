@@ -1409,7 +1409,8 @@ private static void savePortObject(final PortObjectSpec spec, final PortObject o
      * @throws IOException
      */
     private static void saveFileStoreObjects(final Node node, final ReferencedFile nodeDirRef,
-        final NodeSettingsWO settings, final ExecutionMonitor fileStoreMon, final boolean isSaveData) throws IOException {
+        final NodeSettingsWO settings, final ExecutionMonitor fileStoreMon, final boolean isSaveData)
+        throws IOException, CanceledExecutionException {
         NodeSettingsWO fsSettings = settings.addNodeSettings("filestores");
         IFileStoreHandler fileStoreHandler = node.getFileStoreHandler();
         String uuidS;
@@ -1420,7 +1421,7 @@ private static void saveFileStoreObjects(final Node node, final ReferencedFile n
             dirNameInFlow = baseDir == null ? null : FILESTORE_FOLDER_PREFIX;
             if (dirNameInFlow != null) {
                 File saveLocation = new File(nodeDirRef.getFile(), dirNameInFlow);
-                FileUtil.copyDir(baseDir, saveLocation);
+                defFileStoreHandler.saveFiles(saveLocation, fileStoreMon);
             }
             uuidS = defFileStoreHandler.getStoreUUID().toString();
         } else {
@@ -140,6 +140,12 @@ public final class KNIMEConstants {
      */
     public static final String PROPERTY_DOMAIN_MAX_POSSIBLE_VALUES = "knime.domain.valuecount";
 
+    /** Java property to calculate the domain of tables written by a data container in parallel (chunks of rows are
+     * processed on the global thread pool and merged when the container is closed). Off by default.
+     * @since 3.8
+     */
+    public static final String PROPERTY_DOMAIN_PARALLEL = "knime.domain.parallel";
+
     /** Java property name to set a different threshold for the number of
      * cells to be held in main memory (if memory setting is
      * "Keep only small tables in memory"). The default is {@value
@@ -169,6 +175,35 @@ public final class KNIMEConstants {
      */
     public static final String PROPERTY_TABLE_CACHE = "knime.table.cache";
 
+    /**
+     * Java property to set the number of entries of a global cache that is used to share {@code StringCell} instances
+     * with equal values while tables are read from disc. Only short strings (up to 128 characters) are cached, so the
+     * memory held by the cache is bounded by roughly 300 bytes per entry. Individual tables may use their own cache
+     * instead. The default is 0, i.e. no cache.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_STRING_CELL_CACHE_SIZE = "knime.table.stringcellcache";
+
+    /**
+     * Java property to append the blob cells of a table (e.g. images or documents) to a few large pack files with an
+     * index instead of writing one file per blob, which speeds up writing and saving tables with many small blobs.
+     * Tables written this way can't be read by versions prior 3.8. The value should be <code>true</code> or
+     * <code>false</code> (which is the default).
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_BLOB_PACK_FILES = "knime.table.blobpackfiles";
+
+    /**
+     * Java property to write XML cells in a compact binary form instead of text, which restores their documents
+     * considerably faster than parsing them when a table is read. Tables written this way can't be read by versions
+     * prior 3.8. The value should be <code>true</code> or <code>false</code> (which is the default).
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_XML_BINARY_ENCODING = "knime.xml.binaryencoding";
+
     /**
      * Java property to enable/disable table stream compression. Compression results in smaller temp-file sizes but also
      * (sometimes significant) longer runtime. By default {@code Gzip} is used.
@@ -227,6 +262,15 @@ public final class KNIMEConstants {
     // see AP-6752
     public static final String PROPERTY_XML_DISABLE_EXT_ENTITIES = "knime.xml.disable_external_entities";
 
+    /**
+     * Java property to set the memory budget (in MB) of the global cache of parsed XML cell documents. The size of a
+     * document is estimated from the length of its serialized form. The cache is cleared on low memory; a value of 0
+     * disables it. The default is 64.
+     *
+     * @since 3.8
+     */
+    public static final String PROPERTY_XML_DOCUMENT_CACHE_SIZE = "knime.xml.documentcache";
+
     /** For KNIME's R extension: Run the R process in debug mode and print debug messages to the logging facilities.
      * Value is true or false (default).
      * @since 3.2*/
@@ -284,6 +328,25 @@ public final class KNIMEConstants {
      * @since 2.8 */
     public static final String PROPERTY_DATABASE_CONCURRENCY = "knime.database.enable.concurrency";
 
+    /** Java property to set the maximum number of connections that are opened for the same database URL and user.
+     * Default is 1, that is all statements share a single connection (see {@link #PROPERTY_DATABASE_CONCURRENCY}).
+     * Larger values enable a connection pool: each statement execution borrows a connection for exclusive use, hence
+     * nodes accessing the same database run concurrently. Pooled connections don't share session state such as
+     * temporary tables.
+     * @since 3.8 */
+    public static final String PROPERTY_DATABASE_POOL_SIZE = "knime.database.poolsize";
+
+    /** Java property to set the time in seconds after which idle pooled database connections are closed (see
+     * {@link #PROPERTY_DATABASE_POOL_SIZE}). Default is 300.
+     * @since 3.8 */
+    public static final String PROPERTY_DATABASE_POOL_IDLE_TIMEOUT = "knime.database.pool.idletimeout";
+
+    /** Java property to set the number of row batches (of {@link #PROPERTY_DATABASE_FETCHSIZE} rows each) that are
+     * fetched from the database ahead of time by a background thread while the rows read so far are processed.
+     * Default is 0, that is rows are fetched by the reading thread itself.
+     * @since 3.8 */
+    public static final String PROPERTY_DATABASE_PREFETCH = "knime.database.prefetch";
+
     /** @deprecated Use #PROPERTY_DATABASE_FETCHSIZE instead. */
     @Deprecated
     // obsolete as of v2.3
@@ -322,6 +385,52 @@ public final class KNIMEConstants {
    public static final String PROPERTY_DISABLE_LOG4J_CONFIG =
        "knime.log4j.config.disabled";
 
+   /**
+    * Java property to enable asynchronous logging: the value is the number of log messages that are buffered for
+    * a background thread writing them to the log appenders. Default is 0, that is messages are written by the
+    * logging thread itself.
+    *
+    * @see NodeLogger#enableAsyncLogging(int, NodeLogger.AsyncOverflowPolicy)
+    * @since 3.8
+    */
+   public static final String PROPERTY_ASYNC_LOGGING = "knime.logging.async";
+
+   /**
+    * Java property for the behavior of the asynchronous logging (see {@link #PROPERTY_ASYNC_LOGGING}) if the message
+    * buffer is full, one of the {@link NodeLogger.AsyncOverflowPolicy} names. Default is <code>BLOCK</code>.
+    *
+    * @since 3.8
+    */
+   public static final String PROPERTY_ASYNC_LOGGING_OVERFLOW = "knime.logging.async.overflow";
+
+   /**
+    * Java property to read node descriptions when node factories are initialized rather than when the description is
+    * needed for the first time. The value should be <code>true</code> or <code>false</code> (which is the default).
+    *
+    * @since 3.8
+    */
+   public static final String PROPERTY_EAGER_NODE_DESCRIPTION = "knime.nodedescription.eager";
+
+   /**
+    * Java property to let copies of file stores with identical content share one file on disk (using hard links),
+    * which saves disk space and copy time if file stores are copied into other nodes repeatedly (e.g. by loop ends).
+    * Saved copies of such file stores are linked to the shared file as well.
+    * The value should be <code>true</code> or <code>false</code> (which is the default).
+    *
+    * @since 3.8
+    */
+   public static final String PROPERTY_DEDUPLICATE_FILESTORES = "knime.filestore.deduplicate";
+
+   /**
+    * Java property to enable hard links when file store directories are saved with the workflow or restored from
+    * it. If <code>true</code> the files of nodes whose file stores are read only (restored from the workflow and not
+    * modified since) are linked instead of copied if the workflow and the temp directory are on the same file
+    * system. By default all files are copied.
+    *
+    * @since 3.8
+    */
+   public static final String PROPERTY_FILESTORE_HARDLINKS = "knime.filestore.hardlinks";
+
    /**
     * Java property for doing all dialog operations automatically in the
     * AWT event dispatch thread.
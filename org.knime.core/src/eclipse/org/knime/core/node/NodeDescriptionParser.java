@@ -63,7 +63,7 @@
 /**
  * This class is used to parse the XML files with the node description that accompany every node factory. It
  * automatically determines the version of the node description and create the appriopriate proxy object. This object is
- * thread safe (synchronized internally).
+ * thread safe (each thread uses its own parser, so that descriptions can be parsed concurrently).
  *
  * @author Thorsten Meinl, KNIME AG, Zurich, Switzerland
  * @since 2.8
@@ -99,7 +99,7 @@ public InputSource resolveEntity(final String publicId, final String systemId) t
         }
     };
 
-    private final DocumentBuilder m_parser;
+    private final ThreadLocal<DocumentBuilder> m_parser;
 
     /**
      * Creates a new node description parser.
@@ -108,8 +108,25 @@ public InputSource resolveEntity(final String publicId, final String systemId) t
      */
     public NodeDescriptionParser() throws ParserConfigurationException {
         DocumentBuilderFactory fac = NodeDescription.getDocumentBuilderFactory();
-        m_parser = fac.newDocumentBuilder();
-        m_parser.setEntityResolver(RESOLVER);
+        DocumentBuilder firstParser = createParser(fac);
+        m_parser = ThreadLocal.withInitial(() -> {
+            try {
+                return createParser(fac);
+            } catch (ParserConfigurationException ex) {
+                // worked for the first parser already
+                throw new IllegalStateException(ex);
+            }
+        });
+        m_parser.set(firstParser);
+    }
+
+    private static DocumentBuilder createParser(final DocumentBuilderFactory fac) throws ParserConfigurationException {
+        DocumentBuilder parser;
+        synchronized (fac) {
+            parser = fac.newDocumentBuilder();
+        }
+        parser.setEntityResolver(RESOLVER);
+        return parser;
     }
 
     /**
@@ -149,10 +166,7 @@ public NodeDescription parseDescription(
         }
 
 
-        Document doc;
-        synchronized (m_parser) {
-            doc = m_parser.parse(inStream);
-        }
+        Document doc = m_parser.get().parse(inStream);
 
         String namespaceUri = doc.getDocumentElement().getNamespaceURI();
         if (namespaceUri == null) {
@@ -142,10 +142,18 @@ public static enum NodeType {
         PARSER = p;
     }
 
-    private NodeDescription m_nodeDescription;
+    /** Whether the node description is read lazily when it's first needed rather than in {@link #init()}. */
+    private static final boolean LAZY_NODE_DESCRIPTION =
+        !Boolean.getBoolean(KNIMEConstants.PROPERTY_EAGER_NODE_DESCRIPTION);
 
+    /** The node description, <code>null</code> until read, see {@link #getNodeDescriptionInternal()}. */
+    private volatile NodeDescription m_nodeDescription;
+
+    /** Resolved together with the node description. */
     private URL m_icon;
 
+    private boolean m_creatingNodeDescription = false;
+
     private static final URL defaultIcon = NodeFactory.class.getResource("default.png");
 
     private final NodeLogger m_logger = NodeLogger.getLogger(getClass());
@@ -198,36 +206,72 @@ public synchronized void init() {
             m_logger.debug("Factory is already initialized. Nothing to do.");
             return;
         }
+        if (!LAZY_NODE_DESCRIPTION) {
+            initNodeDescription();
+        }
+
+        // DO NOT call "checkConsistency(createNodeModel());" here as
+        // that would call an abstract method from within the
+        // constructor - local fields in the derived NodeFactory have
+        // not been initialized
+
+        addLoadedFactory(getClass());
+        m_initialized = true;
+    }
+
+    /**
+     * Returns the node description, which is read when it's needed for the first time (unless disabled via
+     * {@link KNIMEConstants#PROPERTY_EAGER_NODE_DESCRIPTION}). Reading the description involves parsing the XML file
+     * and is comparatively expensive; many factories are created without their description ever being needed,
+     * e.g. when executing workflows in batch mode.
+     */
+    private NodeDescription getNodeDescriptionInternal() {
+        NodeDescription nodeDescription = m_nodeDescription;
+        if (nodeDescription == null) {
+            synchronized (this) {
+                if (m_nodeDescription == null) {
+                    initNodeDescription();
+                }
+                nodeDescription = m_nodeDescription;
+            }
+        }
+        return nodeDescription;
+    }
+
+    /** Reads the node description and sets the derived information. Must be called while holding the lock. */
+    private void initNodeDescription() {
+        if (m_creatingNodeDescription) {
+            throw new IllegalStateException(
+                "Node description of " + getClass().getName() + " must not be accessed while it is created");
+        }
+        m_creatingNodeDescription = true;
+        NodeDescription nodeDescription;
         try {
-            m_nodeDescription = createNodeDescription();
+            nodeDescription = createNodeDescription();
         } catch (SAXException ex) {
             m_logger.error("Broken XML file for node description of " + getClass().getName() + ": " + ex.getMessage(),
                 ex);
-            m_nodeDescription = new NoDescriptionProxy(getClass());
+            nodeDescription = new NoDescriptionProxy(getClass());
         } catch (IOException ex) {
             m_logger.error(
                 "I/O error while reading node description of " + getClass().getName() + ": " + ex.getMessage(), ex);
-            m_nodeDescription = new NoDescriptionProxy(getClass());
+            nodeDescription = new NoDescriptionProxy(getClass());
         } catch (XmlException ex) {
             m_logger.error("Node description of " + getClass().getName() + " does not conform to used XML schema: "
                 + ex.getMessage(), ex);
-            m_nodeDescription = new NoDescriptionProxy(getClass());
+            nodeDescription = new NoDescriptionProxy(getClass());
+        } finally {
+            m_creatingNodeDescription = false;
         }
 
         if (NodeFactoryRepository.getInstance().isDeprecated(this)) {
-            setIsDeprecated(true);
+            nodeDescription.setIsDeprecated(true);
         }
 
-        m_icon = resolveIcon(m_nodeDescription.getIconPath());
+        m_icon = resolveIcon(nodeDescription.getIconPath());
 
-        // DO NOT call "checkConsistency(createNodeModel());" here as
-        // that would call an abstract method from within the
-        // constructor - local fields in the derived NodeFactory have
-        // not been initialized
-
-        addBundleInformation();
-        addLoadedFactory(getClass());
-        m_initialized = true;
+        addBundleInformation(nodeDescription);
+        m_nodeDescription = nodeDescription;
     }
 
     /**
@@ -260,8 +304,8 @@ protected InputStream getPropertiesInputStream() {
      * Adds information about the bundle/feature in which this node resides to the XML description tree. Note that the
      * bundle information does not have a namespace!
      */
-    private void addBundleInformation() {
-        Element root = m_nodeDescription.getXMLDescription();
+    private void addBundleInformation(final NodeDescription nodeDescription) {
+        Element root = nodeDescription.getXMLDescription();
 
         if ((root != null) && !(this instanceof MissingNodeFactory)) { // for running in non-osgi context
             NodeAndBundleInformationPersistor nodeInfo = NodeAndBundleInformationPersistor.create(this);
@@ -335,7 +379,7 @@ private URL resolveIcon(final String path) {
      * @return XML description of this node
      */
     public Element getXMLDescription() {
-        return m_nodeDescription.getXMLDescription();
+        return getNodeDescriptionInternal().getXMLDescription();
     }
 
 
@@ -384,7 +428,7 @@ public void saveAdditionalFactorySettings(final ConfigWO config) {
      * @return the node's name
      */
     public final String getNodeName() {
-        return m_nodeDescription.getNodeName();
+        return getNodeDescriptionInternal().getNodeName();
     }
 
     /**
@@ -394,7 +438,7 @@ public final String getNodeName() {
      * @return an input port name
      */
     public String getInportName(final int index) {
-        String name = m_nodeDescription.getInportName(index);
+        String name = getNodeDescriptionInternal().getInportName(index);
         return (name == null) ? "No name available" : name;
     }
 
@@ -405,7 +449,7 @@ public String getInportName(final int index) {
      * @return an output port name
      */
     public String getOutportName(final int index) {
-        String name = m_nodeDescription.getOutportName(index);
+        String name = getNodeDescriptionInternal().getOutportName(index);
         return (name == null) ? "No name available" : name;
     }
 
@@ -416,7 +460,7 @@ public String getOutportName(final int index) {
      * @return an input port description
      */
     public final String getInportDescription(final int index) {
-        String description = m_nodeDescription.getInportDescription(index);
+        String description = getNodeDescriptionInternal().getInportDescription(index);
         return (description == null) ? "No description available" : description;
     }
 
@@ -427,7 +471,7 @@ public final String getInportDescription(final int index) {
      * @return an output port description
      */
     public final String getOutportDescription(final int index) {
-        String description = m_nodeDescription.getOutportDescription(index);
+        String description = getNodeDescriptionInternal().getOutportDescription(index);
         return (description == null) ? "No description available" : description;
     }
 
@@ -438,7 +482,7 @@ public final String getOutportDescription(final int index) {
      * @return a view description
      */
     protected final String getViewDescription(final int index) {
-        String description = m_nodeDescription.getViewDescription(index);
+        String description = getNodeDescriptionInternal().getViewDescription(index);
         return (description == null) ? "No description available" : description.replaceAll("(?:\\s+|\n)", "");
     }
 
@@ -503,7 +547,7 @@ final T callCreateNodeModel(final NodeCreationContext context) {
      * @return the view's name
      */
     protected final String getNodeViewName(final int index) {
-        String name = m_nodeDescription.getViewName(index);
+        String name = getNodeDescriptionInternal().getViewName(index);
         return (name == null) ? "NoName" : name;
     }
 
@@ -569,6 +613,7 @@ public AbstractNodeView<T> createAbstractNodeView(final int viewIndex, final T n
      * @return the node's icon
      */
     public URL getIcon() {
+        getNodeDescriptionInternal();
         return m_icon;
     }
 
@@ -580,29 +625,29 @@ public URL getIcon() {
      * @param m the NodeModel to check against
      */
     private void checkConsistency(final NodeModel m) {
-        if (m_nodeDescription instanceof NoDescriptionProxy) {
+        if (getNodeDescriptionInternal() instanceof NoDescriptionProxy) {
             // no description available at all; this has already been reported
             return;
         }
 
-        if (getNrNodeViews() != m_nodeDescription.getViewCount()) {
+        if (getNrNodeViews() != getNodeDescriptionInternal().getViewCount()) {
             m_logger.coding("Missing or surplus view description");
         }
 
         for (int i = 0; i < m.getNrInPorts(); i++) {
-            if (m_nodeDescription.getInportName(i) == null) {
+            if (getNodeDescriptionInternal().getInportName(i) == null) {
                 m_logger.coding("Missing description for input port " + i);
             }
         }
 
         for (int i = 0; i < m.getNrOutPorts(); i++) {
-            if (m_nodeDescription.getOutportName(i) == null) {
+            if (getNodeDescriptionInternal().getOutportName(i) == null) {
                 m_logger.coding("Missing description for output port " + i);
             }
         }
 
-        for (int i = 0; i < m_nodeDescription.getViewCount(); i++) {
-            if (m_nodeDescription.getViewDescription(i) == null) {
+        for (int i = 0; i < getNodeDescriptionInternal().getViewCount(); i++) {
+            if (getNodeDescriptionInternal().getViewDescription(i) == null) {
                 m_logger.coding("Missing description for view " + i);
             }
         }
@@ -614,7 +659,7 @@ private void checkConsistency(final NodeModel m) {
      * @return the node's type
      */
     public NodeType getType() {
-        return m_nodeDescription.getType();
+        return getNodeDescriptionInternal().getType();
     }
 
     /**
@@ -657,7 +702,7 @@ public static void addLoadedFactory(final Class<? extends NodeFactory> factoryCl
      * @since 2.8
      */
     public String getInteractiveViewName() {
-        return m_nodeDescription.getInteractiveViewName();
+        return getNodeDescriptionInternal().getInteractiveViewName();
     }
 
     /**
@@ -668,7 +713,7 @@ public String getInteractiveViewName() {
      * @since 3.0
      */
     void setIsDeprecated(final boolean b) {
-        m_nodeDescription.setIsDeprecated(b);
+        getNodeDescriptionInternal().setIsDeprecated(b);
     }
 
     /**
@@ -692,6 +737,6 @@ public final boolean isDeprecated() {
      * @since 3.4
      */
     boolean isDeprecatedInternal() {
-        return m_nodeDescription.isDeprecated();
+        return getNodeDescriptionInternal().isDeprecated();
     }
 }
@@ -48,8 +48,11 @@
  */
 package org.knime.core.node;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
@@ -57,6 +60,7 @@
 import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.Platform;
+import org.knime.core.internal.ExtensionIndex;
 import org.osgi.framework.FrameworkUtil;
 
 /**
@@ -82,27 +86,49 @@ public static NodeFactoryRepository getInstance() {
         return INSTANCE;
     }
 
-    private final Map<String, IConfigurationElement> m_nodeFactories = new HashMap<>();
+    /** Value in the {@link ExtensionIndex} for deprecated node factories. */
+    private static final String DEPRECATED = "deprecated";
 
-    private final Map<String, IConfigurationElement> m_nodesetFactories = new HashMap<>();
+    /** Class names of all registered node factories -> deprecated flag. */
+    private final Map<String, Boolean> m_nodeFactories = new HashMap<>();
 
-    private final Map<Class<? extends NodeModel>, Boolean> m_deprecatedFactories = new HashMap<>();
+    /** Read lazily, only needed for node factories not registered directly. */
+    private Map<String, IConfigurationElement> m_nodesetFactories;
+
+    private final Map<Class<?>, Boolean> m_deprecatedFactories = new HashMap<>();
 
     private NodeFactoryRepository() {
-        // read all factories at once, because simply traversing the extension point is quite cheap
-        IExtensionRegistry registry = Platform.getExtensionRegistry();
-
-        IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID_NODES);
-        assert point != null : "Invalid extension point id: " + EXT_POINT_ID_NODES;
-        Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
-            .filter(e -> (e.getAttribute("factory-class") != null))
-            .forEach(e -> m_nodeFactories.put(e.getAttribute("factory-class"), e));
-
-        point = registry.getExtensionPoint(EXT_POINT_ID_NODE_SETS);
-        assert point != null : "Invalid extension point id: " + EXT_POINT_ID_NODE_SETS;
-        Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
-            .filter(e -> (e.getAttribute("factory-class") != null))
-            .forEach(e -> m_nodesetFactories.put(e.getAttribute("factory-class"), e));
+        Optional<Map<String, List<String>>> index = ExtensionIndex.read(EXT_POINT_ID_NODES);
+        if (index.isPresent()) {
+            index.get().forEach((facClass, flags) -> m_nodeFactories.put(facClass, flags.contains(DEPRECATED)));
+        } else {
+            // read all factories at once, because simply traversing the extension point is quite cheap
+            IExtensionPoint point = Platform.getExtensionRegistry().getExtensionPoint(EXT_POINT_ID_NODES);
+            assert point != null : "Invalid extension point id: " + EXT_POINT_ID_NODES;
+            Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
+                .filter(e -> (e.getAttribute("factory-class") != null))
+                .forEach(e -> m_nodeFactories.put(e.getAttribute("factory-class"),
+                    "true".equalsIgnoreCase(e.getAttribute("deprecated"))));
+
+            Map<String, List<String>> newIndex = new HashMap<>();
+            m_nodeFactories.forEach((facClass, deprecated) -> newIndex.put(facClass,
+                deprecated ? Collections.singletonList(DEPRECATED) : Collections.emptyList()));
+            ExtensionIndex.write(EXT_POINT_ID_NODES, newIndex);
+        }
+    }
+
+    private Map<String, IConfigurationElement> getNodesetFactories() {
+        if (m_nodesetFactories == null) {
+            IExtensionRegistry registry = Platform.getExtensionRegistry();
+            IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID_NODE_SETS);
+            assert point != null : "Invalid extension point id: " + EXT_POINT_ID_NODE_SETS;
+            Map<String, IConfigurationElement> nodesetFactories = new HashMap<>();
+            Stream.of(point.getExtensions()).flatMap(ext -> Stream.of(ext.getConfigurationElements()))
+                .filter(e -> (e.getAttribute("factory-class") != null))
+                .forEach(e -> nodesetFactories.put(e.getAttribute("factory-class"), e));
+            m_nodesetFactories = nodesetFactories;
+        }
+        return m_nodesetFactories;
     }
 
     /**
@@ -112,28 +138,25 @@ private NodeFactoryRepository() {
      * @param fac any node factory
      * @return <code>true</code> if the node is deprecated, <code>false</code> otherwise
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public synchronized boolean isDeprecated(final NodeFactory<? extends NodeModel> fac) {
-        Boolean deprecated = m_deprecatedFactories.get(fac);
+        Boolean deprecated = m_deprecatedFactories.get(fac.getClass());
         if (deprecated != null) {
             return deprecated;
         }
 
         String className = fac.getClass().getName();
-        IConfigurationElement facElement = m_nodeFactories.get(className);
-        if (facElement != null) {
-            deprecated = "true".equalsIgnoreCase(facElement.getAttribute("deprecated"));
-        } else {
+        deprecated = m_nodeFactories.get(className);
+        if (deprecated == null) {
             // check node sets
             String factoryBundle = FrameworkUtil.getBundle(fac.getClass()).getSymbolicName();
-            deprecated = m_nodesetFactories.values().stream()
+            deprecated = getNodesetFactories().values().stream()
                 .filter(elem -> factoryBundle.equals(elem.getNamespaceIdentifier()))
                 .filter(elem -> "true".equalsIgnoreCase(elem.getAttribute("deprecated")))
                 .filter(elem -> containsNodeFactory(elem, fac))
                 .findFirst().isPresent();
         }
 
-        m_deprecatedFactories.put((Class) fac.getClass(), deprecated);
+        m_deprecatedFactories.put(fac.getClass(), deprecated);
         return deprecated;
     }
 
@@ -62,6 +62,7 @@
 import java.util.NoSuchElementException;
 
 import org.apache.log4j.Appender;
+import org.apache.log4j.Category;
 import org.apache.log4j.FileAppender;
 import org.apache.log4j.Layout;
 import org.apache.log4j.Level;
@@ -126,6 +127,21 @@ public static enum LEVEL {
         ALL
     }
 
+    /**
+     * What to do with a log message if asynchronous logging is enabled and the event buffer is full, see
+     * {@link NodeLogger#enableAsyncLogging(int, AsyncOverflowPolicy)}.
+     *
+     * @since 3.8
+     */
+    public static enum AsyncOverflowPolicy {
+        /** the logging thread waits until there is space in the buffer, no message is lost. */
+        BLOCK,
+        /** the message is discarded; the number of discarded messages is logged as a warning later on. */
+        DISCARD,
+        /** debug and info messages are discarded, warnings and more critical messages wait for space. */
+        DISCARD_BELOW_WARN
+    }
+
     /**
      * Class that encapsulates all information of a log message in KNIME such as the {@link NodeID} and
      * workflow directory if the message can be assigned to them.
@@ -284,6 +300,17 @@ public void workflowChanged(final WorkflowEvent event) {
 
     private static boolean LOG_WF_DIR = false;
 
+    /** Fully qualified class name passed to log4j, same as used by log4j's own log methods. */
+    private static final String FQCN = Category.class.getName();
+
+    /** Guards enabling/disabling the asynchronous logging. */
+    private static final Object ASYNC_LOCK = new Object();
+
+    /** The dispatcher passing events to the appenders in the background, <code>null</code> for synchronous logging. */
+    private static volatile AsyncLogDispatcher ASYNC_DISPATCHER;
+
+    private static boolean ASYNC_SHUTDOWN_HOOK_ADDED = false;
+
     private static Layout WF_DIR_LOG_FILE_LAYOUT = new PatternLayout("%-5p\t %-30c{1}\t %." + MAX_CHARS + "m\n");
 
     /** As per log4j3.xml we only log 'knime' log out -- the loggers with these prefixes are the parents of all
@@ -315,10 +342,28 @@ public void workflowChanged(final WorkflowEvent event) {
         } else {
             LOG_FILE_APPENDER = new NullAppender();
         }
+        initAsyncLogging();
         startMessage();
     }
 
 
+    private static void initAsyncLogging() {
+        final int capacity = Integer.getInteger(KNIMEConstants.PROPERTY_ASYNC_LOGGING, 0);
+        if (capacity > 0) {
+            final String policyName = System.getProperty(KNIMEConstants.PROPERTY_ASYNC_LOGGING_OVERFLOW,
+                AsyncOverflowPolicy.BLOCK.name());
+            AsyncOverflowPolicy policy;
+            try {
+                policy = AsyncOverflowPolicy.valueOf(policyName.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                LogLog.warn("Invalid value for " + KNIMEConstants.PROPERTY_ASYNC_LOGGING_OVERFLOW + ": '"
+                    + policyName + "', using " + AsyncOverflowPolicy.BLOCK);
+                policy = AsyncOverflowPolicy.BLOCK;
+            }
+            enableAsyncLogging(capacity, policy);
+        }
+    }
+
     private static void initLog4J() throws IOException {
         final String file = System.getProperty("log4j.configuration");
         if (file == null) {
@@ -592,7 +637,7 @@ public static NodeLogger getLogger(final String s) {
      * @param o The object to print.
      */
     public void warn(final Object o) {
-        getLoggerInternal().warn(getLogObject(o));
+        log(Level.WARN, o, null);
     }
 
     /**
@@ -601,7 +646,7 @@ public void warn(final Object o) {
      * @param o The object to print.
      */
     public void debug(final Object o) {
-        getLoggerInternal().debug(getLogObject(o));
+        log(Level.DEBUG, o, null);
     }
 
 
@@ -613,7 +658,9 @@ public void debug(final Object o) {
      * @since 3.1
      */
     public void debugWithoutContext(final Object o) {
-        m_logger.debug(o);
+        if (m_logger.isDebugEnabled()) {
+            append(m_logger, Level.DEBUG, o, null);
+        }
     }
 
 
@@ -675,6 +722,36 @@ private Object getLogObject(final Object message) {
         return new KNIMELogMessage(nodeID, nodeName, workflowDir, message);
     }
 
+    /**
+     * Logs the message (with node context information if required by the layouts) if the level is enabled for this
+     * logger. Nothing is allocated for disabled levels.
+     */
+    private void log(final Level level, final Object o, final Throwable t) {
+        if (m_logger.isEnabledFor(level)) {
+            append(getLoggerInternal(), level, getLogObject(o), t);
+        }
+    }
+
+    /** Same as {@link #log(Level, Object, Throwable)} but without node context information. */
+    private void logWithoutContext(final Level level, final Object o, final Throwable t) {
+        if (m_logger.isEnabledFor(level)) {
+            append(getLoggerInternal(), level, o, t);
+        }
+    }
+
+    /**
+     * Passes the message to the appenders of the given logger, either directly or via the asynchronous dispatcher
+     * if enabled.
+     */
+    private static void append(final Logger logger, final Level level, final Object msg, final Throwable t) {
+        final AsyncLogDispatcher dispatcher = ASYNC_DISPATCHER;
+        if (dispatcher == null) {
+            logger.log(level, msg, t);
+        } else {
+            dispatcher.dispatch(new LoggingEvent(FQCN, logger, level, msg, t));
+        }
+    }
+
     /**
      * Use this method whenever you want to log a message. It ensures that the right logger is used and that all
      * required appenders are added to it e.g. workflow directory appender.
@@ -772,6 +849,8 @@ private void removeWorkflowDirAppender(final File workflowDir) {
         }
         final String workflowDirPath = workflowDir.getPath();
         if (workflowDirPath != null) {
+            // pending events may still be written to the appender
+            flushAsyncLogging();
             synchronized (WF_APPENDER) {
                 final Appender appender = WF_APPENDER.remove(workflowDirPath);
                 if (appender != null) {
@@ -793,7 +872,7 @@ private void removeWorkflowDirAppender(final File workflowDir) {
      * @param o The object to print.
      */
     public void info(final Object o) {
-        getLoggerInternal().info(getLogObject(o));
+        log(Level.INFO, o, null);
     }
 
     /**
@@ -802,7 +881,7 @@ public void info(final Object o) {
      * @param o The object to print.
      */
     public void error(final Object o) {
-        getLoggerInternal().error(getLogObject(o));
+        log(Level.ERROR, o, null);
     }
 
     /**
@@ -811,7 +890,7 @@ public void error(final Object o) {
      * @param o The object to print.
      */
     public void fatal(final Object o) {
-        getLoggerInternal().fatal(getLogObject(o));
+        log(Level.FATAL, o, null);
     }
 
     /**
@@ -821,7 +900,7 @@ public void fatal(final Object o) {
      * @param t The exception to log at debug level, including its stack trace.
      */
     public void warn(final Object o, final Throwable t) {
-        getLoggerInternal().warn(getLogObject(o), t);
+        log(Level.WARN, o, t);
     }
 
     /**
@@ -831,7 +910,7 @@ public void warn(final Object o, final Throwable t) {
      * @param t The exception to log, including its stack trace.
      */
     public void debug(final Object o, final Throwable t) {
-        getLoggerInternal().debug(getLogObject(o), t);
+        log(Level.DEBUG, o, t);
     }
 
     /**
@@ -841,7 +920,7 @@ public void debug(final Object o, final Throwable t) {
      * @param t The exception to log at debug level, including its stack trace.
      */
     public void info(final Object o, final Throwable t) {
-        getLoggerInternal().info(getLogObject(o), t);
+        log(Level.INFO, o, t);
     }
 
     /**
@@ -851,7 +930,7 @@ public void info(final Object o, final Throwable t) {
      * @param t The exception to log at debug level, including its stack trace.
      */
     public void error(final Object o, final Throwable t) {
-        getLoggerInternal().error(getLogObject(o), t);
+        log(Level.ERROR, o, t);
     }
 
     /**
@@ -862,7 +941,7 @@ public void error(final Object o, final Throwable t) {
      */
     public void assertLog(final boolean b, final String m) {
         if (KNIMEConstants.ASSERTIONS_ENABLED && !b) {
-            getLoggerInternal().error("ASSERT " + m, new AssertionError(m));
+            logWithoutContext(Level.ERROR, "ASSERT " + m, new AssertionError(m));
         }
     }
 
@@ -876,10 +955,12 @@ public void assertLog(final boolean b, final String m) {
     public void assertLog(final boolean b, final String m,
             final AssertionError e) {
         if (KNIMEConstants.ASSERTIONS_ENABLED) {
-            getLoggerInternal().assertLog(b, "ASSERT " + m);
+            if (!b) {
+                logWithoutContext(Level.ERROR, "ASSERT " + m, null);
+            }
             // for stacktrace
             if (!b & e != null) {
-                getLoggerInternal().debug("ASSERT\t " + m, e);
+                logWithoutContext(Level.DEBUG, "ASSERT\t " + m, e);
             }
         }
     }
@@ -891,8 +972,8 @@ public void assertLog(final boolean b, final String m,
      * @param o the message to print
      */
     public void coding(final Object o) {
-        if (KNIMEConstants.ASSERTIONS_ENABLED || EclipseUtil.isRunFromSDK()) {
-            getLoggerInternal().error(getLogObject("CODING PROBLEM\t" + o));
+        if ((KNIMEConstants.ASSERTIONS_ENABLED || EclipseUtil.isRunFromSDK()) && m_logger.isEnabledFor(Level.ERROR)) {
+            log(Level.ERROR, "CODING PROBLEM\t" + o, null);
         }
     }
 
@@ -904,8 +985,8 @@ public void coding(final Object o) {
      * @param t the exception to log at debug level, including its stack trace
      */
     public void coding(final Object o, final Throwable t) {
-        if (KNIMEConstants.ASSERTIONS_ENABLED || EclipseUtil.isRunFromSDK()) {
-            getLoggerInternal().error(getLogObject("CODING PROBLEM\t" + o), t);
+        if ((KNIMEConstants.ASSERTIONS_ENABLED || EclipseUtil.isRunFromSDK()) && m_logger.isEnabledFor(Level.ERROR)) {
+            log(Level.ERROR, "CODING PROBLEM\t" + o, t);
         }
     }
 
@@ -916,7 +997,7 @@ public void coding(final Object o, final Throwable t) {
      * @param t The exception to log at debug level, including its stack trace.
      */
     public void fatal(final Object o, final Throwable t) {
-        getLoggerInternal().fatal(getLogObject(o), t);
+        log(Level.FATAL, o, t);
     }
 
     /**
@@ -1319,4 +1400,75 @@ public static void logNodeId(final boolean enable) {
         LOG_NODE_ID  = enable;
         LogLog.debug("Node ID logging set to: " + enable);
     }
+
+    /**
+     * Enables the asynchronous logging mode: log messages are put into a bounded buffer and passed to the appenders
+     * by a dedicated background thread, hence logging threads never wait for appenders (such as the log file) unless
+     * the buffer is full. Messages of levels that are disabled are dropped immediately, as in synchronous mode. If
+     * asynchronous logging is already enabled, all pending messages are written before the new settings apply.
+     *
+     * <p>The mode can also be enabled at startup via the {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING} and
+     * {@link KNIMEConstants#PROPERTY_ASYNC_LOGGING_OVERFLOW} system properties.
+     *
+     * @param capacity the number of messages the buffer can hold (rounded up to the next power of two)
+     * @param policy what to do with messages if the buffer is full
+     * @throws IllegalArgumentException if the capacity is not positive or the policy is <code>null</code>
+     * @since 3.8
+     */
+    public static void enableAsyncLogging(final int capacity, final AsyncOverflowPolicy policy) {
+        synchronized (ASYNC_LOCK) {
+            final AsyncLogDispatcher newDispatcher = new AsyncLogDispatcher(capacity, policy);
+            final AsyncLogDispatcher oldDispatcher = ASYNC_DISPATCHER;
+            if (oldDispatcher != null) {
+                // write pending messages before any message can reach the new dispatcher, the old one appends
+                // synchronously in the meantime
+                oldDispatcher.stop();
+            }
+            ASYNC_DISPATCHER = newDispatcher;
+            if (!ASYNC_SHUTDOWN_HOOK_ADDED) {
+                // the dispatcher thread is a daemon thread, make sure pending messages are written on exit
+                Runtime.getRuntime().addShutdownHook(new Thread(NodeLogger::flushAsyncLogging, "KNIME-Log-Flusher"));
+                ASYNC_SHUTDOWN_HOOK_ADDED = true;
+            }
+        }
+        LogLog.debug("Asynchronous logging enabled (capacity " + capacity + ", overflow policy " + policy + ")");
+    }
+
+    /**
+     * Disables the asynchronous logging mode (see {@link #enableAsyncLogging(int, AsyncOverflowPolicy)}) after all
+     * pending messages have been written. Does nothing if asynchronous logging is not enabled.
+     *
+     * @since 3.8
+     */
+    public static void disableAsyncLogging() {
+        synchronized (ASYNC_LOCK) {
+            final AsyncLogDispatcher dispatcher = ASYNC_DISPATCHER;
+            if (dispatcher != null) {
+                dispatcher.stop();
+                ASYNC_DISPATCHER = null;
+                LogLog.debug("Asynchronous logging disabled");
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the asynchronous logging mode is enabled
+     * @since 3.8
+     */
+    public static boolean isAsyncLogging() {
+        return ASYNC_DISPATCHER != null;
+    }
+
+    /**
+     * Waits until all messages logged so far have been written by the appenders. Returns immediately if the
+     * asynchronous logging mode is disabled.
+     *
+     * @since 3.8
+     */
+    public static void flushAsyncLogging() {
+        final AsyncLogDispatcher dispatcher = ASYNC_DISPATCHER;
+        if (dispatcher != null) {
+            dispatcher.flush();
+        }
+    }
 }
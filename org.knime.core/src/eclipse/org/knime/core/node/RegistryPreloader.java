@@ -0,0 +1,106 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.container.storage.TableStoreFormatRegistry;
+
+/**
+ * Reads the registries backed by extension points (node factories, data types and table formats) concurrently on
+ * the {@linkplain KNIMEConstants#GLOBAL_THREAD_POOL global thread pool}. Otherwise each registry is read when it's
+ * first used, one after the other, by whichever thread needs it first - which adds up noticeably for short-lived
+ * processes such as batch executions. Reading the registries is safe to run concurrently with their normal use; a
+ * thread needing a registry that is currently read in the background simply waits for it.
+ *
+ * <p>Node descriptions are not read here: they are parsed lazily when needed (see
+ * {@link KNIMEConstants#PROPERTY_EAGER_NODE_DESCRIPTION}).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class RegistryPreloader {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(RegistryPreloader.class);
+
+    private static CompletableFuture<Void> preloading;
+
+    private RegistryPreloader() {
+    }
+
+    /**
+     * Starts reading the registries in the background unless that has been started before.
+     *
+     * @return a future that completes once all registries have been read (it never completes exceptionally, problems
+     *         are reported when the respective registry is used)
+     */
+    public static synchronized CompletableFuture<Void> preloadAsync() {
+        if (preloading == null) {
+            final Executor executor = KNIMEConstants.GLOBAL_THREAD_POOL::enqueue;
+            preloading = CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> preload("node factories", NodeFactoryRepository::getInstance),
+                    executor),
+                CompletableFuture.runAsync(() -> preload("data types", () -> DataTypeRegistry.getInstance().preload()),
+                    executor),
+                CompletableFuture.runAsync(() -> preload("table formats", TableStoreFormatRegistry::getInstance),
+                    executor));
+        }
+        return preloading;
+    }
+
+    private static void preload(final String name, final Runnable loader) {
+        final long start = System.currentTimeMillis();
+        try {
+            loader.run();
+            LOGGER.debug("Read registry of " + name + " in " + (System.currentTimeMillis() - start) + "ms");
+        } catch (Throwable t) { // also linkage errors, they are reported again when the registry is used
+            LOGGER.debug("Could not read registry of " + name + " in advance: " + t.getMessage(), t);
+        }
+    }
+}
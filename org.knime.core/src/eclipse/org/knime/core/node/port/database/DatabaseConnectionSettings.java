@@ -47,6 +47,7 @@
 import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -68,6 +69,7 @@
 import org.knime.core.node.config.ConfigWO;
 import org.knime.core.node.port.database.connection.CachedConnectionFactory;
 import org.knime.core.node.port.database.connection.CachedConnectionFactory.ConnectionKey;
+import org.knime.core.node.port.database.connection.DBConnectionFactory;
 import org.knime.core.node.util.CheckUtils;
 import org.knime.core.node.util.StringHistory;
 import org.knime.core.node.workflow.CredentialsProvider;
@@ -650,9 +652,31 @@ private boolean loadConnection(final ConfigRO settings,
         return false;
     }
 
+    /**
+     * Returns the meta data of the database. If connection pooling is enabled (see
+     * {@link CachedConnectionFactory#isPoolingEnabled()}), a connection may only be used while it's borrowed from the
+     * pool, so the returned meta data borrows a connection for each method call and returns disconnected copies of
+     * result sets; {@link DatabaseMetaData#getConnection()} isn't supported in this case. Otherwise the meta data of
+     * the shared connection is returned.
+     *
+     * @param cp {@link CredentialsProvider} to use
+     * @return the meta data of the database
+     * @throws SQLException if the connection to the database can't be created
+     * @since 3.8
+     */
+    public DatabaseMetaData getDatabaseMetaData(final CredentialsProvider cp) throws SQLException {
+        if (CachedConnectionFactory.isPoolingEnabled()
+            && getUtility().getConnectionFactory() instanceof CachedConnectionFactory) {
+            return PooledDatabaseMetaData.create(this, cp);
+        }
+        return execute(cp, conn -> conn.getMetaData());
+    }
+
     /**
      * Executes a block of SQL commands using a valid connection. The method makes sure that the connection
-     * passed into the {@link ExecuteStatement} is valid and synchronized if required.
+     * passed into the {@link ExecuteStatement} is valid and synchronized if required. If connection pooling is
+     * enabled (see {@link CachedConnectionFactory#isPoolingEnabled()}), the connection is borrowed from the pool for
+     * exclusive use instead.
      *
      * @param cp {@link CredentialsProvider} to use
      * @param stmt the {@link ExecuteStatement} implementation that can use the {@link Connection}
@@ -663,6 +687,13 @@ private boolean loadConnection(final ConfigRO settings,
     @SuppressWarnings("resource")
     public <T> T execute(final CredentialsProvider cp, final ExecuteStatement<T> stmt) throws SQLException {
         try {
+            final DBConnectionFactory connectionFactory = getUtility().getConnectionFactory();
+            if (CachedConnectionFactory.isPoolingEnabled() && connectionFactory instanceof CachedConnectionFactory) {
+                // exclusive connection from the pool, no synchronization needed
+                CheckUtils.checkSettingNotNull(m_driver, "No settings available to create database connection.");
+                CheckUtils.checkSettingNotNull(m_jdbcUrl, "No JDBC URL set.");
+                return ((CachedConnectionFactory)connectionFactory).executePooled(cp, this, stmt);
+            }
             for (int i = 1; i <= MAX_CONNECTION_TRIES; i++) {
                 final Connection conn = createConnection(cp);
                 final ConnectionKey databaseConnKey = CachedConnectionFactory.getConnectionKey(cp, this);
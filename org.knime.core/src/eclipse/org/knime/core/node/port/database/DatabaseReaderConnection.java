@@ -156,11 +156,7 @@ public DatabaseQueryConnectionSettings getQueryConnection() {
      */
     public final DatabaseMetaData getDatabaseMetaData(
             final CredentialsProvider cp) throws SQLException {
-//            final Connection conn = m_conn.createConnection(cp);
-//            synchronized (m_conn.syncConnection(conn)) {
-        return m_conn.execute(cp, conn -> {
-            return conn.getMetaData();
-        });
+        return m_conn.getDatabaseMetaData(cp);
     }
 
     /**
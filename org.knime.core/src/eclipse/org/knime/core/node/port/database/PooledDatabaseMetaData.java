@@ -0,0 +1,126 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+
+import org.knime.core.node.workflow.CredentialsProvider;
+
+/**
+ * Database meta data for pooled connections. A pooled connection is used exclusively while a statement is executed
+ * and must not be used after it has been released, hence neither must its meta data. Instead, the meta data created
+ * here borrows a connection for each method call and returns disconnected copies of result sets.
+ * {@link DatabaseMetaData#getConnection()} and {@link DatabaseMetaData#unwrap(Class)} are not supported.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PooledDatabaseMetaData implements InvocationHandler {
+
+    private final DatabaseConnectionSettings m_settings;
+
+    private final CredentialsProvider m_cp;
+
+    private PooledDatabaseMetaData(final DatabaseConnectionSettings settings, final CredentialsProvider cp) {
+        m_settings = settings;
+        m_cp = cp;
+    }
+
+    /**
+     * @param settings the settings of the connection
+     * @param cp {@link CredentialsProvider} to use
+     * @return meta data borrowing a pooled connection for each method call
+     */
+    static DatabaseMetaData create(final DatabaseConnectionSettings settings, final CredentialsProvider cp) {
+        return (DatabaseMetaData)Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(),
+            new Class<?>[]{DatabaseMetaData.class}, new PooledDatabaseMetaData(settings, cp));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "Pooled database meta data for " + m_settings.getJDBCUrl();
+            case "getConnection":
+            case "unwrap":
+                throw new SQLFeatureNotSupportedException(
+                    "Method " + method.getName() + " is not supported for pooled database connections");
+            default:
+                return m_settings.execute(m_cp, conn -> {
+                    final Object result;
+                    try {
+                        result = method.invoke(conn.getMetaData(), args);
+                    } catch (InvocationTargetException ex) {
+                        if (ex.getCause() instanceof Error) {
+                            throw (Error)ex.getCause();
+                        }
+                        throw (Exception)ex.getCause();
+                    }
+                    if (result instanceof ResultSet) {
+                        // the result set must not be read after the connection has been released
+                        try (ResultSet rs = (ResultSet)result) {
+                            final CachedRowSet copy = RowSetProvider.newFactory().createCachedRowSet();
+                            copy.populate(rs);
+                            return copy;
+                        }
+                    }
+                    return result;
+                });
+        }
+    }
+}
@@ -162,6 +162,55 @@ public String forMetadataOnly(final String sql) {
         return "SELECT * FROM (" + sql + ") " + getTempTableName() + " WHERE (1 = 0)";
     }
 
+    /**
+     * Returns a query that determines the minimum and the maximum value of a column in the result of the given query.
+     * The result has a single row with the minimum in the first and the maximum in the second column.
+     *
+     * @param sql any valid SQL query
+     * @param column the name of the column
+     * @return an SQL query
+     * @since 3.8
+     */
+    public String getMinMaxStatement(final String sql, final String column) {
+        final String col = quoteIdentifier(column);
+        return "SELECT MIN(" + col + "), MAX(" + col + ") FROM (" + sql + ") " + getTempTableName();
+    }
+
+    /**
+     * Modifies the query so that it only returns the rows whose value in the given column lies within a range. The
+     * bounds are not part of the query but are parameters of a prepared statement: the inclusive lower bound comes
+     * first (if <code>lowerBounded</code> is set), followed by the exclusive upper bound (if <code>upperBounded</code>
+     * is set).
+     *
+     * @param sql any valid SQL query
+     * @param column the name of the column the range refers to
+     * @param lowerBounded <code>true</code> if the range has a lower bound
+     * @param upperBounded <code>true</code> if the range has an upper bound
+     * @param includeNull <code>true</code> if rows with a <code>NULL</code> value in the column should be returned,
+     *            too
+     * @return an SQL query with up to two parameters
+     * @since 3.8
+     */
+    public String getRangePartitionStatement(final String sql, final String column, final boolean lowerBounded,
+        final boolean upperBounded, final boolean includeNull) {
+        final String col = quoteIdentifier(column);
+        final StringBuilder buf = new StringBuilder("SELECT * FROM (");
+        buf.append(sql).append(") ").append(getTempTableName()).append(" WHERE (");
+        if (lowerBounded && upperBounded) {
+            buf.append(col).append(" >= ? AND ").append(col).append(" < ?");
+        } else if (lowerBounded) {
+            buf.append(col).append(" >= ?");
+        } else if (upperBounded) {
+            buf.append(col).append(" < ?");
+        } else {
+            buf.append("1 = 1");
+        }
+        if (includeNull) {
+            buf.append(" OR ").append(col).append(" IS NULL");
+        }
+        return buf.append(')').toString();
+    }
+
     /**
      * @param tableName the name of the table to create
      * @param query the select statement
@@ -58,16 +58,20 @@
 import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 
 import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.database.DatabaseConnectionSettings;
+import org.knime.core.node.port.database.ExecuteStatement;
 import org.knime.core.node.port.database.RegisteredDriversConnectionFactory;
 import org.knime.core.node.workflow.CredentialsProvider;
 import org.knime.core.node.workflow.NodeContext;
@@ -87,6 +91,12 @@ public class CachedConnectionFactory implements DBConnectionFactory {
      * process. */
     private static final Map<ConnectionKey, ConnectionKey> CONNECTION_KEYS = new HashMap<ConnectionKey, ConnectionKey>();
     private static final ExecutorService CONNECTION_CREATOR_EXECUTOR = ThreadUtils.executorServiceWithContext(Executors.newCachedThreadPool());
+    /** Maximum number of pooled connections per key, 1 if pooling is disabled. */
+    private static final int POOL_SIZE = initPoolSize();
+    /** Time in seconds after which idle pooled connections are closed. */
+    private static final int POOL_IDLE_TIMEOUT = initPoolIdleTimeout();
+    /** The connection pools, only used if {@link #POOL_SIZE} is larger than 1. */
+    private static final Map<ConnectionKey, ConnectionPool> POOLS = new ConcurrentHashMap<>();
     private DBDriverFactory m_driverFactory;
 
     /**
@@ -151,6 +161,57 @@ public String toString() {
         }
     }
 
+    private static int initPoolSize() {
+        final String sPoolSize = System.getProperty(KNIMEConstants.PROPERTY_DATABASE_POOL_SIZE);
+        int poolSize = 1; // default
+        if (sPoolSize != null) {
+            try {
+                poolSize = Math.max(1, Integer.parseInt(sPoolSize.trim()));
+            } catch (NumberFormatException ex) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_DATABASE_POOL_SIZE
+                    + ", using default (1)", ex);
+            }
+        }
+        LOGGER.debug("Database connection pool size is " + poolSize + ".");
+        return poolSize;
+    }
+
+    private static int initPoolIdleTimeout() {
+        final String sTimeout = System.getProperty(KNIMEConstants.PROPERTY_DATABASE_POOL_IDLE_TIMEOUT);
+        int timeout = 300; // default
+        if (sTimeout != null) {
+            try {
+                timeout = Math.max(1, Integer.parseInt(sTimeout.trim()));
+            } catch (NumberFormatException ex) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_DATABASE_POOL_IDLE_TIMEOUT
+                    + ", using default (300)", ex);
+            }
+        }
+        return timeout;
+    }
+
+    /**
+     * Returns whether statements executed via
+     * {@link DatabaseConnectionSettings#execute(CredentialsProvider, ExecuteStatement)} use pooled connections, which
+     * is the case if {@link KNIMEConstants#PROPERTY_DATABASE_POOL_SIZE} is set to a value larger than 1.
+     *
+     * @return <code>true</code> if connection pooling is enabled
+     * @since 3.8
+     */
+    public static boolean isPoolingEnabled() {
+        return POOL_SIZE > 1;
+    }
+
+    /**
+     * Returns the maximum number of connections that are opened for the same connection key.
+     *
+     * @return the pool size, 1 if pooling is disabled
+     * @since 3.8
+     */
+    public static int getPoolSize() {
+        return POOL_SIZE;
+    }
+
     /**
      * @param driverFactory the {@link DBDriverFactory} to get the {@link Driver}
      */
@@ -181,13 +242,7 @@ public Connection getConnection(final CredentialsProvider cp, final DatabaseConn
 
         // retrieve original key and/or modify connection key map
         Connection conn = null;
-        synchronized (CONNECTION_KEYS) {
-            if (CONNECTION_KEYS.containsKey(databaseConnKey)) {
-                databaseConnKey = CONNECTION_KEYS.get(databaseConnKey);
-            } else {
-                CONNECTION_KEYS.put(databaseConnKey, databaseConnKey);
-            }
-        }
+        databaseConnKey = registerConnectionKey(databaseConnKey);
 
         //synchronize on the connection key only
         LOGGER.debug("Try to lock key to obtain connection: " + databaseConnKey);
@@ -205,47 +260,120 @@ public Connection getConnection(final CredentialsProvider cp, final DatabaseConn
                 CONNECTION_MAP.remove(databaseConnKey);
             }
             LOGGER.debug("Create new connection for key: " + databaseConnKey);
-            final Driver d;
-            try {
-                d = getDriverFactory().getDriver(settings);
-            } catch (Exception ex1) {
-                throw new InvalidSettingsException(ex1);
+            conn = openConnection(settings, jdbcUrl, user, pass, kerberos);
+            LOGGER.debug("Add connection to map for key: " + databaseConnKey);
+            CONNECTION_MAP.put(databaseConnKey, conn);
+            return conn;
+        }
+    }
+
+    private Connection openConnection(final DatabaseConnectionSettings settings, final String jdbcUrl,
+        final String user, final String pass, final boolean kerberos)
+        throws InvalidSettingsException, SQLException, IOException {
+        final Driver d;
+        try {
+            d = getDriverFactory().getDriver(settings);
+        } catch (Exception ex1) {
+            throw new InvalidSettingsException(ex1);
+        }
+        if (!d.acceptsURL(jdbcUrl)) {
+            throw new InvalidSettingsException("Driver \"" + d + "\" does not accept URL: " + jdbcUrl);
+        }
+        // if a connection is not available
+        Callable<Connection> callable = new Callable<Connection>() {
+            /** {@inheritDoc} */
+            @Override
+            public Connection call() throws Exception {
+                LOGGER.debug("Opening database connection to \"" + jdbcUrl + "\"...");
+                return createConnection(settings, jdbcUrl, user, pass, kerberos, d);
             }
-            if (!d.acceptsURL(jdbcUrl)) {
-                throw new InvalidSettingsException("Driver \"" + d + "\" does not accept URL: " + jdbcUrl);
+        };
+        //TODO:this has to be more robust e.g. the thread should terminate when KNIME terminates and should be
+        //cancelable if the user presses cancel. If no credentials are present for Phoenix the thread keeps KNIME
+        //alive for ages
+        Future<Connection> task = CONNECTION_CREATOR_EXECUTOR.submit(callable);
+        try {
+            return task.get(DatabaseConnectionSettings.getDatabaseTimeout() + 1, TimeUnit.SECONDS);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof SQLException) {
+                throw (SQLException) ee.getCause();
+            } else {
+                throw new SQLException(ee.getCause());
             }
-            // if a connection is not available
-            Callable<Connection> callable = new Callable<Connection>() {
-                /** {@inheritDoc} */
-                @Override
-                public Connection call() throws Exception {
-                    LOGGER.debug("Opening database connection to \"" + jdbcUrl + "\"...");
-                    return createConnection(settings, jdbcUrl, user, pass, kerberos, d);
-                }
-            };
-            //TODO:this has to be more robust e.g. the thread should terminate when KNIME terminates and should be
-            //cancelable if the user presses cancel. If no credentials are present for Phoenix the thread keeps KNIME
-            //alive for ages
-            Future<Connection> task = CONNECTION_CREATOR_EXECUTOR.submit(callable);
-            try {
-                conn = task.get(DatabaseConnectionSettings.getDatabaseTimeout() + 1, TimeUnit.SECONDS);
-                LOGGER.debug("Add connection to map for key: " + databaseConnKey);
-                CONNECTION_MAP.put(databaseConnKey, conn);
-                return conn;
-            } catch (ExecutionException ee) {
-                if (ee.getCause() instanceof SQLException) {
-                    throw (SQLException) ee.getCause();
-                } else {
-                    throw new SQLException(ee.getCause());
-                }
-            } catch (InterruptedException ex) {
-                throw new SQLException("Thread was interrupted while waiting for database to respond");
-            } catch (TimeoutException ex) {
-                throw new IOException("Connection to database '" + jdbcUrl + "' timed out");
+        } catch (InterruptedException ex) {
+            throw new SQLException("Thread was interrupted while waiting for database to respond");
+        } catch (TimeoutException ex) {
+            throw new IOException("Connection to database '" + jdbcUrl + "' timed out");
+        }
+    }
+
+    /**
+     * Executes the statement with a connection borrowed from the pool of the connection key, i.e. the connection is
+     * used exclusively by the statement and no further synchronization is needed. Connections are validated when they
+     * are borrowed and after a failed statement; an open transaction is rolled back and the auto-commit, read-only and
+     * isolation settings are restored when the connection is returned to the pool. If all connections are in use, the
+     * call waits for one to be released (at most the database timeout). Idle connections are closed lazily, i.e. when
+     * the next pooled statement is executed after the idle timeout. Note that pooled connections don't share any
+     * session state, e.g. temporary tables.
+     *
+     * @param cp {@link CredentialsProvider}
+     * @param settings {@link DatabaseConnectionSettings}
+     * @param stmt the statement to execute
+     * @return the return value of the statement
+     * @throws Exception if no connection can be obtained or the statement fails
+     * @see #isPoolingEnabled()
+     * @since 3.8
+     */
+    public <T> T executePooled(final CredentialsProvider cp, final DatabaseConnectionSettings settings,
+        final ExecuteStatement<T> stmt) throws Exception {
+        final String jdbcUrl = settings.getJDBCUrl();
+        final String user = settings.getUserName(cp);
+        final String pass = settings.getPassword(cp);
+        final boolean kerberos = settings.useKerberos();
+        final ConnectionKey databaseConnKey = registerConnectionKey(createConnectionKey(cp, settings));
+        final Predicate<Connection> validator = c -> isOpenAndValid(settings, c, databaseConnKey);
+        evictIdleConnections();
+        ConnectionPool pool;
+        Connection conn;
+        do {
+            // retry if the pool got retired concurrently
+            pool = POOLS.computeIfAbsent(databaseConnKey, k -> new ConnectionPool(k, POOL_SIZE, POOL_IDLE_TIMEOUT));
+            conn = pool.borrow(validator, () -> openConnection(settings, jdbcUrl, user, pass, kerberos),
+                DatabaseConnectionSettings.getDatabaseTimeout());
+        } while (conn == null);
+        boolean success = false;
+        try {
+            final T result = stmt.apply(conn);
+            success = true;
+            return result;
+        } finally {
+            // the connection may be broken if the statement failed, only keep it if it's still valid
+            pool.release(conn, success ? c -> true : validator);
+        }
+    }
+
+    /**
+     * Closes the pooled connections that have been idle for longer than the idle timeout and drops the pools without
+     * open connections, e.g. the ones of keys that aren't used anymore.
+     */
+    private static void evictIdleConnections() {
+        for (Map.Entry<ConnectionKey, ConnectionPool> entry : POOLS.entrySet()) {
+            final ConnectionPool pool = entry.getValue();
+            pool.evictIdleConnections();
+            if (pool.retireIfUnused()) {
+                POOLS.remove(entry.getKey(), pool);
             }
         }
     }
 
+    /** Returns the registered instance equal to the argument key, registering the argument if there is none. */
+    private static ConnectionKey registerConnectionKey(final ConnectionKey databaseConnKey) {
+        synchronized (CONNECTION_KEYS) {
+            final ConnectionKey registeredKey = CONNECTION_KEYS.putIfAbsent(databaseConnKey, databaseConnKey);
+            return registeredKey != null ? registeredKey : databaseConnKey;
+        }
+    }
+
     private static ConnectionKey createConnectionKey(final CredentialsProvider cp, final DatabaseConnectionSettings settings) {
         final String jdbcUrl = settings.getJDBCUrl();
         final String user = settings.getUserName(cp);
@@ -287,7 +415,7 @@ private static boolean isOpenAndValid(final DatabaseConnectionSettings settings,
         return false;
     }
 
-    private static void closeSafely(final ConnectionKey databaseConnKey, final Connection conn) {
+    static void closeSafely(final ConnectionKey databaseConnKey, final Connection conn) {
         try {
             if (!conn.isClosed()) {
                 LOGGER.debug("Closing connection with key: " + databaseConnKey);
@@ -0,0 +1,327 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.port.database.connection;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.port.database.connection.CachedConnectionFactory.ConnectionKey;
+
+/**
+ * A bounded pool of database connections sharing the same {@link ConnectionKey}. Each borrowed connection is used
+ * exclusively by the borrower until it is {@link #release(Connection, Predicate) released}. Released connections are
+ * reset to the state they had when they were opened, i.e. open transactions are rolled back and the auto-commit,
+ * read-only and isolation settings are restored. Idle connections are validated when they are borrowed and closed
+ * by {@link #evictIdleConnections()} after they haven't been used for a while. A pool without open connections can
+ * be {@link #retireIfUnused() retired}, after which it doesn't hand out connections anymore.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ConnectionPool {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ConnectionPool.class);
+
+    /** Opens a new connection. */
+    @FunctionalInterface
+    interface ConnectionOpener {
+        /**
+         * @return a new connection, not null
+         * @throws SQLException if the database reports an error
+         * @throws IOException if the connection attempt times out
+         * @throws InvalidSettingsException if the settings are invalid (e.g. the driver doesn't accept the URL)
+         */
+        Connection open() throws SQLException, IOException, InvalidSettingsException;
+    }
+
+    /** An idle connection along with the time it was released. */
+    private static final class IdleConnection {
+        private final Connection m_connection;
+
+        private final long m_releaseTime;
+
+        IdleConnection(final Connection connection, final long releaseTime) {
+            m_connection = connection;
+            m_releaseTime = releaseTime;
+        }
+    }
+
+    /** The session settings of a connection that are restored when it's released. */
+    private static final class ConnectionState {
+        private final boolean m_autoCommit;
+
+        private final boolean m_readOnly;
+
+        private final int m_isolation;
+
+        ConnectionState(final Connection conn) throws SQLException {
+            m_autoCommit = conn.getAutoCommit();
+            m_readOnly = conn.isReadOnly();
+            m_isolation = conn.getTransactionIsolation();
+        }
+
+        /** Rolls back any open transaction and restores the settings. */
+        void restore(final Connection conn) throws SQLException {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+            }
+            if (conn.getAutoCommit() != m_autoCommit) {
+                conn.setAutoCommit(m_autoCommit);
+            }
+            if (conn.isReadOnly() != m_readOnly) {
+                conn.setReadOnly(m_readOnly);
+            }
+            if (conn.getTransactionIsolation() != m_isolation) {
+                conn.setTransactionIsolation(m_isolation);
+            }
+            conn.clearWarnings();
+        }
+    }
+
+    private final ConnectionKey m_key;
+
+    private final int m_maxSize;
+
+    private final long m_idleTimeoutNanos;
+
+    /** The idle connections, most recently released first. */
+    private final Deque<IdleConnection> m_idleConnections = new ArrayDeque<>();
+
+    /** The initial state of the connections opened by this pool (idle and borrowed ones). */
+    private final Map<Connection, ConnectionState> m_initialStates = new IdentityHashMap<>();
+
+    /** Number of connections that are open, i.e. idle or borrowed (or being opened). */
+    private int m_openCount;
+
+    /** Whether the pool has been retired, see {@link #retireIfUnused()}. */
+    private boolean m_isRetired;
+
+    /**
+     * @param key the key of all connections in this pool
+     * @param maxSize the maximum number of open connections, at least 1
+     * @param idleTimeoutSeconds the time after which idle connections are closed
+     */
+    ConnectionPool(final ConnectionKey key, final int maxSize, final long idleTimeoutSeconds) {
+        m_key = key;
+        m_maxSize = maxSize;
+        m_idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+    }
+
+    /**
+     * Borrows a connection from the pool. An idle connection is returned if one passes the validation, otherwise a new
+     * connection is opened if the pool isn't exhausted. Otherwise the calling thread waits for a connection to be
+     * released.
+     *
+     * @param validator validates idle connections
+     * @param opener opens new connections
+     * @param maxWaitSeconds the maximum time to wait for a connection to be released
+     * @return a valid connection, to be passed to {@link #release(Connection, Predicate)} after use, or
+     *         <code>null</code> if the pool has been retired
+     * @throws SQLException if opening a connection fails, no connection becomes available in time or the thread is
+     *             interrupted
+     * @throws IOException if opening a connection times out
+     * @throws InvalidSettingsException if the settings are invalid
+     */
+    Connection borrow(final Predicate<Connection> validator, final ConnectionOpener opener,
+        final long maxWaitSeconds) throws SQLException, IOException, InvalidSettingsException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxWaitSeconds);
+        while (true) {
+            Connection idle = null;
+            synchronized (this) {
+                if (m_isRetired) {
+                    return null;
+                } else if (!m_idleConnections.isEmpty()) {
+                    idle = m_idleConnections.pollFirst().m_connection;
+                } else if (m_openCount < m_maxSize) {
+                    m_openCount++;
+                } else {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLException("No database connection available for " + m_key + " within "
+                            + maxWaitSeconds + " seconds (all " + m_maxSize + " connections in use)");
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Thread was interrupted while waiting for a database connection", ie);
+                    }
+                    continue;
+                }
+            }
+            if (idle != null) {
+                if (validator.test(idle)) {
+                    return idle;
+                }
+                discard(idle);
+                continue;
+            }
+            boolean success = false;
+            try {
+                LOGGER.debug("Opening pooled connection for key: " + m_key);
+                final Connection conn = opener.open();
+                if (conn == null) {
+                    throw new SQLException("Database driver returned no connection for " + m_key);
+                }
+                final ConnectionState state;
+                try {
+                    state = new ConnectionState(conn);
+                } catch (SQLException ex) {
+                    CachedConnectionFactory.closeSafely(m_key, conn);
+                    throw ex;
+                }
+                synchronized (this) {
+                    m_initialStates.put(conn, state);
+                }
+                success = true;
+                return conn;
+            } finally {
+                if (!success) {
+                    connectionClosed();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool. The connection is reset to its initial state (rolling back an open
+     * transaction). Connections that are closed, can't be reset or fail the validation are closed and removed from the
+     * pool.
+     *
+     * @param conn the connection as returned by {@link #borrow(Predicate, ConnectionOpener, long)}
+     * @param validator validates the connection before it's kept in the pool
+     */
+    void release(final Connection conn, final Predicate<Connection> validator) {
+        final ConnectionState state;
+        synchronized (this) {
+            state = m_initialStates.get(conn);
+        }
+        boolean reusable;
+        try {
+            reusable = !conn.isClosed();
+            if (reusable && state != null) {
+                state.restore(conn);
+            }
+        } catch (SQLException ex) {
+            LOGGER.debug("Error resetting pooled connection for key " + m_key + ": " + ex.getMessage(), ex);
+            reusable = false;
+        }
+        if (reusable && !validator.test(conn)) {
+            reusable = false;
+        }
+        if (reusable) {
+            synchronized (this) {
+                m_idleConnections.addFirst(new IdleConnection(conn, System.nanoTime()));
+                notifyAll();
+            }
+        } else {
+            discard(conn);
+        }
+    }
+
+    /** Closes all connections that have been idle for longer than the idle timeout. */
+    void evictIdleConnections() {
+        final long now = System.nanoTime();
+        final List<Connection> evicted = new ArrayList<>();
+        synchronized (this) {
+            // least recently released connections are at the end
+            while (!m_idleConnections.isEmpty()
+                && now - m_idleConnections.peekLast().m_releaseTime > m_idleTimeoutNanos) {
+                evicted.add(m_idleConnections.pollLast().m_connection);
+            }
+        }
+        for (Connection conn : evicted) {
+            LOGGER.debug("Closing idle pooled connection for key: " + m_key);
+            discard(conn);
+        }
+    }
+
+    /**
+     * Retires the pool if it has no open connections, i.e. neither idle nor borrowed ones. A retired pool doesn't hand
+     * out connections anymore and can be dropped.
+     *
+     * @return <code>true</code> if the pool is retired
+     */
+    synchronized boolean retireIfUnused() {
+        if (m_openCount == 0) {
+            m_isRetired = true;
+        }
+        return m_isRetired;
+    }
+
+    private void discard(final Connection conn) {
+        CachedConnectionFactory.closeSafely(m_key, conn);
+        synchronized (this) {
+            m_initialStates.remove(conn);
+        }
+        connectionClosed();
+    }
+
+    /** @return the number of open connections, i.e. idle or borrowed ones */
+    synchronized int getOpenCount() {
+        return m_openCount;
+    }
+
+    /** @return the number of idle connections */
+    synchronized int getIdleCount() {
+        return m_idleConnections.size();
+    }
+
+    private synchronized void connectionClosed() {
+        m_openCount--;
+        notifyAll();
+    }
+}
@@ -51,6 +51,7 @@
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 
+import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTable;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.node.BufferedDataTable;
@@ -59,7 +60,12 @@
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.port.database.DatabaseQueryConnectionSettings;
 import org.knime.core.node.streamable.BufferedDataTableRowOutput;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortOutput;
 import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.RowOutput.OutputClosedException;
+import org.knime.core.node.streamable.StreamableOperator;
 import org.knime.core.node.workflow.CredentialsProvider;
 
 /**
@@ -90,7 +96,8 @@ public interface DBReader {
     void updateQuery(String query);
 
     /**
-     * Returns the database meta data on the connection.
+     * Returns the database meta data on the connection. With connection pooling enabled, see
+     * {@link org.knime.core.node.port.database.DatabaseConnectionSettings#getDatabaseMetaData(CredentialsProvider)}.
      * @param cp CredentialsProvider to receive user/password from
      * @return DatabaseMetaData on this connection
      * @throws SQLException if the connection to the database or the statement
@@ -137,6 +144,27 @@ default BufferedDataTable createTable(final ExecutionContext exec, final Credent
         return createTable(exec, cp, useDbRowId, -1);
     }
 
+    /**
+     * Read data from database by splitting the query into range partitions on the given numeric or date column,
+     * which are fetched concurrently and concatenated afterwards. Implementations that don't support partitioned reads
+     * (the default) read the data sequentially.
+     * @param exec used for progress info
+     * @param cp {@link CredentialsProvider} providing user/password
+     * @param useDbRowId <code>true</code> if the row id returned by the database should be used to generate the
+     * KNIME row id
+     * @param partitionColumn name of the numeric or date column used to split the query
+     * @param numPartitions the number of partitions to read concurrently
+     * @return buffered data table read from database
+     * @throws CanceledExecutionException if canceled in between
+     * @throws SQLException if the connection could not be opened
+     * @since 3.8
+     */
+    default BufferedDataTable createTable(final ExecutionContext exec, final CredentialsProvider cp,
+        final boolean useDbRowId, final String partitionColumn, final int numPartitions)
+        throws CanceledExecutionException, SQLException {
+        return createTable(exec, cp, useDbRowId);
+    }
+
     /**
      * Read data from database.
      * @param exec used for progress info
@@ -169,6 +197,54 @@ default BufferedDataTable createTable(final ExecutionContext exec, final Credent
     DataTable getTable(ExecutionMonitor exec, CredentialsProvider cp, boolean useDbRowId, final int cachedNoRows)
         throws CanceledExecutionException, SQLException;
 
+    /**
+     * Read data from database and push the rows into the given output, which is closed afterwards. Implementations
+     * that support streaming push each row as soon as it is read from the database, so that memory consumption is
+     * bounded by the fetch size and a slow consumer slows down reading (see {@link RowOutput#push(DataRow)}). The
+     * default implementation reads the complete table first. Reading stops early if the output is closed by its
+     * consumers.
+     * @param exec used for progress info
+     * @param cp {@link CredentialsProvider} providing user/password
+     * @param useDbRowId <code>true</code> if the row id returned by the database should be used to generate the
+     * KNIME row id
+     * @param output the row output to push the rows to
+     * @throws CanceledExecutionException if canceled in between
+     * @throws SQLException if the connection could not be opened
+     * @throws InterruptedException if interrupted while pushing rows to the output
+     * @since 3.8
+     */
+    default void readTable(final ExecutionContext exec, final CredentialsProvider cp, final boolean useDbRowId,
+        final RowOutput output) throws CanceledExecutionException, SQLException, InterruptedException {
+        final BufferedDataTable table = createTable(exec, cp, useDbRowId);
+        try {
+            output.setFully(table);
+        } catch (OutputClosedException e) {
+            // no consumer needs any more rows
+            output.close();
+        }
+    }
+
+    /**
+     * Creates a streamable operator that reads data from database and pushes it to the row output at port
+     * <code>outputIndex</code>, see {@link #readTable(ExecutionContext, CredentialsProvider, boolean, RowOutput)}.
+     * @param cp {@link CredentialsProvider} providing user/password
+     * @param useDbRowId <code>true</code> if the row id returned by the database should be used to generate the
+     * KNIME row id
+     * @param outputIndex the index of the output port the rows are pushed to
+     * @return a new streamable operator
+     * @since 3.8
+     */
+    default StreamableOperator createStreamableOperator(final CredentialsProvider cp, final boolean useDbRowId,
+        final int outputIndex) {
+        return new StreamableOperator() {
+            @Override
+            public void runFinal(final PortInput[] inputs, final PortOutput[] outputs, final ExecutionContext exec)
+                throws Exception {
+                readTable(exec, cp, useDbRowId, (RowOutput)outputs[outputIndex]);
+            }
+        };
+    }
+
     /**
      * Loop table in database.
      * @param exec {@link ExecutionContext}
@@ -44,14 +44,24 @@
  */
 package org.knime.core.node.port.database.reader;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.knime.core.data.DataCell;
@@ -68,18 +78,25 @@
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.def.JoinedRow;
 import org.knime.core.data.def.StringCell;
+import org.knime.core.data.util.PrefetchingRowIterator;
 import org.knime.core.node.BufferedDataContainer;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.database.DatabaseConnectionSettings;
 import org.knime.core.node.port.database.DatabaseHelper;
 import org.knime.core.node.port.database.DatabaseQueryConnectionSettings;
+import org.knime.core.node.port.database.StatementManipulator;
+import org.knime.core.node.port.database.connection.CachedConnectionFactory;
 import org.knime.core.node.streamable.BufferedDataTableRowOutput;
 import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.RowOutput.OutputClosedException;
 import org.knime.core.node.workflow.CredentialsProvider;
+import org.knime.core.util.ThreadPool;
 import org.knime.core.util.UniqueNameGenerator;
 
 /**
@@ -93,6 +110,12 @@ public class DBReaderImpl extends DatabaseHelper implements DBReader {
     static final NodeLogger LOGGER =
             NodeLogger.getLogger(DBReaderImpl.class);
 
+    /** Number of rows per prefetched batch if no fetch size is set. */
+    private static final int DEFAULT_PREFETCH_BATCH_SIZE = 1000;
+
+    /** Number of batches that are fetched ahead of time, 0 if prefetching is disabled. */
+    private static final int PREFETCH_BATCHES = initPrefetchBatches();
+
     DataTableSpec m_spec;
 
     private BufferedDataContainer m_errorContainer;
@@ -132,14 +155,7 @@ public void updateQuery(final String query) {
     @Override
     public final DatabaseMetaData getDatabaseMetaData(
             final CredentialsProvider cp) throws SQLException {
-        try {
-            final DatabaseQueryConnectionSettings dbConn = getQueryConnection();
-            return dbConn.execute(cp, (conn) -> conn.getMetaData());
-        } catch (SQLException sql) {
-            throw sql;
-        } catch (Exception ex) {
-            throw new SQLException(ex);
-        }
+        return getQueryConnection().getDatabaseMetaData(cp);
     }
 
     /**
@@ -252,8 +268,466 @@ public RowIterator iterator() {
                     }
 
                 }, exec);
+            } catch (RuntimeException ex) {
+                throw unwrapCanceled(ex);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Rows are pushed as soon as they are read from the database. The connection is in use until all rows are
+     * consumed, therefore streaming requires connection pooling (see
+     * {@link CachedConnectionFactory#isPoolingEnabled()}); otherwise a downstream node accessing the same database
+     * would wait for the connection forever. Without pooling the complete table is read first.
+     * @since 3.8
+     */
+    @Override
+    public void readTable(final ExecutionContext exec, final CredentialsProvider cp, final boolean useDbRowId,
+        final RowOutput output) throws CanceledExecutionException, SQLException, InterruptedException {
+        final DatabaseQueryConnectionSettings dbConn = getQueryConnection();
+        if (!CachedConnectionFactory.isPoolingEnabled()
+            || !(dbConn.getUtility().getConnectionFactory() instanceof CachedConnectionFactory)) {
+            LOGGER.debug("Streaming requires a connection pool, reading complete table before pushing rows");
+            DBReader.super.readTable(exec, cp, useDbRowId, output);
+            return;
+        }
+        try {
+            dbConn.execute(cp, conn -> {
+                try (DBRowIterator ric = createRowIteratorConnection(conn, exec, cp, useDbRowId)) {
+                    pushRows(ric.iterator(), exec, output);
+                } catch (RuntimeException ex) {
+                    throw unwrapCanceled(ex);
+                }
+                return null;
+            });
+        } catch (SQLException ex) {
+            throw unwrapReadException(ex);
+        }
+    }
+
+    /**
+     * Pushes the rows of the iterator into the output and closes the output afterwards. Stops early if the output is
+     * closed by its consumers.
+     *
+     * @param it the rows to push
+     * @param exec the monitor checked for cancellation
+     * @param output the output to push the rows to
+     * @throws CanceledExecutionException if canceled in between
+     * @throws InterruptedException if interrupted while pushing rows to the output
+     */
+    static void pushRows(final RowIterator it, final ExecutionMonitor exec, final RowOutput output)
+        throws CanceledExecutionException, InterruptedException {
+        try {
+            long count = 0;
+            while (it.hasNext()) {
+                exec.checkCanceled();
+                output.push(it.next());
+                count++;
+                if (count % 1000 == 0) {
+                    exec.setMessage("Reading rows from database (" + count + " rows read)");
+                }
+            }
+        } catch (OutputClosedException e) {
+            LOGGER.debug("Row output closed by consumers, stop reading rows from database");
+        }
+        output.close();
+    }
+
+    /**
+     * Rethrows the cancellation or interruption that {@link DatabaseConnectionSettings#execute} wrapped into the
+     * exception, otherwise returns the argument.
+     *
+     * @param ex the exception thrown while reading
+     * @return the argument if it wasn't caused by a cancellation or interruption
+     * @throws CanceledExecutionException if the exception was caused by a cancellation
+     * @throws InterruptedException if the exception was caused by an interruption
+     */
+    static SQLException unwrapReadException(final SQLException ex)
+        throws CanceledExecutionException, InterruptedException {
+        if (ex.getCause() instanceof CanceledExecutionException) {
+            throw (CanceledExecutionException)ex.getCause();
+        } else if (ex.getCause() instanceof InterruptedException) {
+            throw (InterruptedException)ex.getCause();
+        }
+        return ex;
+    }
+
+    /**
+     * Wraps the given iterator into a {@link PrefetchingRowIterator} if prefetching is enabled (see
+     * {@link KNIMEConstants#PROPERTY_DATABASE_PREFETCH}).
+     *
+     * @param source the database row iterator
+     * @param exec the monitor checked for cancellation, may be <code>null</code>
+     * @return the prefetching iterator or the argument if prefetching is disabled
+     */
+    private static RowIterator prefetchIfEnabled(final RowIterator source, final ExecutionMonitor exec) {
+        if (PREFETCH_BATCHES <= 0) {
+            return source;
+        }
+        final Integer fetchSize = DatabaseConnectionSettings.FETCH_SIZE;
+        final int batchSize = (fetchSize != null && fetchSize > 0) ? fetchSize : DEFAULT_PREFETCH_BATCH_SIZE;
+        return new PrefetchingRowIterator(source, PREFETCH_BATCHES * batchSize, exec);
+    }
+
+    private static int initPrefetchBatches() {
+        final String prop = System.getProperty(KNIMEConstants.PROPERTY_DATABASE_PREFETCH);
+        if (prop == null) {
+            return 0;
+        }
+        try {
+            final int batches = Integer.parseInt(prop.trim());
+            if (batches < 0) {
+                LOGGER.warn("Database prefetch size must not be negative: " + batches + ", disabling prefetching.");
+                return 0;
+            }
+            LOGGER.debug("Database prefetch size: " + batches + " batches.");
+            return batches;
+        } catch (NumberFormatException nfe) {
+            LOGGER.warn("Database prefetch size not valid '" + prop + "', disabling prefetching.");
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the cancellation that caused a runtime exception thrown by a {@link PrefetchingRowIterator} or rethrows
+     * the argument if it has another cause.
+     */
+    private static CanceledExecutionException unwrapCanceled(final RuntimeException ex) {
+        if (ex.getCause() instanceof CanceledExecutionException) {
+            return (CanceledExecutionException)ex.getCause();
+        }
+        throw ex;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The value range of the partition column is split into equally sized ranges, each of which is read on its own
+     * pooled connection. Rows with a missing value in the partition column are part of the first partition. All
+     * partitions are written to the same table as their rows arrive, i.e. rows of different partitions may be
+     * interleaved. Row keys are numbered consecutively in that order; <code>useDbRowId</code> is ignored as row
+     * numbers reported by the database are only unique within a partition. The data is read sequentially if
+     * connection pooling is disabled (see {@link CachedConnectionFactory#isPoolingEnabled()}), if the query consists
+     * of multiple statements or if the partition column contains no values.
+     * @since 3.8
+     */
+    @Override
+    public BufferedDataTable createTable(final ExecutionContext exec, final CredentialsProvider cp,
+        final boolean useDbRowId, final String partitionColumn, final int numPartitions)
+        throws CanceledExecutionException, SQLException {
+        final DatabaseQueryConnectionSettings dbConn = getQueryConnection();
+        final String[] oQueries = dbConn.getQuery().split(SQL_QUERY_SEPARATOR);
+        if (partitionColumn == null || numPartitions <= 1) {
+            return createTable(exec, cp, useDbRowId);
+        }
+        if (oQueries.length > 1) {
+            LOGGER.debug("Query consists of multiple statements, reading data sequentially");
+            return createTable(exec, cp, useDbRowId);
+        }
+        if (!CachedConnectionFactory.isPoolingEnabled()
+            || !(dbConn.getUtility().getConnectionFactory() instanceof CachedConnectionFactory)) {
+            LOGGER.info("Partitioned reads require a connection pool (set \""
+                + KNIMEConstants.PROPERTY_DATABASE_POOL_SIZE + "\" to a value greater than 1), "
+                + "reading data sequentially");
+            return createTable(exec, cp, useDbRowId);
+        }
+        String query = oQueries[0].trim();
+        if (query.endsWith(";")) {
+            query = query.substring(0, query.length() - 1);
+        }
+        final StatementManipulator manipulator = dbConn.getUtility().getStatementManipulator();
+
+        exec.setMessage("Determining value range of column \"" + partitionColumn + "\"...");
+        final String minMaxQuery = manipulator.getMinMaxStatement(query, partitionColumn);
+        final Object[] minMax = dbConn.execute(cp, conn -> {
+            try (Statement stmt = initStatement(cp, conn)) {
+                LOGGER.debug("Executing SQL statement as executeQuery: " + minMaxQuery);
+                try (ResultSet result = stmt.executeQuery(minMaxQuery)) {
+                    return result.next() ? new Object[]{result.getObject(1), result.getObject(2)} : new Object[2];
+                }
+            } finally {
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
             }
         });
+        if (minMax[0] == null || minMax[1] == null) {
+            LOGGER.debug("Column \"" + partitionColumn + "\" contains no values, reading data sequentially");
+            return createTable(exec, cp, useDbRowId);
+        }
+        final Object[] bounds = computePartitionBounds(minMax[0], minMax[1], numPartitions);
+        final int partitionCount = bounds.length + 1;
+        LOGGER.debug("Reading " + partitionCount + " partitions of column \"" + partitionColumn + "\" concurrently");
+
+        final DataTableSpec spec = getDataTableSpec(cp);
+        // the container and blob factories are created up front as the execution context isn't meant to be used
+        // concurrently for that
+        final BufferedDataContainer container = exec.createDataContainer(spec);
+        final BinaryObjectCellFactory[] blobFactories = new BinaryObjectCellFactory[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            blobFactories[i] = new BinaryObjectCellFactory(exec);
+        }
+        final PartitionSink sink = new PartitionSink(container, exec);
+        boolean success = false;
+        try {
+            final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(partitionCount);
+            final List<Future<Void>> futures = new ArrayList<>(partitionCount);
+            for (int i = 0; i < partitionCount; i++) {
+                final int index = i;
+                final Object lower = (i == 0) ? null : bounds[i - 1];
+                final Object upper = (i == partitionCount - 1) ? null : bounds[i];
+                final String partitionQuery = manipulator.getRangePartitionStatement(query, partitionColumn,
+                    lower != null, upper != null, i == 0);
+                futures.add(pool.enqueue(() -> dbConn.execute(cp, conn -> readPartition(conn, exec, partitionQuery,
+                    lower, upper, spec, blobFactories[index], sink))));
+            }
+            waitForPartitions(futures, exec);
+            container.close();
+            success = true;
+            return container.getTable();
+        } finally {
+            if (!success) {
+                sink.abort();
+            }
+        }
+    }
+
+    /**
+     * Waits for all partitions to be read. If a partition fails or the execution is canceled, the remaining
+     * partitions are canceled and the error is rethrown.
+     */
+    private static void waitForPartitions(final List<Future<Void>> futures, final ExecutionContext exec)
+        throws CanceledExecutionException, SQLException {
+        final Callable<Void> waitForPartitions = () -> {
+            for (final Future<Void> future : futures) {
+                while (true) {
+                    try {
+                        future.get(1, TimeUnit.SECONDS);
+                        break;
+                    } catch (TimeoutException ex) {
+                        exec.checkCanceled();
+                    }
+                }
+            }
+            return null;
+        };
+        try {
+            final ThreadPool currentPool = ThreadPool.currentPool();
+            if (currentPool != null) {
+                currentPool.runInvisible(waitForPartitions);
+            } else {
+                waitForPartitions.call();
+            }
+        } catch (Exception ex) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = ex;
+            while (cause != null) {
+                if (cause instanceof CanceledExecutionException) {
+                    throw (CanceledExecutionException)cause;
+                }
+                cause = cause.getCause();
+            }
+            exec.checkCanceled();
+            cause = (ex instanceof ExecutionException && ex.getCause() != null) ? ex.getCause() : ex;
+            if (cause instanceof SQLException) {
+                throw (SQLException)cause;
+            }
+            throw new SQLException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * The container all partitions are written to. Rows are added one at a time and get consecutive row keys in the
+     * order they are added, as row numbers reported by the database are only unique within a partition. Once aborted,
+     * the container is disposed and further rows are rejected.
+     */
+    private static final class PartitionSink {
+
+        private final BufferedDataContainer m_container;
+
+        private final ExecutionContext m_exec;
+
+        private long m_rowCount;
+
+        private boolean m_aborted;
+
+        PartitionSink(final BufferedDataContainer container, final ExecutionContext exec) {
+            m_container = container;
+            m_exec = exec;
+        }
+
+        synchronized void addRow(final DataRow row) throws CanceledExecutionException {
+            if (m_aborted) {
+                throw new CanceledExecutionException("Reading partitions has been aborted");
+            }
+            m_container.addRowToTable(new DefaultRow(RowKey.createRowKey(m_rowCount), row));
+            m_rowCount++;
+            if (m_rowCount % 1000 == 0) {
+                m_exec.setMessage("Reading rows from database (" + m_rowCount + " rows read)");
+            }
+        }
+
+        /** Disposes the container; partitions still being read fail when they add their next row. */
+        synchronized void abort() {
+            if (!m_aborted) {
+                m_aborted = true;
+                m_container.close();
+                m_exec.clearTable(m_container.getTable());
+            }
+        }
+    }
+
+    /**
+     * Reads a single range partition into the given sink. Called concurrently for all partitions, each with its own
+     * connection.
+     */
+    private Void readPartition(final Connection conn, final ExecutionContext exec, final String query,
+        final Object lower, final Object upper, final DataTableSpec spec, final BinaryObjectCellFactory blobFactory,
+        final PartitionSink sink) throws SQLException, CanceledExecutionException {
+        // remember auto-commit flag
+        final boolean autoCommit = conn.getAutoCommit();
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            final int fetchsize =
+                (DatabaseConnectionSettings.FETCH_SIZE != null) ? DatabaseConnectionSettings.FETCH_SIZE : -1;
+            getQueryConnection().getUtility().getStatementManipulator().setFetchSize(stmt, fetchsize);
+            int paramIndex = 1;
+            if (lower != null) {
+                stmt.setObject(paramIndex++, lower);
+            }
+            if (upper != null) {
+                stmt.setObject(paramIndex, upper);
+            }
+            LOGGER.debug("Executing SQL statement as executeQuery: " + query + " with bounds [" + lower + ", "
+                + upper + ")");
+            try (ResultSet result = stmt.executeQuery()) {
+                final RowIterator it = prefetchIfEnabled(
+                    createDBRowIterator(spec, getQueryConnection(), blobFactory, false, result), exec);
+                try {
+                    while (it.hasNext()) {
+                        exec.checkCanceled();
+                        sink.addRow(it.next());
+                    }
+                } catch (RuntimeException ex) {
+                    throw unwrapCanceled(ex);
+                } finally {
+                    if (it instanceof PrefetchingRowIterator) {
+                        ((PrefetchingRowIterator)it).close();
+                    }
+                }
+            }
+        } finally {
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+            DatabaseConnectionSettings.setAutoCommit(conn, autoCommit);
+        }
+        return null;
+    }
+
+    /**
+     * Splits the value range between the given minimum and maximum into equally sized ranges and returns the inner
+     * bounds in strictly ascending order. Bounds that would lead to empty ranges are omitted, therefore less than
+     * <code>numPartitions - 1</code> bounds may be returned.
+     *
+     * @param min the minimum value, either a {@link Number} or a {@link java.util.Date}
+     * @param max the maximum value, of the same kind as the minimum
+     * @param numPartitions the requested number of partitions
+     * @return the inner partition bounds, each of which can be used as statement parameter
+     * @throws SQLException if the values are neither numbers nor dates
+     */
+    static Object[] computePartitionBounds(final Object min, final Object max, final int numPartitions)
+        throws SQLException {
+        final List<Object> bounds = new ArrayList<>(numPartitions - 1);
+        if (isIntegral(min) && isIntegral(max)) {
+            // computed as BigInteger to neither overflow nor lose precision on huge ranges
+            final boolean isBig = min instanceof BigInteger || max instanceof BigInteger;
+            for (final BigInteger bound : splitRange(toBigInteger(min), toBigInteger(max), numPartitions)) {
+                bounds.add(isBig ? bound : (Object)bound.longValue());
+            }
+        } else if (min instanceof BigDecimal || max instanceof BigDecimal) {
+            final BigDecimal lo = toBigDecimal(min);
+            final BigDecimal hi = toBigDecimal(max);
+            final BigDecimal step = hi.subtract(lo).divide(BigDecimal.valueOf(numPartitions), MathContext.DECIMAL128);
+            BigDecimal last = lo;
+            for (int i = 1; i < numPartitions; i++) {
+                final BigDecimal bound = lo.add(step.multiply(BigDecimal.valueOf(i)));
+                if (bound.compareTo(last) > 0 && bound.compareTo(hi) <= 0) {
+                    bounds.add(bound);
+                    last = bound;
+                }
+            }
+        } else if (min instanceof Number && max instanceof Number) {
+            final double lo = ((Number)min).doubleValue();
+            final double hi = ((Number)max).doubleValue();
+            double last = lo;
+            for (int i = 1; i < numPartitions; i++) {
+                // interpolate rather than adding multiples of (hi - lo), which overflows for extreme values
+                final double fraction = (double)i / numPartitions;
+                final double bound = lo * (1 - fraction) + hi * fraction;
+                if (bound > last && bound <= hi) {
+                    bounds.add(bound);
+                    last = bound;
+                }
+            }
+        } else if (min instanceof java.util.Date && max instanceof java.util.Date) {
+            final BigInteger lo = BigInteger.valueOf(((java.util.Date)min).getTime());
+            final BigInteger hi = BigInteger.valueOf(((java.util.Date)max).getTime());
+            for (final BigInteger bigBound : splitRange(lo, hi, numPartitions)) {
+                final long bound = bigBound.longValue();
+                if (min instanceof java.sql.Date) {
+                    bounds.add(new java.sql.Date(bound));
+                } else if (min instanceof java.sql.Time) {
+                    bounds.add(new java.sql.Time(bound));
+                } else {
+                    bounds.add(new java.sql.Timestamp(bound));
+                }
+            }
+        } else {
+            throw new SQLException("Partition column must be numeric or a date, but values are of type "
+                + min.getClass().getName());
+        }
+        return bounds.toArray();
+    }
+
+    /**
+     * Splits [lo, hi] into <code>numPartitions</code> equally sized ranges and returns the distinct inner bounds in
+     * ascending order. All bounds lie in (lo, hi].
+     */
+    private static List<BigInteger> splitRange(final BigInteger lo, final BigInteger hi, final int numPartitions) {
+        final List<BigInteger> bounds = new ArrayList<>(numPartitions - 1);
+        final BigInteger range = hi.subtract(lo);
+        final BigInteger divisor = BigInteger.valueOf(numPartitions);
+        BigInteger last = lo;
+        for (int i = 1; i < numPartitions; i++) {
+            final BigInteger bound = lo.add(range.multiply(BigInteger.valueOf(i)).divide(divisor));
+            if (bound.compareTo(last) > 0) {
+                bounds.add(bound);
+                last = bound;
+            }
+        }
+        return bounds;
+    }
+
+    private static BigInteger toBigInteger(final Object o) {
+        return o instanceof BigInteger ? (BigInteger)o : BigInteger.valueOf(((Number)o).longValue());
+    }
+
+    private static BigDecimal toBigDecimal(final Object o) {
+        if (o instanceof BigDecimal) {
+            return (BigDecimal)o;
+        } else if (o instanceof BigInteger) {
+            return new BigDecimal((BigInteger)o);
+        } else if (isIntegral(o)) {
+            return BigDecimal.valueOf(((Number)o).longValue());
+        }
+        return BigDecimal.valueOf(((Number)o).doubleValue());
+    }
+
+    private static boolean isIntegral(final Object o) {
+        return o instanceof Long || o instanceof Integer || o instanceof Short || o instanceof Byte
+            || o instanceof BigInteger;
     }
 
 
@@ -302,7 +776,8 @@ private DBRowIterator createRowIteratorConnection(final Connection conn, final E
         LOGGER.debug("Reading meta data from database ResultSet...");
         m_spec = createTableSpec(result.getMetaData());
         LOGGER.debug("Parsing database ResultSet...");
-        final RowIterator iterator = createDBRowIterator(m_spec, dbConn, m_blobFactory, useDbRowId, result);
+        final RowIterator iterator = prefetchIfEnabled(
+            createDBRowIterator(m_spec, dbConn, m_blobFactory, useDbRowId, result), exec);
         return new RowIteratorConnection(conn, stmt, m_spec, iterator);
     }
 
@@ -362,10 +837,19 @@ DataTable createTable(final boolean useDbRowId, final int cachedNoRows, final Cr
                 m_spec = createTableSpec(result.getMetaData());
                 LOGGER.debug("Parsing database ResultSet...");
 //                final DBRowIterator dbIt = createRowIterator(useDbRowId, result);
-                final RowIterator it = createDBRowIterator(m_spec, dbConn, m_blobFactory, useDbRowId, result);
+                RowIterator it = createDBRowIterator(m_spec, dbConn, m_blobFactory, useDbRowId, result);
+                if (cachedNoRows < 0) {
+                    it = prefetchIfEnabled(it, null);
+                }
                 DataContainer buf = new DataContainer(m_spec);
-                while (it.hasNext()) {
-                    buf.addRowToTable(it.next());
+                try {
+                    while (it.hasNext()) {
+                        buf.addRowToTable(it.next());
+                    }
+                } finally {
+                    if (it instanceof PrefetchingRowIterator) {
+                        ((PrefetchingRowIterator)it).close();
+                    }
                 }
                 buf.close();
                 return buf.getTable();
@@ -61,6 +61,7 @@
 import java.sql.NClob;
 import java.sql.Ref;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
@@ -126,6 +127,9 @@ public class DBRowIteratorImpl extends RowIterator {
 
     protected final BinaryObjectCellFactory m_blobFactory;
 
+    /** The SQL types of the result set columns, read once from the meta data when the first row is read. */
+    private int[] m_dbTypes;
+
     /**
      * @param spec {@link DataTableSpec}
      * @param conn {@link DatabaseConnectionSettings}
@@ -195,7 +199,7 @@ public DataRow next() {
             int dbType = Types.NULL;
             final DataCell cell;
             try {
-                dbType = m_result.getMetaData().getColumnType(i + 1);
+                dbType = getColumnType(i);
                 if (type.isCompatible(BooleanValue.class)) {
                     switch (dbType) {
                         // all types that can be interpreted as boolean
@@ -324,6 +328,19 @@ public DataRow next() {
         return new DefaultRow(RowKey.createRowKey(rowId), cells);
     }
 
+    /** Returns the SQL type of the given column, the meta data is only accessed for the first row. */
+    private int getColumnType(final int i) throws SQLException {
+        if (m_dbTypes == null) {
+            final ResultSetMetaData metaData = m_result.getMetaData();
+            final int[] dbTypes = new int[m_spec.getNumColumns()];
+            for (int c = 0; c < dbTypes.length; c++) {
+                dbTypes[c] = metaData.getColumnType(c + 1);
+            }
+            m_dbTypes = dbTypes;
+        }
+        return m_dbTypes[i];
+    }
+
     protected DataCell readClob(final int i)
             throws IOException, SQLException {
         Clob clob = m_result.getClob(i + 1);
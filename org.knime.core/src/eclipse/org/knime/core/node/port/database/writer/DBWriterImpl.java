@@ -44,6 +44,7 @@
  */
 package org.knime.core.node.port.database.writer;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -51,9 +52,20 @@
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.knime.core.data.BooleanValue;
 import org.knime.core.data.DataCell;
@@ -68,12 +80,16 @@
 import org.knime.core.data.blob.BinaryObjectDataValue;
 import org.knime.core.data.date.DateAndTimeValue;
 import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.database.DatabaseConnectionSettings;
 import org.knime.core.node.port.database.DatabaseHelper;
+import org.knime.core.node.port.database.connection.CachedConnectionFactory;
 import org.knime.core.node.streamable.RowInput;
 import org.knime.core.node.workflow.CredentialsProvider;
+import org.knime.core.util.ThreadPool;
 
 /**
  * Creates a connection to write to database.
@@ -107,209 +123,12 @@ public String writeData(final String table, final RowInput input, final long row
 //        final Connection conn = conSettings.createConnection(cp);
         return conSettings.execute(cp, conn -> {
         exec.setMessage("Waiting for free database connection...");
-        final StringBuilder columnNamesForInsertStatement = new StringBuilder("(");
 //        synchronized (conSettings.syncConnection(conn)) {
             exec.setMessage("Start writing rows in database...");
             DataTableSpec spec = input.getDataTableSpec();
-            // mapping from spec columns to database columns
-            final int[] mapping;
-            // append data to existing table
-            if (appendData) {
-                if (conSettings.getUtility().tableExists(conn, table)) {
-                    String query =
-                        conSettings.getUtility().getStatementManipulator().forMetadataOnly("SELECT * FROM " + table);
-                    try (ResultSet rs = conn.createStatement().executeQuery(query)) {
-                        ResultSetMetaData rsmd = rs.getMetaData();
-                        final Map<String, Integer> columnNames =
-                                new LinkedHashMap<String, Integer>();
-                        for (int i = 0; i < spec.getNumColumns(); i++) {
-                            String colName = replaceColumnName(spec.getColumnSpec(i).getName());
-                            columnNames.put(colName.toLowerCase(), i);
-                        }
-
-                        // sanity check to lock if all input columns are in db
-                        ArrayList<String> columnNotInSpec = new ArrayList<String>(
-                                columnNames.keySet());
-                        for (int i = 0; i < rsmd.getColumnCount(); i++) {
-                            String dbColName = replaceColumnName(rsmd.getColumnName(i + 1));
-                            if (columnNames.containsKey(dbColName.toLowerCase())) {
-                                columnNotInSpec.remove(dbColName.toLowerCase());
-                                columnNamesForInsertStatement.append(dbColName).append(',');
-                            } else if (insertNullForMissingCols) {
-                                //append the column name of a missing column only if the insert null for missing
-                                //column option is enabled
-                                columnNamesForInsertStatement.append(dbColName).append(',');
-                            }
-                        }
-                        if (rsmd.getColumnCount() > 0) {
-                            columnNamesForInsertStatement.deleteCharAt(columnNamesForInsertStatement.length() - 1);
-                        }
-                        columnNamesForInsertStatement.append(')');
-
-                        if (columnNotInSpec.size() > 0) {
-                            throw new RuntimeException("No. of columns in input"
-                                    + " table > in database; not existing columns: "
-                                    + columnNotInSpec.toString());
-                        }
-                        mapping = new int[rsmd.getColumnCount()];
-                        for (int i = 0; i < mapping.length; i++) {
-                            String name = replaceColumnName(rsmd.getColumnName(i + 1)).toLowerCase();
-                            if (!columnNames.containsKey(name)) {
-                                mapping[i] = -1;
-                                continue;
-                            }
-                            mapping[i] = columnNames.get(name);
-                            DataColumnSpec cspec = spec.getColumnSpec(mapping[i]);
-                            int type = rsmd.getColumnType(i + 1);
-                            switch (type) {
-                                // check all boolean compatible types
-                                case Types.BIT:
-                                case Types.BOOLEAN:
-                                    // types must be compatible to BooleanValue
-                                    if (!cspec.getType().isCompatible(BooleanValue.class)) {
-                                        throw new RuntimeException("Column \"" + name
-                                            + "\" of type \"" + cspec.getType()
-                                            + "\" from input does not match type "
-                                            + "\"" + rsmd.getColumnTypeName(i + 1)
-                                            + "\" in database at position " + i);
-                                    }
-                                    break;
-                                    // check all int compatible types
-                                case Types.TINYINT:
-                                case Types.SMALLINT:
-                                case Types.INTEGER:
-                                    // types must be compatible to IntValue
-                                    if (!cspec.getType().isCompatible(IntValue.class)) {
-                                        throw new RuntimeException("Column \"" + name
-                                            + "\" of type \"" + cspec.getType()
-                                            + "\" from input does not match type "
-                                            + "\"" + rsmd.getColumnTypeName(i + 1)
-                                            + "\" in database at position " + i);
-                                    }
-                                    break;
-                                case Types.BIGINT:
-                                    // types must also be compatible to LongValue
-                                    if (!cspec.getType().isCompatible(LongValue.class)) {
-                                        throw new RuntimeException("Column \"" + name
-                                            + "\" of type \"" + cspec.getType()
-                                            + "\" from input does not match type "
-                                            + "\"" + rsmd.getColumnTypeName(i + 1)
-                                            + "\" in database at position " + i);
-                                    }
-                                    break;
-                                    // check all double compatible types
-                                case Types.FLOAT:
-                                case Types.DOUBLE:
-                                case Types.NUMERIC:
-                                case Types.DECIMAL:
-                                case Types.REAL:
-                                    // types must also be compatible to DoubleValue
-                                    if (!cspec.getType().isCompatible(DoubleValue.class)) {
-                                        throw new RuntimeException("Column \"" + name
-                                            + "\" of type \"" + cspec.getType()
-                                            + "\" from input does not match type "
-                                            + "\"" + rsmd.getColumnTypeName(i + 1)
-                                            + "\" in database at position " + i);
-                                    }
-                                    break;
-                                    // check for date-and-time compatible types
-                                case Types.DATE:
-                                case Types.TIME:
-                                case Types.TIMESTAMP:
-                                    // types must also be compatible to DataValue
-                                    if (!cspec.getType().isCompatible(DateAndTimeValue.class)) {
-                                        throw new RuntimeException("Column \"" + name
-                                            + "\" of type \"" + cspec.getType()
-                                            + "\" from input does not match type "
-                                            + "\"" + rsmd.getColumnTypeName(i + 1)
-                                            + "\" in database at position " + i);
-                                    }
-                                    break;
-                                    // check for blob compatible types
-                                case Types.BLOB:
-                                case Types.BINARY:
-                                case Types.LONGVARBINARY:
-                                    // types must also be compatible to DataValue
-                                    if (!cspec.getType().isCompatible(BinaryObjectDataValue.class)) {
-                                        throw new RuntimeException("Column \"" + name
-                                            + "\" of type \"" + cspec.getType()
-                                            + "\" from input does not match type "
-                                            + "\"" + rsmd.getColumnTypeName(i + 1)
-                                            + "\" in database at position " + i);
-                                    }
-                                    break;
-                                    // all other cases are defined as StringValue types
-                            }
-                        }
-                    }
-                } else {
-                    LOGGER.info("Table \"" + table
-                        + "\" does not exist in database, "
-                        + "will create new table.");
-                    // and create new table
-                    final String query =
-                            "CREATE TABLE " + table + " "
-                                    + createTableStmt(spec, sqlTypes, columnNamesForInsertStatement);
-                    LOGGER.debug("Executing SQL statement as execute: " + query);
-                    try (Statement statement = conn.createStatement()) {
-                        statement.execute(query);
-                    }
-                    if (!conn.getAutoCommit()) {
-                        conn.commit();
-                    }
-                    mapping = new int[spec.getNumColumns()];
-                    for (int k = 0; k < mapping.length; k++) {
-                        mapping[k] = k;
-                    }
-                }
-            } else {
-                LOGGER.debug("Append not enabled. Table " + table + " will be dropped if exists.");
-                mapping = new int[spec.getNumColumns()];
-                for (int k = 0; k < mapping.length; k++) {
-                    mapping[k] = k;
-                }
-                Statement statement = null;
-                try {
-                    statement = conn.createStatement();
-                    // remove existing table (if any)
-                    final String query = "DROP TABLE " + table;
-                    LOGGER.debug("Executing SQL statement as execute: " + query);
-                    statement.execute(query);
-                } catch (Throwable t) {
-                    if (statement == null) {
-                        throw new SQLException("Could not create SQL statement,"
-                            + " reason: " + t.getMessage(), t);
-                    }
-                    LOGGER.info("Exception droping table \"" + table + "\": " + t.getMessage()
-                        + ". Will create new table.");
-                } finally {
-                    if (!conn.getAutoCommit()) {
-                        conn.commit();
-                    }
-                }
-                // and create new table
-                final String query =
-                    "CREATE TABLE " + table + " " + createTableStmt(spec, sqlTypes, columnNamesForInsertStatement);
-                LOGGER.debug("Executing SQL statement as execute: " + query);
-                statement.execute(query);
-                statement.close();
-                if (!conn.getAutoCommit()) {
-                    conn.commit();
-                }
-            }
-
-            // this is a (temporary) workaround for bug #5802: if there is a DataValue column in the input table
-            // we need to use the SQL type for creating the insert statements.
-            Map<Integer, Integer> columnTypes = null;
-            for (DataColumnSpec cs : spec) {
-                if (cs.getType().getPreferredValueClass() == DataValue.class) {
-                    columnTypes = getColumnTypes(conn, table);
-                    break;
-                }
-            }
-
-            final String insertStamtement =
-                    createInsertStatment(table, columnNamesForInsertStatement.toString(), mapping, insertNullForMissingCols);
+            final InsertSetup setup =
+                prepareTable(conn, table, spec, appendData, sqlTypes, insertNullForMissingCols);
+            final String insertStamtement = setup.m_insertStatement;
 
             // problems writing more than 13 columns. the prepare statement
             // ensures that we can set the columns directly row-by-row, the
@@ -341,19 +160,7 @@ public String writeData(final String table, final RowInput input, final long row
                             exec.setProgress("Writing Row#" + cnt);
                         }
 
-                    int dbIdx = 1;
-                    for (int i = 0; i < mapping.length; i++) {
-                        if (mapping[i] < 0) {
-                            if (insertNullForMissingCols) {
-                                //insert only null if the insert null for missing col option is enabled
-                                stmt.setNull(dbIdx++, Types.NULL);
-                            }
-                        } else {
-                            final DataColumnSpec cspec = spec.getColumnSpec(mapping[i]);
-                            final DataCell cell = row.getCell(mapping[i]);
-                            fillStatement(stmt, dbIdx++, cspec, cell, timezone, columnTypes);
-                        }
-                    }
+                    bindRow(stmt, row, spec, setup, insertNullForMissingCols, timezone);
                     // if batch mode
                     if (batchSize > 1) {
                         // a new row will be added
@@ -439,6 +246,570 @@ public String writeData(final String table, final RowInput input, final long row
         });
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The table is created (or checked) on a single connection first. Afterwards the rows are grouped into batches
+     * of <code>batchSize</code> rows, which are handed out round-robin to <code>numWriters</code> threads. Each writer
+     * inserts its batches via its own pooled connection within a single transaction. The transactions are committed
+     * once all rows have been written, one after the other. Note that the writes are therefore not atomic: if one of
+     * these commits fails, the remaining transactions are rolled back but the ones committed before remain, i.e. the
+     * table is partially written (which is reported in the thrown exception).
+     * <ul>
+     * <li>If <code>failOnError</code> is set, the first error (or a cancellation) stops all writers and all
+     * transactions are rolled back, i.e. no rows are added unless one of the final commits fails.</li>
+     * <li>Otherwise failing batches are skipped and counted as in the sequential mode. Since some databases refuse any
+     * further commands in a failed transaction, the writer's transaction is committed after each error.</li>
+     * </ul>
+     * The number of writers is limited by the connection pool size; if pooling is disabled (see
+     * {@link CachedConnectionFactory#isPoolingEnabled()}) the data is written sequentially.
+     * @since 3.8
+     */
+    @SuppressWarnings("deprecation")
+    @Override
+    public String writeData(final String table, final RowInput input, final long rowCount, final boolean appendData,
+        final ExecutionMonitor exec, final Map<String, String> sqlTypes, final CredentialsProvider cp,
+        final int batchSize, final boolean insertNullForMissingCols, final boolean failOnError, final int numWriters)
+        throws Exception {
+        final DatabaseConnectionSettings conSettings = getDatabaseConnectionSettings();
+        final int writerCount = Math.min(numWriters, CachedConnectionFactory.getPoolSize());
+        if (writerCount <= 1
+            || !(conSettings.getUtility().getConnectionFactory() instanceof CachedConnectionFactory)) {
+            if (numWriters > 1) {
+                LOGGER.info("Concurrent writes require a connection pool (set \""
+                    + KNIMEConstants.PROPERTY_DATABASE_POOL_SIZE + "\" to a value greater than 1), "
+                    + "writing data sequentially");
+            }
+            return writeData(table, input, rowCount, appendData, exec, sqlTypes, cp, batchSize,
+                insertNullForMissingCols, failOnError);
+        }
+        exec.setMessage("Start writing rows in database...");
+        final DataTableSpec spec = input.getDataTableSpec();
+        final InsertSetup setup =
+            conSettings.execute(cp, conn -> prepareTable(conn, table, spec, appendData, sqlTypes,
+                insertNullForMissingCols));
+        final ParallelWriteState state = new ParallelWriteState(writerCount, exec);
+        final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(writerCount);
+        final List<BlockingQueue<List<DataRow>>> queues = new ArrayList<>(writerCount);
+        final List<Future<Void>> writers = new ArrayList<>(writerCount);
+        for (int i = 0; i < writerCount; i++) {
+            final BlockingQueue<List<DataRow>> queue = new ArrayBlockingQueue<>(2);
+            queues.add(queue);
+            final AtomicBoolean done = new AtomicBoolean();
+            writers.add(pool.enqueue(() -> {
+                try {
+                    return conSettings.execute(cp, conn -> writeBatches(conn, queue, spec, setup,
+                        insertNullForMissingCols, failOnError, state, done));
+                } catch (Exception ex) {
+                    state.fail(ex);
+                    throw ex;
+                } finally {
+                    // in case no connection could be obtained
+                    state.writerDone(done);
+                }
+            }));
+        }
+        final Callable<Long> producer = () -> {
+            final int rowsPerBatch = Math.max(batchSize, 1);
+            long cnt = 0;
+            try {
+                List<DataRow> batch = new ArrayList<>(rowsPerBatch);
+                int writer = 0;
+                DataRow row;
+                while (!state.isAborted() && (row = input.poll()) != null) {
+                    cnt++;
+                    exec.checkCanceled();
+                    if (rowCount > 0) {
+                        exec.setProgress(1.0 * cnt / rowCount, "Row " + "#" + cnt);
+                    } else {
+                        exec.setProgress("Writing Row#" + cnt);
+                    }
+                    batch.add(row);
+                    if (batch.size() == rowsPerBatch) {
+                        state.offer(queues.get(writer), batch);
+                        writer = (writer + 1) % writerCount;
+                        batch = new ArrayList<>(rowsPerBatch);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    state.offer(queues.get(writer), batch);
+                }
+                for (BlockingQueue<List<DataRow>> queue : queues) {
+                    state.offer(queue, END_OF_BATCHES);
+                }
+            } catch (Exception ex) {
+                state.fail(ex);
+            }
+            state.awaitWritersAndDecide();
+            for (Future<Void> f : writers) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    state.fail(ex.getCause() instanceof Exception ? (Exception)ex.getCause() : ex);
+                }
+            }
+            return cnt;
+        };
+        final long cnt;
+        final ThreadPool currentPool = ThreadPool.currentPool();
+        if (currentPool != null) {
+            try {
+                cnt = currentPool.runInvisible(producer);
+            } catch (ExecutionException ex) {
+                throw ex.getCause() instanceof Exception ? (Exception)ex.getCause() : ex;
+            }
+        } else {
+            cnt = producer.call();
+        }
+        if (state.getFailure() != null) {
+            throw state.getFailure();
+        }
+        final long allErrors = state.m_errorCount.get();
+        if (allErrors == 0) {
+            return null;
+        } else {
+            return "Errors \"" + allErrors + "\" writing " + cnt + " rows.";
+        }
+    }
+
+    /** Marks the end of the batches in a writer's queue, compared by identity. */
+    private static final List<DataRow> END_OF_BATCHES = Collections.unmodifiableList(new ArrayList<>(0));
+
+    /**
+     * Inserts the batches of the given queue via the given connection within a single transaction, which is
+     * committed or rolled back once all writers are done.
+     */
+    private Void writeBatches(final Connection conn, final BlockingQueue<List<DataRow>> queue,
+        final DataTableSpec spec, final InsertSetup setup, final boolean insertNullForMissingCols,
+        final boolean failOnError, final ParallelWriteState state, final AtomicBoolean done) throws Exception {
+        final boolean autoCommit = conn.getAutoCommit();
+        DatabaseConnectionSettings.setAutoCommit(conn, false);
+        try (PreparedStatement stmt = conn.prepareStatement(setup.m_insertStatement)) {
+            final TimeZone timezone = getDatabaseConnectionSettings().getTimeZone();
+            try {
+                while (!state.isAborted()) {
+                    final List<DataRow> batch = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (batch == END_OF_BATCHES) {
+                        break;
+                    } else if (batch == null) {
+                        continue;
+                    }
+                    try {
+                        for (final DataRow row : batch) {
+                            bindRow(stmt, row, spec, setup, insertNullForMissingCols, timezone);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    } catch (Exception ex) {
+                        final String errorMsg = "Error while adding " + batch.size() + " rows starting with row \""
+                            + batch.get(0).getKey() + "\", reason: " + ex.getMessage();
+                        if (failOnError) {
+                            state.fail(new Exception(errorMsg, ex));
+                        } else {
+                            // Postgres will refuse any more commands in this transaction after errors
+                            if (!conn.getAutoCommit()) {
+                                conn.commit();
+                            }
+                            state.reportError(errorMsg, ex);
+                        }
+                    } finally {
+                        stmt.clearBatch();
+                    }
+                }
+            } catch (Exception ex) {
+                state.fail(ex);
+                throw ex;
+            } finally {
+                state.writerDone(done);
+            }
+            state.completeTransaction(conn);
+            return null;
+        } finally {
+            DatabaseConnectionSettings.setAutoCommit(conn, autoCommit);
+        }
+    }
+
+    /**
+     * State shared by the producer and the writers of a concurrent write: the first failure, the number of errors
+     * and the commit decision, which is made once all writers are done. The transactions of the writers are committed
+     * one at a time; once a commit fails, all transactions not committed yet are rolled back. Transactions committed
+     * before can't be undone, i.e. the table is only partially written in that case, which is reported in the
+     * failure.
+     */
+    static final class ParallelWriteState {
+        private final int m_writerCount;
+
+        private final ExecutionMonitor m_exec;
+
+        private final CountDownLatch m_writersDone;
+
+        private final CountDownLatch m_decided = new CountDownLatch(1);
+
+        private final AtomicLong m_errorCount = new AtomicLong();
+
+        private volatile Exception m_failure;
+
+        private volatile boolean m_commit;
+
+        /** Number of committed transactions, guarded by 'this'. */
+        private int m_commitCount;
+
+        /** Whether a commit has failed, guarded by 'this'. */
+        private boolean m_isCommitFailed;
+
+        ParallelWriteState(final int writerCount, final ExecutionMonitor exec) {
+            m_writerCount = writerCount;
+            m_writersDone = new CountDownLatch(writerCount);
+            m_exec = exec;
+        }
+
+        /** @return the first failure or <code>null</code> if none occurred */
+        Exception getFailure() {
+            return m_failure;
+        }
+
+        boolean isAborted() {
+            return m_failure != null;
+        }
+
+        /** Records the first failure, which stops all writers and rolls back their transactions. */
+        synchronized void fail(final Exception ex) {
+            if (m_failure == null) {
+                m_failure = ex;
+            }
+        }
+
+        private void reportError(final String errorMsg, final Exception ex) {
+            final long errorCnt = m_errorCount.incrementAndGet();
+            m_exec.setMessage(errorMsg);
+            if (errorCnt <= 10) {
+                LOGGER.warn(errorMsg);
+            } else if (errorCnt == 11) {
+                LOGGER.warn(errorMsg + " - more errors...", ex);
+            }
+        }
+
+        /** Hands the batch to a writer, gives up if writing has been aborted. */
+        private void offer(final BlockingQueue<List<DataRow>> queue, final List<DataRow> batch)
+            throws InterruptedException, CanceledExecutionException {
+            while (!isAborted() && !queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                m_exec.checkCanceled();
+            }
+        }
+
+        /** Called when a writer has written all its batches, calls after the first one are ignored. */
+        void writerDone(final AtomicBoolean done) {
+            if (done.compareAndSet(false, true)) {
+                m_writersDone.countDown();
+            }
+        }
+
+        /** Waits until all writers are done and decides whether their transactions are committed. */
+        void awaitWritersAndDecide() throws InterruptedException {
+            try {
+                while (!m_writersDone.await(100, TimeUnit.MILLISECONDS)) {
+                    try {
+                        m_exec.checkCanceled();
+                    } catch (CanceledExecutionException ex) {
+                        fail(ex);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                fail(ex);
+                throw ex;
+            } finally {
+                m_commit = !isAborted();
+                m_decided.countDown();
+            }
+        }
+
+        /**
+         * Waits for the commit decision and commits or rolls back the transaction of the given connection
+         * accordingly. Commits are made one at a time; the transaction is rolled back if a previous commit failed.
+         */
+        void completeTransaction(final Connection conn) throws InterruptedException, SQLException {
+            m_decided.await();
+            synchronized (this) {
+                if (m_commit && !m_isCommitFailed) {
+                    try {
+                        if (!conn.getAutoCommit()) {
+                            conn.commit();
+                        }
+                        m_commitCount++;
+                        return;
+                    } catch (SQLException ex) {
+                        m_isCommitFailed = true;
+                        final String msg = m_commitCount == 0 ? "Commit failed, no rows have been written: "
+                            : ("Commit failed after " + m_commitCount + " of " + m_writerCount
+                                + " concurrent transactions had been committed, the table is only partially written: ");
+                        fail(new SQLException(msg + ex.getMessage(), ex));
+                    }
+                }
+            }
+            try {
+                conn.rollback();
+                LOGGER.debug("Rollback complete transaction of concurrent writer");
+            } catch (Throwable ex) {
+                LOGGER.info("Failed rollback of concurrent writer. Rollback error: " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Holds the column mapping and insert statement determined by
+     * {@link DBWriterImpl#prepareTable(Connection, String, DataTableSpec, boolean, Map, boolean)}.
+     */
+    private static final class InsertSetup {
+        /** Mapping from database columns to spec columns, -1 for database columns not in the spec. */
+        private final int[] m_mapping;
+
+        private final String m_insertStatement;
+
+        /** SQL types of the database columns, only set if the spec contains generic DataValue columns. */
+        private final Map<Integer, Integer> m_columnTypes;
+
+        private InsertSetup(final int[] mapping, final String insertStatement,
+            final Map<Integer, Integer> columnTypes) {
+            m_mapping = mapping;
+            m_insertStatement = insertStatement;
+            m_columnTypes = columnTypes;
+        }
+    }
+
+    /**
+     * Creates the table if necessary (or drops and recreates it if data isn't appended) and determines the column
+     * mapping and the insert statement.
+     */
+    private InsertSetup prepareTable(final Connection conn, final String table, final DataTableSpec spec,
+        final boolean appendData, final Map<String, String> sqlTypes, final boolean insertNullForMissingCols)
+        throws SQLException {
+        final DatabaseConnectionSettings conSettings = getDatabaseConnectionSettings();
+        final StringBuilder columnNamesForInsertStatement = new StringBuilder("(");
+
+        // mapping from spec columns to database columns
+        final int[] mapping;
+        // append data to existing table
+        if (appendData) {
+            if (conSettings.getUtility().tableExists(conn, table)) {
+                String query =
+                    conSettings.getUtility().getStatementManipulator().forMetadataOnly("SELECT * FROM " + table);
+                try (ResultSet rs = conn.createStatement().executeQuery(query)) {
+                    ResultSetMetaData rsmd = rs.getMetaData();
+                    final Map<String, Integer> columnNames =
+                            new LinkedHashMap<String, Integer>();
+                    for (int i = 0; i < spec.getNumColumns(); i++) {
+                        String colName = replaceColumnName(spec.getColumnSpec(i).getName());
+                        columnNames.put(colName.toLowerCase(), i);
+                    }
+
+                    // sanity check to lock if all input columns are in db
+                    ArrayList<String> columnNotInSpec = new ArrayList<String>(
+                            columnNames.keySet());
+                    for (int i = 0; i < rsmd.getColumnCount(); i++) {
+                        String dbColName = replaceColumnName(rsmd.getColumnName(i + 1));
+                        if (columnNames.containsKey(dbColName.toLowerCase())) {
+                            columnNotInSpec.remove(dbColName.toLowerCase());
+                            columnNamesForInsertStatement.append(dbColName).append(',');
+                        } else if (insertNullForMissingCols) {
+                            //append the column name of a missing column only if the insert null for missing
+                            //column option is enabled
+                            columnNamesForInsertStatement.append(dbColName).append(',');
+                        }
+                    }
+                    if (rsmd.getColumnCount() > 0) {
+                        columnNamesForInsertStatement.deleteCharAt(columnNamesForInsertStatement.length() - 1);
+                    }
+                    columnNamesForInsertStatement.append(')');
+
+                    if (columnNotInSpec.size() > 0) {
+                        throw new RuntimeException("No. of columns in input"
+                                + " table > in database; not existing columns: "
+                                + columnNotInSpec.toString());
+                    }
+                    mapping = new int[rsmd.getColumnCount()];
+                    for (int i = 0; i < mapping.length; i++) {
+                        String name = replaceColumnName(rsmd.getColumnName(i + 1)).toLowerCase();
+                        if (!columnNames.containsKey(name)) {
+                            mapping[i] = -1;
+                            continue;
+                        }
+                        mapping[i] = columnNames.get(name);
+                        DataColumnSpec cspec = spec.getColumnSpec(mapping[i]);
+                        int type = rsmd.getColumnType(i + 1);
+                        switch (type) {
+                            // check all boolean compatible types
+                            case Types.BIT:
+                            case Types.BOOLEAN:
+                                // types must be compatible to BooleanValue
+                                if (!cspec.getType().isCompatible(BooleanValue.class)) {
+                                    throw new RuntimeException("Column \"" + name
+                                        + "\" of type \"" + cspec.getType()
+                                        + "\" from input does not match type "
+                                        + "\"" + rsmd.getColumnTypeName(i + 1)
+                                        + "\" in database at position " + i);
+                                }
+                                break;
+                                // check all int compatible types
+                            case Types.TINYINT:
+                            case Types.SMALLINT:
+                            case Types.INTEGER:
+                                // types must be compatible to IntValue
+                                if (!cspec.getType().isCompatible(IntValue.class)) {
+                                    throw new RuntimeException("Column \"" + name
+                                        + "\" of type \"" + cspec.getType()
+                                        + "\" from input does not match type "
+                                        + "\"" + rsmd.getColumnTypeName(i + 1)
+                                        + "\" in database at position " + i);
+                                }
+                                break;
+                            case Types.BIGINT:
+                                // types must also be compatible to LongValue
+                                if (!cspec.getType().isCompatible(LongValue.class)) {
+                                    throw new RuntimeException("Column \"" + name
+                                        + "\" of type \"" + cspec.getType()
+                                        + "\" from input does not match type "
+                                        + "\"" + rsmd.getColumnTypeName(i + 1)
+                                        + "\" in database at position " + i);
+                                }
+                                break;
+                                // check all double compatible types
+                            case Types.FLOAT:
+                            case Types.DOUBLE:
+                            case Types.NUMERIC:
+                            case Types.DECIMAL:
+                            case Types.REAL:
+                                // types must also be compatible to DoubleValue
+                                if (!cspec.getType().isCompatible(DoubleValue.class)) {
+                                    throw new RuntimeException("Column \"" + name
+                                        + "\" of type \"" + cspec.getType()
+                                        + "\" from input does not match type "
+                                        + "\"" + rsmd.getColumnTypeName(i + 1)
+                                        + "\" in database at position " + i);
+                                }
+                                break;
+                                // check for date-and-time compatible types
+                            case Types.DATE:
+                            case Types.TIME:
+                            case Types.TIMESTAMP:
+                                // types must also be compatible to DataValue
+                                if (!cspec.getType().isCompatible(DateAndTimeValue.class)) {
+                                    throw new RuntimeException("Column \"" + name
+                                        + "\" of type \"" + cspec.getType()
+                                        + "\" from input does not match type "
+                                        + "\"" + rsmd.getColumnTypeName(i + 1)
+                                        + "\" in database at position " + i);
+                                }
+                                break;
+                                // check for blob compatible types
+                            case Types.BLOB:
+                            case Types.BINARY:
+                            case Types.LONGVARBINARY:
+                                // types must also be compatible to DataValue
+                                if (!cspec.getType().isCompatible(BinaryObjectDataValue.class)) {
+                                    throw new RuntimeException("Column \"" + name
+                                        + "\" of type \"" + cspec.getType()
+                                        + "\" from input does not match type "
+                                        + "\"" + rsmd.getColumnTypeName(i + 1)
+                                        + "\" in database at position " + i);
+                                }
+                                break;
+                                // all other cases are defined as StringValue types
+                        }
+                    }
+                }
+            } else {
+                LOGGER.info("Table \"" + table
+                    + "\" does not exist in database, "
+                    + "will create new table.");
+                // and create new table
+                final String query =
+                        "CREATE TABLE " + table + " "
+                                + createTableStmt(spec, sqlTypes, columnNamesForInsertStatement);
+                LOGGER.debug("Executing SQL statement as execute: " + query);
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute(query);
+                }
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
+                mapping = new int[spec.getNumColumns()];
+                for (int k = 0; k < mapping.length; k++) {
+                    mapping[k] = k;
+                }
+            }
+        } else {
+            LOGGER.debug("Append not enabled. Table " + table + " will be dropped if exists.");
+            mapping = new int[spec.getNumColumns()];
+            for (int k = 0; k < mapping.length; k++) {
+                mapping[k] = k;
+            }
+            Statement statement = null;
+            try {
+                statement = conn.createStatement();
+                // remove existing table (if any)
+                final String query = "DROP TABLE " + table;
+                LOGGER.debug("Executing SQL statement as execute: " + query);
+                statement.execute(query);
+            } catch (Throwable t) {
+                if (statement == null) {
+                    throw new SQLException("Could not create SQL statement,"
+                        + " reason: " + t.getMessage(), t);
+                }
+                LOGGER.info("Exception droping table \"" + table + "\": " + t.getMessage()
+                    + ". Will create new table.");
+            } finally {
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
+            }
+            // and create new table
+            final String query =
+                "CREATE TABLE " + table + " " + createTableStmt(spec, sqlTypes, columnNamesForInsertStatement);
+            LOGGER.debug("Executing SQL statement as execute: " + query);
+            statement.execute(query);
+            statement.close();
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+        }
+
+        // this is a (temporary) workaround for bug #5802: if there is a DataValue column in the input table
+        // we need to use the SQL type for creating the insert statements.
+        Map<Integer, Integer> columnTypes = null;
+        for (DataColumnSpec cs : spec) {
+            if (cs.getType().getPreferredValueClass() == DataValue.class) {
+                columnTypes = getColumnTypes(conn, table);
+                break;
+            }
+        }
+
+        return new InsertSetup(mapping, createInsertStatment(table, columnNamesForInsertStatement.toString(),
+            mapping, insertNullForMissingCols), columnTypes);
+    }
+
+    /**
+     * Sets the parameters of the insert statement to the values of the given row.
+     */
+    private void bindRow(final PreparedStatement stmt, final DataRow row, final DataTableSpec spec,
+        final InsertSetup setup, final boolean insertNullForMissingCols, final TimeZone timezone)
+        throws SQLException {
+        final int[] mapping = setup.m_mapping;
+        int dbIdx = 1;
+        for (int i = 0; i < mapping.length; i++) {
+            if (mapping[i] < 0) {
+                if (insertNullForMissingCols) {
+                    //insert only null if the insert null for missing col option is enabled
+                    stmt.setNull(dbIdx++, Types.NULL);
+                }
+            } else {
+                final DataColumnSpec cspec = spec.getColumnSpec(mapping[i]);
+                final DataCell cell = row.getCell(mapping[i]);
+                fillStatement(stmt, dbIdx++, cspec, cell, timezone, setup.m_columnTypes);
+            }
+        }
+    }
+
+
     /** Create connection to update table in database.
      * @param data The data to write.
      * @param setColumns columns part of the SET clause
@@ -103,6 +103,78 @@ public Set<RowKey> keySet() {
         return Collections.unmodifiableSet(m_map.keySet());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If all mapped sets are {@link RowKeySet}s of the same index, they are
+     * combined on their bitmaps and the result is a {@link RowKeySet}.
+     */
+    @Override
+    public Set<RowKey> mapKeys(final Set<RowKey> keys) {
+        RowKeySet.Builder rows = null;
+        RowKeyIndex index = null;
+        Set<RowKey> result = null;
+        for (RowKey key : keys) {
+            final Set<RowKey> s = m_map.get(key);
+            if (s == null || s.isEmpty()) {
+                continue;
+            }
+            if (result == null && s instanceof RowKeySet) {
+                final RowKeySet rowSet = (RowKeySet)s;
+                if (rows == null) {
+                    index = rowSet.getIndex();
+                    rows = RowKeySet.builder(index);
+                }
+                if (rowSet.getIndex() == index) {
+                    rows.addAll(rowSet);
+                    continue;
+                }
+            }
+            if (result == null) {
+                // mixed mapping, fall back to individual keys
+                result = new LinkedHashSet<RowKey>();
+                if (rows != null) {
+                    result.addAll(rows.build());
+                }
+            }
+            result.addAll(s);
+        }
+        if (result != null) {
+            return result;
+        }
+        return rows != null ? rows.build() : Collections.<RowKey>emptySet();
+    }
+
+    /**
+     * Returns a mapper with the same mapping whose mapped key sets are kept
+     * as {@link RowKeySet}s of the given index, so that hilite events can be
+     * translated on bitmaps (see {@link #mapKeys(Set)}). Mapped sets
+     * containing keys that are not part of the index are kept as they are.
+     *
+     * @param targetIndex the index of the table the mapped keys belong to
+     * @return a new mapper
+     * @since 3.8
+     */
+    public DefaultHiLiteMapper compact(final RowKeyIndex targetIndex) {
+        final Map<RowKey, Set<RowKey>> map =
+                new LinkedHashMap<RowKey, Set<RowKey>>();
+        for (Map.Entry<RowKey, Set<RowKey>> e : m_map.entrySet()) {
+            final Set<RowKey> mappedKeys = e.getValue();
+            boolean indexed = mappedKeys != null;
+            if (indexed) {
+                for (RowKey k : mappedKeys) {
+                    if (targetIndex.indexOf(k) < 0) {
+                        indexed = false;
+                        break;
+                    }
+                }
+            }
+            map.put(e.getKey(), indexed
+                ? RowKeySet.create(targetIndex, mappedKeys) : mappedKeys);
+        }
+        return new DefaultHiLiteMapper(map);
+    }
+
 
     private static final String CFG_MAPPED_KEYS = "CFG_MAPPED_KEYS";
 
@@ -123,7 +195,8 @@ public void save(final ConfigWO config) {
     }
 
     /** Restores the mapper from the config object that has been written using
-     * the save method.
+     * the save method. The mapped key sets are restored as {@link RowKeySet}s
+     * of an index over all mapped keys (see {@link #compact(RowKeyIndex)}).
      * @param config To read from
      * @return A new mapper based on the settings.
      * @throws InvalidSettingsException If that fails.
@@ -158,6 +231,11 @@ public static DefaultHiLiteMapper load(final ConfigRO config)
             }
             mapping.put(new RowKey(cellKey), keySet);
         }
-        return new DefaultHiLiteMapper(mapping);
+        final Set<RowKey> allMappedKeys = new LinkedHashSet<RowKey>();
+        for (Set<RowKey> mappedKeys : mapping.values()) {
+            allMappedKeys.addAll(mappedKeys);
+        }
+        return new DefaultHiLiteMapper(mapping).compact(
+                RowKeyIndex.create(allMappedKeys));
     }
 }
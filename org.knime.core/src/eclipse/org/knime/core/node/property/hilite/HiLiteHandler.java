@@ -45,6 +45,7 @@
 package org.knime.core.node.property.hilite;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -63,6 +64,11 @@
  * The list of hilite keys is modified (delete or add keys) before the actual
  * event is send.
  * <p>
+ * Events carrying a {@link RowKeySet} are processed on the bitmaps of the
+ * sets: the hilit keys of the most recently used {@link RowKeyIndex} are kept
+ * as {@link RowKeySet} as well and the listeners are notified with a
+ * {@link RowKeySet} of the changed keys.
+ * <p>
  * Do NOT derive this class which intended to be final but can't due to the
  * historical <code>DefaultHiLiteHandler</code> class.
  *
@@ -101,8 +107,11 @@ public class HiLiteHandler {
     /** List of registered <code>HiLiteListener</code>s to fire event to. */
     private final CopyOnWriteArrayList<HiLiteListener> m_listenerList;
 
-    /** Set of non-<code>null</code> hilit items. */
-    private Set<RowKey> m_hiLitKeys;
+    /**
+     * The hilit items, replaced as a whole (under the lock of this handler) whenever they change so that readers
+     * always see a consistent state without locking.
+     */
+    private volatile HiLitState m_hiLitState;
 
     /** Not-null if this {@link HiLiteHandler} is associated with one or more {@link HiLiteTranslator}s */
     private Set<HiLiteTranslator> m_hiliteTranslators;
@@ -118,7 +127,7 @@ public HiLiteHandler() {
         m_hiliteHandlerID = UUID.randomUUID();
         m_listenerList = new CopyOnWriteArrayList<>();
         // initialize item list
-        m_hiLitKeys = new LinkedHashSet<>();
+        m_hiLitState = HiLitState.EMPTY;
         m_hiliteTranslators = new LinkedHashSet<>();
         m_hiliteManagers = new LinkedHashSet<>();
     }
@@ -252,7 +261,10 @@ public boolean isHiLit(final RowKey... ids) {
                 throw new IllegalArgumentException(
                         "Key array must not contain null elements.");
             }
-            if (!m_hiLitKeys.contains(c)) {
+        }
+        final HiLitState state = m_hiLitState;
+        for (final RowKey c : ids) {
+            if (!state.contains(c)) {
                 return false;
             }
         }
@@ -324,7 +336,7 @@ public synchronized void fireUnHiLiteEvent(final Set<RowKey> ids) {
      * by this call.
      */
     public synchronized void fireClearHiLiteEvent() {
-        if (!m_hiLitKeys.isEmpty()) {
+        if (hasHiLitKeys()) {
             fireClearHiLiteEvent(new KeyEvent(this));
         }
     }
@@ -352,8 +364,6 @@ public synchronized void fireHiLiteEvent(final KeyEvent event) {
             throw new NullPointerException("KeyEvent must not be null");
         }
 
-        Set<RowKey> newHilitKeys = new LinkedHashSet<RowKey>(m_hiLitKeys);
-
         /*
          * Do not change this implementation, unless you are aware of the
          * following problem:
@@ -371,23 +381,48 @@ public synchronized void fireHiLiteEvent(final KeyEvent event) {
         if (ids.isEmpty()) {
             return;
         }
-        // create list of row keys from input key array
-        final Set<RowKey> changedIDs = new LinkedHashSet<RowKey>();
-        // iterates over all keys and adds them to the changed set
-        for (final RowKey id : ids) {
-            if (id == null) {
-                throw new IllegalArgumentException(
-                        "Key array must not contains null elements.");
-            }
-            // if the key is already hilit, do not add it
-            if (newHilitKeys.add(id)) {
+        final Set<RowKey> changedIDs;
+        if (ids instanceof RowKeySet) {
+            final RowKeySet rowIDs = (RowKeySet)ids;
+            final HiLitState state = m_hiLitState.withIndex(rowIDs.getIndex());
+            final RowKeySet changedRows = rowIDs.difference(state.m_rows);
+            m_hiLitState = new HiLitState(state.m_keys, state.m_rows.union(changedRows));
+            changedIDs = changedRows;
+        } else {
+            final HiLitState state = m_hiLitState;
+            final Set<RowKey> newHilitKeys = new LinkedHashSet<RowKey>(state.m_keys);
+            final RowKeySet hilitRows = state.m_rows;
+            RowKeySet.Builder addedRows = null;
+            // create list of row keys from input key array
+            changedIDs = new LinkedHashSet<RowKey>();
+            // iterates over all keys and adds them to the changed set
+            for (final RowKey id : ids) {
+                if (id == null) {
+                    throw new IllegalArgumentException(
+                            "Key array must not contains null elements.");
+                }
+                // if the key is already hilit, do not add it
+                if (state.contains(id)) {
+                    continue;
+                }
                 changedIDs.add(id);
+                // keys of the current index always go into its bitmap
+                final int rowIndex = hilitRows == null ? -1 : hilitRows.getIndex().indexOf(id);
+                if (rowIndex >= 0) {
+                    if (addedRows == null) {
+                        addedRows = RowKeySet.builder(hilitRows.getIndex());
+                    }
+                    addedRows.add(rowIndex);
+                } else {
+                    newHilitKeys.add(id);
+                }
             }
+            m_hiLitState = new HiLitState(newHilitKeys,
+                addedRows == null ? hilitRows : hilitRows.union(addedRows.build()));
         }
 
         // if at least on key changed
         if (!changedIDs.isEmpty()) {
-            m_hiLitKeys = newHilitKeys;
             final KeyEvent fireEvent =
                 new KeyEvent(event.getSource(), changedIDs);
             final Runnable r = new Runnable() {
@@ -440,23 +475,41 @@ public synchronized void fireUnHiLiteEvent(final KeyEvent event) {
             return;
         }
 
-        Set<RowKey> newHilitKeys = new LinkedHashSet<RowKey>(m_hiLitKeys);
-
-        // create list of row keys from input key array
-        final Set<RowKey> changedIDs = new LinkedHashSet<RowKey>();
-        // iterate over all keys and removes all not hilit ones
-        for (final RowKey id : ids) {
-            if (id == null) {
-                throw new IllegalArgumentException(
-                        "Key array must not contains null elements.");
-            }
-            if (newHilitKeys.remove(id)) {
-                changedIDs.add(id);
+        final Set<RowKey> changedIDs;
+        if (ids instanceof RowKeySet) {
+            final RowKeySet rowIDs = (RowKeySet)ids;
+            final HiLitState state = m_hiLitState.withIndex(rowIDs.getIndex());
+            final RowKeySet changedRows = rowIDs.intersection(state.m_rows);
+            m_hiLitState = new HiLitState(state.m_keys, state.m_rows.difference(changedRows));
+            changedIDs = changedRows;
+        } else {
+            final HiLitState state = m_hiLitState;
+            final Set<RowKey> newHilitKeys = new LinkedHashSet<RowKey>(state.m_keys);
+            final RowKeySet hilitRows = state.m_rows;
+            RowKeySet.Builder removedRows = null;
+            // create list of row keys from input key array
+            changedIDs = new LinkedHashSet<RowKey>();
+            // iterate over all keys and removes all not hilit ones
+            for (final RowKey id : ids) {
+                if (id == null) {
+                    throw new IllegalArgumentException(
+                            "Key array must not contains null elements.");
+                }
+                if (newHilitKeys.remove(id)) {
+                    changedIDs.add(id);
+                } else if (hilitRows != null && hilitRows.contains(id)
+                        && changedIDs.add(id)) {
+                    if (removedRows == null) {
+                        removedRows = RowKeySet.builder(hilitRows.getIndex());
+                    }
+                    removedRows.add(id);
+                }
             }
+            m_hiLitState = new HiLitState(newHilitKeys,
+                removedRows == null ? hilitRows : hilitRows.difference(removedRows.build()));
         }
         // if at least on key changed
         if (!changedIDs.isEmpty()) {
-            m_hiLitKeys = newHilitKeys;
             // throw unhilite event
             final KeyEvent fireEvent = new KeyEvent(
                     event.getSource(), changedIDs);
@@ -500,8 +553,8 @@ public synchronized void fireClearHiLiteEvent(final KeyEvent event) {
          * Do not change this implementation, see #fireHiLiteEvent for
          * more details.
          */
-        if (!m_hiLitKeys.isEmpty()) {
-            m_hiLitKeys = new LinkedHashSet<RowKey>();
+        if (hasHiLitKeys()) {
+            m_hiLitState = HiLitState.EMPTY;
             final Runnable r = new Runnable() {
                 @Override
                 public void run() {
@@ -526,6 +579,104 @@ public void run() {
      * @see HiLiteHandler#getHiLitKeys()
      */
     public Set<RowKey> getHiLitKeys() {
-        return new LinkedHashSet<RowKey>(m_hiLitKeys);
+        final HiLitState state = m_hiLitState;
+        final Set<RowKey> result = new LinkedHashSet<RowKey>(state.m_keys);
+        if (state.m_rows != null) {
+            result.addAll(state.m_rows);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the hilit keys that are part of the given index, e.g. the
+     * hilit rows of the table shown in a view. Unlike
+     * {@link #getHiLitKeys()} this does not copy the hilit keys if the
+     * previous events referred to the same index.
+     *
+     * @param index the index of the table to get the hilit rows of
+     * @return an immutable set of the hilit keys contained in the index
+     * @since 3.8
+     */
+    public RowKeySet getHiLitKeys(final RowKeyIndex index) {
+        return m_hiLitState.getRows(index);
+    }
+
+    private boolean hasHiLitKeys() {
+        return !m_hiLitState.isEmpty();
+    }
+
+    /**
+     * Immutable state of the hilit keys. The keys of the index last used in
+     * an event with a {@link RowKeySet} are kept as bitmap, all other keys in
+     * a plain set; a key is never contained in both.
+     */
+    private static final class HiLitState {
+
+        static final HiLitState EMPTY =
+                new HiLitState(Collections.<RowKey>emptySet(), null);
+
+        /** Hilit keys not contained in the index of {@link #m_rows}. */
+        private final Set<RowKey> m_keys;
+
+        /** Hilit keys of the current index, or <code>null</code>. */
+        private final RowKeySet m_rows;
+
+        HiLitState(final Set<RowKey> keys, final RowKeySet rows) {
+            m_keys = keys;
+            m_rows = rows;
+        }
+
+        boolean contains(final RowKey key) {
+            return m_keys.contains(key) || (m_rows != null && m_rows.contains(key));
+        }
+
+        boolean isEmpty() {
+            return m_keys.isEmpty() && (m_rows == null || m_rows.isEmpty());
+        }
+
+        /** The hilit keys of the given index, without changing this state. */
+        RowKeySet getRows(final RowKeyIndex index) {
+            if (m_rows != null && m_rows.getIndex() == index) {
+                return m_rows;
+            }
+            final RowKeySet.Builder builder = RowKeySet.builder(index);
+            addKeysOfIndex(m_keys, index, builder, null);
+            if (m_rows != null) {
+                addKeysOfIndex(m_rows, index, builder, null);
+            }
+            return builder.build();
+        }
+
+        /**
+         * Returns the state with the bitmap of the given index. This is
+         * cheap if the index is the current one; otherwise the keys of the
+         * current bitmap are moved into the plain set, and the keys of the
+         * new index out of it.
+         */
+        HiLitState withIndex(final RowKeyIndex index) {
+            if (m_rows != null && m_rows.getIndex() == index) {
+                return this;
+            }
+            final RowKeySet.Builder builder = RowKeySet.builder(index);
+            final Set<RowKey> remainingKeys = new LinkedHashSet<RowKey>();
+            addKeysOfIndex(m_keys, index, builder, remainingKeys);
+            if (m_rows != null) {
+                addKeysOfIndex(m_rows, index, builder, remainingKeys);
+            }
+            return new HiLitState(remainingKeys, builder.build());
+        }
+
+        private static void addKeysOfIndex(final Set<RowKey> keys,
+                final RowKeyIndex index, final RowKeySet.Builder builder,
+                final Set<RowKey> remainingKeys) {
+            for (final RowKey key : keys) {
+                final int rowIndex = index.indexOf(key);
+                if (rowIndex >= 0) {
+                    builder.add(rowIndex);
+                } else if (remainingKeys != null) {
+                    remainingKeys.add(key);
+                }
+            }
+        }
     }
 }
@@ -46,6 +46,7 @@
  */
 package org.knime.core.node.property.hilite;
 
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.knime.core.data.RowKey;
@@ -75,4 +76,26 @@ public interface HiLiteMapper {
      * @return A set of keys to hilite.
      */
     Set<RowKey> keySet();
+
+    /**
+     * Returns the union of the <code>RowKey</code> elements associated by
+     * the specified <b>keys</b>. Implementations that keep their mapping as
+     * {@link RowKeySet}s should return a {@link RowKeySet} as well, so that
+     * it can be propagated without expanding it.
+     *
+     * @param keys the keys to get the mapping for
+     * @return a set of mapped <code>RowKey</code> elements, never
+     *         <code>null</code>
+     * @since 3.8
+     */
+    default Set<RowKey> mapKeys(final Set<RowKey> keys) {
+        final Set<RowKey> result = new LinkedHashSet<RowKey>();
+        for (RowKey key : keys) {
+            final Set<RowKey> s = getKeys(key);
+            if (s != null) {
+                result.addAll(s);
+            }
+        }
+        return result;
+    }
 }
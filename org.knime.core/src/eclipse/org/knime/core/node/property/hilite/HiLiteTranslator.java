@@ -99,13 +99,7 @@ public void hiLite(final KeyEvent event) {
                 return;
             }
             if (m_mapper != null && m_targetHandlers.size() > 0) {
-                Set<RowKey> fireSet = new LinkedHashSet<RowKey>();
-                for (RowKey key : event.keys()) {
-                    Set<RowKey> s = m_mapper.getKeys(key);
-                    if (s != null && !s.isEmpty()) {
-                        fireSet.addAll(s);
-                    }
-                }
+                final Set<RowKey> fireSet = m_mapper.mapKeys(event.keys());
                 if (!fireSet.isEmpty()) {
                     for (HiLiteHandler h : m_targetHandlers) {
                         h.fireHiLiteEvent(new KeyEvent(m_eventSource, fireSet));
@@ -123,13 +117,7 @@ public void unHiLite(final KeyEvent event) {
                 return;
             }
             if (m_mapper != null && m_targetHandlers.size() > 0) {
-                Set<RowKey> fireSet = new LinkedHashSet<RowKey>();
-                for (RowKey key : event.keys()) {
-                    Set<RowKey> s = m_mapper.getKeys(key);
-                    if (s != null && !s.isEmpty()) {
-                        fireSet.addAll(s);
-                    }
-                }
+                final Set<RowKey> fireSet = m_mapper.mapKeys(event.keys());
                 if (!fireSet.isEmpty()) {
                     for (HiLiteHandler h : m_targetHandlers) {
                         h.fireUnHiLiteEvent(
@@ -167,22 +155,19 @@ public void hiLite(final KeyEvent event) {
                 return;
             }
             if (m_mapper != null) {
-                // add all hilite keys from the event and all hilite keys
-                // from the target hilite handlers
-                final Set<RowKey> all = new LinkedHashSet<RowKey>(
-                        event.keys());
-                for (HiLiteHandler hdl : m_targetHandlers) {
-                    all.addAll(hdl.getHiLitKeys());
-                }
+                final Set<RowKey> fireSet = new LinkedHashSet<RowKey>();
                 // check overlap with all mappings
                 for (RowKey key : m_mapper.keySet()) {
                     final Set<RowKey> keys = m_mapper.getKeys(key);
                     // if all mapped keys are hilite then fire event
-                    if (all.containsAll(keys)) {
-                        m_sourceHandler.fireHiLiteEvent(
-                            new KeyEvent(m_eventSource, key));
+                    if (isHiLit(keys, event.keys())) {
+                        fireSet.add(key);
                     }
                 }
+                if (!fireSet.isEmpty()) {
+                    m_sourceHandler.fireHiLiteEvent(
+                        new KeyEvent(m_eventSource, fireSet));
+                }
             }
         }
         /**
@@ -194,18 +179,19 @@ public void unHiLite(final KeyEvent event) {
                 return;
             }
             if (m_mapper != null) {
+                final Set<RowKey> fireSet = new LinkedHashSet<RowKey>();
                 // check all mappings
                 for (RowKey key : m_mapper.keySet()) {
                     final Set<RowKey> keys = m_mapper.getKeys(key);
                     // if at least one item is unhilite then fire event
-                    for (RowKey hilite : event.keys()) {
-                        if (keys.contains(hilite)) {
-                            m_sourceHandler.fireUnHiLiteEvent(
-                                new KeyEvent(m_eventSource, key));
-                            break;
-                        }
+                    if (intersects(keys, event.keys())) {
+                        fireSet.add(key);
                     }
                 }
+                if (!fireSet.isEmpty()) {
+                    m_sourceHandler.fireUnHiLiteEvent(
+                        new KeyEvent(m_eventSource, fireSet));
+                }
             }
         }
         /**
@@ -220,6 +206,50 @@ public void unHiLiteAll(final KeyEvent event) {
         }
     };
 
+    /**
+     * Returns whether all mapped keys are either contained in the event keys
+     * or hilit in one of the target handlers.
+     */
+    private boolean isHiLit(final Set<RowKey> mappedKeys,
+            final Set<RowKey> eventKeys) {
+        if (eventKeys instanceof RowKeySet
+                && ((RowKeySet)eventKeys).containsAll(mappedKeys)) {
+            return true;
+        }
+        for (RowKey k : mappedKeys) {
+            if (!eventKeys.contains(k) && !isHiLitInTarget(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isHiLitInTarget(final RowKey key) {
+        for (HiLiteHandler hdl : m_targetHandlers) {
+            if (hdl.isHiLit(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns whether the two sets have at least one key in common. */
+    private static boolean intersects(final Set<RowKey> s1,
+            final Set<RowKey> s2) {
+        if (s1 instanceof RowKeySet && ((RowKeySet)s1).isCompatible(s2)) {
+            return !((RowKeySet)s1).intersection((RowKeySet)s2).isEmpty();
+        }
+        // iterate the smaller set, look up in the larger one
+        final Set<RowKey> small = s1.size() <= s2.size() ? s1 : s2;
+        final Set<RowKey> large = small == s1 ? s2 : s1;
+        for (RowKey k : small) {
+            if (large.contains(k)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates a translator with an empty mapping and a default hilite
      * handler.
@@ -57,6 +57,10 @@
  * Event object that is fired when registered listener need to update its
  * properties. An event keeps an unmodifiable set of row keys as
  * {@link RowKey}.
+ * <p>
+ * If the event is created with a {@link RowKeySet}, that (immutable) set is
+ * kept as is and returned by {@link #keys()}, so that large selections can be
+ * passed on without expanding them into individual row keys.
  *
  * @see HiLiteHandler
  *
@@ -105,6 +109,11 @@ public KeyEvent(final Object src, final RowKey... ids) {
      */
     public KeyEvent(final Object src, final Set<RowKey> ids) {
         super(src);
+        if (ids instanceof RowKeySet) {
+            // immutable and never contains null
+            m_keys = ids;
+            return;
+        }
         if (ids.contains(null)) {
             throw new IllegalArgumentException(
                     "KeyEvent must not contains null elements.");
@@ -114,7 +123,8 @@ public KeyEvent(final Object src, final Set<RowKey> ids) {
 
     /**
      * Returns the set of <code>RowKey</code> row keys on which the event
-     * initially occurred.
+     * initially occurred. This is a {@link RowKeySet} if the event was created
+     * with one.
      *
      * @return a set of row IDs
      */
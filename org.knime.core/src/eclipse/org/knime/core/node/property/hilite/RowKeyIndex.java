@@ -0,0 +1,197 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.property.hilite;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.container.CloseableRowIterator;
+
+/**
+ * An immutable, bidirectional mapping between the row keys of a table and their row indices (the position of the row
+ * in the table). It is the common reference of all {@link RowKeySet}s created for that table; these sets store the
+ * row indices only and can therefore be combined without looking at the row keys at all.
+ * <p>
+ * The index is usually created once per table (e.g. by the view or node model that owns the hilite handler) and
+ * shared by all hilite events referring to rows of that table.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ */
+public final class RowKeyIndex {
+
+    /* the largest number of keys, limited by the size of the open addressing table */
+    private static final int MAX_SIZE = 1 << 29;
+
+    /** The row keys in table order. */
+    private final RowKey[] m_keys;
+
+    /** Open addressing hash table, holding row index + 1 for each used slot and 0 for free slots. */
+    private final int[] m_table;
+
+    private final int m_mask;
+
+    private RowKeyIndex(final RowKey[] keys) {
+        if (keys.length > MAX_SIZE) {
+            throw new IllegalArgumentException("Can't index more than " + MAX_SIZE + " row keys");
+        }
+        m_keys = keys;
+        int capacity = 16;
+        while (capacity < 2 * keys.length) {
+            capacity <<= 1;
+        }
+        m_table = new int[capacity];
+        m_mask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            final RowKey key = keys[i];
+            if (key == null) {
+                throw new IllegalArgumentException("Row key at index " + i + " must not be null");
+            }
+            int slot = hash(key) & m_mask;
+            while (m_table[slot] != 0) {
+                if (m_keys[m_table[slot] - 1].equals(key)) {
+                    throw new IllegalArgumentException("Duplicate row key \"" + key + "\" at index " + i);
+                }
+                slot = (slot + 1) & m_mask;
+            }
+            m_table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Creates an index of the row keys of the given table. The table is iterated once.
+     *
+     * @param table the table to index
+     * @return a new index
+     * @throws IllegalArgumentException if the table contains duplicate row keys or too many rows
+     */
+    public static RowKeyIndex create(final DataTable table) {
+        final ArrayList<RowKey> keys = new ArrayList<>();
+        final RowIterator it = table.iterator();
+        try {
+            while (it.hasNext()) {
+                final DataRow row = it.next();
+                keys.add(row.getKey());
+            }
+        } finally {
+            if (it instanceof CloseableRowIterator) {
+                ((CloseableRowIterator)it).close();
+            }
+        }
+        return create(keys);
+    }
+
+    /**
+     * Creates an index of the given row keys. The row index of each key is its position in the iteration order of the
+     * collection.
+     *
+     * @param keys the keys to index
+     * @return a new index
+     * @throws IllegalArgumentException if the collection contains <code>null</code>, duplicates, or too many keys
+     */
+    public static RowKeyIndex create(final Collection<RowKey> keys) {
+        return new RowKeyIndex(keys.toArray(new RowKey[keys.size()]));
+    }
+
+    /**
+     * @return the number of indexed row keys
+     */
+    public int size() {
+        return m_keys.length;
+    }
+
+    /**
+     * Returns the row key at the given row index.
+     *
+     * @param rowIndex the row index, 0 &lt;= rowIndex &lt; {@link #size()}
+     * @return the row key, never <code>null</code>
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public RowKey getKey(final int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= m_keys.length) {
+            throw new IndexOutOfBoundsException("Row index " + rowIndex + " out of range [0, " + m_keys.length + ")");
+        }
+        return m_keys[rowIndex];
+    }
+
+    /**
+     * Returns the row index of the given row key.
+     *
+     * @param key the key to look up, may be <code>null</code>
+     * @return the row index or -1 if the key is not part of this index
+     */
+    public int indexOf(final RowKey key) {
+        if (key == null) {
+            return -1;
+        }
+        int slot = hash(key) & m_mask;
+        int entry;
+        while ((entry = m_table[slot]) != 0) {
+            if (m_keys[entry - 1].equals(key)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & m_mask;
+        }
+        return -1;
+    }
+
+    private static int hash(final RowKey key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "RowKeyIndex[" + m_keys.length + " keys]";
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.property.hilite;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.knime.core.data.RowKey;
+import org.knime.core.data.vector.bitvector.CompressedBitVector;
+
+/**
+ * An immutable set of row keys that stores the row indices of the keys with respect to a {@link RowKeyIndex} in a
+ * compressed bitmap. Hiliting a large selection thereby costs a few bits per row instead of a hash set entry, and two
+ * sets referring to the same index are combined chunk by chunk on the bitmaps (see {@link #union(RowKeySet)},
+ * {@link #intersection(RowKeySet)}, {@link #difference(RowKeySet)}).
+ * <p>
+ * Instances can be passed to {@link KeyEvent}, {@link HiLiteHandler} and {@link HiLiteMapper} anywhere a
+ * <code>Set&lt;RowKey&gt;</code> is expected. These classes recognize them and propagate them without expanding
+ * them into individual row keys, as long as all sets involved refer to the same index instance. The set iterates its
+ * keys in the order of the index.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ */
+public final class RowKeySet extends AbstractSet<RowKey> {
+
+    private final RowKeyIndex m_index;
+
+    private final CompressedBitVector m_bits;
+
+    private final int m_size;
+
+    private RowKeySet(final RowKeyIndex index, final CompressedBitVector bits) {
+        m_index = index;
+        m_bits = bits;
+        m_size = (int)bits.cardinality();
+    }
+
+    /**
+     * Creates an empty set referring to the given index.
+     *
+     * @param index the index of the table the keys belong to
+     * @return a new empty set
+     */
+    public static RowKeySet empty(final RowKeyIndex index) {
+        return new RowKeySet(index, new CompressedBitVector(index.size()));
+    }
+
+    /**
+     * Creates a set containing all keys of the given index.
+     *
+     * @param index the index of the table the keys belong to
+     * @return a new set containing all rows of the table
+     */
+    public static RowKeySet all(final RowKeyIndex index) {
+        return builder(index).addRange(0, index.size()).build();
+    }
+
+    /**
+     * Creates a set of the given keys.
+     *
+     * @param index the index of the table the keys belong to
+     * @param keys the keys to add
+     * @return a new set
+     * @throws IllegalArgumentException if one of the keys is not part of the index
+     */
+    public static RowKeySet create(final RowKeyIndex index, final Collection<RowKey> keys) {
+        if (keys instanceof RowKeySet && ((RowKeySet)keys).m_index == index) {
+            return (RowKeySet)keys;
+        }
+        final Builder builder = builder(index);
+        for (RowKey key : keys) {
+            builder.add(key);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a builder for a set referring to the given index.
+     *
+     * @param index the index of the table the keys belong to
+     * @return a new builder
+     */
+    public static Builder builder(final RowKeyIndex index) {
+        return new Builder(index);
+    }
+
+    /**
+     * @return the index of the table the keys of this set belong to
+     */
+    public RowKeyIndex getIndex() {
+        return m_index;
+    }
+
+    /**
+     * Returns whether the given set is a {@link RowKeySet} referring to the same index as this set, i.e. whether the
+     * set operations of this class can be applied on the bitmaps directly.
+     *
+     * @param set the set to test
+     * @return <code>true</code> if the set is compatible to this set
+     */
+    public boolean isCompatible(final Set<RowKey> set) {
+        return set instanceof RowKeySet && ((RowKeySet)set).m_index == m_index;
+    }
+
+    /**
+     * Returns whether the row with the given index is contained in this set.
+     *
+     * @param rowIndex the row index with respect to {@link #getIndex()}
+     * @return <code>true</code> if the row is part of this set
+     */
+    public boolean containsIndex(final int rowIndex) {
+        return rowIndex >= 0 && rowIndex < m_index.size() && m_bits.get(rowIndex);
+    }
+
+    /**
+     * Returns the next row index of this set that is equal to or larger than the given one.
+     *
+     * @param fromIndex the row index to start the search at (inclusive)
+     * @return the next row index in this set or -1 if there is none
+     */
+    public int nextIndex(final int fromIndex) {
+        return (int)m_bits.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Returns the union of this and the argument set.
+     *
+     * @param other a set referring to the same index
+     * @return a new set containing the keys of both sets
+     * @throws IllegalArgumentException if the other set refers to a different index
+     */
+    public RowKeySet union(final RowKeySet other) {
+        checkCompatible(other);
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        return new RowKeySet(m_index, m_bits.or(other.m_bits));
+    }
+
+    /**
+     * Returns the intersection of this and the argument set.
+     *
+     * @param other a set referring to the same index
+     * @return a new set containing the keys that are contained in both sets
+     * @throws IllegalArgumentException if the other set refers to a different index
+     */
+    public RowKeySet intersection(final RowKeySet other) {
+        checkCompatible(other);
+        return new RowKeySet(m_index, m_bits.and(other.m_bits));
+    }
+
+    /**
+     * Returns the keys of this set that are not contained in the argument set.
+     *
+     * @param other a set referring to the same index
+     * @return a new set containing the keys of this set minus the keys of the other set
+     * @throws IllegalArgumentException if the other set refers to a different index
+     */
+    public RowKeySet difference(final RowKeySet other) {
+        checkCompatible(other);
+        if (isEmpty() || other.isEmpty()) {
+            return this;
+        }
+        return new RowKeySet(m_index, m_bits.andNot(other.m_bits));
+    }
+
+    private void checkCompatible(final RowKeySet other) {
+        if (other.m_index != m_index) {
+            throw new IllegalArgumentException("Row key sets refer to different indices");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return m_size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(final Object o) {
+        if (!(o instanceof RowKey)) {
+            return false;
+        }
+        final int rowIndex = m_index.indexOf((RowKey)o);
+        return rowIndex >= 0 && m_bits.get(rowIndex);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsAll(final Collection<?> c) {
+        if (c instanceof RowKeySet && isCompatible((RowKeySet)c)) {
+            return ((RowKeySet)c).difference(this).isEmpty();
+        }
+        return super.containsAll(c);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<RowKey> iterator() {
+        return new Iterator<RowKey>() {
+            private int m_next = nextIndex(0);
+
+            @Override
+            public boolean hasNext() {
+                return m_next >= 0;
+            }
+
+            @Override
+            public RowKey next() {
+                if (m_next < 0) {
+                    throw new NoSuchElementException();
+                }
+                final RowKey key = m_index.getKey(m_next);
+                m_next = nextIndex(m_next + 1);
+                return key;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof RowKeySet && ((RowKeySet)o).m_index == m_index) {
+            return m_bits.equals(((RowKeySet)o).m_bits);
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        // must be consistent with the hash code of other sets, hence the sum of the key hashes
+        return super.hashCode();
+    }
+
+    /**
+     * Builder for {@link RowKeySet}s. Rows can be added by key or (cheaper) by row index.
+     *
+     * @author KNIME AG, Zurich, Switzerland
+     * @since 3.8
+     */
+    public static final class Builder {
+
+        /* sets smaller than this are added bit by bit, larger ones by OR-ing the bitmaps */
+        private static final int BULK_THRESHOLD = 1024;
+
+        private final RowKeyIndex m_index;
+
+        private CompressedBitVector m_bits;
+
+        private Builder(final RowKeyIndex index) {
+            m_index = index;
+            m_bits = new CompressedBitVector(index.size());
+        }
+
+        /**
+         * Adds the given key.
+         *
+         * @param key the key to add
+         * @return this builder
+         * @throws IllegalArgumentException if the key is not part of the index
+         */
+        public Builder add(final RowKey key) {
+            final int rowIndex = m_index.indexOf(key);
+            if (rowIndex < 0) {
+                throw new IllegalArgumentException("Row key \"" + key + "\" is not part of the index");
+            }
+            m_bits.set(rowIndex);
+            return this;
+        }
+
+        /**
+         * Adds the row with the given index.
+         *
+         * @param rowIndex the row index with respect to the index of this builder
+         * @return this builder
+         * @throws ArrayIndexOutOfBoundsException if the row index is out of range
+         */
+        public Builder add(final int rowIndex) {
+            m_bits.set(rowIndex);
+            return this;
+        }
+
+        /**
+         * Adds the rows in the given index range.
+         *
+         * @param fromIndex the first row index to add (inclusive)
+         * @param toIndex the last row index to add (exclusive)
+         * @return this builder
+         * @throws ArrayIndexOutOfBoundsException if the range is out of bounds
+         */
+        public Builder addRange(final int fromIndex, final int toIndex) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                m_bits.set(i);
+            }
+            return this;
+        }
+
+        /**
+         * Adds all keys of the given set.
+         *
+         * @param set a set referring to the same index
+         * @return this builder
+         * @throws IllegalArgumentException if the set refers to a different index
+         */
+        public Builder addAll(final RowKeySet set) {
+            if (set.m_index != m_index) {
+                throw new IllegalArgumentException("Row key set refers to a different index");
+            }
+            if (set.m_size < BULK_THRESHOLD) {
+                for (int i = set.nextIndex(0); i >= 0; i = set.nextIndex(i + 1)) {
+                    m_bits.set(i);
+                }
+            } else {
+                m_bits = m_bits.or(set.m_bits);
+            }
+            return this;
+        }
+
+        /**
+         * Creates the set. The builder must not be used afterwards.
+         *
+         * @return a new set
+         */
+        public RowKeySet build() {
+            final CompressedBitVector bits = m_bits;
+            m_bits = null;
+            bits.optimize();
+            return new RowKeySet(m_index, bits);
+        }
+    }
+}
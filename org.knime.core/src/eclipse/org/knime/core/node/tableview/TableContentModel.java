@@ -48,7 +48,10 @@
 import java.beans.PropertyChangeSupport;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import javax.swing.JComponent;
@@ -61,12 +64,17 @@
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTable;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DirectAccessTable;
+import org.knime.core.data.DirectAccessTable.UnknownRowCountException;
 import org.knime.core.data.RowIterator;
+import org.knime.core.data.RowIteratorBuilder;
 import org.knime.core.data.RowKey;
 import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.data.container.ContainerTable;
 import org.knime.core.data.property.ColorAttr;
+import org.knime.core.data.util.PrefetchingRowIterator;
 import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.property.hilite.HiLiteHandler;
 import org.knime.core.node.property.hilite.HiLiteListener;
@@ -86,9 +94,12 @@
  * added to the ring buffer (and "old" rows
  * are deleted). Each time a row is requested that resides before the cursor
  * of the current iterator and is not in the cache (default size: 500), the
- * cache is cleared and a new iterator is instantiated. Thus, this class will
- * have some performance problems when the user scrolls up in the table view.
- * However, when scrolling down, the data flow is somewhat "fluent".</p>
+ * cache is cleared and a new iterator is instantiated. Unless only hilited
+ * (or unhilited) rows are shown, the new iterator starts right before the
+ * requested row (see {@link RowIteratorBuilder#fromIndex(long)} and
+ * {@link DirectAccessTable}), which is also done when the requested row is
+ * far behind the cursor. For tables whose rows are read from disk, rows are
+ * read ahead in a background thread in the scroll direction.</p>
  *
  * <p>This class also supports hiliting of rows (even though it is a view
  * property). We do store the hilite status of the rows in here as it
@@ -163,6 +174,22 @@ public boolean performsFiltering() {
      * scrolls up. */
     private RowIterator m_iterator;
 
+    /** Index of the first row returned by {@link #m_iterator}, 0 unless the
+     * iterator was started at the requested row (see {@link #canSkipRows()}).
+     */
+    private int m_firstRowInIterator;
+
+    /** Iterator started in the background when the user scrolls up towards
+     * the first cached row, replaces {@link #m_iterator} when the cache is
+     * left. <code>null</code> if none has been started. */
+    private PrefetchingRowIterator m_preparedIterator;
+
+    /** Index of the first row returned by {@link #m_preparedIterator}. */
+    private int m_firstRowInPreparedIterator;
+
+    /** The row requested last, used to determine the scroll direction. */
+    private int m_lastRequestedRow;
+
     /**
      * Ring buffer. Size determined by {@link #CACHE_SIZE}.
      */
@@ -362,10 +389,9 @@ private void setDataTableIntern(final DataTable originalData,
         m_data = data;
         m_cachedRows = null;
         m_hilitSet = null;
-        if (m_iterator instanceof CloseableRowIterator) {
-            ((CloseableRowIterator)m_iterator).close();
-        }
-        m_iterator = null;
+        closeIterators();
+        m_firstRowInIterator = 0;
+        m_lastRequestedRow = 0;
         m_rowCountOfInterestInIterator = 0;
         m_rowCountOfInterest = 0;
         m_maxRowCount = 0;
@@ -391,6 +417,14 @@ private void setDataTableIntern(final DataTable originalData,
                 rowCountFromTable = ((BufferedDataTable)data).size();
             } else if (data instanceof ContainerTable) {
                 rowCountFromTable = ((ContainerTable)data).size();
+            } else if (data instanceof DirectAccessTable) {
+                long count;
+                try {
+                    count = ((DirectAccessTable)data).getRowCount();
+                } catch (UnknownRowCountException e) {
+                    count = -1;
+                }
+                rowCountFromTable = count;
             } else {
                 rowCountFromTable = -1; // unknown
             }
@@ -811,6 +845,17 @@ public final DataTable getDataTable() {
         return m_originalUnsortedTable;
     } // getDataTable()
 
+    /**
+     * Get the table as currently displayed, i.e. the sorted table if a sort
+     * order is set (see {@link #getTableSortOrder()}) and the table returned
+     * by {@link #getDataTable()} otherwise.
+     *
+     * @return the displayed table or <code>null</code> if no data is set
+     */
+    final DataTable getDisplayedTable() {
+        return m_data;
+    }
+
     /**
      * Get the table spec of the current DataTable. It returns <code>null</code>
      * if the model is currently not having a table.
@@ -923,8 +968,7 @@ public final int getChunkSize() {
     public boolean isHiLit(final int row) {
         // ensure row is cached
         getRow(row);
-        assert (row >= (m_rowCountOfInterestInIterator - getCacheSize())
-                && row < m_rowCountOfInterestInIterator);
+        assert isRowCached(row);
         return getHiLiteFromCache(row);
     } // isHiLit(int)
 
@@ -938,8 +982,7 @@ public boolean isHiLit(final int row) {
     public ColorAttr getColorAttr(final int row) {
         // makes also sure row is cached
         DataRow r = getRow(row);
-        assert (row >= (m_rowCountOfInterestInIterator - getCacheSize())
-                && row < m_rowCountOfInterestInIterator);
+        assert isRowCached(row);
         return m_data.getDataTableSpec().getRowColor(r);
     }
 
@@ -1078,14 +1121,28 @@ protected DataRow getRow(final int row) {
 
         // the iterator goes further when the last known row is requested
         boolean pushIterator = !isRowCountFinal() && (row == oldRowCount - 1);
-        if (row >= (m_rowCountOfInterestInIterator - cacheSize)
-                && (row < m_rowCountOfInterestInIterator) && !pushIterator) {
+        if (isRowCached(row) && !pushIterator) {
+            prepareIteratorInScrollDirection(row);
             return getRowFromCache(row);
         }
+        m_lastRequestedRow = row;
 
         /* row is not in cache */
-        // row already released from cache
-        if (row < (m_rowCountOfInterestInIterator - cacheSize)) {
+        final int firstRowCached = m_rowCountOfInterestInIterator
+            - Math.min(cacheSize, m_rowCountOfInterestInIterator - m_firstRowInIterator);
+        if (canSkipRows() && (row < firstRowCached
+                || row >= m_rowCountOfInterestInIterator + cacheSize)) {
+            // start a new iterator so that the cache ends m_chunkSize rows
+            // after the requested row, possibly the one prepared in advance
+            int firstRow = Math.max(0, row + m_chunkSize + 1 - cacheSize);
+            final PrefetchingRowIterator prepared = m_preparedIterator;
+            if (prepared != null && m_firstRowInPreparedIterator <= row
+                && row + m_chunkSize - m_firstRowInPreparedIterator < cacheSize) {
+                firstRow = m_firstRowInPreparedIterator;
+            }
+            clearCache(firstRow);
+        } else if (row < firstRowCached) {
+            // row already released from cache
             // clear cache, init new iterator
             clearCache();
         }
@@ -1165,20 +1222,165 @@ private RowIterator getNewDataIterator() {
      * Clears cache, instantiates new Iterator.
      */
     protected void clearCache() {
+        clearCache(0);
+    } // clearCache()
+
+    /**
+     * Clears cache, instantiates a new iterator starting at the given row.
+     * @param firstRow the index of the first row to read, must be 0 unless
+     * {@link #canSkipRows()} returns <code>true</code>
+     */
+    private void clearCache(final int firstRow) {
         if (!hasData()) {
             return;
         }
+        assert firstRow == 0 || canSkipRows();
+        final PrefetchingRowIterator prepared = m_preparedIterator;
+        m_preparedIterator = null;
         if (m_iterator instanceof CloseableRowIterator) {
             ((CloseableRowIterator)m_iterator).close();
         }
-        m_iterator = getNewDataIterator();
-        m_rowCountInIterator = 0;
+        if (prepared != null && m_firstRowInPreparedIterator == firstRow) {
+            m_iterator = prepared;
+        } else {
+            if (prepared != null) {
+                prepared.close();
+            }
+            m_iterator = isReadAhead()
+                ? new PrefetchingRowIterator(getNewDataIterator(firstRow), 2 * m_chunkSize)
+                : getNewDataIterator(firstRow);
+        }
+        m_firstRowInIterator = firstRow;
+        m_rowCountInIterator = firstRow;
         // all updated in nextBlock()
-        m_rowCountOfInterestInIterator = 0;
+        m_rowCountOfInterestInIterator = firstRow;
         // clear cache
         Arrays.fill(m_cachedRows, null);
         m_hilitSet.clear();
-    } // clearCache()
+    } // clearCache(int)
+
+    /** Closes the current iterator and the one prepared in advance. */
+    private void closeIterators() {
+        if (m_iterator instanceof CloseableRowIterator) {
+            ((CloseableRowIterator)m_iterator).close();
+        }
+        m_iterator = null;
+        if (m_preparedIterator != null) {
+            m_preparedIterator.close();
+            m_preparedIterator = null;
+        }
+    }
+
+    /**
+     * Whether the row index in the table equals the row index in the model,
+     * i.e. new iterators can be started at the requested row instead of at
+     * the first row. That is the case unless only hilited (or unhilited)
+     * rows are shown.
+     */
+    private boolean canSkipRows() {
+        return !m_tableFilter.performsFiltering();
+    }
+
+    /** Whether rows are read ahead in a background thread. Only done for
+     * tables whose rows are read from disk; in-memory tables are fast
+     * enough. */
+    private boolean isReadAhead() {
+        return m_data instanceof BufferedDataTable
+            || m_data instanceof ContainerTable;
+    }
+
+    /**
+     * Starts an iterator in the background if the user scrolls up and
+     * approaches the first cached row, so that the rows before the cache are
+     * already read when they are requested.
+     *
+     * @param row the requested row, which is in the cache
+     */
+    private void prepareIteratorInScrollDirection(final int row) {
+        final boolean isScrollingUp = row < m_lastRequestedRow;
+        m_lastRequestedRow = row;
+        if (!isScrollingUp || m_preparedIterator != null || !isReadAhead()
+                || !canSkipRows()) {
+            return;
+        }
+        final int cacheSize = getCacheSize();
+        final int firstRowCached = m_rowCountOfInterestInIterator
+            - Math.min(cacheSize, m_rowCountOfInterestInIterator - m_firstRowInIterator);
+        if (firstRowCached > 0 && row - firstRowCached < m_chunkSize) {
+            final int firstRow =
+                Math.max(0, firstRowCached - cacheSize + 2 * m_chunkSize);
+            m_preparedIterator = new PrefetchingRowIterator(
+                getNewDataIterator(firstRow), 2 * m_chunkSize);
+            m_firstRowInPreparedIterator = firstRow;
+        }
+    }
+
+    /**
+     * Get a new iterator that starts at the given row, only to be called when
+     * data is set.
+     * @param firstRow the index of the first row to return
+     */
+    private RowIterator getNewDataIterator(final int firstRow) {
+        if (m_data instanceof DirectAccessTable) {
+            return new DirectAccessRowIterator(
+                (DirectAccessTable)m_data, firstRow, getChunkSize());
+        }
+        if (firstRow == 0) {
+            return getNewDataIterator();
+        }
+        return m_data.iteratorBuilder().fromIndex(firstRow).build();
+    }
+
+    /** Iterator over a {@link DirectAccessTable}, reading chunks of rows. */
+    private static final class DirectAccessRowIterator extends RowIterator {
+
+        private final DirectAccessTable m_table;
+
+        private final int m_chunkSize;
+
+        private long m_nextChunkStart;
+
+        private List<DataRow> m_chunk = Collections.emptyList();
+
+        private int m_indexInChunk;
+
+        private boolean m_isAtEnd;
+
+        DirectAccessRowIterator(final DirectAccessTable table,
+            final long firstRow, final int chunkSize) {
+            m_table = table;
+            m_nextChunkStart = firstRow;
+            m_chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (m_indexInChunk < m_chunk.size()) {
+                return true;
+            }
+            if (m_isAtEnd) {
+                return false;
+            }
+            try {
+                m_chunk = m_table.getRows(m_nextChunkStart, m_chunkSize, null);
+            } catch (CanceledExecutionException e) {
+                // can't happen without execution monitor
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            m_indexInChunk = 0;
+            m_nextChunkStart += m_chunk.size();
+            m_isAtEnd = m_chunk.size() < m_chunkSize;
+            return !m_chunk.isEmpty();
+        }
+
+        @Override
+        public DataRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return m_chunk.get(m_indexInChunk++);
+        }
+    }
 
     /**
      * Returns a row with a given index from the cache. It is mandatory to give
@@ -1204,6 +1406,18 @@ private boolean getHiLiteFromCache(final int row) {
         return m_hilitSet.get(indexForRow(row));
     } // getHiLiteFromCache(int)
 
+    /**
+     * Whether the row with the given index is in the cache.
+     *
+     * @param row row to check
+     * @return if the row is cached
+     */
+    private boolean isRowCached(final int row) {
+        return row >= (m_rowCountOfInterestInIterator - getCacheSize())
+            && row >= m_firstRowInIterator
+            && row < m_rowCountOfInterestInIterator;
+    }
+
     /**
      * Get the index in the cache where row with index "row" is located.
      * The row MUST be in the cache.
@@ -1213,8 +1427,7 @@ private boolean getHiLiteFromCache(final int row) {
      */
     private int indexForRow(final int row) {
         final int cS = getCacheSize();
-        assert (row >= (m_rowCountOfInterestInIterator - cS)
-                && row < m_rowCountOfInterestInIterator) : "Row is not cached";
+        assert isRowCached(row) : "Row is not cached";
         // index of row in ring buffer
         int indexInCache = (row % cS);
         return indexInCache;
@@ -1243,15 +1456,16 @@ private int firstRowCached() {
             return -1;
         }
         final int cS = getCacheSize();
-        int next = (lastRow + 1) % cS;
-        return m_cachedRows[next] != null ? next : 0;
+        final int firstRow = Math.max(m_firstRowInIterator,
+            m_rowCountOfInterestInIterator - cS);
+        return firstRow % cS;
     }
 
     /** @return index in cache hosting the last row in the table that's
      *  cached or -1 if none is cached. */
     private int lastRowCached() {
         final int cS = getCacheSize();
-        return m_rowCountOfInterestInIterator >= 0
+        return m_rowCountOfInterestInIterator > m_firstRowInIterator
             ? (m_rowCountOfInterestInIterator - 1) % cS : -1;
     }
 
@@ -1281,7 +1495,7 @@ private void processHiLiteEvent(
             // #rows that changed up to m_rowCountOfInterest
             int changedCount = 0;
             Set<RowKey> keySet = e.keys();
-            for (RowIterator it = getNewDataIterator(); it.hasNext()
+            for (RowIterator it = getNewDataIterator(0); it.hasNext()
                 && c < m_rowCountOfInterest;) {
                 RowKey currentRowKey = it.next().getKey();
                 boolean isNowOfInterest =
@@ -1385,8 +1599,7 @@ private void processHiLiteRequest(
         final int lastSelected = selModel.getMaxSelectionIndex();
         final HashSet<RowKey> selectedSet = new HashSet<RowKey>();
         // if all selected rows are in cache
-        if ((firstSelected >=  m_rowCountOfInterestInIterator - getCacheSize())
-            && (lastSelected < m_rowCountOfInterestInIterator)) {
+        if (isRowCached(firstSelected) && isRowCached(lastSelected)) {
             // no new iteration necessary, simply traverse cache
             final int length = lastSelected - firstSelected;
             for (int i = 0; i <= length; i++) {
@@ -1398,8 +1611,9 @@ private void processHiLiteRequest(
             }
         } else { // iteration necessary: use new (private) iterator
             // TODO: check for correctness when m_showOnlyHilited is set
-            final RowIterator it = getNewDataIterator();
-            for (int i = 0; it.hasNext() && i <= lastSelected; i++) {
+            final int firstRow = canSkipRows() ? firstSelected : 0;
+            final RowIterator it = getNewDataIterator(firstRow);
+            for (int i = firstRow; it.hasNext() && i <= lastSelected; i++) {
                 RowKey key = it.next().getKey();
                 if (i >= firstSelected && selModel.isSelectedIndex(i)) {
                     selectedSet.add(key);
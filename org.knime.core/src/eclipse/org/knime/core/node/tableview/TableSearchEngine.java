@@ -0,0 +1,585 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.node.tableview;
+
+import java.util.Arrays;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.tableview.FindPosition.SearchOptions;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.core.util.ThreadUtils;
+
+/**
+ * Searches a table for cells, row IDs and column names matching a {@link SearchString}. The table is split into row
+ * ranges that are scanned in parallel on the global thread pool; hits are collected in a sorted hit list as they are
+ * found and the {@link SearchListener} is notified. {@link #next(int, int)} and {@link #previous(int, int)} navigate
+ * over the hit list and only return a hit once all rows between the current position and the hit have been scanned,
+ * so navigation is consistent with a sequential search even while the search is still running.
+ *
+ * <p>The number of hits kept in memory is limited. Each range only keeps the hits of a window of rows; once the limit
+ * is reached the scan of the range pauses. If navigation leaves the window, the window is moved (and rows are scanned
+ * again if necessary) so that it contains the hits next to the current position.
+ *
+ * <p>Cells are matched against their string representation ({@link DataCell#toString()}), not the text shown by the
+ * cell renderer, which is only available in the event dispatch thread. Only the searched columns are read from the
+ * table. Rows that cannot be read are logged and skipped.
+ *
+ * <p>Rows are split into ranges only for tables that can skip rows without reading them ({@link BufferedDataTable},
+ * {@link ContainerTable}); other tables are scanned in a single background task.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class TableSearchEngine {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(TableSearchEngine.class);
+
+    /** Minimum number of rows scanned by one task. */
+    private static final int MIN_RANGE_SIZE = 10000;
+
+    /** Maximum number of hits kept in memory (approximately, the hits of a row are kept or dropped together). */
+    private static final int MAX_HITS = 100000;
+
+    /** Listeners are notified at most this often per task while hits are found. */
+    private static final long NOTIFY_INTERVAL_MS = 100;
+
+    /** Smaller than any hit. */
+    private static final Hit TOP = new Hit(Integer.MIN_VALUE, Integer.MIN_VALUE);
+
+    /** Larger than any hit. */
+    private static final Hit BOTTOM = new Hit(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Listener notified from the search threads when new hits were found or the search progressed.
+     */
+    @FunctionalInterface
+    interface SearchListener {
+        /**
+         * Called when new hits were found, rows were scanned or the search finished. Called from background threads.
+         *
+         * @param engine the engine that progressed
+         */
+        void searchProgressed(TableSearchEngine engine);
+    }
+
+    /**
+     * Location of a match. The row is {@link FindPosition#HEADER} for column names, the column is
+     * {@link FindPosition#HEADER} for row IDs. Column indices refer to the table (model), not the view.
+     */
+    static final class Hit implements Comparable<Hit> {
+
+        private final int m_row;
+
+        private final int m_column;
+
+        Hit(final int row, final int column) {
+            m_row = row;
+            m_column = column;
+        }
+
+        /** @return the row, {@link FindPosition#HEADER} for column names */
+        int getRow() {
+            return m_row;
+        }
+
+        /** @return the column in the table, {@link FindPosition#HEADER} for the row ID */
+        int getColumn() {
+            return m_column;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int compareTo(final Hit o) {
+            final int c = Integer.compare(m_row, o.m_row);
+            return c != 0 ? c : Integer.compare(m_column, o.m_column);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Hit && compareTo((Hit)obj) == 0;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return 31 * m_row + m_column;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return "Row: " + m_row + ", Col: " + m_column;
+        }
+    }
+
+    /**
+     * Rows scanned by one task. All hits in the window [{@link #m_windowStart}, {@link #m_windowEnd}) are in the hit
+     * list, hits of the range outside the window are not.
+     */
+    private final class Range {
+
+        private final int m_from;
+
+        private final int m_to;
+
+        /** The hits of the range in the hit list. */
+        private final NavigableSet<Hit> m_rangeHits;
+
+        private volatile int m_windowStart;
+
+        private volatile int m_windowEnd;
+
+        /** Number of hits in {@link #m_rangeHits}, only changed by the scanning task or while no task is running. */
+        private int m_hitCount;
+
+        /** Whether reading the rows failed; the rows from {@link #m_windowEnd} on are not searched then. */
+        private volatile boolean m_isFailed;
+
+        /** The scanning task, <code>null</code> if none is running (guarded by the engine). */
+        private Future<?> m_future;
+
+        Range(final int from, final int to) {
+            m_from = from;
+            m_to = to;
+            m_rangeHits = m_hits.subSet(new Hit(from, Integer.MIN_VALUE), true, new Hit(to, Integer.MIN_VALUE), false);
+            m_windowStart = from;
+            m_windowEnd = from;
+        }
+
+        /** Whether all hits in the given rows (which must be part of the range) are known or can't be read. */
+        boolean isScanned(final int fromRow, final int toRow) {
+            return m_windowStart <= fromRow && (m_windowEnd > toRow || m_isFailed);
+        }
+
+        /** Removes the hits of all rows before the given row from the hit list. */
+        void evictBefore(final int row) {
+            m_windowStart = Math.max(m_windowStart, row);
+            final NavigableSet<Hit> evicted = m_rangeHits.headSet(new Hit(row, Integer.MIN_VALUE), false);
+            while (evicted.pollFirst() != null) {
+                m_hitCount--;
+            }
+        }
+
+        /** Removes all hits of the range and moves the (empty) window to the given row, only called while idle. */
+        void reset(final int row) {
+            m_windowStart = row;
+            m_windowEnd = row;
+            m_isFailed = false;
+            m_rangeHits.clear();
+            m_hitCount = 0;
+        }
+    }
+
+    private final DataTable m_table;
+
+    private final int m_rowCount;
+
+    private final SearchString m_searchString;
+
+    private final SearchOptions m_searchOptions;
+
+    private final int[] m_columns;
+
+    private final SearchListener m_listener;
+
+    private final NavigableSet<Hit> m_hits = new ConcurrentSkipListSet<>();
+
+    /** The ranges, in row order. */
+    private final Range[] m_ranges;
+
+    /** Maximum number of hits kept per range. */
+    private final int m_maxHitsPerRange;
+
+    /** Number of ranges currently scanned. */
+    private final AtomicInteger m_runningRanges;
+
+    /** There are no hits after this position, <code>null</code> if not known. */
+    private volatile Hit m_noHitsAfter;
+
+    /** There are no hits before this position, <code>null</code> if not known. */
+    private volatile Hit m_noHitsBefore;
+
+    /** Whether the last call to next or previous returned <code>null</code> as rows still need to be scanned. */
+    private volatile boolean m_isNavigationPending;
+
+    private volatile boolean m_isCanceled;
+
+    /**
+     * Creates a new search engine, call {@link #start()} to start searching.
+     *
+     * @param table the table to search, as displayed in the view (i.e. possibly sorted)
+     * @param rowCount the number of rows in the table
+     * @param searchString what to search for
+     * @param searchOptions whether to search row IDs, column names, and data
+     * @param columns the indices of the columns to search
+     * @param listener notified when the search progresses
+     */
+    TableSearchEngine(final DataTable table, final int rowCount, final SearchString searchString,
+        final SearchOptions searchOptions, final int[] columns, final SearchListener listener) {
+        this(table, rowCount, searchString, searchOptions, columns, listener, MAX_HITS);
+    }
+
+    /**
+     * Creates a new search engine that keeps at most (approximately) the given number of hits in memory.
+     *
+     * @param maxHits the maximum number of hits to keep, &gt; 0
+     * @see #TableSearchEngine(DataTable, int, SearchString, SearchOptions, int[], SearchListener)
+     */
+    TableSearchEngine(final DataTable table, final int rowCount, final SearchString searchString,
+        final SearchOptions searchOptions, final int[] columns, final SearchListener listener, final int maxHits) {
+        CheckUtils.checkArgument(rowCount >= 0, "Row Count < 0: %d", rowCount);
+        CheckUtils.checkArgument(maxHits > 0, "Max hits <= 0: %d", maxHits);
+        m_table = CheckUtils.checkArgumentNotNull(table);
+        m_rowCount = rowCount;
+        m_searchString = CheckUtils.checkArgumentNotNull(searchString);
+        m_searchOptions = CheckUtils.checkArgumentNotNull(searchOptions);
+        m_columns = columns.clone();
+        m_listener = CheckUtils.checkArgumentNotNull(listener);
+
+        final boolean scansRows = searchOptions.isSearchRowID() || (searchOptions.isSearchData() && columns.length > 0);
+        int rangeSize = rowCount;
+        if (scansRows && (table instanceof BufferedDataTable || table instanceof ContainerTable)) {
+            rangeSize = Math.max(MIN_RANGE_SIZE, rowCount / (4 * KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads()));
+        }
+        final int nrRanges = !scansRows || rowCount == 0 ? 0 : (int)((rowCount - 1L) / rangeSize + 1);
+        m_ranges = new Range[nrRanges];
+        for (int r = 0; r < nrRanges; r++) {
+            m_ranges[r] = new Range(r * rangeSize, (int)Math.min(rowCount, (r + 1L) * rangeSize));
+        }
+        m_maxHitsPerRange = Math.max(1, maxHits / Math.max(1, nrRanges));
+        m_runningRanges = new AtomicInteger(nrRanges);
+    }
+
+    /** Searches the column names and starts scanning the rows in the background. */
+    synchronized void start() {
+        if (m_searchOptions.isSearchColumnName()) {
+            final String[] names = m_table.getDataTableSpec().getColumnNames();
+            for (int c : m_columns) {
+                if (m_searchString.matches(names[c])) {
+                    m_hits.add(new Hit(FindPosition.HEADER, c));
+                }
+            }
+        }
+        for (Range range : m_ranges) {
+            range.m_future = submit(range, range.m_to, false);
+        }
+        m_listener.searchProgressed(this);
+    }
+
+    private Future<?> submit(final Range range, final int to, final boolean keepLastHits) {
+        return KNIMEConstants.GLOBAL_THREAD_POOL
+            .enqueue(ThreadUtils.runnableWithContext(() -> scan(range, to, keepLastHits), false));
+    }
+
+    /**
+     * Scans the rows of the given range from the end of its window to the given row (exclusive). If more hits than
+     * allowed are found, the scan either stops ({@code keepLastHits == false}) or the hits of the first rows are
+     * dropped.
+     */
+    private void scan(final Range range, final int to, final boolean keepLastHits) {
+        final int from = range.m_windowEnd;
+        final boolean searchRowID = m_searchOptions.isSearchRowID();
+        final int[] columns = m_searchOptions.isSearchData() ? m_columns : new int[0];
+        RowIterator it = null;
+        try {
+            if (m_isCanceled) {
+                return;
+            }
+            it = m_table.iteratorBuilder().filterColumns(columns).fromIndex(from).toIndex(to - 1L).build();
+            long lastNotification = System.currentTimeMillis();
+            boolean isPaused = false;
+            for (int row = from; row < to && !isPaused && it.hasNext() && !m_isCanceled; row++) {
+                final DataRow dataRow = it.next();
+                boolean hasNewHits = false;
+                if (searchRowID && m_searchString.matches(dataRow.getKey().getString())) {
+                    hasNewHits = addHit(range, row, FindPosition.HEADER);
+                }
+                for (int c : columns) {
+                    final DataCell cell = dataRow.getCell(c);
+                    if (m_searchString.matches(cell.toString())) {
+                        hasNewHits |= addHit(range, row, c);
+                    }
+                }
+                range.m_windowEnd = row + 1;
+                if (hasNewHits && range.m_hitCount >= m_maxHitsPerRange) {
+                    if (keepLastHits) {
+                        evictFirstRows(range, row);
+                    } else {
+                        isPaused = true;
+                    }
+                }
+                if (hasNewHits || (row & 0x3FF) == 0) {
+                    final long now = System.currentTimeMillis();
+                    if (now - lastNotification >= NOTIFY_INTERVAL_MS) {
+                        lastNotification = now;
+                        m_listener.searchProgressed(this);
+                    }
+                }
+            }
+            if (!isPaused && !m_isCanceled) {
+                // fewer rows than expected
+                range.m_windowEnd = Math.max(range.m_windowEnd, to);
+            }
+        } catch (RuntimeException e) {
+            range.m_isFailed = true;
+            LOGGER.error("Searching rows " + range.m_windowEnd + " to " + (range.m_to - 1) + " failed, they are not "
+                + "searched: " + e.getMessage(), e);
+        } finally {
+            if (it instanceof CloseableRowIterator) {
+                ((CloseableRowIterator)it).close();
+            }
+            synchronized (this) {
+                range.m_future = null;
+            }
+            m_runningRanges.decrementAndGet();
+            if (!m_isCanceled) {
+                m_listener.searchProgressed(this);
+            }
+        }
+    }
+
+    /**
+     * Drops the hits of the first rows of the range while there are too many, keeping the hits of the current row and
+     * of the last row with hits before it (so that there is a previous hit for any position in the current row).
+     */
+    private void evictFirstRows(final Range range, final int currentRow) {
+        while (range.m_hitCount > m_maxHitsPerRange) {
+            final int firstRow = range.m_rangeHits.first().getRow();
+            final Hit secondRowHit = range.m_rangeHits.higher(new Hit(firstRow, Integer.MAX_VALUE));
+            if (secondRowHit == null || secondRowHit.getRow() >= currentRow) {
+                return;
+            }
+            range.evictBefore(firstRow + 1);
+        }
+    }
+
+    private boolean addHit(final Range range, final int row, final int column) {
+        if (m_hits.add(new Hit(row, column))) {
+            range.m_hitCount++;
+            return true;
+        }
+        return false;
+    }
+
+    /** Stops the search, pending tasks are not started and running tasks stop after the current row. */
+    synchronized void cancel() {
+        m_isCanceled = true;
+        for (Range range : m_ranges) {
+            if (range.m_future != null) {
+                range.m_future.cancel(false);
+                range.m_future = null;
+            }
+        }
+    }
+
+    /**
+     * @return whether no rows are scanned and the last navigation did not wait for rows to be scanned (or the search
+     *         was canceled), i.e. whether a <code>null</code> hit means that there are no hits
+     */
+    boolean isDone() {
+        return m_isCanceled || (m_runningRanges.get() == 0 && !m_isNavigationPending);
+    }
+
+    /** @return the number of hits currently kept in memory */
+    int getHitCount() {
+        return m_hits.size();
+    }
+
+    /** @return the number of rows in the searched table */
+    int getRowCount() {
+        return m_rowCount;
+    }
+
+    /**
+     * Whether this engine searches the given table with the given settings, i.e. whether it can be reused for
+     * navigation.
+     *
+     * @param table the table
+     * @param searchString the search string
+     * @param searchOptions the search options
+     * @param columns the searched columns
+     * @return if this engine searches for the same
+     */
+    boolean isSearchFor(final DataTable table, final SearchString searchString, final SearchOptions searchOptions,
+        final int[] columns) {
+        return !m_isCanceled && m_table == table && m_searchString.equals(searchString)
+            && m_searchOptions.equals(searchOptions) && Arrays.equals(m_columns, columns);
+    }
+
+    /**
+     * Returns the first hit after the given position, continuing at the top if there are no hits after the position.
+     *
+     * @param row the current row, {@link FindPosition#HEADER} for the column header
+     * @param column the current column, {@link FindPosition#HEADER} for the row ID column
+     * @return the next hit or <code>null</code> if there are no hits or the rows up to the next hit have not been
+     *         scanned yet (see {@link #isDone()})
+     */
+    Hit next(final int row, final int column) {
+        m_isNavigationPending = false;
+        final Hit position = new Hit(row, column);
+        Hit hit = m_hits.higher(position);
+        if (hit != null) {
+            return ensureScanned(row, hit.getRow(), true) ? hit : null;
+        }
+        final Hit noHitsAfter = m_noHitsAfter;
+        if (noHitsAfter == null || position.compareTo(noHitsAfter) < 0) {
+            if (!ensureScanned(row, m_rowCount - 1, true)) {
+                return null;
+            }
+            hit = m_hits.higher(position);
+            if (hit != null) {
+                return hit;
+            }
+            // remembered so that the rows after the position need not be kept (or scanned again) to continue at the top
+            m_noHitsAfter = position;
+        }
+        final Hit first = m_hits.higher(TOP);
+        return ensureScanned(FindPosition.HEADER, first == null ? row : first.getRow(), true) ? m_hits.higher(TOP)
+            : null;
+    }
+
+    /**
+     * Returns the last hit before the given position, continuing at the bottom if there are no hits before the
+     * position.
+     *
+     * @param row the current row, {@link FindPosition#HEADER} for the column header
+     * @param column the current column, {@link FindPosition#HEADER} for the row ID column
+     * @return the previous hit or <code>null</code> if there are no hits or the rows down to the previous hit have not
+     *         been scanned yet (see {@link #isDone()})
+     */
+    Hit previous(final int row, final int column) {
+        m_isNavigationPending = false;
+        final Hit position = new Hit(row, column);
+        Hit hit = m_hits.lower(position);
+        if (hit != null) {
+            return ensureScanned(hit.getRow(), row, false) ? hit : null;
+        }
+        final Hit noHitsBefore = m_noHitsBefore;
+        if (noHitsBefore == null || position.compareTo(noHitsBefore) > 0) {
+            if (!ensureScanned(FindPosition.HEADER, row, false)) {
+                return null;
+            }
+            hit = m_hits.lower(position);
+            if (hit != null) {
+                return hit;
+            }
+            m_noHitsBefore = position;
+        }
+        final Hit last = m_hits.lower(BOTTOM);
+        return ensureScanned(last == null ? row : last.getRow(), m_rowCount - 1, false) ? m_hits.lower(BOTTOM)
+            : null;
+    }
+
+    /**
+     * Whether all hits in [fromRow, toRow] are known (the header row is always scanned). If not, the windows of the
+     * ranges that are not scanned yet are moved towards the given rows and scanned in the background, keeping the
+     * first hits after {@code fromRow} (forward) or the last hits before {@code toRow} (backward).
+     */
+    private synchronized boolean ensureScanned(final int fromRow, final int toRow, final boolean forward) {
+        final int from = Math.max(0, fromRow);
+        final int to = Math.min(toRow, m_rowCount - 1);
+        if (from > to || m_isCanceled) {
+            return true;
+        }
+        boolean isScanned = true;
+        for (int r = rangeOf(from); r < m_ranges.length && m_ranges[r].m_from <= to; r++) {
+            final Range range = m_ranges[r];
+            final int first = Math.max(from, range.m_from);
+            final int last = Math.min(to, range.m_to - 1);
+            if (range.isScanned(first, last)) {
+                continue;
+            }
+            isScanned = false;
+            m_isNavigationPending = true;
+            if (range.m_future != null) {
+                // progress is reported when the task finishes
+                continue;
+            }
+            if (forward) {
+                if (range.m_windowStart <= first && first <= range.m_windowEnd) {
+                    range.evictBefore(first);
+                } else {
+                    range.reset(first);
+                }
+                m_runningRanges.incrementAndGet();
+                range.m_future = submit(range, range.m_to, false);
+            } else {
+                if (range.m_windowStart > first) {
+                    range.reset(range.m_from);
+                }
+                m_runningRanges.incrementAndGet();
+                range.m_future = submit(range, last + 1, true);
+            }
+        }
+        return isScanned;
+    }
+
+    private int rangeOf(final int row) {
+        int lo = 0;
+        int hi = m_ranges.length - 1;
+        while (lo < hi) {
+            final int mid = (lo + hi + 1) >>> 1;
+            if (m_ranges[mid].m_from <= row) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+}
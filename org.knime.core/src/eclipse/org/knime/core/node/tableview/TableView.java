@@ -65,6 +65,7 @@
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.Objects;
@@ -103,7 +104,9 @@
 import org.knime.core.node.property.hilite.HiLiteHandler;
 import org.knime.core.node.tableview.FindPosition.SearchOptions;
 import org.knime.core.node.tableview.TableContentModel.TableContentFilter;
+import org.knime.core.node.tableview.TableSearchEngine.Hit;
 import org.knime.core.node.util.CheckUtils;
+import org.knime.core.node.util.ViewUtils;
 
 /**
  * Panel containing a table view on a generic {@link DataTable}. The table is located in a scroll pane and row and
@@ -145,10 +148,24 @@ public class TableView extends JScrollPane {
     /** Last search string, needed for continued search. */
     private Optional<SearchString> m_searchString = Optional.empty();
 
+    /** Indices (in the model) of the columns to search, <code>null</code> to search all columns. */
+    private int[] m_searchColumns;
+
+    /** Background search of the last search string, <code>null</code> if the table is searched sequentially. */
+    private TableSearchEngine m_searchEngine;
+
+    /** The hit of {@link #m_searchEngine} the view was last scrolled to, <code>null</code> if none. */
+    private Hit m_lastSearchHit;
+
+    /** Direction of a "Find Next/Previous" request (true for forward) that waits for the background search. */
+    private Boolean m_pendingSearchDirection;
+
     private TableAction m_findAction;
 
     private TableAction m_findNextAction;
 
+    private TableAction m_findPreviousAction;
+
     private TableAction m_gotoRowAction;
 
     private TableAction m_increaseFontSizeAction;
@@ -412,6 +429,7 @@ public void resetHilite() {
      * @see TableContentModel#setDataTable(DataTable)
      */
     public void setDataTable(final DataTable data) {
+        cancelSearch();
         getContentTable().setDataTable(data);
     }
 
@@ -744,6 +762,22 @@ public void setColumnHeaderResizingAllowed(final boolean isColumnHeaderResizingA
      * @throws NullPointerException If any argument is null.
      */
     void find(final SearchString searchString, final SearchOptions searchOptions) {
+        find(searchString, searchOptions, m_searchColumns, true);
+    }
+
+    /**
+     * Find cells (or row IDs) that match the search string in the given columns. If the table is shown with all rows
+     * and its row count is known, the table is searched in parallel in the background (see {@link TableSearchEngine})
+     * and the view is scrolled to the next (or previous) hit once it is known. Otherwise the table is searched
+     * sequentially in forward direction.
+     *
+     * @param searchString The search string.
+     * @param searchOptions non-null search options.
+     * @param columns indices of the columns in the model to search or <code>null</code> for all columns
+     * @param forward whether to search for the next or the previous hit
+     */
+    private void find(final SearchString searchString, final SearchOptions searchOptions, final int[] columns,
+        final boolean forward) {
         CheckUtils.checkArgumentNotNull(searchString, "Search expression is null");
         TableContentView cView = getContentTable();
         if (cView == null) {
@@ -756,6 +790,103 @@ void find(final SearchString searchString, final SearchOptions searchOptions) {
             m_searchPosition.reset();
         }
         setLastSearchString(searchString);
+        m_searchColumns = columns;
+
+        TableContentModel cModel = cView.getContentModel();
+        if (cModel.getTableContentFilter().performsFiltering() || !cModel.isRowCountFinal()) {
+            cancelSearch();
+            findSequentially(searchString, columns);
+            return;
+        }
+        final int[] searchColumns = getSearchColumns(columns);
+        final DataTable table = cModel.getDisplayedTable();
+        if (m_searchEngine == null
+            || !m_searchEngine.isSearchFor(table, searchString, searchOptions, searchColumns)) {
+            cancelSearch();
+            final TableSearchEngine engine = new TableSearchEngine(table, cModel.getRowCount(), searchString,
+                searchOptions, searchColumns, e -> ViewUtils.invokeLaterInEDT(() -> onSearchProgress(e)));
+            m_searchEngine = engine;
+            engine.start();
+        }
+        navigateSearchHits(forward);
+    }
+
+    /** Model indices of the columns to search, sorted; all visible columns if the argument is null. */
+    private int[] getSearchColumns(final int[] columns) {
+        if (columns != null) {
+            return columns;
+        }
+        final TableContentView cView = getContentTable();
+        final int[] result = new int[cView.getColumnCount()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = cView.convertColumnIndexToModel(i);
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** Stops the background search (if any). */
+    private void cancelSearch() {
+        if (m_searchEngine != null) {
+            m_searchEngine.cancel();
+            m_searchEngine = null;
+        }
+        m_lastSearchHit = null;
+        m_pendingSearchDirection = null;
+    }
+
+    /** Called in the EDT when the background search found new hits or progressed. */
+    private void onSearchProgress(final TableSearchEngine engine) {
+        if (engine != m_searchEngine || m_pendingSearchDirection == null) {
+            return;
+        }
+        navigateSearchHits(m_pendingSearchDirection);
+    }
+
+    /**
+     * Scrolls to the next (or previous) hit of the background search. If the hit is not known yet, the request is
+     * remembered and repeated when the search progresses.
+     */
+    private void navigateSearchHits(final boolean forward) {
+        final TableSearchEngine engine = m_searchEngine;
+        final Hit from = m_lastSearchHit;
+        final Hit hit;
+        if (forward) {
+            hit = from == null ? engine.next(FindPosition.HEADER, FindPosition.HEADER)
+                : engine.next(from.getRow(), from.getColumn());
+        } else {
+            hit = from == null ? engine.previous(engine.getRowCount(), FindPosition.HEADER)
+                : engine.previous(from.getRow(), from.getColumn());
+        }
+        if (hit == null) {
+            if (engine.isDone()) {
+                // no hit at all, otherwise the search would have continued from the top (bottom)
+                m_pendingSearchDirection = null;
+                JOptionPane.showMessageDialog(this, "Search string not found");
+            } else {
+                m_pendingSearchDirection = forward;
+            }
+            return;
+        }
+        m_pendingSearchDirection = null;
+        m_lastSearchHit = hit;
+        final int col = hit.getColumn() == FindPosition.HEADER ? FindPosition.HEADER
+            : getContentTable().convertColumnIndexToView(hit.getColumn());
+        gotoCell(hit.getRow(), col);
+        if (from != null && (forward ? hit.compareTo(from) <= 0 : hit.compareTo(from) >= 0)) {
+            JOptionPane.showMessageDialog(this, forward ? "Reached end of table, continued from top"
+                : "Reached top of table, continued from bottom");
+        }
+    }
+
+    /**
+     * Searches the table row by row through the view, starting after the last match.
+     *
+     * @param searchString The search string.
+     * @param columns indices of the columns in the model to search or <code>null</code> for all columns
+     */
+    private void findSequentially(final SearchString searchString, final int[] columns) {
+        TableContentView cView = getContentTable();
 
         m_searchPosition.mark();
         do {
@@ -772,6 +903,10 @@ void find(final SearchString searchString, final SearchOptions searchOptions) {
                 // into a m_searchPosition.reset() state.
                 continue;
             }
+            if (col != FindPosition.HEADER && columns != null
+                && Arrays.binarySearch(columns, cView.convertColumnIndexToModel(col)) < 0) {
+                continue;
+            }
             String str = null;
             if (pos == FindPosition.HEADER) {
                 str = cView.getColumnName(col);
@@ -923,6 +1058,25 @@ public void propertyChange(final PropertyChangeEvent evt) {
         });
         findNextItem.firePropertyChange("update", true, false);
         result.add(findNextItem);
+        TableAction findPreviousAction = registerFindPreviousAction();
+        final JMenuItem findPreviousItem = new JMenuItem(findPreviousAction);
+        findPreviousItem.setAccelerator(findPreviousAction.getKeyStroke());
+        findPreviousItem.addPropertyChangeListener(new EnableListener(this, true, false) {
+            /** {@inheritDoc} */
+            @Override
+            protected boolean checkEnabled(final JComponent source) {
+                return super.checkEnabled(source) && m_searchString != null;
+            }
+        });
+        addPropertyChangeListener("search_string", new PropertyChangeListener() {
+            /** {@inheritDoc} */
+            @Override
+            public void propertyChange(final PropertyChangeEvent evt) {
+                findPreviousItem.firePropertyChange(evt.getPropertyName(), 0, 1);
+            }
+        });
+        findPreviousItem.firePropertyChange("update", true, false);
+        result.add(findPreviousItem);
         return result;
     } // createNavigationMenu()
 
@@ -1193,11 +1347,13 @@ public void actionPerformed(final ActionEvent e) {
     } // createViewMenu()
 
     /**
-     * Registers all actions for navigation on the table, namely "Find...", "Find Next" and "Go to Row...".
+     * Registers all actions for navigation on the table, namely "Find...", "Find Next", "Find Previous" and "Go to
+     * Row...".
      */
     public void registerNavigationActions() {
         registerFindAction();
         registerFindNextAction();
+        registerFindPreviousAction();
         registerGotoRowAction();
     }
 
@@ -1242,6 +1398,11 @@ public void actionPerformed(final ActionEvent e) {
                     JCheckBox regexBox = new JCheckBox("Regular Expression",
                         m_searchString.map(i -> i.isRegex()).orElse(false));
 
+                    final int[] selectedColumns = getContentTable().getSelectedColumns();
+                    JCheckBox selectedColumnsBox = new JCheckBox("Search Selected Columns Only",
+                        m_searchColumns != null && selectedColumns.length > 0);
+                    selectedColumnsBox.setEnabled(selectedColumns.length > 0);
+
                     JPanel panel = new JPanel(new BorderLayout());
                     panel.add(new JLabel("Options: "), BorderLayout.NORTH);
                     JPanel centerPanel = new JPanel(new GridLayout(0, 1));
@@ -1251,6 +1412,7 @@ public void actionPerformed(final ActionEvent e) {
                     centerPanel.add(new JLabel());
                     centerPanel.add(ignoreCaseBox);
                     centerPanel.add(regexBox);
+                    centerPanel.add(selectedColumnsBox);
                     centerPanel.add(new JLabel());
                     panel.add(centerPanel, BorderLayout.CENTER);
                     panel.add(new JLabel("    "), BorderLayout.WEST);
@@ -1276,7 +1438,17 @@ public void actionPerformed(final ActionEvent e) {
                     searchOptions = new SearchOptions(
                         rowKeyBox.isSelected(), colNameBox.isSelected(), dataBox.isSelected());
 
-                    find(newSearchString, searchOptions);
+                    int[] columns = null;
+                    if (selectedColumnsBox.isSelected()) {
+                        columns = new int[selectedColumns.length];
+                        for (int i = 0; i < columns.length; i++) {
+                            columns[i] = getContentTable().convertColumnIndexToModel(selectedColumns[i]);
+                        }
+                        Arrays.sort(columns);
+                    }
+                    // new search from the top
+                    cancelSearch();
+                    find(newSearchString, searchOptions, columns, true);
                 }
             };
             registerAction(action);
@@ -1313,6 +1485,35 @@ public void actionPerformed(final ActionEvent e) {
         return m_findNextAction;
     }
 
+    /**
+     * Creates and registers the "Find Previous" action on this component. Multiple invocation of this method have no
+     * effect (lazy initialization).
+     *
+     * @return The non-null action representing the find previous task.
+     * @see #registerNavigationActions()
+     * @since 3.8
+     */
+    public TableAction registerFindPreviousAction() {
+        registerFindAction();
+        if (m_findPreviousAction == null) {
+            String name = "Find Previous";
+            KeyStroke stroke = KeyStroke.getKeyStroke(KeyEvent.VK_F3, KeyEvent.SHIFT_DOWN_MASK);
+            TableAction action = new TableAction(stroke, name) {
+                @Override
+                public void actionPerformed(final ActionEvent e) {
+                    if (!m_searchString.isPresent()) {
+                        return;
+                    }
+                    assert m_searchPosition != null : "Search position is null but search string is non-null";
+                    find(m_searchString.get(), m_searchPosition.getSearchOptions(), m_searchColumns, false);
+                }
+            };
+            registerAction(action);
+            m_findPreviousAction = action;
+        }
+        return m_findPreviousAction;
+    }
+
     /**
      * Creates and registers the "Go to Row" action on this component. Multiple invocation of this method have no effect
      * (lazy initialization).
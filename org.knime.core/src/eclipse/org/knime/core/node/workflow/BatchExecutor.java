@@ -81,6 +81,7 @@
 import org.knime.core.node.Node;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeSettings;
+import org.knime.core.node.RegistryPreloader;
 import org.knime.core.node.util.StringFormat;
 import org.knime.core.node.workflow.WorkflowPersistor.LoadResultEntry.LoadResultEntryType;
 import org.knime.core.node.workflow.WorkflowPersistor.WorkflowLoadResult;
@@ -405,6 +406,8 @@ protected static class WorkflowConfiguration {
      */
     public BatchExecutor(final String[] args) throws IOException, CoreException, IllegalOptionException, BatchException {
         this();
+        // read the extension registries in the background while the arguments are processed
+        RegistryPreloader.preloadAsync();
         if (args.length == 0) {
             throw new IllegalOptionException("No arguments provided");
         }
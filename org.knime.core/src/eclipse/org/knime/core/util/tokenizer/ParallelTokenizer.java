@@ -0,0 +1,514 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ */
+package org.knime.core.util.tokenizer;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Tokenizes a (large) file in parallel and returns the tokens in file order, just like a {@link Tokenizer} reading
+ * the entire file with the same {@link TokenizerSettings} would.
+ * <p>
+ * The file is split into byte ranges (chunks) that start right after a new line character. Each chunk is tokenized
+ * by its own {@link Tokenizer} on the {@link KNIMEConstants#GLOBAL_THREAD_POOL global thread pool}, assuming that
+ * the new line at its beginning terminated a record. This is a speculation: the new line could as well be part of a
+ * quoted string, a block comment or a line continuation. It is verified once the preceding chunk is tokenized: if
+ * that chunk ended in the middle of a token the speculative result is dropped and both chunks are tokenized again as
+ * one. The number of chunks tokenized ahead is bounded by the parallelism, so memory consumption doesn't depend on
+ * the file size.
+ * <p>
+ * The file can only be split if a delimiter <code>"\n"</code> is set and the charset encodes new lines as a single
+ * byte that can't occur in any other character (UTF-8, US-ASCII, the ISO-8859 and the windows-125x charsets).
+ * Otherwise the file is tokenized sequentially. Line numbers are not tracked.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 3.8
+ */
+public final class ParallelTokenizer implements Closeable {
+
+    /** The default size of the chunks in bytes. */
+    public static final int DEFAULT_CHUNK_SIZE = 8 << 20;
+
+    private static final int FLAG_QUOTED = 1;
+
+    private static final int FLAG_DELIMITER = 2;
+
+    private static final int FLAG_DELIMITED = 4;
+
+    /* the block size used when searching for chunk boundaries */
+    private static final int SCAN_BLOCK_LENGTH = 1 << 16;
+
+    private final FileChannel m_channel;
+
+    private final long m_size;
+
+    private final Charset m_charset;
+
+    /* settings of the first chunk (incl. the lines to skip) */
+    private final TokenizerSettings m_firstSettings;
+
+    /* settings of all other chunks */
+    private final TokenizerSettings m_chunkSettings;
+
+    private final int m_chunkSize;
+
+    private final int m_parallelism;
+
+    /* sub pool of the global thread pool tokenizing the chunks, null if the file can't be split */
+    private final ThreadPool m_pool;
+
+    /* chars (ASCII only) a chunk may start with, null if the file can't be split */
+    private final boolean[] m_chunkStartChars;
+
+    /* used instead of the chunks if the file can't be split */
+    private final Tokenizer m_sequential;
+
+    /* the chunks in tokenization, in file order */
+    private final Deque<PendingChunk> m_pending = new ArrayDeque<>();
+
+    /* the start offset of the next chunk to schedule */
+    private long m_nextStart;
+
+    private TokenChunk m_current;
+
+    /* the index of the next token to return from the current chunk */
+    private int m_currentIdx;
+
+    private String m_lastToken;
+
+    private int m_lastFlags;
+
+    private boolean m_pushedBack;
+
+    /**
+     * Creates a new tokenizer for the passed file, using {@link #DEFAULT_CHUNK_SIZE}.
+     *
+     * @param file the file to tokenize
+     * @param charset the charset of the file
+     * @param settings the tokenizer settings, the same as for a sequential {@link Tokenizer}
+     * @param parallelism the maximum number of chunks tokenized concurrently, at least 1
+     * @throws IOException if the file can't be opened
+     */
+    public ParallelTokenizer(final File file, final Charset charset, final TokenizerSettings settings,
+        final int parallelism) throws IOException {
+        this(file, charset, settings, parallelism, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a new tokenizer for the passed file.
+     *
+     * @param file the file to tokenize
+     * @param charset the charset of the file
+     * @param settings the tokenizer settings, the same as for a sequential {@link Tokenizer}
+     * @param parallelism the maximum number of chunks tokenized concurrently, at least 1
+     * @param chunkSize the minimum size of a chunk in bytes, at least 1
+     * @throws IOException if the file can't be opened
+     */
+    public ParallelTokenizer(final File file, final Charset charset, final TokenizerSettings settings,
+        final int parallelism, final int chunkSize) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkSize);
+        }
+        m_channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        m_size = m_channel.size();
+        m_charset = charset;
+        m_firstSettings = new TokenizerSettings(settings);
+        m_chunkSettings = new TokenizerSettings(settings);
+        m_chunkSettings.setSkipFirstLines(0);
+        m_chunkSize = chunkSize;
+        m_parallelism = parallelism;
+        m_chunkStartChars = isSplittable(settings, charset) ? getChunkStartChars(settings) : null;
+        if (m_chunkStartChars == null) {
+            m_sequential = new Tokenizer(new InputStreamReader(Channels.newInputStream(m_channel), charset), true);
+            m_sequential.setSettings(m_firstSettings);
+            m_pool = null;
+        } else {
+            m_sequential = null;
+            m_pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(parallelism);
+        }
+        m_nextStart = 0;
+    }
+
+    private static boolean isSplittable(final TokenizerSettings settings, final Charset charset) {
+        final String name = charset.name();
+        if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII)
+            && !name.startsWith("ISO-8859-") && !name.startsWith("windows-125")) {
+            return false;
+        }
+        boolean lfDelimiter = false;
+        for (Delimiter delim : settings.getAllDelimiters()) {
+            if (delim.getDelimiter().equals("\n")) {
+                lfDelimiter = true;
+            } else if (delim.getDelimiter().indexOf('\n') >= 0) {
+                // a new line could be part of a different delimiter
+                return false;
+            }
+        }
+        return lfDelimiter;
+    }
+
+    /* Chunks must not start with a char that could be combined with the preceding new line (delimiters,
+     * comments, white spaces). Non ASCII chars are excluded as they could be encoded with multiple bytes. */
+    private static boolean[] getChunkStartChars(final TokenizerSettings settings) {
+        final boolean[] result = new boolean[128];
+        Arrays.fill(result, true);
+        result['\n'] = false;
+        result['\r'] = false;
+        for (Delimiter delim : settings.getAllDelimiters()) {
+            exclude(result, delim.getFirstChar());
+        }
+        for (Comment comment : settings.getAllComments()) {
+            exclude(result, comment.getFirstCharOfBegin());
+        }
+        for (String ws : settings.getAllWhiteSpaces()) {
+            exclude(result, ws.charAt(0));
+        }
+        return result;
+    }
+
+    private static void exclude(final boolean[] chars, final char c) {
+        if (c < chars.length) {
+            chars[c] = false;
+        }
+    }
+
+    /**
+     * Reads the next token, see {@link Tokenizer#nextToken()}.
+     *
+     * @return the next token or <code>null</code> at the end of the file
+     * @throws TokenizerException if something goes wrong during tokenizing, also if the file can't be read
+     */
+    public String nextToken() throws TokenizerException {
+        if (m_sequential != null) {
+            return m_sequential.nextToken();
+        }
+        if (m_pushedBack) {
+            m_pushedBack = false;
+            return m_lastToken;
+        }
+        while (m_current == null || m_currentIdx >= m_current.size()) {
+            if (m_current != null && m_current.m_error != null) {
+                final TokenizerException error = m_current.m_error;
+                m_current.m_error = null;
+                m_lastToken = null;
+                m_lastFlags = 0;
+                throw error;
+            }
+            if (!nextChunk()) {
+                m_lastToken = null;
+                m_lastFlags = 0;
+                return null;
+            }
+        }
+        m_lastToken = m_current.m_tokens.get(m_currentIdx);
+        m_lastFlags = m_current.m_flags[m_currentIdx];
+        m_currentIdx++;
+        return m_lastToken;
+    }
+
+    /**
+     * Pushes back the last token, see {@link Tokenizer#pushBack()}.
+     */
+    public void pushBack() {
+        if (m_sequential != null) {
+            m_sequential.pushBack();
+        } else {
+            m_pushedBack = true;
+        }
+    }
+
+    /**
+     * @return true if the last token was quoted, see {@link Tokenizer#lastTokenWasQuoted()}
+     */
+    public boolean lastTokenWasQuoted() {
+        return m_sequential != null ? m_sequential.lastTokenWasQuoted() : (m_lastFlags & FLAG_QUOTED) != 0;
+    }
+
+    /**
+     * @return true if the last token was a delimiter, see {@link Tokenizer#lastTokenWasDelimiter()}
+     */
+    public boolean lastTokenWasDelimiter() {
+        return m_sequential != null ? m_sequential.lastTokenWasDelimiter() : (m_lastFlags & FLAG_DELIMITER) != 0;
+    }
+
+    /**
+     * @return true if the last token was terminated by a swallowed delimiter, see
+     *         {@link Tokenizer#lastTokenWasDelimited()}
+     */
+    public boolean lastTokenWasDelimited() {
+        return m_sequential != null ? m_sequential.lastTokenWasDelimited() : (m_lastFlags & FLAG_DELIMITED) != 0;
+    }
+
+    /**
+     * Stops the tokenization of the pending chunks and closes the file.
+     */
+    @Override
+    public void close() {
+        for (PendingChunk chunk : m_pending) {
+            // don't interrupt: an interrupted read closes the channel
+            chunk.m_future.cancel(false);
+        }
+        m_pending.clear();
+        m_current = null;
+        try {
+            m_channel.close();
+        } catch (IOException ioe) {
+            // empty.
+        }
+    }
+
+    /* Makes the next verified chunk the current one. Returns false at the end of the file. */
+    private boolean nextChunk() {
+        fillPending();
+        final PendingChunk chunk = m_pending.poll();
+        if (chunk == null) {
+            return false;
+        }
+        TokenChunk result = await(chunk.m_future);
+        long end = chunk.m_end;
+        while (result.m_endedInsideToken && end < m_size) {
+            // the next chunk doesn't start at a record boundary: its result is void,
+            // tokenize it again together with this chunk
+            fillPending();
+            final PendingChunk next = m_pending.poll();
+            next.m_future.cancel(false);
+            end = next.m_end;
+            result = tokenize(chunk.m_start, end);
+        }
+        m_current = result;
+        m_currentIdx = 0;
+        return true;
+    }
+
+    /* Schedules chunks until as many as the parallelism allows are pending. */
+    private void fillPending() {
+        while (m_pending.size() < m_parallelism && m_nextStart < m_size) {
+            final long start = m_nextStart;
+            long minEnd = start + m_chunkSize;
+            if (start == 0) {
+                // the lines to skip must all be in the first chunk
+                minEnd = Math.max(minEnd, findSkippedLinesEnd());
+            }
+            final long end = findChunkBoundary(minEnd);
+            m_pending.add(new PendingChunk(start, end, m_pool.enqueue(() -> tokenize(start, end))));
+            m_nextStart = end;
+        }
+    }
+
+    /* Returns the offset right after the lines to skip. */
+    private long findSkippedLinesEnd() {
+        long linesToSkip = m_firstSettings.getSkipFirstLines();
+        long pos = 0;
+        final byte[] block = new byte[SCAN_BLOCK_LENGTH];
+        while (linesToSkip > 0 && pos < m_size) {
+            final int length = read(pos, block, block.length);
+            for (int i = 0; i < length; i++) {
+                if (block[i] == '\n' && --linesToSkip == 0) {
+                    return pos + i + 1;
+                }
+            }
+            pos += length;
+        }
+        return pos;
+    }
+
+    /* Returns the first offset at or after pos that follows a new line and is a valid chunk start, or the
+     * size of the file if there is none. */
+    private long findChunkBoundary(final long pos) {
+        if (pos >= m_size) {
+            return m_size;
+        }
+        // new line at pos - 1 and the char at pos qualify, too
+        long blockStart = pos - 1;
+        final byte[] block = new byte[SCAN_BLOCK_LENGTH];
+        while (blockStart < m_size - 1) {
+            final int length = read(blockStart, block, block.length);
+            for (int i = 0; i < length - 1; i++) {
+                final int next = block[i + 1];
+                if (block[i] == '\n' && next >= 0 && m_chunkStartChars[next]) {
+                    return blockStart + i + 1;
+                }
+            }
+            // the last byte of the block is examined again with its successor
+            blockStart += Math.max(1, length - 1);
+        }
+        return m_size;
+    }
+
+    /* Reads bytes from the file into the array, returns the number of bytes read. */
+    private int read(final long pos, final byte[] dest, final int maxLength) {
+        final ByteBuffer buffer = ByteBuffer.wrap(dest, 0, (int)Math.min(maxLength, m_size - pos));
+        try {
+            while (buffer.hasRemaining()) {
+                if (m_channel.read(buffer, pos + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException ioe) {
+            throw new TokenizerException("Unable to read file: " + ioe.getMessage());
+        }
+        return buffer.position();
+    }
+
+    /* Tokenizes the specified range of the file, never throws a TokenizerException but stores it in the result */
+    private TokenChunk tokenize(final long start, final long end) {
+        final TokenChunk result = new TokenChunk();
+        try {
+            if (end - start > Integer.MAX_VALUE - 8) {
+                throw new TokenizerException("Token starting at byte " + start + " is too long.");
+            }
+            final byte[] bytes = new byte[(int)(end - start)];
+            final int length = read(start, bytes, bytes.length);
+            final Tokenizer tokenizer = new Tokenizer(
+                new InputStreamReader(new ByteArrayInputStream(bytes, 0, length), m_charset), true);
+            tokenizer.setSettings(start == 0 ? m_firstSettings : m_chunkSettings);
+            String token;
+            while ((token = tokenizer.nextToken()) != null) {
+                int flags = 0;
+                if (tokenizer.lastTokenWasQuoted()) {
+                    flags |= FLAG_QUOTED;
+                }
+                if (tokenizer.lastTokenWasDelimiter()) {
+                    flags |= FLAG_DELIMITER;
+                }
+                if (tokenizer.lastTokenWasDelimited()) {
+                    flags |= FLAG_DELIMITED;
+                }
+                result.add(token, flags);
+            }
+            result.m_endedInsideToken = tokenizer.endedInsideToken();
+        } catch (TokenizerException te) {
+            result.m_error = te;
+        }
+        return result;
+    }
+
+    /* Waits for the chunk; if the calling thread is taken from a KNIME thread pool it doesn't count as running
+     * meanwhile, otherwise the chunks may never get a thread. */
+    private static TokenChunk await(final Future<TokenChunk> future) {
+        try {
+            final ThreadPool currentPool = ThreadPool.currentPool();
+            return currentPool != null ? currentPool.runInvisible(future::get) : future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new TokenizerException("Interrupted while waiting for tokenizer thread.");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof InterruptedException) {
+                // thrown by future.get() inside runInvisible
+                Thread.currentThread().interrupt();
+                throw new TokenizerException("Interrupted while waiting for tokenizer thread.");
+            } else if (cause instanceof ExecutionException) {
+                cause = cause.getCause();
+            }
+            throw new TokenizerException("Tokenizer thread failed: " + cause.getMessage());
+        }
+    }
+
+    /** A scheduled byte range of the file. */
+    private static final class PendingChunk {
+
+        private final long m_start;
+
+        private final long m_end;
+
+        private final Future<TokenChunk> m_future;
+
+        PendingChunk(final long start, final long end, final Future<TokenChunk> future) {
+            m_start = start;
+            m_end = end;
+            m_future = future;
+        }
+    }
+
+    /** The tokens of a byte range along with their flags. */
+    private static final class TokenChunk {
+
+        private final ArrayList<String> m_tokens = new ArrayList<>();
+
+        private byte[] m_flags = new byte[256];
+
+        /* true if the range ended inside a quoted string, a comment or a line continuation */
+        private boolean m_endedInsideToken;
+
+        /* the error that stopped the tokenization, thrown after all tokens read before */
+        private TokenizerException m_error;
+
+        void add(final String token, final int flags) {
+            final int size = m_tokens.size();
+            if (size == m_flags.length) {
+                m_flags = Arrays.copyOf(m_flags, 2 * size);
+            }
+            m_flags[size] = (byte)flags;
+            m_tokens.add(token);
+        }
+
+        int size() {
+            return m_tokens.size();
+        }
+    }
+}
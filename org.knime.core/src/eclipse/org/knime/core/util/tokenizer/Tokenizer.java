@@ -76,6 +76,11 @@
  * inside a token or quoted string.
  * <p>
  * You can push back one (the last) token.
+ * <p>
+ * For high throughput the tokenizer can read the source in blocks (see
+ * {@link #Tokenizer(Reader, boolean)}) and tokens can be retrieved as
+ * {@link CharSequence} without creating a string for each of them (see
+ * {@link #nextTokenChars()}).
  *
  * @author Peter Ohl, University of Konstanz
  */
@@ -84,6 +89,18 @@ public class Tokenizer {
     /* the source we read from */
     private final Reader m_source;
 
+    /* block of characters read ahead from the source, null if chars are read one at a time */
+    private final char[] m_sourceBuffer;
+
+    /* the index of the next char in the source buffer */
+    private int m_sourcePos;
+
+    /* the number of valid chars in the source buffer */
+    private int m_sourceLen;
+
+    /* the size of the blocks read from the source in read-ahead mode */
+    private static final int SOURCE_BUFFER_LENGTH = 8192;
+
     /* the column delimiters we handle */
     private final Vector<Delimiter> m_delimPatterns;
 
@@ -165,11 +182,14 @@ public class Tokenizer {
     private int m_eobIdx;
 
     /* we build the token in here */
-    private StringBuffer m_newToken;
+    private final StringBuilder m_newToken;
 
-    /* the token returned by the last call to next() */
+    /* the token returned by the last call to next(), created lazily if the token was read into m_newToken */
     private String m_lastToken;
 
+    /* the token returned by the last call to nextTokenChars(), either m_lastToken or m_newToken */
+    private CharSequence m_lastTokenChars;
+
     /* flag to remember which quotes we've seen with the last token */
     private Quote m_lastQuotes;
 
@@ -206,6 +226,9 @@ public class Tokenizer {
     /* helps to detect a delimiter if it is not returned but swallowed by the tokenizer */
     private boolean m_lastTokenWasDelimited = false;
 
+    /* set if EOF was read inside a quoted string, a comment or after a line continuation */
+    private boolean m_eofInsideToken = false;
+
     /**
      * Creates a new tokenizer with the default behaviour.
      *
@@ -214,8 +237,28 @@ public class Tokenizer {
      * @see #resetToDefault() for what's the default behaviour.
      */
     public Tokenizer(final Reader source) {
+        this(source, false);
+    }
+
+    /**
+     * Creates a new tokenizer with the default behaviour, optionally reading
+     * the source in blocks. Reading ahead avoids the per character overhead of
+     * the reader but the source must not be read by anyone else while
+     * the tokenizer is in use, as it may have consumed characters not yet
+     * returned in a token.
+     *
+     * @param source A reader the tokens are read from.
+     * @param readAhead if <code>true</code> the source is read in blocks
+     *
+     * @see #resetToDefault() for what's the default behaviour.
+     * @since 3.8
+     */
+    public Tokenizer(final Reader source, final boolean readAhead) {
 
         m_source = source;
+        m_sourceBuffer = readAhead ? new char[SOURCE_BUFFER_LENGTH] : null;
+        m_sourcePos = 0;
+        m_sourceLen = 0;
         m_readBuffer = new int[BUFFER_LENGTH];
         m_currIdx = 0;
         m_eobIdx = 0;
@@ -235,8 +278,9 @@ public Tokenizer(final Reader source) {
         m_linesSkipped = 0;
         m_allowLFinQuotes = false;
 
-        m_newToken = new StringBuffer();
+        m_newToken = new StringBuilder();
         m_lastToken = null;
+        m_lastTokenChars = null;
         m_pushedBack = false;
         m_lastQuotes = null;
         m_lastDelimiter = null;
@@ -301,19 +345,40 @@ public boolean lastTokenWasDelimited() {
      * @throws TokenizerException if something goes wrong during tokenizing.
      */
     public String nextToken() throws TokenizerException {
+        final CharSequence token = nextTokenChars();
+        if ((token != null) && (m_lastToken == null)) {
+            m_lastToken = token.toString();
+            m_lastTokenChars = m_lastToken;
+        }
+        return m_lastToken;
+    }
+
+    /**
+     * Reads the next token from the stream like {@link #nextToken()} but
+     * doesn't necessarily create a string for it. The returned character
+     * sequence is only valid until the next call of this method or
+     * {@link #nextToken()}; callers that need to keep the token must create a
+     * string from it.
+     *
+     * @return The next token from the stream or null at the EOF.
+     * @throws TokenizerException if something goes wrong during tokenizing.
+     * @since 3.8
+     */
+    public CharSequence nextTokenChars() throws TokenizerException {
 
         m_settingsLocked = true;
 
         if (m_pushedBack) {
             // if the last token got pushed back just return it again.
             m_pushedBack = false;
-            return m_lastToken;
+            return m_lastTokenChars;
         }
         if (m_lastDelimiter != null) {
             // if the last delmiter we read must be returned as token, we do so.
             String tmp = m_lastDelimiter;
             m_lastDelimiter = null;
             m_lastToken = tmp;
+            m_lastTokenChars = tmp;
             m_tokenWasDelimiter = true;
             m_lastTokenWasDelimited = false; // a delimiter is not delimited
             m_lastQuotes = null; // delimiters are not quoted
@@ -331,6 +396,7 @@ public String nextToken() throws TokenizerException {
             }
         }
         m_lastToken = null;
+        m_lastTokenChars = null;
         m_newToken.setLength(0);
         m_lastQuotes = null;
         m_tokenWasDelimiter = false;
@@ -355,6 +421,9 @@ public String nextToken() throws TokenizerException {
                 c = getNextChar();
                 if (c == LF) {
                     c = getNextChar();
+                    if (c == EOF) {
+                        m_eofInsideToken = true;
+                    }
                     continue;
                 } else {
                     putBackChar(c);
@@ -464,12 +533,12 @@ public String nextToken() throws TokenizerException {
             cutOffWhiteSpaces(m_newToken, lastEndQuoteIdx);
         }
         if ((c == EOF) && (m_newToken.length() == 0)) {
-            m_lastToken = null;
+            m_lastTokenChars = null;
         } else {
-            m_lastToken = m_newToken.toString();
+            m_lastTokenChars = m_newToken;
         }
-        return m_lastToken;
-    } // nextToken()
+        return m_lastTokenChars;
+    } // nextTokenChars()
 
     /*
      * Reads the next character either from the readBuffer or the stream. <p> A
@@ -484,7 +553,7 @@ private int getNextChar() {
             // m_currIdx points to the last char read from the buffer
             if (m_eobIdx == m_currIdx) {
                 // we need to read a new character from the stream
-                if ((m_readBuffer[m_currIdx] = m_source.read()) == -1) {
+                if ((m_readBuffer[m_currIdx] = readSource()) == -1) {
                     // seen the EOF. Any further read will cause IOException.
                     m_source.close();
                 }
@@ -492,7 +561,7 @@ private int getNextChar() {
                 if (m_readBuffer[m_currIdx] == CR) {
                     // read the next char to see if we need to swallow the CR
                     m_eobIdx = (m_eobIdx + 1) % BUFFER_LENGTH;
-                    if ((m_readBuffer[m_eobIdx] = m_source.read()) == LF) {
+                    if ((m_readBuffer[m_eobIdx] = readSource()) == LF) {
                         m_currIdx = m_eobIdx;
                         // incr currIdx as well, which makes them equal again...
                     }
@@ -511,6 +580,25 @@ private int getNextChar() {
         }
     }
 
+    /*
+     * Reads the next character from the source - or from the block read ahead
+     * from the source, if reading ahead is enabled.
+     */
+    private int readSource() throws IOException {
+        if (m_sourceBuffer == null) {
+            return m_source.read();
+        }
+        if (m_sourcePos >= m_sourceLen) {
+            m_sourcePos = 0;
+            m_sourceLen = m_source.read(m_sourceBuffer, 0, m_sourceBuffer.length);
+            if (m_sourceLen < 0) {
+                m_sourceLen = 0;
+                return -1;
+            }
+        }
+        return m_sourceBuffer[m_sourcePos++];
+    }
+
     /*
      * Stores the character in c in the read buffer. The next call to <code>
      * getNextChar() </code> will return it then. Can be called several times -
@@ -585,7 +673,7 @@ public boolean isWhiteSpace(final char c) {
      * @param str the stringbuffer to modify
      * @param index the lowest index we may modify
      */
-    private void cutOffWhiteSpaces(final StringBuffer str, final int index) {
+    private void cutOffWhiteSpaces(final StringBuilder str, final int index) {
 
         if (str.length() == 0) {
             return;
@@ -681,7 +769,7 @@ private int matchPattern(final String[] patterns) {
         int possibleMatches = patterns.length;
         int charPos;
         int nextChar;
-        StringBuffer buffer = new StringBuffer();
+        StringBuilder buffer = new StringBuilder();
         int result;
         /*
          * Here is what we do: We read one char after each other. With each new
@@ -744,7 +832,7 @@ private int matchPattern(final String[] patterns) {
      * comment begin pattern. Otherwise an assertion will go off. <br>
      */
     private String readComment(final Comment comment) {
-        StringBuffer result = new StringBuffer();
+        StringBuilder result = new StringBuilder();
         String endPattern = comment.getEnd();
         int nextChar;
         int patternLength;
@@ -774,6 +862,7 @@ private String readComment(final Comment comment) {
         while (!endPatternRead) {
             nextChar = getNextChar();
             if (nextChar == EOF) {
+                m_eofInsideToken = true;
                 break;
             }
             result.append((char)nextChar);
@@ -837,7 +926,7 @@ private String readDelimiter(final Delimiter delim) {
             // if we are not supposed to combine different delims - we still
             // need to check if we should combine delims of this kind
             if (delim.combineConsecutiveDelims()) {
-                StringBuffer buffer = new StringBuffer();
+                StringBuilder buffer = new StringBuilder();
                 int index = 0;
                 while ((nextChar = getNextChar()) != EOF) {
 
@@ -970,6 +1059,7 @@ private String readQuotedString(final Quote quote)
         while (result.indexOf(endPattern, searchIdx) == -1) {
             nextChar = getNextChar();
             if (nextChar == EOF) {
+                m_eofInsideToken = true;
                 break;
             }
             if ((nextChar <= MAX_CHAR)
@@ -1106,6 +1196,15 @@ public String getLastQuoteEndPattern() {
         }
     }
 
+    /**
+     * @return true if the end of the stream was read inside a quoted string or
+     *         a comment, or right after a line continuation, i.e. if the
+     *         stream ended in the middle of a token.
+     */
+    boolean endedInsideToken() {
+        return m_eofInsideToken;
+    }
+
     /**
      * @return The current line number in the stream.
      */
@@ -1132,8 +1231,10 @@ public long getReadBytes() {
      * <code>null</code> (indicating the end of the file).
      */
     public void closeSourceStream() {
-        // discard any characters pushed back.
+        // discard any characters pushed back or read ahead.
         clearReadBuffer();
+        m_sourcePos = 0;
+        m_sourceLen = 0;
         try {
             m_source.close();
         } catch (IOException ioe) {